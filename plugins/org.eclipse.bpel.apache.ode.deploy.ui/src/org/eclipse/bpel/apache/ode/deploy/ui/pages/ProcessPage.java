@@ -42,6 +42,7 @@ import org.eclipse.bpel.model.PartnerLink;
 import org.eclipse.bpel.model.PartnerLinks;
 import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.Scope;
+import org.eclipse.bpel.model.resource.SharedResourceCache;
 import org.eclipse.bpel.ui.BPELUIPlugin;
 import org.eclipse.bpel.ui.IBPELUIConstants;
 import org.eclipse.bpel.ui.util.BPELUtil;
@@ -167,6 +168,8 @@ public class ProcessPage extends FormPage implements IResourceChangeListener {
 		this.domain = this.editor.getEditingDomain();
 		// Bugzilla 324164
 		resourceSet = new DeployResourceSetImpl();
+		// the WSDLs are likely open in the BPEL editors already
+		resourceSet.setSharedCache(SharedResourceCache.getDefault());
 		Process process = processType.getModel();
 		for (Import imp : process.getImports()) {
 			try {
@@ -894,6 +897,7 @@ public class ProcessPage extends FormPage implements IResourceChangeListener {
 	@Override
 	public void dispose() {
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		resourceSet.setSharedCache(null);
 		super.dispose();
 	}
 
@@ -24,6 +24,7 @@ import org.eclipse.bpel.apache.ode.deploy.model.dd.ProcessType;
 import org.eclipse.bpel.apache.ode.deploy.model.dd.TDeployment;
 import org.eclipse.bpel.apache.ode.deploy.model.dd.ddFactory;
 import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.model.resource.BPELResourceSetImpl;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -196,7 +197,10 @@ public class DeployUtils {
 		
 		// Bugzilla 324164
 		// Add WSDLs that were resolved as imports, to the list
-		for (Resource res : resourceSet.getResources())
+		// (including the ones borrowed from the shared cache)
+		List<Resource> resources = resourceSet instanceof BPELResourceSetImpl ?
+				((BPELResourceSetImpl)resourceSet).getAllResources() : resourceSet.getResources();
+		for (Resource res : resources)
 		{
 			// fix a dumb mistake: XSDs don't have Definitions
 			// and will cause this to throw a class cast exception
@@ -11,9 +11,13 @@
 package org.eclipse.bpel.common.extension.model.impl;
 
 import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -34,6 +38,7 @@ import org.eclipse.bpel.common.extension.model.util.ExtensionmodelAdapterFactory
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
@@ -99,6 +104,14 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 	 */
 	private ExtendedObjectUserAdapter userAdapter = null;
 
+	/**
+	 * The extensions indexed by their extended and their extension objects; built
+	 * on first use, and then kept in step with the extensions list and with the
+	 * extensions themselves.  This attribute is not modeled.
+	 * @customized
+	 */
+	private ExtensionIndex index = null;
+
 	/**
 	 * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
@@ -141,12 +154,38 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 
 	/**
 	 * <!-- begin-user-doc -->
+	 * The list tells the index about the extensions added and removed.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public EList<Extension> getExtensions() {
 		if (extensions == null) {
-			extensions = new EObjectContainmentEList<Extension>(Extension.class, this, ExtensionmodelPackage.EXTENSION_MAP__EXTENSIONS);
+			extensions = new EObjectContainmentEList<Extension>(Extension.class, this, ExtensionmodelPackage.EXTENSION_MAP__EXTENSIONS) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void didAdd(int position, Extension newObject) {
+					super.didAdd(position, newObject);
+					if (index != null)
+						index.add(newObject);
+				}
+
+				@Override
+				protected void didRemove(int position, Extension oldObject) {
+					super.didRemove(position, oldObject);
+					if (index != null)
+						index.remove(oldObject);
+				}
+
+				@Override
+				protected void didSet(int position, Extension newObject, Extension oldObject) {
+					super.didSet(position, newObject, oldObject);
+					if (index != null) {
+						index.remove(oldObject);
+						index.add(newObject);
+					}
+				}
+			};
 		}
 		return extensions;
 	}
@@ -157,7 +196,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 	 * @customized
 	 */
 	public void initializeAdapter() {
-		ExtensionmodelAdapterFactory factory = new ExtensionmodelAdapterFactory();
+		ExtensionmodelAdapterFactory factory = ExtensionmodelAdapterFactory.getSharedInstance();
 		if (userAdapter == null)
 			userAdapter = (ExtendedObjectUserAdapter)factory.createEObjectAdapter();
 		
@@ -309,12 +348,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 		 */
 		@Override
 		public int size() {
-			int n=0;
-			for (Iterator<?> i=iterator(); i.hasNext(); ) {
-				i.next();
-				n++;
-			}
-			return n;
+			return getExtensions().size();
 		}
 	}
 
@@ -349,12 +383,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 		 */
 		@Override
 		public int size() {
-			int n=0;
-			for (Iterator<?> i=iterator(); i.hasNext(); ) {
-				i.next();
-				n++;
-			}
-			return n;
+			return getExtensions().size();
 		}
 	}
 	
@@ -391,12 +420,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 		 */
 		@Override
 		public int size() {
-			int n=0;
-			for (Iterator<?> i=iterator(); i.hasNext(); ) {
-				i.next();
-				n++;
-			}
-			return n;
+			return getExtensions().size();
 		}
 	}
 	
@@ -552,12 +576,8 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 	 */
 	public boolean containsKey(Object extendedObject) {
 		
-		if ( extendedObject != null ) {
-			for (Extension extension : getExtensions()) {
-				if(extension.getExtendedObject().equals(extendedObject)){
-					return true;					
-				}
-			}
+		if (extendedObject instanceof EObject) {
+			return index().lookup((EObject)extendedObject) != null;
 		}
 		return false;
 	}
@@ -568,11 +588,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 	public boolean containsValue (Object extensionObject) {
 		
 		if (extensionObject != null) {
-			for (Extension extension : getExtensions()) {
-				if (extension.getExtensionObject().equals(extensionObject)){
-					return true;					
-				}
-			}
+			return index().extensionObjects.containsKey(extensionObject);
 		}
 		return false;
 	}
@@ -616,7 +632,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 			extension.setExtendedObject(extendedObject);
 			extension.setExtensionObject(extensionObject);
 						
-			ExtensionmodelAdapterFactory adapterFactory = new ExtensionmodelAdapterFactory();
+			ExtensionmodelAdapterFactory adapterFactory = ExtensionmodelAdapterFactory.getSharedInstance();
 			
 			ExtendedObjectAdapter extAdptr = (ExtendedObjectAdapter) adapterFactory.createExtendedObjectAdapter();
 			
@@ -650,7 +666,7 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 			return null;
 		}
 		Extension extensionObject = getExtensionObject((EObject)extendedObject);
-		if(getExtensions().contains(extensionObject)){
+		if(extensionObject != null && extensionObject.eContainer() == this){
 			Object oldExtension = extensionObject.getExtensionObject();
 			getExtensions().remove(extensionObject);
 			if (eNotificationRequired())
@@ -754,43 +770,33 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 			}
 					
 			// Was the extension found though the adapter?  Not if it's null.
-			// There is no adapter associated with this bject so we must search the
-			// Extension list.  Once the Extension is found, associate an adapter with this
+			// There is no adapter associated with this object so we must look it up
+			// in the index.  Once the Extension is found, associate an adapter with this
 			// object to improve performance in future queries.
 			if( extension == null){
-									
-				EList<Extension> extensions = getExtensions();
-				int len = extensions.size();
-				for (int i = 0; i < len; ++i) {
-					Extension ext = extensions.get(i);
-					EObject extObject = ext.getExtendedObject();
-					if (extObject != null) {
-						if (ext.getExtendedObject().equals(extendedObject)) {
-						extension = ext;
-						
-						ExtensionmodelAdapterFactory adapterFactory = new ExtensionmodelAdapterFactory();
 				
-							ExtendedObjectAdapter extAdptr = (ExtendedObjectAdapter) adapterFactory
-									.createExtendedObjectAdapter();
+				extension = index().lookup(extendedObject);
 				
-						extAdptr.setExtension(extension);
-						extAdptr.setNamespace(getNamespace());
-						
-						ExtensionmodelFactory.eINSTANCE.adaptEObject(extendedObject,extAdptr);
-						
-						adapterFactory.adapt(extension,ExtensionAdapterImpl.class);
-						
-						break;
-						} else if (extObject.eIsProxy()) {
-							// Bugzilla 330513
-							// this thing has not been resolved - the extension
-							// model is out of sync with the BPEL model so remove
-							// this extension from the model
-							extensions.remove(i--);
-							--len;
-						}
+				if (extension != null) {
+					ExtensionmodelAdapterFactory adapterFactory = ExtensionmodelAdapterFactory.getSharedInstance();
+					
+					ExtendedObjectAdapter extAdptr = (ExtendedObjectAdapter) adapterFactory
+							.createExtendedObjectAdapter();
+					
+					extAdptr.setExtension(extension);
+					extAdptr.setNamespace(getNamespace());
+					
+					ExtensionmodelFactory.eINSTANCE.adaptEObject(extendedObject,extAdptr);
+					
+					adapterFactory.adapt(extension,ExtensionAdapterImpl.class);
+				} else {
+					// Bugzilla 330513
+					// the extended objects which have not been resolved - the extension
+					// model is out of sync with the BPEL model so remove
+					// these extensions from the model
+					for (Extension ext : index.getUnresolved()) {
+						getExtensions().remove(ext);
 					}
-					 
 				}
 			}
 		}
@@ -868,6 +874,167 @@ public class ExtensionMapImpl extends EObjectImpl implements ExtensionMap  {
 		return map;
 	 }
 
+	 /**
+	  * @return the index of the extensions, built if need be.
+	  * @customized
+	  */
+	 private ExtensionIndex index() {
+		if (index == null || index.valid == false) {
+			if (index != null)
+				index.dispose();
+			index = new ExtensionIndex();
+			for (Extension extension : getExtensions()) {
+				index.add(extension);
+			}
+		}
+		return index;
+	 }
+
+	 /**
+	  * The extensions of the map, by extended object and by extension object.
+	  * <p>
+	  * The list of extensions tells the index about the extensions added and
+	  * removed; the index is an adapter of each extension, and indexes an
+	  * extension again when its extended or its extension object changes.
+	  * Extended objects are compared by identity.
+	  * @customized
+	  */
+	 private class ExtensionIndex extends AdapterImpl {
+
+		/** extended object -> its extension */
+		final Map<EObject,Extension> extendedObjects = new IdentityHashMap<EObject,Extension>();
+
+		/** extension object -> the number of extensions which have it */
+		final Map<Object,int[]> extensionObjects = new IdentityHashMap<Object,int[]>();
+
+		/** extension -> the extended and the extension object it is indexed by */
+		final Map<Extension,EObject[]> entries = new IdentityHashMap<Extension,EObject[]>();
+
+		/** extensions whose extended object is a proxy which has not been resolved */
+		final Set<Extension> unresolved = new LinkedHashSet<Extension>();
+
+		/** the number of extensions whose extended object is extended by an earlier extension too */
+		int duplicates = 0;
+
+		/** false once the index needs to be built again */
+		boolean valid = true;
+
+		void add(Extension extension) {
+			if (extension == null || entries.containsKey(extension))
+				return;
+			extension.eAdapters().add(this);
+			put(extension);
+		}
+
+		void remove(Extension extension) {
+			if (extension == null)
+				return;
+			extension.eAdapters().remove(this);
+			unput(extension);
+		}
+
+		private void put(Extension extension) {
+			EObject extendedObject = extension.getExtendedObject();
+			EObject extensionObject = extension.getExtensionObject();
+			entries.put(extension, new EObject[] { extendedObject, extensionObject });
+
+			if (extendedObject != null) {
+				if (extendedObject.eIsProxy()) {
+					unresolved.add(extension);
+				} else if (extendedObjects.containsKey(extendedObject)) {
+					// the same object extended twice: the first extension wins
+					duplicates += 1;
+				} else {
+					extendedObjects.put(extendedObject, extension);
+				}
+			}
+			if (extensionObject != null) {
+				int[] count = extensionObjects.get(extensionObject);
+				if (count == null)
+					extensionObjects.put(extensionObject, new int[] { 1 });
+				else
+					count[0] += 1;
+			}
+		}
+
+		private void unput(Extension extension) {
+			EObject[] entry = entries.remove(extension);
+			if (entry == null)
+				return;
+			if (unresolved.remove(extension) == false && entry[0] != null) {
+				if (extendedObjects.get(entry[0]) == extension) {
+					extendedObjects.remove(entry[0]);
+					// another extension of the same object may take over
+					if (duplicates > 0)
+						valid = false;
+				} else {
+					duplicates -= 1;
+				}
+			}
+			if (entry[1] != null) {
+				int[] count = extensionObjects.get(entry[1]);
+				if (count != null && --count[0] == 0)
+					extensionObjects.remove(entry[1]);
+			}
+		}
+
+		/**
+		 * @return the extension of the object, resolving the proxies not resolved so far if need be.
+		 */
+		Extension lookup(EObject extendedObject) {
+			Extension extension = extendedObjects.get(extendedObject);
+			if (extension == null && unresolved.isEmpty() == false) {
+				// resolving the proxy indexes the extension again, see notifyChanged
+				for (Extension ext : new ArrayList<Extension>(unresolved)) {
+					ext.getExtendedObject();
+				}
+				extension = extendedObjects.get(extendedObject);
+			}
+			return valid ? extension : index().lookup(extendedObject);
+		}
+
+		/**
+		 * @return the extensions whose extended object is still an unresolved proxy.
+		 */
+		List<Extension> getUnresolved() {
+			return new ArrayList<Extension>(unresolved);
+		}
+
+		void dispose() {
+			for (Extension extension : new ArrayList<Extension>(entries.keySet())) {
+				extension.eAdapters().remove(this);
+			}
+			entries.clear();
+			extendedObjects.clear();
+			extensionObjects.clear();
+			unresolved.clear();
+			valid = false;
+		}
+
+		/**
+		 * The extended or the extension object of an extension has changed (or
+		 * been resolved); index the extension again, as it is now.
+		 */
+		@Override
+		public void notifyChanged(Notification notification) {
+			// not a touch check: resolving a proxy is a touch
+			Object feature = notification.getFeature();
+			if (feature != ExtensionmodelPackage.eINSTANCE.getExtension_ExtendedObject() &&
+				feature != ExtensionmodelPackage.eINSTANCE.getExtension_ExtensionObject())
+				return;
+			Extension extension = (Extension) notification.getNotifier();
+			if (entries.containsKey(extension)) {
+				unput(extension);
+				put(extension);
+			}
+		}
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == ExtensionIndex.class;
+		}
+	 }
+
 	
 
 	
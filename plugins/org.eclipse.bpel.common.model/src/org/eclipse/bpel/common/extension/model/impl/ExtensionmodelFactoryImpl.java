@@ -123,7 +123,7 @@ public class ExtensionmodelFactoryImpl extends EFactoryImpl implements Extension
 	  }
 		
 	  if(extensionSet != null){
-		  ExtensionmodelAdapterFactory adapterFactory = new ExtensionmodelAdapterFactory();
+		  ExtensionmodelAdapterFactory adapterFactory = ExtensionmodelAdapterFactory.getSharedInstance();
 		  adapterFactory.adapt(extensionSet,ExtensionMapAdapterImpl.class);
 	  }
 		
@@ -137,7 +137,7 @@ public class ExtensionmodelFactoryImpl extends EFactoryImpl implements Extension
 	public ExtensionMap createExtensionMap() {
 		
 		ExtensionMap extensionMap = createExtensionMapGen();
-		ExtensionmodelAdapterFactory adapterFactory = new ExtensionmodelAdapterFactory();
+		ExtensionmodelAdapterFactory adapterFactory = ExtensionmodelAdapterFactory.getSharedInstance();
 		adapterFactory.adapt(extensionMap,ExtensionMapAdapterImpl.class);
 	
 		return extensionMap;
@@ -193,7 +193,7 @@ public class ExtensionmodelFactoryImpl extends EFactoryImpl implements Extension
 			
 			if(element instanceof ExtensionMap && ((ExtensionMap)element).getNamespace().equals(namespace)){
 				extensionSetList.add(element);
-				ExtensionmodelAdapterFactory adapterFactory = new ExtensionmodelAdapterFactory();
+				ExtensionmodelAdapterFactory adapterFactory = ExtensionmodelAdapterFactory.getSharedInstance();
 				adapterFactory.adapt(element,ExtensionMapAdapterImpl.class);
 			}
 			
@@ -41,6 +41,25 @@ public class ExtensionmodelAdapterFactory extends AdapterFactoryImpl
 	 */
 	protected static ExtensionmodelPackage modelPackage;
 
+	/**
+	 * The factory shared by the extension maps.
+	 * @customized
+	 */
+	private static ExtensionmodelAdapterFactory sharedInstance;
+
+	/**
+	 * The factory keeps no state of its own, so the extension maps share one
+	 * rather than creating a factory for each adapter they need.
+	 * @return the shared adapter factory
+	 * @customized
+	 */
+	public static synchronized ExtensionmodelAdapterFactory getSharedInstance() {
+		if (sharedInstance == null) {
+			sharedInstance = new ExtensionmodelAdapterFactory();
+		}
+		return sharedInstance;
+	}
+
 	/**
 	 * Creates an instance of the adapter factory.
 	 * <!-- begin-user-doc -->
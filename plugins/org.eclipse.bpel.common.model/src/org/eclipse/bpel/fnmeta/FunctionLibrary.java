@@ -11,9 +11,9 @@
 package org.eclipse.bpel.fnmeta;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Function Library collects all the function registries for the given 
@@ -37,8 +37,9 @@ public class FunctionLibrary {
 	
 	/**
 	 * Index of all registries, by scripting language namespace name.
+	 * Read without locking (the validator may run on several threads).
 	 */
-	Map<String,FunctionRegistry> fRegistries = new HashMap<String,FunctionRegistry>();
+	Map<String,FunctionRegistry> fRegistries = new ConcurrentHashMap<String,FunctionRegistry>();
 	
 	/**
 	 * List of registered loaders for the function library. This way we can do late loading 
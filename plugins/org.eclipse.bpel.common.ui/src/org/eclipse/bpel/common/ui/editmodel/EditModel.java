@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.eclipse.bpel.model.resource.BPELResourceSetImpl;
+import org.eclipse.bpel.model.resource.SharedResourceCache;
 import org.eclipse.bpel.common.ui.CommonUIPlugin;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -291,6 +292,11 @@ public class EditModel {
 		referenceCount--;
 		if (referenceCount == 0) {
 			cache.remove(this);
+			// before the resources are unloaded: this detaches our models from
+			// the shared documents, which other editors may keep alive
+			if (resourceSet instanceof BPELResourceSetImpl) {
+				((BPELResourceSetImpl) resourceSet).setSharedCache(null);
+			}
 			for (ResourceInfo resourceInfo : fileToResourceInfo.values().toArray(EMPTY_RESOURCE_ARRAY) ) {
 				resourceInfo.dispose();
 			}
@@ -504,7 +510,10 @@ public class EditModel {
 		if(resourceSet != null)
 			return resourceSet;
 		// TODO: Extensibility
-		resourceSet = new BPELResourceSetImpl();
+		BPELResourceSetImpl bpelResourceSet = new BPELResourceSetImpl();
+		// the WSDLs and XSDs imported by several open processes are read once
+		bpelResourceSet.setSharedCache(SharedResourceCache.getDefault());
+		resourceSet = bpelResourceSet;
 		fileToResourceSet.put(primaryFile,resourceSet);
 		return resourceSet;	
 	}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.bpel.model.resource.BPELResourceSetImpl;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -243,10 +244,13 @@ public class ResourceInfo {
 		}
 		try {
 			loading = true;
-			resource = editModel.getResourceSet().getResource(
-					URI
-							.createPlatformResourceURI(file.getFullPath()
-									.toString()), true);
+			URI uri = URI.createPlatformResourceURI(file.getFullPath().toString());
+			// a document opened for editing is read into the edit model's own
+			// resource set, it is never borrowed from the shared cache
+			if (editModel.getResourceSet() instanceof BPELResourceSetImpl) {
+				((BPELResourceSetImpl) editModel.getResourceSet()).setPrivate(uri);
+			}
+			resource = editModel.getResourceSet().getResource(uri, true);
 		} finally {
 			loading = false;
 		}
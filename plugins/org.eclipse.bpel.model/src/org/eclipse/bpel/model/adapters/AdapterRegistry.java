@@ -13,6 +13,8 @@ package org.eclipse.bpel.model.adapters;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IAdapterFactory;
 import org.eclipse.core.runtime.IAdapterManager;
@@ -26,6 +28,15 @@ import org.eclipse.emf.ecore.EPackage;
 
 /**
  * This is the one place where EMF object adapters can be registered. 
+ * <p>
+ * The factories to try for an EClass are worked out once and cached: the
+ * factories registered for the EClass and then those registered for its
+ * EPackage. They are all tried, in that order, for every object, since a
+ * factory may adapt some objects of an EClass and not others.
+ * <p>
+ * The cache is a concurrent map, replaced whenever a factory is registered or
+ * unregistered, so that adapting an object is lock free and may be done from
+ * several threads.
  * 
  * @author Michal Chmielewski (michal.chmielewski@oracle.com)
  * @date Jul 23, 2007
@@ -48,6 +59,13 @@ public class AdapterRegistry {
 	
 	HashMap<Object,List<AdapterFactory>> fKeyToAdapterFactory ;
 	
+	/** A copy of the above, taken each time a factory is registered or unregistered */
+	volatile Map<Object,AdapterFactory[]> fFactories = new HashMap<Object,AdapterFactory[]>();
+	
+	/** EClass -> the factories to try */
+	volatile ConcurrentHashMap<EClass,AdapterFactory[]> fDispatch = 
+		new ConcurrentHashMap<EClass,AdapterFactory[]>();
+	
 	/** The current adapter manager */
 	IAdapterManager fAdapterManager;
 	
@@ -127,6 +145,7 @@ public class AdapterRegistry {
 				list.add (factory);
 			}
 		}
+		publish();
 	}
 	
 	synchronized void unregisterFactory (Object key, AdapterFactory factory) {
@@ -136,6 +155,66 @@ public class AdapterRegistry {
 			return ;
 		}
 		list.remove(factory);		
+		publish();
+	}
+	
+	
+	/**
+	 * Publish the factories registered, and drop what was cached from the previous ones.
+	 */
+	synchronized void publish () {
+		Map<Object,AdapterFactory[]> factories = new HashMap<Object,AdapterFactory[]>();
+		for(Map.Entry<Object,List<AdapterFactory>> entry : fKeyToAdapterFactory.entrySet()) {
+			if (entry.getValue().isEmpty() == false) {
+				factories.put(entry.getKey(), entry.getValue().toArray(new AdapterFactory[entry.getValue().size()]));
+			}
+		}
+		fFactories = factories;
+		fDispatch = new ConcurrentHashMap<EClass,AdapterFactory[]>();
+	}
+	
+	
+	/**
+	 * Adapt the object with the factories cached for its EClass, working them out if need be.
+	 */
+	
+	<T extends Object> T adaptEObject ( EObject eObj, Class<T> clazz ) {
+		
+		for(AdapterFactory factory : factoriesFor(eObj.eClass())) {
+			Object adapter = factory.adapt(eObj, clazz);
+			if (adapter != null && clazz.isInstance(adapter)) {
+				return clazz.cast(adapter);
+			}
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * @return the factories of the EClass and then those of its EPackage.
+	 */
+	
+	AdapterFactory[] factoriesFor ( EClass effectiveClass ) {
+		
+		ConcurrentHashMap<EClass,AdapterFactory[]> dispatch = fDispatch;
+		AdapterFactory[] chain = dispatch.get(effectiveClass);
+		if (chain != null) {
+			return chain;
+		}
+		
+		Map<Object,AdapterFactory[]> factories = fFactories;
+		List<AdapterFactory> all = new ArrayList<AdapterFactory>();
+		for(Object key : new Object[] { effectiveClass, effectiveClass.getEPackage() }) {
+			AdapterFactory[] list = factories.get(key);
+			if (list != null) {
+				for(AdapterFactory factory : list) {
+					all.add(factory);
+				}
+			}
+		}
+		chain = all.toArray(new AdapterFactory[all.size()]);
+		dispatch.put(effectiveClass, chain);
+		return chain;
 	}
 	
 	
@@ -192,28 +271,9 @@ public class AdapterRegistry {
 		Object adapter = null;		
 		
 		if (target instanceof EObject) {
-			
-			EObject eObj = (EObject) target;
-			EClass effectiveClass = eObj.eClass();
-			
-			List<AdapterFactory> list = fKeyToAdapterFactory.get( effectiveClass );
-			if (list != null) {
-				for(AdapterFactory factory : list) {
-					adapter = factory.adapt(target, clazz);
-					if (adapter != null && clazz.isInstance(adapter)) {
-						return clazz.cast(adapter);
-					}
-				}
-			}
-			
-			list = fKeyToAdapterFactory.get( effectiveClass.getEPackage() );
-			if (list != null) {
-				for(AdapterFactory factory : list ) {
-					adapter = factory.adapt(target, clazz);
-					if (adapter != null && clazz.isInstance(adapter)) {
-						return clazz.cast(adapter);
-					}
-				}					   
+			T result = adaptEObject((EObject) target, clazz);
+			if (result != null) {
+				return result;
 			}
 		}
 				
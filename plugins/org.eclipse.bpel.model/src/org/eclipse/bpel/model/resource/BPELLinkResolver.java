@@ -10,12 +10,11 @@
  *******************************************************************************/
 package org.eclipse.bpel.model.resource;
 
-import java.util.Iterator;
-
 import org.eclipse.bpel.model.Activity;
 import org.eclipse.bpel.model.Flow;
 import org.eclipse.bpel.model.Link;
 import org.eclipse.bpel.model.Links;
+import org.eclipse.bpel.model.util.SymbolTable;
 import org.eclipse.emf.ecore.EObject;
 
 /**
@@ -34,12 +33,9 @@ public class BPELLinkResolver implements LinkResolver {
 			while (container != null) {
 				if (container instanceof Flow) {
 					Links links =((Flow)container).getLinks();
-					if (links != null) {
-						for (Iterator<Link> it = links.getChildren().iterator(); it.hasNext(); ) {
-							Link candidate = it.next(); 		
-							if (candidate.getName().equals(linkName)) 
-								return candidate;
-						}
+					Link candidate = SymbolTable.getLink(links, linkName);
+					if (candidate != null) {
+						return candidate;
 					}
 				}
 				container = container.eContainer();
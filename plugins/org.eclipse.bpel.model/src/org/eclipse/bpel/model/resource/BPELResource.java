@@ -26,6 +26,13 @@ import org.xml.sax.ErrorHandler;
  */
 public interface BPELResource extends Resource {
 
+    /**
+     * Save option: when {@link Boolean#FALSE}, the process is always written from the
+     * model. By default, the DOM the model is reconciled with is written as it is
+     * when every object of the model is in it.
+     */
+    String OPTION_WRITE_LIVE_DOM = "org.eclipse.bpel.model.writeLiveDOM"; //$NON-NLS-1$
+
     /**
      * Converts the BPEL model to an XML DOM model and then write the DOM model to the output stream.
      * @param out 
@@ -28,14 +28,12 @@ import org.apache.xerces.xni.XMLAttributes;
 import org.apache.xerces.xni.XMLLocator;
 import org.apache.xerces.xni.XMLString;
 import org.apache.xerces.xni.XNIException;
-import org.eclipse.bpel.model.Import;
 import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.adapters.INamespaceMap;
 import org.eclipse.bpel.model.util.BPELConstants;
 import org.eclipse.bpel.model.util.BPELProxyURI;
 import org.eclipse.bpel.model.util.BPELUtils;
-import org.eclipse.bpel.model.util.ImportResolver;
-import org.eclipse.bpel.model.util.ImportResolverRegistry;
+import org.eclipse.bpel.model.util.ImportIndex;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
@@ -234,37 +232,13 @@ public class BPELResourceImpl extends XMLResourceImpl implements BPELResource {
             return null;
         }
         
-        EObject result = null;
-        
     	// Try the BPEL imports if any exist.
         Process process = getProcess();
         if (process == null) {
-        	return result;
+        	return null;
         }
         
-
-        for (Import imp : process.getImports()){
-            // The null and "" problem ...
-            String ns = imp.getNamespace();
-            if (ns == null) {
-            	ns = javax.xml.XMLConstants.DEFAULT_NS_PREFIX;
-            }
-            
-            if (ns.equals(qname.getNamespaceURI()) == false || 
-             	imp.getLocation() == null ) {
-            	continue;
-            }
-
-            for (ImportResolver r : ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType())){
-                result = r.resolve(imp, qname, proxyURI.getID(), proxyURI.getTypeName());
-                if (result != null) {
-                    return result;
-                }
-            }
-        }
-        
-        // Failed to resolve.
-        return result;
+        return ImportIndex.getIndex(process).resolve(qname, proxyURI.getID(), typeName);
     }
 
     
@@ -288,14 +262,7 @@ public class BPELResourceImpl extends XMLResourceImpl implements BPELResource {
         	return al;
         }
 
-        for (Import imp : process.getImports()) {
-            if (imp.getLocation() == null ) {
-            	continue;
-            }                	   
-    	    for(ImportResolver r : ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType())) {
-                al.addAll( (List<? extends XSDSchema>) r.resolve (imp, ImportResolver.RESOLVE_SCHEMA ) );
-            }
-        }
+        al.addAll( ImportIndex.getIndex(process).getSchemas() );
         
         if (bIncludeXSD) {
         	al.add ( XSDSchemaImpl.getSchemaForSchema( XSDConstants.SCHEMA_FOR_SCHEMA_URI_2001 ) );
@@ -320,14 +287,7 @@ public class BPELResourceImpl extends XMLResourceImpl implements BPELResource {
         	return al;
         }
 
-        for (Import imp : process.getImports()) {
-            if (imp.getLocation() == null ) {
-            	continue;
-            }                	    
-    	    for(ImportResolver r : ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType())) {
-                al.addAll( (List<? extends Definition>) r.resolve (imp, ImportResolver.RESOLVE_DEFINITION ) );
-            }
-        }        
+        al.addAll( ImportIndex.getIndex(process).getDefinitions() );
                 
         return al;    	
     }
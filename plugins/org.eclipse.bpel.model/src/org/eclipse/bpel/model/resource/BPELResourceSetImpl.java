@@ -11,8 +11,13 @@
 package org.eclipse.bpel.model.resource;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -23,11 +28,22 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.content.IContentDescription;
 import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.model.util.ImportIndex;
+import org.eclipse.bpel.model.util.XSDComparisonCache;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.ResourceFactoryRegistryImpl;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.wst.wsdl.Definition;
+import org.eclipse.wst.wsdl.Types;
+import org.eclipse.xsd.XSDSchema;
 
 
 /**
@@ -43,6 +59,39 @@ public class BPELResourceSetImpl extends ResourceSetImpl implements IResourceCha
 	// Bugzilla 320545:
 	// this ID identifies the BPEL file content type
 	public static final String BPEL_CONTENT_TYPE = "org.eclipse.bpel.contenttype"; //$NON-NLS-1$
+	
+	/**
+	 * The resources of the set by normalized URI, in the order they were added. 
+	 * Kept in sync with {@link #getResources()}, so that finding a resource
+	 * does not normalize the URI of every resource in the set.
+	 */
+	final Map<URI,List<Resource>> fNormalizedIndex = new HashMap<URI,List<Resource>>();
+	
+	/** The normalized URI under which each resource is in the index */
+	final Map<Resource,URI> fNormalizedURI = new HashMap<Resource,URI>();
+	
+	/** Moves a resource in the index when its URI changes */
+	final AdapterImpl fURITracker = new AdapterImpl() {
+		@Override
+		public void notifyChanged (Notification msg) {
+			if (msg.getFeatureID(Resource.class) == Resource.RESOURCE__URI && msg.getNotifier() instanceof Resource) {
+				Resource resource = (Resource) msg.getNotifier();
+				if (fNormalizedURI.containsKey(resource)) {
+					unindex(resource);
+					index(resource);
+				}
+			}
+		}
+	};
+	
+	/** The WSDL and XSD documents are borrowed from this cache, if set */
+	SharedResourceCache fSharedCache;
+	
+	/** The documents borrowed from the shared cache, by normalized URI */
+	final Map<URI,Resource> fBorrowed = new LinkedHashMap<URI,Resource>();
+	
+	/** The normalized URIs of the documents which are never borrowed */
+	final Set<URI> fPrivate = new HashSet<URI>();
 	 
 	public BPELResourceSetImpl() {
 		super();
@@ -98,32 +147,37 @@ public class BPELResourceSetImpl extends ResourceSetImpl implements IResourceCha
 			}
 		}
 
-		URIConverter theURIConverter = getURIConverter();
-		URI normalizedURI = theURIConverter.normalize(uri);
-		
-		for (Resource resource : getResources()) {
-			if (theURIConverter.normalize(resource.getURI()).equals(
-					normalizedURI)) {
-				if (loadOnDemand && !resource.isLoaded()) {
-					// Bugzilla 324164
-					// if load fails, mark resource as unloaded
-					try {
-						demandLoadHelper(resource);
-					} catch (Exception ex) {
-						resource.unload();
-						break;
-					}
+		Resource resource = findResource(uri);
+		if (resource != null) {
+			boolean loaded = true;
+			if (loadOnDemand && !resource.isLoaded()) {
+				// Bugzilla 324164
+				// if load fails, mark resource as unloaded
+				try {
+					demandLoadHelper(resource);
+				} catch (Exception ex) {
+					resource.unload();
+					loaded = false;
 				}
+			}
 
+			if (loaded) {
 				if (map != null) {
 					map.put(uri, resource);
 				}
 				return resource;
-			}			
+			}
+		}
+		
+		if (fSharedCache != null) {
+			resource = borrow(uri, loadOnDemand, kind);
+			if (resource != null) {
+				return resource;
+			}
 		}
 		
 		if (loadOnDemand) {
-			Resource resource = demandCreateResource(uri,kind);
+			resource = demandCreateResource(uri,kind);
 			if (resource == null) {
 				throw new RuntimeException("Cannot create a resource for '"
 						+ uri + "'; a registered resource factory is needed");
@@ -145,6 +199,286 @@ public class BPELResourceSetImpl extends ResourceSetImpl implements IResourceCha
 		return createResource ( uri, kind );
 	}
 	
+	
+	/**
+	 * The resource set finds resources by their normalized URI in an index,
+	 * instead of normalizing the URI of each resource in the set.
+	 * 
+	 * @see org.eclipse.emf.ecore.resource.impl.ResourceSetImpl#getResource(org.eclipse.emf.common.util.URI, boolean)
+	 */
+	@Override
+	public Resource getResource (URI uri, boolean loadOnDemand) {
+		
+		Map<URI, Resource> map = getURIResourceMap();
+		Resource resource = map != null ? map.get(uri) : null;
+		if (resource == null) {
+			resource = findResource(uri);
+		}
+		if (resource != null) {
+			if (loadOnDemand && !resource.isLoaded()) {
+				demandLoadHelper(resource);
+			}
+			if (map != null) {
+				map.put(uri, resource);
+			}
+			return resource;
+		}
+		
+		Resource delegatedResource = delegatedGetResource(uri, loadOnDemand);
+		if (delegatedResource != null) {
+			if (map != null) {
+				map.put(uri, delegatedResource);
+			}
+			return delegatedResource;
+		}
+		
+		// the proxies of the process resolve through here
+		if (fSharedCache != null && uri.fileExtension() != null) {
+			resource = borrow(uri, loadOnDemand, uri.fileExtension().toLowerCase());
+			if (resource != null) {
+				return resource;
+			}
+		}
+		
+		if (loadOnDemand) {
+			resource = demandCreateResource(uri);
+			if (resource == null) {
+				throw new RuntimeException("Cannot create a resource for '"
+						+ uri + "'; a registered resource factory is needed");
+			}
+			demandLoadHelper(resource);
+			if (map != null) {
+				map.put(uri, resource);
+			}
+			return resource;
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Find the resource in the set whose URI normalizes to the same URI 
+	 * as the one given.
+	 * 
+	 * @param uri the URI
+	 * @return the first such resource added to the set, or null.
+	 */
+	
+	public Resource findResource ( URI uri ) {
+		if (uri == null) {
+			return null;
+		}
+		List<Resource> list = fNormalizedIndex.get( getURIConverter().normalize(uri) );
+		return list != null ? list.get(0) : null;
+	}
+	
+	
+	/**
+	 * Borrow the WSDL and XSD documents from the shared cache, instead of reading
+	 * them into this resource set. The borrowed documents are shared with other 
+	 * resource sets: a change made to one of them is seen by every resource set
+	 * which borrowed it, and is not saved by any. The documents which are changed
+	 * through this resource set must be marked with {@link #setPrivate(URI)}.
+	 * <p>
+	 * When the resource set stops using a cache, the import indexes and the
+	 * XSD comparison caches which link its models and the shared documents are
+	 * dropped, so that the shared documents no longer keep its models alive.
+	 * 
+	 * @param cache the cache, or null to stop using one.
+	 */
+	
+	public void setSharedCache ( SharedResourceCache cache ) {
+		if (fSharedCache == cache) {
+			return ;
+		}
+		if (fSharedCache != null) {
+			for(Resource resource : getSharedResources()) {
+				dropCaches(resource);
+			}
+			for(Resource resource : getResources()) {
+				dropCaches(resource);
+			}
+			fSharedCache.release();
+		}
+		fBorrowed.clear();
+		fSharedCache = cache;
+		if (fSharedCache != null) {
+			fSharedCache.acquire();
+		}
+	}
+	
+	
+	/** Drop the import indexes of the processes and the comparison caches of the schemas of the resource */
+	
+	void dropCaches ( Resource resource ) {
+		for(TreeIterator<EObject> it = resource.getAllContents(); it.hasNext(); ) {
+			EObject eObj = it.next();
+			if (eObj instanceof Process) {
+				ImportIndex.dropIndex( (Process) eObj );
+			} else if (eObj instanceof XSDSchema) {
+				XSDComparisonCache.dropCache( (XSDSchema) eObj );
+			} else if (eObj instanceof Definition || eObj instanceof Types) {
+				// schemas inlined in a WSDL
+				continue;
+			}
+			it.prune();
+		}
+	}
+	
+	
+	/**
+	 * @return the shared cache this resource set borrows from, or null.
+	 */
+	
+	public SharedResourceCache getSharedCache () {
+		return fSharedCache;
+	}
+	
+	
+	/**
+	 * The document at this URI is read into this resource set, and never
+	 * borrowed from the shared cache.
+	 * 
+	 * @param uri the URI of the document
+	 */
+	
+	public void setPrivate ( URI uri ) {
+		URI normalizedURI = getURIConverter().normalize(uri);
+		fPrivate.add(normalizedURI);
+		fBorrowed.remove(normalizedURI);
+	}
+	
+	
+	Resource borrow ( URI uri, boolean loadOnDemand, String kind ) {
+		if ("wsdl".equals(kind) == false && "xsd".equals(kind) == false) {
+			return null;
+		}
+		URI normalizedURI = getURIConverter().normalize(uri);
+		if (fPrivate.contains(normalizedURI)) {
+			return null;
+		}
+		Resource resource = fBorrowed.get(normalizedURI);
+		if (resource != null) {
+			if (fSharedCache.owns(resource)) {
+				return resource;
+			}
+			// changed in the workspace, or evicted from the cache
+			fBorrowed.remove(normalizedURI);
+		}
+		if (loadOnDemand == false) {
+			return null;
+		}
+		resource = fSharedCache.getResource(uri, kind);
+		if (resource != null) {
+			fBorrowed.put(normalizedURI, resource);
+		}
+		return resource;
+	}
+	
+	
+	/**
+	 * @return the documents this resource set has borrowed from the shared cache,
+	 *   and which are still current.
+	 */
+	
+	public List<Resource> getSharedResources () {
+		List<Resource> list = new ArrayList<Resource>( fBorrowed.size() );
+		if (fSharedCache == null) {
+			return list;
+		}
+		for(Resource resource : fBorrowed.values()) {
+			if (fSharedCache.owns(resource)) {
+				list.add(resource);
+			}
+		}
+		return list;
+	}
+	
+	
+	/**
+	 * @return the resources of this resource set followed by the documents it has borrowed.
+	 */
+	
+	public List<Resource> getAllResources () {
+		List<Resource> list = new ArrayList<Resource>( getResources() );
+		list.addAll( getSharedResources() );
+		return list;
+	}
+	
+	
+	/**
+	 * @see org.eclipse.emf.ecore.resource.impl.ResourceSetImpl#getResources()
+	 */
+	@Override
+	public EList<Resource> getResources() {
+		if (resources == null) {
+			resources = new ResourcesEList<Resource>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void didAdd (int index, Resource newObject) {
+					super.didAdd(index, newObject);
+					index(newObject);
+				}
+				
+				@Override
+				protected void didSet (int index, Resource newObject, Resource oldObject) {
+					super.didSet(index, newObject, oldObject);
+					forget(oldObject);
+					index(newObject);
+				}
+				
+				@Override
+				protected void didRemove (int index, Resource oldObject) {
+					super.didRemove(index, oldObject);
+					forget(oldObject);
+				}
+			};
+		}
+		return resources;
+	}
+	
+	
+	void index ( Resource resource ) {
+		if (resource == null || resource.getURI() == null) {
+			return ;
+		}
+		URI normalizedURI = getURIConverter().normalize( resource.getURI() );
+		List<Resource> list = fNormalizedIndex.get(normalizedURI);
+		if (list == null) {
+			list = new ArrayList<Resource>(1);
+			fNormalizedIndex.put(normalizedURI, list);
+		}
+		list.add(resource);
+		fNormalizedURI.put(resource, normalizedURI);
+		if (resource.eAdapters().contains(fURITracker) == false) {
+			resource.eAdapters().add(fURITracker);
+		}
+	}
+	
+	
+	void forget ( Resource resource ) {
+		unindex(resource);
+		if (resource != null) {
+			resource.eAdapters().remove(fURITracker);
+		}
+	}
+	
+	
+	void unindex ( Resource resource ) {
+		URI normalizedURI = fNormalizedURI.remove(resource);
+		if (normalizedURI == null) {
+			return ;
+		}
+		List<Resource> list = fNormalizedIndex.get(normalizedURI);
+		if (list != null) {
+			list.remove(resource);
+			if (list.isEmpty()) {
+				fNormalizedIndex.remove(normalizedURI);
+			}
+		}
+	}
+	
 	/*
 	 * Fix for Bug 278205 - Problem with importing remote WSIL/WSDL still exists.
 	 * Telesh Alexandr added this method to solve this which is to load remote WSIL/WSDL 
@@ -157,21 +491,20 @@ public class BPELResourceSetImpl extends ResourceSetImpl implements IResourceCha
 			resourceFactoryRegistry = new ResourceFactoryRegistryImpl() {
 				@Override
 				protected Resource.Factory delegatedGetFactory(URI uri, String contentTypeIdentifier) {
-					// patch for "wsil" and "wsdl" resources without extensions
+					// patch for "wsil" and "wsdl" resources without extensions: their
+					// content type is the extension. The global registry is left alone,
+					// it is shared by resource sets used on different threads.
 					final Map<String, Object> extensionToFactoryMap =
 						Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap();
 					
-					final Object wsilFactory = extensionToFactoryMap.get("wsil");
-					final Object wsdlFactory = extensionToFactoryMap.get("wsdl");
-					
-					final Map<String, Object> contentTypeToFactoryMap = 
+					Map<String, Object> contentTypeToFactoryMap = 
 						Resource.Factory.Registry.INSTANCE.getContentTypeToFactoryMap();
 					
-					if (null != wsilFactory) {
-						contentTypeToFactoryMap.put("wsil", wsilFactory);
-					}
-					if (null != wsdlFactory) {
-						contentTypeToFactoryMap.put("wsdl", wsdlFactory);
+					if ("wsil".equals(contentTypeIdentifier) || "wsdl".equals(contentTypeIdentifier)) {
+						final Object factory = extensionToFactoryMap.get(contentTypeIdentifier);
+						if (null != factory) {
+							contentTypeToFactoryMap = Collections.singletonMap(contentTypeIdentifier, factory);
+						}
 					}
 
 					return convert(getFactory(uri,
@@ -295,17 +628,16 @@ public class BPELResourceSetImpl extends ResourceSetImpl implements IResourceCha
 			uriResourceMap.remove(normalizedURI);
 			// System.out.println("Removed from Map: " + map );
 		}
+		fBorrowed.remove(normalizedURI);
 				
-		List<Resource> resourceList = getResources();
-		if (resources.size() < 1) {
+		List<Resource> list = fNormalizedIndex.get( normalizedURI );
+		if (list == null) {
 			return ;
 		}
 		
-		for(Resource r : new ArrayList<Resource>(resourceList) )  {
-			if (uri.equals(r.getURI()) || normalizedURI.equals(r.getURI() )) {
-				resources.remove(r);
-				// System.out.println("Removed from List: " + r );				
-			}
+		for(Resource r : new ArrayList<Resource>(list) )  {
+			getResources().remove(r);
+			// System.out.println("Removed from List: " + r );				
 		}
 	}
 
@@ -10,9 +10,6 @@
  *******************************************************************************/
 package org.eclipse.bpel.model.resource;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.eclipse.bpel.model.Catch;
 import org.eclipse.bpel.model.ForEach;
 import org.eclipse.bpel.model.OnEvent;
@@ -20,6 +17,7 @@ import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.Scope;
 import org.eclipse.bpel.model.Variable;
 import org.eclipse.bpel.model.Variables;
+import org.eclipse.bpel.model.util.SymbolTable;
 import org.eclipse.emf.ecore.EObject;
 
 
@@ -61,24 +59,10 @@ public class BPELVariableResolver implements VariableResolver {
 				else if (container instanceof Scope) 
 					variables = ((Scope)container).getVariables();
 				
-				if (variables != null) {
-					
-					List<Object> list = new ArrayList<Object>();
-					
-					// check all BPEL variables if anyone has the correct variable name
-					
-					list.addAll(variables.getChildren());
-					list.addAll(variables.getExtensibilityElements());
-					
-					for (Object n : list) {
-						if (n instanceof Variable) {						
-							Variable variable = (Variable) n;
-							String name = variable.getName();
-							if (name != null && name.equals(variableName)) {
-								return variable;
-							}
-						}
-					}
+				// check all BPEL variables (and extension variables) if anyone has the correct variable name
+				Variable variable = SymbolTable.getVariable(variables, variableName);
+				if (variable != null) {
+					return variable;
 				}
 			}
 			container = container.eContainer();	
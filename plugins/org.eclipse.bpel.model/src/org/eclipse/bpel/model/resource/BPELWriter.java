@@ -23,10 +23,9 @@ import javax.wsdl.extensions.ExtensibilityElement;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.xerces.util.DOMUtil;
-import org.apache.xml.serialize.OutputFormat;
-import org.apache.xml.serialize.XMLSerializer;
 import org.eclipse.bpel.model.Activity;
 import org.eclipse.bpel.model.Assign;
 import org.eclipse.bpel.model.BPELExtensibleElement;
@@ -122,6 +121,7 @@ import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.wst.wsdl.Definition;
 import org.eclipse.wst.wsdl.Message;
 import org.eclipse.wst.wsdl.Operation;
+import org.eclipse.wst.wsdl.WSDLElement;
 import org.eclipse.wst.wsdl.util.WSDLConstants;
 import org.eclipse.wst.wsdl.util.WSDLResourceImpl;
 import org.eclipse.xsd.XSDElementDeclaration;
@@ -166,6 +166,38 @@ public class BPELWriter {
 	private final BPELExtensionRegistry extensionRegistry = BPELExtensionRegistry
 			.getInstance();
 
+	/** Creating the factory looks up the parser configuration, so it is done once */
+	static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+
+	/** Document builders are not thread safe, each thread has its own */
+	static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>();
+
+	static DocumentBuilderFactory createDocumentBuilderFactory() {
+		final DocumentBuilderFactory documentBuilderFactory =
+		// DocumentBuilderFactory.newInstance();
+		// new org.apache.crimson.jaxp.DocumentBuilderFactoryImpl();
+		new org.apache.xerces.jaxp.DocumentBuilderFactoryImpl();
+
+		documentBuilderFactory.setNamespaceAware(true);
+		documentBuilderFactory.setValidating(false);
+		return documentBuilderFactory;
+	}
+
+	/**
+	 * @return a new, empty, DOM document.
+	 * @throws ParserConfigurationException
+	 */
+	protected Document newDocument() throws ParserConfigurationException {
+		DocumentBuilder builder = DOCUMENT_BUILDER.get();
+		if (builder == null) {
+			synchronized (DOCUMENT_BUILDER_FACTORY) {
+				builder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+			}
+			DOCUMENT_BUILDER.set(builder);
+		}
+		return builder.newDocument();
+	}
+
 	/**
 	 * WsdlImportsManager is responsible for ensuring that, for a given
 	 * namespace and resource uri, an import exists in the bpel file.
@@ -288,6 +320,10 @@ public class BPELWriter {
 	/**
 	 * Convert the BPEL model to an XML DOM model and then write the DOM model
 	 * to the output stream.
+	 * <p>
+	 * When the model is reconciled with a DOM which has every object of the model
+	 * in it, that DOM is written as it is instead (see {@link #getLiveDocument(Process)}),
+	 * unless {@link BPELResource#OPTION_WRITE_LIVE_DOM} is false.
 	 *
 	 * @see org.eclipse.emf.ecore.resource.impl.ResourceImpl#doSave(OutputStream,
 	 *      Map)
@@ -296,21 +332,6 @@ public class BPELWriter {
 			throws IOException {
 
 		try {
-			// Create a DOM document.
-
-			final DocumentBuilderFactory documentBuilderFactory =
-			// DocumentBuilderFactory.newInstance();
-			// new org.apache.crimson.jaxp.DocumentBuilderFactoryImpl();
-			new org.apache.xerces.jaxp.DocumentBuilderFactoryImpl();
-
-			documentBuilderFactory.setNamespaceAware(true);
-			documentBuilderFactory.setValidating(false);
-			DocumentBuilder builder = documentBuilderFactory
-					.newDocumentBuilder();
-			this.document = builder.newDocument();
-
-			// Transform the EMF model to the DOM document.
-
 			this.bpelPackage = BPELPackage.eINSTANCE;
 
 			this.fBPELResource = resource;
@@ -327,16 +348,26 @@ public class BPELWriter {
 				walkExternalReferences();
 			// VZ
 
-			this.document = resource2XML(resource);
+			// The DOM the model is reconciled with, if it is up to date,
+			// is written as it is (with its formatting and comments).
+			Document liveDocument = null;
+			if (args == null || Boolean.FALSE.equals(args.get(BPELResource.OPTION_WRITE_LIVE_DOM)) == false) {
+				liveDocument = getLiveDocument(process);
+			}
+			if (liveDocument != null) {
+				this.document = liveDocument;
+				DOMStreamSerializer.serialize(this.document, out, false);
+				return;
+			}
+
+			// Transform the EMF model to the DOM document.
 
-			// Transform the DOM document to its serialized form.
+			this.document = newDocument();
+			this.document = resource2XML(resource);
 
-			OutputFormat fmt = new OutputFormat(this.document);
-			fmt.setIndenting(true);
-			fmt.setIndent(4);
+			// Stream the DOM document to its serialized form.
 
-			XMLSerializer serializer = new XMLSerializer(out, fmt);
-			serializer.serialize(this.document);
+			DOMStreamSerializer.serialize(this.document, out, true);
 
 			// The code below does not indent, due to bug in JDK 1.5. Read it
 			// here.
@@ -387,20 +418,11 @@ public class BPELWriter {
 
 		// Create a DOM document.
 
-		final DocumentBuilderFactory documentBuilderFactory =
-		// DocumentBuilderFactory.newInstance();
-		// new org.apache.crimson.jaxp.DocumentBuilderFactoryImpl();
-		new org.apache.xerces.jaxp.DocumentBuilderFactoryImpl();
-
-		documentBuilderFactory.setNamespaceAware(true);
-		documentBuilderFactory.setValidating(false);
-		DocumentBuilder builder = null;
 		try {
-			builder = documentBuilderFactory.newDocumentBuilder();
+			this.document = newDocument();
 		} catch (Exception ex) {
 			return EMPTY_STRING;
 		}
-		this.document = builder.newDocument();
 
 		// Transform the EMF model to the DOM document.
 
@@ -416,19 +438,12 @@ public class BPELWriter {
 
 		anyBPELObject2xml(eObj);
 
-		// Transform the DOM document to its serialized form.
-
-		OutputFormat fmt = new OutputFormat(this.document);
-		fmt.setIndenting(true);
-		fmt.setIndent(4);
-		fmt.setOmitDocumentType(true);
-		fmt.setOmitXMLDeclaration(true);
+		// Stream the DOM document to its serialized form.
 
 		StringWriter out = new StringWriter();
-		XMLSerializer serializer = new XMLSerializer(out, fmt);
 
 		try {
-			serializer.serialize(this.document);
+			DOMStreamSerializer.serialize(this.document, out, true);
 		} catch (Exception ex) {
 			//
 		}
@@ -436,6 +451,76 @@ public class BPELWriter {
 		return out.toString();
 	}
 
+	/**
+	 * Return the DOM the process is reconciled with, if it can be written as it is:
+	 * every BPEL object of the model has its element in it, and the namespace
+	 * prefixes of the process are declared on its root.
+	 *
+	 * @param process the process
+	 * @return the document, or null if the model must be serialized.
+	 */
+	protected Document getLiveDocument(Process process) {
+		Element processElement = process.getElement();
+		if (processElement == null) {
+			return null;
+		}
+		Document liveDocument = processElement.getOwnerDocument();
+		if (liveDocument == null || liveDocument.getDocumentElement() != processElement) {
+			return null;
+		}
+
+		for (Iterator<EObject> i = process.eAllContents(); i.hasNext();) {
+			EObject eObj = i.next();
+			if (isEmptyContainer(eObj)) {
+				// not written, whether it is in the DOM or not
+				continue;
+			}
+			if (eObj instanceof WSDLElement) {
+				Element element = ((WSDLElement) eObj).getElement();
+				if (element == null || element.getOwnerDocument() != liveDocument
+						|| element.getParentNode() == null) {
+					return null;
+				}
+			} else if (eObj.eClass().getEPackage() != BPELPackage.eINSTANCE) {
+				// not reconciled with the DOM
+				return null;
+			}
+		}
+
+		INamespaceMap<String, String> nsMap = BPELUtils.getNamespaceMap(process);
+		for (Map.Entry<String, String> entry : nsMap.entrySet()) {
+			String prefix = entry.getKey();
+			String name = prefix.length() == 0 ? "xmlns" : "xmlns:" + prefix;
+			if (entry.getValue().equals(processElement.getAttribute(name)) == false) {
+				return null;
+			}
+		}
+		return liveDocument;
+	}
+
+	/**
+	 * The containers the reader creates for a process or a scope even when
+	 * there is no such element; they are only written when they have children.
+	 *
+	 * @param eObj the model object
+	 * @return true if the object is such a container, without children.
+	 */
+	protected boolean isEmptyContainer(EObject eObj) {
+		if (eObj instanceof Variables) {
+			return ((Variables) eObj).getChildren().isEmpty();
+		}
+		if (eObj instanceof PartnerLinks) {
+			return ((PartnerLinks) eObj).getChildren().isEmpty();
+		}
+		if (eObj instanceof CorrelationSets) {
+			return ((CorrelationSets) eObj).getChildren().isEmpty();
+		}
+		if (eObj instanceof MessageExchanges) {
+			return ((MessageExchanges) eObj).getChildren().isEmpty();
+		}
+		return false;
+	}
+
 	protected Document anyBPELObject2xml(EObject eObj) {
 
 		Element element = anyObject2xml(eObj);
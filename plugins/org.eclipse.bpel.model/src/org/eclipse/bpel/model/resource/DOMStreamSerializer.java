@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Writes a DOM tree to a {@link Writer}, node by node.
+ * <p>
+ * Element and attribute names are written as they are in the tree, and
+ * namespace declarations are written as the attributes they are in the
+ * tree; nothing is added or fixed up, as with the serializer this replaces.
+ * <p>
+ * When indenting, an element whose content is only elements (and comments)
+ * is laid out one child per line, indented by 4 spaces; the whitespace
+ * already in such content is dropped. An element with text in its content is
+ * written as it is, so that literals and expressions are not changed.
+ * Without indenting, everything is written as it is in the tree.
+ * <p>
+ * Tabs, carriage returns and line feeds in attribute values are written as
+ * character references; a parser would otherwise normalize them to spaces.
+ */
+
+@SuppressWarnings("nls")
+
+final class DOMStreamSerializer {
+
+	static final String ENCODING = "UTF-8";
+
+	static final String INDENT = "    ";
+
+	static final String NEWLINE = "\n";
+
+	final Writer fOut;
+
+	final boolean fIndent;
+
+
+	DOMStreamSerializer ( Writer out, boolean indent ) {
+		fOut = out;
+		fIndent = indent;
+	}
+
+
+	/**
+	 * Serialize the node, with an XML declaration, to the stream.
+	 *
+	 * @param node the document or the element
+	 * @param out the stream
+	 * @param indent indent the content made of elements only
+	 * @throws IOException
+	 */
+
+	static void serialize ( Node node, OutputStream out, boolean indent ) throws IOException {
+		Writer writer = new BufferedWriter( new OutputStreamWriter(out, ENCODING) );
+		writer.write("<?xml version=\"1.0\" encoding=\"" + ENCODING + "\"?>");
+		writer.write(NEWLINE);
+		new DOMStreamSerializer(writer, indent).write(node);
+		writer.flush();
+	}
+
+
+	/**
+	 * Serialize the node, without an XML declaration, to the writer.
+	 *
+	 * @param node the document or the element
+	 * @param out the writer
+	 * @param indent indent the content made of elements only
+	 * @throws IOException
+	 */
+
+	static void serialize ( Node node, Writer out, boolean indent ) throws IOException {
+		new DOMStreamSerializer(out, indent).write(node);
+		out.flush();
+	}
+
+
+	void write ( Node node ) throws IOException {
+		if (node.getNodeType() == Node.DOCUMENT_NODE || node.getNodeType() == Node.DOCUMENT_FRAGMENT_NODE) {
+			for(Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+				if (child.getNodeType() == Node.DOCUMENT_TYPE_NODE || isWhitespace(child)) {
+					continue;
+				}
+				node(child, 0, fIndent);
+				fOut.write(NEWLINE);
+			}
+		} else {
+			node(node, 0, fIndent);
+		}
+	}
+
+
+	void node ( Node node, int depth, boolean indent ) throws IOException {
+		switch (node.getNodeType()) {
+		case Node.ELEMENT_NODE :
+			element( (Element) node, depth, indent );
+			break;
+		case Node.TEXT_NODE :
+			escape( node.getNodeValue(), false );
+			break;
+		case Node.CDATA_SECTION_NODE :
+			// "]]>" cannot be in a CDATA section, split it over two
+			fOut.write("<![CDATA[");
+			fOut.write( node.getNodeValue().replace("]]>", "]]]]><![CDATA[>") );
+			fOut.write("]]>");
+			break;
+		case Node.COMMENT_NODE :
+			fOut.write("<!--");
+			fOut.write( node.getNodeValue() );
+			fOut.write("-->");
+			break;
+		case Node.PROCESSING_INSTRUCTION_NODE :
+			fOut.write("<?");
+			fOut.write( node.getNodeName() );
+			String data = node.getNodeValue();
+			if (data != null && data.length() > 0) {
+				fOut.write(' ');
+				fOut.write(data);
+			}
+			fOut.write("?>");
+			break;
+		case Node.ENTITY_REFERENCE_NODE :
+			fOut.write('&');
+			fOut.write( node.getNodeName() );
+			fOut.write(';');
+			break;
+		default :
+			break;
+		}
+	}
+
+
+	void element ( Element element, int depth, boolean indent ) throws IOException {
+
+		boolean layout = indent && isElementContent(element);
+		boolean empty = element.hasChildNodes() == false || (layout && hasContent(element) == false);
+
+		fOut.write('<');
+		fOut.write( element.getNodeName() );
+
+		NamedNodeMap attributes = element.getAttributes();
+		for(int i = 0, j = attributes.getLength(); i < j; i++) {
+			Attr attr = (Attr) attributes.item(i);
+			fOut.write(' ');
+			fOut.write( attr.getName() );
+			fOut.write("=\"");
+			escape( attr.getValue(), true );
+			fOut.write('"');
+		}
+
+		if (empty) {
+			fOut.write("/>");
+			return ;
+		}
+		fOut.write('>');
+
+		for(Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (layout) {
+				if (isWhitespace(child)) {
+					continue;
+				}
+				newline(depth + 1);
+			}
+			node(child, depth + 1, layout);
+		}
+		if (layout) {
+			newline(depth);
+		}
+		fOut.write("</");
+		fOut.write( element.getNodeName() );
+		fOut.write('>');
+	}
+
+
+	/**
+	 * Write the text with the markup characters escaped. In an attribute value,
+	 * the quote and the whitespace characters other than the space are escaped
+	 * as well, so that they are read back as they are.
+	 */
+
+	void escape ( String text, boolean attribute ) throws IOException {
+		for(int i = 0, j = text.length(); i < j; i++) {
+			char ch = text.charAt(i);
+			switch (ch) {
+			case '&' :
+				fOut.write("&amp;");
+				break;
+			case '<' :
+				fOut.write("&lt;");
+				break;
+			case '>' :
+				fOut.write("&gt;");
+				break;
+			case '"' :
+				fOut.write(attribute ? "&quot;" : "\"");
+				break;
+			case '\n' :
+				fOut.write(attribute ? "&#10;" : "\n");
+				break;
+			case '\r' :
+				fOut.write(attribute ? "&#13;" : "\r");
+				break;
+			case '\t' :
+				fOut.write(attribute ? "&#9;" : "\t");
+				break;
+			default :
+				fOut.write(ch);
+				break;
+			}
+		}
+	}
+
+
+	void newline ( int depth ) throws IOException {
+		StringBuilder sb = new StringBuilder(NEWLINE.length() + depth * INDENT.length());
+		sb.append(NEWLINE);
+		for(int i = 0; i < depth; i++) {
+			sb.append(INDENT);
+		}
+		fOut.write(sb.toString());
+	}
+
+
+	/** The content of the element is elements, comments and whitespace only */
+
+	static boolean isElementContent ( Element element ) {
+		for(Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			switch (child.getNodeType()) {
+			case Node.ELEMENT_NODE :
+			case Node.COMMENT_NODE :
+			case Node.PROCESSING_INSTRUCTION_NODE :
+				break;
+			case Node.TEXT_NODE :
+				if (isWhitespace(child) == false) {
+					return false;
+				}
+				break;
+			default :
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	static boolean hasContent ( Element element ) {
+		for(Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (isWhitespace(child) == false) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	static boolean isWhitespace ( Node node ) {
+		return node.getNodeType() == Node.TEXT_NODE && node.getNodeValue().trim().length() == 0;
+	}
+}
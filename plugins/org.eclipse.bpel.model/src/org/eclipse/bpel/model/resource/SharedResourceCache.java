@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.resource;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.bpel.model.BPELPlugin;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+
+/**
+ * WSDL and XSD documents read once and shared by several resource sets.
+ * <p>
+ * Each editor has its own resource set, and used to read its own copy of
+ * every WSDL and XSD its process imports. A resource set which uses this cache
+ * (see {@link BPELResourceSetImpl#setSharedCache(SharedResourceCache)}) borrows
+ * the imported documents from a resource set held here instead, so that a
+ * document imported by several open processes is parsed and held in memory once.
+ * <p>
+ * The cache is reference counted. While it has users the shared resource set
+ * is held strongly; once the last user has let go it is only softly reachable,
+ * and the garbage collector drops it when memory runs low. When a document of
+ * the shared set changes or is deleted in the workspace, the whole shared set is
+ * dropped: the WSDL and XSD models refer directly to the documents they import,
+ * so dropping the changed document alone would leave the others pointing at its
+ * old copy. The documents are read again the next time they are asked for. The
+ * workspace may report the change from any thread, so the set is only dropped
+ * the next time the cache is used.
+ * <p>
+ * The borrowed documents are the same objects for all their borrowers, so a
+ * change made through one borrower is seen by all of them. A resource set
+ * reads the documents it changes (the artifacts WSDL of a process, for
+ * example) itself, see {@link BPELResourceSetImpl#setPrivate(URI)}.
+ * <p>
+ * EMF models are not thread safe, so neither is the cache. It is meant for
+ * the editors, which all run in the UI thread.
+ */
+
+@SuppressWarnings("nls")
+
+public class SharedResourceCache {
+
+	static SharedResourceCache gDefault;
+
+	/** The number of resource sets using the cache */
+	int fUsers;
+
+	/** The shared resource set, while there are users */
+	BPELResourceSetImpl fResourceSet;
+
+	/** The shared resource set, once the users are gone */
+	SoftReference<BPELResourceSetImpl> fIdle;
+
+	/** Notes the files changed in the workspace */
+	IResourceChangeListener fListener;
+
+	/** The files changed or deleted since the cache was last used */
+	final Set<IFile> fStale = new LinkedHashSet<IFile>();
+
+
+	/**
+	 * @return the cache shared by the editors.
+	 */
+
+	public static synchronized SharedResourceCache getDefault () {
+		if (gDefault == null) {
+			gDefault = new SharedResourceCache();
+			gDefault.listen();
+		}
+		return gDefault;
+	}
+
+
+	void listen () {
+		if (Platform.isRunning() == false) {
+			return ;
+		}
+		final IResourceDeltaVisitor visitor = new IResourceDeltaVisitor() {
+			public boolean visit (IResourceDelta delta) {
+				if (delta.getResource().getType() != IResource.FILE) {
+					return true;
+				}
+				if (delta.getKind() == IResourceDelta.REMOVED ||
+						(delta.getFlags() & IResourceDelta.CONTENT) != 0) {
+					synchronized (SharedResourceCache.this) {
+						fStale.add( (IFile) delta.getResource() );
+					}
+				}
+				return false;
+			}
+		};
+		fListener = new IResourceChangeListener() {
+			public void resourceChanged (IResourceChangeEvent event) {
+				if (event.getDelta() == null || peek() == null) {
+					return ;
+				}
+				try {
+					event.getDelta().accept(visitor);
+				} catch (CoreException ex) {
+					BPELPlugin.log("Cannot process the workspace changes", ex);
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(fListener, IResourceChangeEvent.POST_CHANGE);
+	}
+
+
+	/**
+	 * A resource set starts using the cache.
+	 */
+
+	public synchronized void acquire () {
+		fUsers += 1;
+		if (fResourceSet == null) {
+			fResourceSet = fIdle != null ? fIdle.get() : null;
+			fIdle = null;
+		}
+	}
+
+
+	/**
+	 * A resource set stops using the cache.
+	 */
+
+	public synchronized void release () {
+		if (fUsers == 0) {
+			return ;
+		}
+		fUsers -= 1;
+		if (fUsers == 0 && fResourceSet != null) {
+			fIdle = new SoftReference<BPELResourceSetImpl>(fResourceSet);
+			fResourceSet = null;
+		}
+	}
+
+
+	/**
+	 * @return the number of resource sets using the cache.
+	 */
+
+	public synchronized int getUsers () {
+		return fUsers;
+	}
+
+
+	/** The shared resource set, strong or soft, without creating it */
+
+	synchronized BPELResourceSetImpl peek () {
+		if (fResourceSet != null) {
+			return fResourceSet;
+		}
+		return fIdle != null ? fIdle.get() : null;
+	}
+
+
+	synchronized BPELResourceSetImpl getResourceSet () {
+		flush();
+		if (fResourceSet == null) {
+			fResourceSet = new BPELResourceSetImpl();
+			fStale.clear();
+		}
+		return fResourceSet;
+	}
+
+
+	/** Drop the shared resource set if one of its documents changed in the workspace */
+
+	synchronized void flush () {
+		if (fStale.isEmpty()) {
+			return ;
+		}
+		BPELResourceSetImpl resourceSet = peek();
+		if (resourceSet != null) {
+			for(IFile file : fStale) {
+				if (resourceSet.findResource( URI.createPlatformResourceURI(file.getFullPath().toString()) ) != null) {
+					fResourceSet = null;
+					fIdle = null;
+					break;
+				}
+			}
+		}
+		fStale.clear();
+	}
+
+
+	/**
+	 * Get a document from the shared resource set, reading it if need be.
+	 *
+	 * @param uri the URI of the document
+	 * @param kind the kind of document, "wsdl" or "xsd"
+	 * @return the resource.
+	 */
+
+	public Resource getResource ( URI uri, String kind ) {
+		return getResourceSet().getResource(uri, true, kind);
+	}
+
+
+	/**
+	 * @param resource a resource
+	 * @return true if the resource is (still) in the shared resource set.
+	 */
+
+	public boolean owns ( Resource resource ) {
+		flush();
+		BPELResourceSetImpl resourceSet = peek();
+		return resourceSet != null && resource.getResourceSet() == resourceSet;
+	}
+
+
+	/**
+	 * Drop every shared document; they are read again the next time they are asked for.
+	 * Resource sets which have borrowed them already keep them until they ask again.
+	 */
+
+	public synchronized void clear () {
+		fIdle = null;
+		fResourceSet = null;
+		fStale.clear();
+	}
+}
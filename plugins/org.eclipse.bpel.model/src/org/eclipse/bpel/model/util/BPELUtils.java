@@ -507,12 +507,9 @@ public class BPELUtils {
 				partnerLinks = ((Scope) container).getPartnerLinks();
 			}
 
-			if (partnerLinks != null) {
-				for (PartnerLink pl : partnerLinks.getChildren()) {
-					if (pl.getName().equals(partnerLinkName)) {
-						return pl;
-					}
-				}
+			PartnerLink pl = SymbolTable.getPartnerLink(partnerLinks, partnerLinkName);
+			if (pl != null) {
+				return pl;
 			}
 
 			container = container.eContainer();
@@ -581,13 +578,10 @@ public class BPELUtils {
 				correlationSets = ((OnEvent) container).getCorrelationSets();
 			}
 
-			if (correlationSets != null) {
-				for (CorrelationSet correlationSet : correlationSets
-						.getChildren()) {
-					if (correlationSet.getName().equals(correlationSetName)) {
-						return correlationSet;
-					}
-				}
+			CorrelationSet correlationSet = SymbolTable.getCorrelationSet(
+					correlationSets, correlationSetName);
+			if (correlationSet != null) {
+				return correlationSet;
 			}
 			container = container.eContainer();
 		}
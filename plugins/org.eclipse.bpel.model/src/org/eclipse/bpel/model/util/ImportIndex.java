@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.bpel.model.BPELPackage;
+import org.eclipse.bpel.model.Import;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.wst.wsdl.Definition;
+import org.eclipse.xsd.XSDSchema;
+
+/**
+ * What the imports of a process resolve to.
+ * <p>
+ * The schemas and the WSDL definitions the imports bring in, and the
+ * objects which references by QName resolve to, are computed once and
+ * kept until something they depend on changes. The index is attached as an
+ * adapter to the process, to its imports, to the imported resources and
+ * their root definitions and schemas, and to each object it has resolved;
+ * a change to any of them drops what the index knows, and it is computed
+ * again on the next request.
+ * <p>
+ * References which do not resolve are not remembered, since they may resolve
+ * once a component is added to an imported document.
+ */
+
+@SuppressWarnings("nls")
+
+public class ImportIndex implements Adapter {
+
+	/** The process whose imports are indexed */
+	final Process fProcess;
+
+	/** The schemas imported, directly or through WSDLs; null when it needs to be computed */
+	List<XSDSchema> fSchemas;
+
+	/** The WSDL definitions imported; null when it needs to be computed */
+	List<Definition> fDefinitions;
+
+	/** (refType, same namespace only, name, QName) -> the object resolved */
+	final Map<String,EObject> fResolved = new HashMap<String,EObject>();
+
+	/** Everything we listen to, other than the process */
+	final Set<Notifier> fWatched = new LinkedHashSet<Notifier>();
+
+	/** Bumped each time the index is dropped */
+	int fGeneration;
+
+
+	ImportIndex ( Process process ) {
+		fProcess = process;
+	}
+
+
+	/**
+	 * @param process the process
+	 * @return the import index of the process.
+	 */
+
+	public static ImportIndex getIndex ( Process process ) {
+		for(Adapter adapter : process.eAdapters()) {
+			if (adapter instanceof ImportIndex && ((ImportIndex) adapter).fProcess == process) {
+				return (ImportIndex) adapter;
+			}
+		}
+		ImportIndex index = new ImportIndex(process);
+		process.eAdapters().add(index);
+		return index;
+	}
+
+
+	/**
+	 * Drop the import index of the process, if it has one, so that the imported
+	 * documents no longer refer to the process.
+	 *
+	 * @param process the process
+	 */
+
+	public static void dropIndex ( Process process ) {
+		for(Adapter adapter : process.eAdapters().toArray(new Adapter[0])) {
+			if (adapter instanceof ImportIndex && ((ImportIndex) adapter).fProcess == process) {
+				((ImportIndex) adapter).invalidate();
+			}
+		}
+	}
+
+
+	/**
+	 * @return the schemas brought in by the imports of the process, in the order
+	 *  of the imports. The list must not be modified.
+	 */
+
+	public List<XSDSchema> getSchemas () {
+		if (fSchemas != null) {
+			return fSchemas;
+		}
+		int generation = fGeneration;
+		List<XSDSchema> schemas = new ArrayList<XSDSchema>();
+		for(Object obj : collect( ImportResolver.RESOLVE_SCHEMA )) {
+			if (obj instanceof XSDSchema) {
+				schemas.add( (XSDSchema) obj );
+			}
+		}
+		schemas = Collections.unmodifiableList(schemas);
+		// loading the imports may have changed what we were watching
+		if (generation == fGeneration) {
+			fSchemas = schemas;
+		}
+		return schemas;
+	}
+
+
+	/**
+	 * @return the WSDL definitions imported by the process, in the order of
+	 *  the imports. The list must not be modified.
+	 */
+
+	public List<Definition> getDefinitions () {
+		if (fDefinitions != null) {
+			return fDefinitions;
+		}
+		int generation = fGeneration;
+		List<Definition> definitions = new ArrayList<Definition>();
+		for(Object obj : collect( ImportResolver.RESOLVE_DEFINITION )) {
+			if (obj instanceof Definition) {
+				definitions.add( (Definition) obj );
+			}
+		}
+		definitions = Collections.unmodifiableList(definitions);
+		if (generation == fGeneration) {
+			fDefinitions = definitions;
+		}
+		return definitions;
+	}
+
+
+	/**
+	 * Resolve a reference through the imports whose namespace is that of the QName.
+	 *
+	 * @param qname the QName of the object
+	 * @param name the name of the object (for example, the part of a message), may be null.
+	 * @param refType the type of object referenced
+	 * @return the object, or null if none of the imports has it.
+	 */
+
+	public EObject resolve ( QName qname, String name, String refType ) {
+		return resolve(qname, name, refType, true);
+	}
+
+
+	/**
+	 * Resolve a reference through all the imports.
+	 *
+	 * @param qname the QName of the object
+	 * @param refType the type of object referenced
+	 * @return the object, or null if none of the imports has it.
+	 */
+
+	public EObject scan ( QName qname, String refType ) {
+		return resolve(qname, null, refType, false);
+	}
+
+
+	EObject resolve ( QName qname, String name, String refType, boolean sameNamespace ) {
+
+		String key = refType + "|" + sameNamespace + "|" + name + "|" + qname;
+		EObject result = fResolved.get(key);
+		if (result != null) {
+			return result;
+		}
+
+		int generation = fGeneration;
+		watchProcess();
+
+		for(Import imp : fProcess.getImports()) {
+			if (imp.getLocation() == null) {
+				continue;
+			}
+			if (sameNamespace) {
+				// The null and "" problem ...
+				String ns = imp.getNamespace();
+				if (ns == null) {
+					ns = javax.xml.XMLConstants.DEFAULT_NS_PREFIX;
+				}
+				if (ns.equals(qname.getNamespaceURI()) == false) {
+					continue;
+				}
+			}
+			for(ImportResolver r : ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType())) {
+				result = r.resolve(imp, qname, name, refType);
+				if (result != null) {
+					if (generation == fGeneration) {
+						watch(result);
+						watchDocument(result);
+						fResolved.put(key, result);
+					}
+					return result;
+				}
+			}
+		}
+		return null;
+	}
+
+
+	List<Object> collect ( int what ) {
+
+		watchProcess();
+
+		List<Object> result = new ArrayList<Object>();
+		for(Import imp : fProcess.getImports()) {
+			if (imp.getLocation() == null) {
+				continue;
+			}
+			for(ImportResolver r : ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType())) {
+				for(Object obj : r.resolve(imp, what)) {
+					if (obj instanceof EObject) {
+						watchDocument( (EObject) obj );
+					}
+					result.add(obj);
+				}
+			}
+		}
+		return result;
+	}
+
+
+	void watchProcess () {
+		for(Import imp : fProcess.getImports()) {
+			watch(imp);
+		}
+	}
+
+
+	/** Watch the document the object comes from: its resource and its root */
+
+	void watchDocument ( EObject eObj ) {
+		Resource resource = eObj.eResource();
+		if (resource != null) {
+			watch(resource);
+		}
+		EObject root = eObj;
+		while (root.eContainer() != null) {
+			root = root.eContainer();
+			if (root instanceof XSDSchema) {
+				// a schema inlined in a WSDL
+				watch(root);
+			}
+		}
+		watch(root);
+	}
+
+
+	void watch ( Notifier notifier ) {
+		if (notifier != fProcess && fWatched.add(notifier)) {
+			notifier.eAdapters().add(this);
+		}
+	}
+
+
+	/**
+	 * Forget everything, and stop listening to anything other than the process.
+	 */
+
+	public void invalidate () {
+		fGeneration += 1;
+		fSchemas = null;
+		fDefinitions = null;
+		fResolved.clear();
+		if (fWatched.isEmpty()) {
+			return ;
+		}
+		List<Notifier> watched = new ArrayList<Notifier>(fWatched);
+		fWatched.clear();
+		for(Notifier notifier : watched) {
+			notifier.eAdapters().remove(this);
+		}
+	}
+
+
+	/**
+	 * Drop the index if an import, an imported document or a resolved object has changed.
+	 *
+	 * @see org.eclipse.emf.common.notify.Adapter#notifyChanged(org.eclipse.emf.common.notify.Notification)
+	 */
+
+	public void notifyChanged ( Notification notification ) {
+
+		if (notification.isTouch() || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+			return ;
+		}
+		if (notification.getNotifier() == fProcess) {
+			if (notification.getFeature() != BPELPackage.eINSTANCE.getProcess_Imports()) {
+				return ;
+			}
+		}
+		invalidate();
+	}
+
+
+	/**
+	 * @see org.eclipse.emf.common.notify.Adapter#getTarget()
+	 */
+
+	public Notifier getTarget () {
+		return fProcess;
+	}
+
+
+	/**
+	 * We are attached to the imports and the imported documents as well, so the target is fixed.
+	 *
+	 * @see org.eclipse.emf.common.notify.Adapter#setTarget(org.eclipse.emf.common.notify.Notifier)
+	 */
+
+	public void setTarget ( Notifier newTarget ) {
+		// nothing
+	}
+
+
+	/**
+	 * @see org.eclipse.emf.common.notify.Adapter#isAdapterForType(java.lang.Object)
+	 */
+
+	public boolean isAdapterForType ( Object type ) {
+		return type == ImportIndex.class;
+	}
+
+}
@@ -33,6 +33,12 @@ public class ImportResolverRegistry
      */
     Map<String,List<ImportResolver>> registry = new HashMap<String,List<ImportResolver>>();
     
+    /**
+     * The same, as arrays, handed out by {@link #getResolvers(String)}. Replaced 
+     * as a whole when a resolver is registered.
+     */
+    volatile Map<String,ImportResolver[]> resolverArrays = new HashMap<String,ImportResolver[]>();
+    
     final static ImportResolver[] EMPTY_RESOLVER_ARRAY = new ImportResolver[] {};
     
     /**
@@ -49,7 +55,7 @@ public class ImportResolverRegistry
      * @param resolver the resolver
      */
     
-    public void registerResolver(ImportResolver resolver)
+    public synchronized void registerResolver(ImportResolver resolver)
     {
     	String importType = resolver.getImportType();
         List<ImportResolver> resolvers = registry.get(importType);
@@ -58,21 +64,26 @@ public class ImportResolverRegistry
             registry.put(importType, resolvers);
         }
         resolvers.add(resolver);
+        
+        Map<String,ImportResolver[]> arrays = new HashMap<String,ImportResolver[]>(resolverArrays);
+        arrays.put(importType, resolvers.toArray(EMPTY_RESOLVER_ARRAY));
+        resolverArrays = arrays;
     }
     
     
     /**
      * Get resolver for a particular import type.
      * @param importType the import type
-     * @return the array of resolvers for this import type.
+     * @return the array of resolvers for this import type. The array is shared 
+     * and must not be modified.
      */
     
     public ImportResolver[] getResolvers(String importType)
     {
-        List<ImportResolver> resolvers = registry.get(importType);
+        ImportResolver[] resolvers = resolverArrays.get(importType);
         if (resolvers == null) {
             return EMPTY_RESOLVER_ARRAY;
         }
-        return resolvers.toArray(EMPTY_RESOLVER_ARRAY);        
+        return resolvers;        
     }
 }
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.bpel.model.CorrelationSet;
+import org.eclipse.bpel.model.CorrelationSets;
+import org.eclipse.bpel.model.Link;
+import org.eclipse.bpel.model.Links;
+import org.eclipse.bpel.model.PartnerLink;
+import org.eclipse.bpel.model.PartnerLinks;
+import org.eclipse.bpel.model.Variable;
+import org.eclipse.bpel.model.Variables;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * The names declared in one declaration list of a scope or process
+ * (variables, partner links, correlation sets) or of a flow (links).
+ * <p>
+ * Name resolution walks up the containers of the reference, just as before,
+ * but at each level the name is found in a hash map rather than by a scan
+ * of the declarations. The symbol table is attached as an adapter to the
+ * declaration list and to each declaration in it; adding or removing a
+ * declaration, or renaming one, drops the table, and it is rebuilt on the
+ * next lookup.
+ * <p>
+ * When a name is declared twice in the same list, the first declaration
+ * wins, as it did with the scans.
+ */
+
+public class SymbolTable implements Adapter {
+
+	/** The declaration list (Variables, PartnerLinks, etc.) */
+	final EObject fDeclarations;
+
+	/** name -> declaration, null when it needs to be rebuilt */
+	Map<String,EObject> fSymbols;
+
+	/** The declarations we are listening to */
+	List<EObject> fMembers = new ArrayList<EObject>();
+
+
+	SymbolTable ( EObject declarations ) {
+		fDeclarations = declarations;
+	}
+
+
+	/**
+	 * @param variables the variables of a scope or process, may be null
+	 * @param name the name of the variable
+	 * @return the variable declared with this name, or null.
+	 */
+
+	public static Variable getVariable ( Variables variables, String name ) {
+		return (Variable) lookup(variables, name);
+	}
+
+	/**
+	 * @param partnerLinks the partner links of a scope or process, may be null
+	 * @param name the name of the partner link
+	 * @return the partner link declared with this name, or null.
+	 */
+
+	public static PartnerLink getPartnerLink ( PartnerLinks partnerLinks, String name ) {
+		return (PartnerLink) lookup(partnerLinks, name);
+	}
+
+	/**
+	 * @param links the links of a flow, may be null
+	 * @param name the name of the link
+	 * @return the link declared with this name, or null.
+	 */
+
+	public static Link getLink ( Links links, String name ) {
+		return (Link) lookup(links, name);
+	}
+
+	/**
+	 * @param correlationSets the correlation sets of a scope, process or onEvent, may be null
+	 * @param name the name of the correlation set
+	 * @return the correlation set declared with this name, or null.
+	 */
+
+	public static CorrelationSet getCorrelationSet ( CorrelationSets correlationSets, String name ) {
+		return (CorrelationSet) lookup(correlationSets, name);
+	}
+
+
+	static EObject lookup ( EObject declarations, String name ) {
+		if (declarations == null || name == null) {
+			return null;
+		}
+		return tableFor(declarations).get(name);
+	}
+
+
+	static SymbolTable tableFor ( EObject declarations ) {
+		for(Adapter adapter : declarations.eAdapters()) {
+			if (adapter instanceof SymbolTable && ((SymbolTable) adapter).fDeclarations == declarations) {
+				return (SymbolTable) adapter;
+			}
+		}
+		SymbolTable table = new SymbolTable(declarations);
+		declarations.eAdapters().add(table);
+		return table;
+	}
+
+
+	EObject get ( String name ) {
+		if (fSymbols == null) {
+			build();
+		}
+		return fSymbols.get(name);
+	}
+
+
+	void build () {
+
+		for(EObject member : fMembers) {
+			member.eAdapters().remove(this);
+		}
+		fMembers.clear();
+
+		Map<String,EObject> symbols = new HashMap<String,EObject>();
+
+		if (fDeclarations instanceof Variables) {
+			Variables variables = (Variables) fDeclarations;
+			add(symbols, variables.getChildren());
+			// extension variables
+			add(symbols, variables.getExtensibilityElements());
+		} else if (fDeclarations instanceof PartnerLinks) {
+			add(symbols, ((PartnerLinks) fDeclarations).getChildren());
+		} else if (fDeclarations instanceof Links) {
+			add(symbols, ((Links) fDeclarations).getChildren());
+		} else if (fDeclarations instanceof CorrelationSets) {
+			add(symbols, ((CorrelationSets) fDeclarations).getChildren());
+		}
+
+		fSymbols = symbols;
+	}
+
+
+	void add ( Map<String,EObject> symbols, List<?> declarations ) {
+
+		for(Object obj : declarations) {
+			if (obj instanceof Variable == false && obj instanceof PartnerLink == false &&
+					obj instanceof Link == false && obj instanceof CorrelationSet == false) {
+				continue;
+			}
+			EObject member = (EObject) obj;
+			member.eAdapters().add(this);
+			fMembers.add(member);
+
+			String name = nameOf(member);
+			if (name != null && symbols.containsKey(name) == false) {
+				symbols.put(name, member);
+			}
+		}
+	}
+
+
+	static String nameOf ( EObject member ) {
+		EStructuralFeature feature = member.eClass().getEStructuralFeature("name"); //$NON-NLS-1$
+		if (feature == null) {
+			return null;
+		}
+		Object value = member.eGet(feature);
+		return value instanceof String ? (String) value : null;
+	}
+
+
+	/**
+	 * Drop the table if the declarations have changed.
+	 *
+	 * @see org.eclipse.emf.common.notify.Adapter#notifyChanged(org.eclipse.emf.common.notify.Notification)
+	 */
+
+	public void notifyChanged ( Notification notification ) {
+
+		if (notification.isTouch() || fSymbols == null) {
+			return ;
+		}
+		if (notification.getNotifier() == fDeclarations) {
+			fSymbols = null;
+			return ;
+		}
+		Object feature = notification.getFeature();
+		if (feature instanceof EStructuralFeature && "name".equals( ((EStructuralFeature) feature).getName() )) { //$NON-NLS-1$
+			fSymbols = null;
+		}
+	}
+
+
+	/**
+	 * @see org.eclipse.emf.common.notify.Adapter#getTarget()
+	 */
+
+	public Notifier getTarget () {
+		return fDeclarations;
+	}
+
+
+	/**
+	 * We are attached to the declarations as well, so the target is fixed.
+	 *
+	 * @see org.eclipse.emf.common.notify.Adapter#setTarget(org.eclipse.emf.common.notify.Notifier)
+	 */
+
+	public void setTarget ( Notifier newTarget ) {
+		// nothing
+	}
+
+
+	/**
+	 * @see org.eclipse.emf.common.notify.Adapter#isAdapterForType(java.lang.Object)
+	 */
+
+	public boolean isAdapterForType ( Object type ) {
+		return type == SymbolTable.class;
+	}
+
+}
@@ -12,8 +12,10 @@ package org.eclipse.bpel.model.util;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.namespace.QName;
 
@@ -81,12 +83,27 @@ public class WSDLImportResolver extends XSDImportResolver {
     }
     
     protected List<Object> resolveSchemas(Definition definition) {
-    	if (definition == null) {
-        	return Collections.emptyList();
+    	ArrayList<Object> schemas = new ArrayList<Object>();
+    	resolveSchemas(definition, schemas, new IdentityHashMap<Definition,Definition>());
+    	return schemas;
+    }
+    
+    
+    /**
+     * Collect the schemas of the definition and of the definitions it imports.
+     * Each definition is visited once, so WSDLs which import each other 
+     * (directly or not) are fine.
+     * 
+     * @param definition the definition, may be null
+     * @param schemas where the schemas go
+     * @param visited the definitions visited so far
+     */
+    
+    protected void resolveSchemas(Definition definition, List<Object> schemas, Map<Definition,Definition> visited) {
+    	if (definition == null || visited.put(definition, definition) != null) {
+        	return ;
         }
         
-        ArrayList<Object> schemas = new ArrayList<Object>();
-        
         if (definition.getImports() != null) {
         	Iterator defImp = definition.getImports().values().iterator();
         	while (defImp.hasNext()) {
@@ -99,20 +116,16 @@ public class WSDLImportResolver extends XSDImportResolver {
         			if (schema != null) {
         				schemas.add(schema);
         			}
-        			if (definition != null) {
-        				schemas.addAll(resolveSchemas(wsdlDefinition));
-        			}
+        			resolveSchemas(wsdlDefinition, schemas, visited);
         		}
         	}
         }
         
         if (definition.getETypes() == null) {
-        	return schemas;
+        	return ;
         }
         
         schemas.addAll(definition.getETypes().getSchemas());
-        
-        return schemas;        	
     }
 
 	/**
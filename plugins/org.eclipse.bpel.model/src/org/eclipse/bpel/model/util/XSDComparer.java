@@ -12,6 +12,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 
 import org.eclipse.emf.common.util.EList;
@@ -30,6 +31,7 @@ import org.eclipse.xsd.XSDModelGroupDefinition;
 import org.eclipse.xsd.XSDNamedComponent;
 import org.eclipse.xsd.XSDParticle;
 import org.eclipse.xsd.XSDParticleContent;
+import org.eclipse.xsd.XSDSchema;
 import org.eclipse.xsd.XSDSimpleTypeDefinition;
 import org.eclipse.xsd.XSDTerm;
 import org.eclipse.xsd.XSDTypeDefinition;
@@ -50,6 +52,11 @@ import org.eclipse.xsd.util.XSDConstants;
  * components in the left and right schema that do not match. Warning
  * diagnostics are generated whenever optional components were skipped
  * to force a match.
+ * 
+ * The flattened content and attributes of each type, and the outcome of
+ * each comparison (with its diagnostics), are remembered in the
+ * {@link XSDComparisonCache} of the schema of the type until the schema
+ * changes, so that comparing the same types again is a lookup.
  *
  * @see https://jira.jboss.org/browse/JBIDE-7351
  * @see https://bugs.eclipse.org/bugs/show_bug.cgi?id=330813
@@ -95,6 +102,8 @@ public class XSDComparer {
 		if (type1==null || type2==null)
 			throw new IllegalArgumentException("XSDComparer: XSD types may not be null");
 		
+		XSDComparisonCache cache = null;
+		Set<XSDSchema> schemas = null;
 		try {
 			// always clear out diagnostics before we start
 			if (diagnostics!=null)
@@ -105,13 +114,58 @@ public class XSDComparer {
 			if (!debug && type1==type2)
 				return true;
 			
+			// the types have been compared already (debugging always compares)
+			cache = debug ? null : XSDComparisonCache.getCache(type1);
+			if (cache!=null) {
+				XSDComparisonCache.Result cached = cache.getResult(type1, type2, strict);
+				if (cached!=null) {
+					if (!cached.diagnostics.isEmpty())
+						getDiagnostics().addAll(cached.diagnostics);
+					return cached.compatible;
+				}
+			}
+			
+			// the terms compared so far guard against recursive types;
+			// they only hold for this comparison
+			terms.clear();
 			result = compare(getChildTerms(type1), getChildTerms(type2), 0);
+			if (cache!=null)
+				schemas = getSchemas(terms);
 		} catch (Exception e) {
 			return false;
+		} finally {
+			terms.clear();
 		}
 
+		if (cache!=null)
+			cache.putResult(type1, type2, strict, result, diagnostics, schemas);
 		return result;
 	}
+	
+	/**
+	 * Returns the schemas of the terms compared, and of their types;
+	 * the outcome of the comparison depends on them.
+	 * 
+	 * @param terms - the terms compared
+	 * @return a set of XSDSchema objects
+	 */
+	private Set<XSDSchema> getSchemas(Hashtable<XSDTerm,XSDTerm> terms) {
+		Set<XSDSchema> schemas = new HashSet<XSDSchema>();
+		for (XSDTerm term : terms.keySet())
+			addSchemas(term, schemas);
+		for (XSDTerm term : terms.values())
+			addSchemas(term, schemas);
+		return schemas;
+	}
+
+	private void addSchemas(XSDTerm term, Set<XSDSchema> schemas) {
+		schemas.add(term.getSchema());
+		if (term instanceof XSDElementDeclaration) {
+			XSDTypeDefinition type = ((XSDElementDeclaration)term).getTypeDefinition();
+			if (type!=null)
+				schemas.add(type.getSchema());
+		}
+	}
 
 	/**
 	 * Compares a list of the immediate children of a component; called recursively
@@ -422,10 +476,19 @@ public class XSDComparer {
 	 * @return A list of XSDTerm objects
 	 */
 	protected final List<XSDTerm> getChildTerms(XSDTypeDefinition type) {
+		XSDComparisonCache cache = XSDComparisonCache.getCache(type);
+		if (cache!=null) {
+			List<XSDTerm> cached = cache.getChildTerms(type);
+			if (cached!=null)
+				return cached;
+		}
+		
 		final ArrayList<XSDTerm> terms = new ArrayList<XSDTerm>();
+		final Set<XSDSchema> schemas = new HashSet<XSDSchema>();
 
 		TypeWalker.Visitor visitor = new TypeWalker.Visitor() {
 			public boolean visit(XSDTypeDefinition type) {
+				schemas.add(type.getSchema());
 				// simple types don't have children
 				if (type instanceof XSDSimpleTypeDefinition)
 					return true;
@@ -443,6 +506,7 @@ public class XSDComparer {
 								decl = decl.getResolvedElementDeclaration();
 							// System.out.println("Adding "+decl.getName());
 							terms.add(decl);
+							schemas.add(decl.getSchema());
 						} else if (content instanceof XSDWildcard) {
 							// System.out.println("Adding <xsd:any>");
 							terms.add((XSDWildcard) content);
@@ -457,6 +521,8 @@ public class XSDComparer {
 		TypeWalker walker = new TypeWalker(type);
 		walker.walk(visitor);
 
+		if (cache!=null)
+			return cache.putChildTerms(type, terms, schemas);
 		return terms;
 	}
 
@@ -604,13 +670,23 @@ public class XSDComparer {
 	 * @return a list of XSDAttributeDeclaration objects
 	 */
 	public final List<XSDAttributeDeclaration> getAttributeDeclarations(XSDElementDeclaration element) {
+		XSDTypeDefinition elementType = element.getType();
+		XSDComparisonCache cache = XSDComparisonCache.getCache(elementType);
+		if (cache!=null) {
+			List<XSDAttributeDeclaration> cached = cache.getAttributes(elementType);
+			if (cached!=null)
+				return cached;
+		}
+		
 		final ArrayList<XSDAttributeDeclaration> attributes = new ArrayList<XSDAttributeDeclaration>();
+		final Set<XSDSchema> schemas = new HashSet<XSDSchema>();
 
 		// walk up the type hierarchy of the element to generate a list of atts
-		TypeWalker walker = new TypeWalker(element.getType());
+		TypeWalker walker = new TypeWalker(elementType);
 
 		TypeWalker.Visitor visitor = new TypeWalker.Visitor() {
 			public boolean visit(XSDTypeDefinition type) {
+				schemas.add(type.getSchema());
 
 				// simple types dont have attributes
 				if (type instanceof XSDSimpleTypeDefinition)
@@ -632,6 +708,7 @@ public class XSDComparer {
 						if (attGrp.isAttributeGroupDefinitionReference()) {
 							attGrp = attGrp.getResolvedAttributeGroupDefinition();
 						}
+						schemas.add(attGrp.getSchema());
 
 						List<XSDAttributeUse> uses = attGrp.getAttributeUses();
 						for (XSDAttributeUse use : uses) {
@@ -645,6 +722,8 @@ public class XSDComparer {
 		};
 
 		walker.walk(visitor);
+		if (cache!=null)
+			return cache.putAttributes(elementType, attributes, schemas);
 		return attributes;
 	}
 
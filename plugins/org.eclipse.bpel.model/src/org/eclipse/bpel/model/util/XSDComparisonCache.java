@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xsd.XSDAttributeDeclaration;
+import org.eclipse.xsd.XSDConcreteComponent;
+import org.eclipse.xsd.XSDDiagnostic;
+import org.eclipse.xsd.XSDSchema;
+import org.eclipse.xsd.XSDTerm;
+import org.eclipse.xsd.XSDTypeDefinition;
+import org.eclipse.xsd.util.XSDConstants;
+
+/**
+ * What {@link XSDComparer} has worked out about the types of a schema.
+ * <p>
+ * The flattened content (the element declarations and wildcards, in order)
+ * and the attribute declarations of each type, and the outcome of comparing
+ * each type with other types, strictly or not, are computed once and kept
+ * until something they depend on changes. The cache is attached as an adapter
+ * to the schema of the types; it also listens to the other schemas the answers
+ * depend on, and to their resources, and a change to any of them drops what
+ * the cache knows.
+ * <p>
+ * The types of the schema for schemas are not cached, since that schema is
+ * shared by every resource set.
+ */
+
+public class XSDComparisonCache implements Adapter {
+
+	/** The outcome of one comparison */
+	static class Result {
+		final boolean compatible;
+		final List<XSDDiagnostic> diagnostics;
+
+		Result ( boolean compatible, List<XSDDiagnostic> diagnostics ) {
+			this.compatible = compatible;
+			this.diagnostics = diagnostics;
+		}
+	}
+
+	/** The schema whose types are cached */
+	final XSDSchema fSchema;
+
+	/** type -> the element declarations and wildcards of its content */
+	final Map<XSDTypeDefinition,List<XSDTerm>> fChildTerms = new HashMap<XSDTypeDefinition,List<XSDTerm>>();
+
+	/** type -> its attribute declarations, and those of its base types */
+	final Map<XSDTypeDefinition,List<XSDAttributeDeclaration>> fAttributes = new HashMap<XSDTypeDefinition,List<XSDAttributeDeclaration>>();
+
+	/** type of this schema -> the type compared with -> the results, lax and strict */
+	final Map<XSDTypeDefinition,Map<XSDTypeDefinition,Result[]>> fResults = new HashMap<XSDTypeDefinition,Map<XSDTypeDefinition,Result[]>>();
+
+	/** Everything we listen to, other than the schema */
+	final Set<Notifier> fWatched = new LinkedHashSet<Notifier>();
+
+
+	XSDComparisonCache ( XSDSchema schema ) {
+		fSchema = schema;
+	}
+
+
+	/**
+	 * @param type the type
+	 * @return the cache of the schema of the type, or null if the type is not cached.
+	 */
+
+	public static XSDComparisonCache getCache ( XSDTypeDefinition type ) {
+		XSDSchema schema = type != null ? type.getSchema() : null;
+		if (schema == null || XSDConstants.isSchemaForSchemaNamespace(schema.getTargetNamespace())) {
+			return null;
+		}
+		synchronized (schema) {
+			for(Adapter adapter : schema.eAdapters()) {
+				if (adapter instanceof XSDComparisonCache && ((XSDComparisonCache) adapter).fSchema == schema) {
+					return (XSDComparisonCache) adapter;
+				}
+			}
+			XSDComparisonCache cache = new XSDComparisonCache(schema);
+			schema.eAdapters().add(cache);
+			return cache;
+		}
+	}
+
+
+	/**
+	 * Drop the cache of the schema, if it has one, so that the cache no longer
+	 * refers to other schemas, nor other schemas to it.
+	 *
+	 * @param schema the schema
+	 */
+
+	public static void dropCache ( XSDSchema schema ) {
+		for(Adapter adapter : schema.eAdapters().toArray(new Adapter[0])) {
+			if (adapter instanceof XSDComparisonCache && ((XSDComparisonCache) adapter).fSchema == schema) {
+				((XSDComparisonCache) adapter).invalidate();
+			}
+		}
+	}
+
+
+	synchronized List<XSDTerm> getChildTerms ( XSDTypeDefinition type ) {
+		return fChildTerms.get(type);
+	}
+
+
+	synchronized List<XSDTerm> putChildTerms ( XSDTypeDefinition type, List<XSDTerm> terms, Set<XSDSchema> dependsOn ) {
+		terms = Collections.unmodifiableList(terms);
+		fChildTerms.put(type, terms);
+		watchAll(dependsOn);
+		return terms;
+	}
+
+
+	synchronized List<XSDAttributeDeclaration> getAttributes ( XSDTypeDefinition type ) {
+		return fAttributes.get(type);
+	}
+
+
+	synchronized List<XSDAttributeDeclaration> putAttributes ( XSDTypeDefinition type, List<XSDAttributeDeclaration> attributes, Set<XSDSchema> dependsOn ) {
+		attributes = Collections.unmodifiableList(attributes);
+		fAttributes.put(type, attributes);
+		watchAll(dependsOn);
+		return attributes;
+	}
+
+
+	synchronized Result getResult ( XSDTypeDefinition type1, XSDTypeDefinition type2, boolean strict ) {
+		Map<XSDTypeDefinition,Result[]> results = fResults.get(type1);
+		if (results == null) {
+			return null;
+		}
+		Result[] result = results.get(type2);
+		return result != null ? result[ strict ? 1 : 0 ] : null;
+	}
+
+
+	synchronized void putResult ( XSDTypeDefinition type1, XSDTypeDefinition type2, boolean strict, boolean compatible,
+			List<XSDDiagnostic> diagnostics, Set<XSDSchema> dependsOn ) {
+		Map<XSDTypeDefinition,Result[]> results = fResults.get(type1);
+		if (results == null) {
+			results = new HashMap<XSDTypeDefinition,Result[]>();
+			fResults.put(type1, results);
+		}
+		Result[] result = results.get(type2);
+		if (result == null) {
+			result = new Result[2];
+			results.put(type2, result);
+		}
+		List<XSDDiagnostic> copy = diagnostics == null || diagnostics.isEmpty() ?
+				Collections.<XSDDiagnostic>emptyList() : new ArrayList<XSDDiagnostic>(diagnostics);
+		result[ strict ? 1 : 0 ] = new Result(compatible, copy);
+
+		watch( type1 );
+		watch( type2 );
+		watch( type2.getSchema() );
+		watchAll( dependsOn );
+		// what the diagnostics point at
+		for(XSDDiagnostic diagnostic : copy) {
+			for(XSDConcreteComponent component : diagnostic.getComponents()) {
+				if (component != null) {
+					watch( component.getSchema() );
+				}
+			}
+		}
+	}
+
+
+	void watchAll ( Set<XSDSchema> schemas ) {
+		if (schemas == null) {
+			return ;
+		}
+		for(XSDSchema schema : schemas) {
+			watch(schema);
+		}
+	}
+
+
+	void watch ( Notifier notifier ) {
+		if (notifier == null || notifier == fSchema) {
+			return ;
+		}
+		if (notifier instanceof XSDSchema && XSDConstants.isSchemaForSchemaNamespace(((XSDSchema) notifier).getTargetNamespace())) {
+			return ;
+		}
+		if (fWatched.add(notifier)) {
+			notifier.eAdapters().add(this);
+			if (notifier instanceof XSDSchema) {
+				watch( ((XSDSchema) notifier).eResource() );
+			}
+		}
+	}
+
+
+	/**
+	 * Forget everything, and stop listening to anything other than the schema.
+	 */
+
+	public void invalidate () {
+		List<Notifier> watched;
+		synchronized (this) {
+			fChildTerms.clear();
+			fAttributes.clear();
+			fResults.clear();
+			if (fWatched.isEmpty()) {
+				return ;
+			}
+			watched = new ArrayList<Notifier>(fWatched);
+			fWatched.clear();
+		}
+		for(Notifier notifier : watched) {
+			notifier.eAdapters().remove(this);
+		}
+	}
+
+
+	/**
+	 * Drop the cache if the schema, a schema it depends on, their resources
+	 * or a compared type has changed.
+	 *
+	 * @see org.eclipse.emf.common.notify.Adapter#notifyChanged(org.eclipse.emf.common.notify.Notification)
+	 */
+
+	public void notifyChanged ( Notification notification ) {
+		if (notification.isTouch() || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+			return ;
+		}
+		if (notification.getNotifier() instanceof Resource &&
+				notification.getFeatureID(Resource.class) == Resource.RESOURCE__IS_MODIFIED) {
+			return ;
+		}
+		invalidate();
+	}
+
+
+	/**
+	 * @see org.eclipse.emf.common.notify.Adapter#getTarget()
+	 */
+
+	public Notifier getTarget () {
+		return fSchema;
+	}
+
+
+	/**
+	 * We are attached to other schemas and resources as well, so the target is fixed.
+	 *
+	 * @see org.eclipse.emf.common.notify.Adapter#setTarget(org.eclipse.emf.common.notify.Notifier)
+	 */
+
+	public void setTarget ( Notifier newTarget ) {
+		// nothing
+	}
+
+
+	/**
+	 * @see org.eclipse.emf.common.notify.Adapter#isAdapterForType(java.lang.Object)
+	 */
+
+	public boolean isAdapterForType ( Object type ) {
+		return type == XSDComparisonCache.class;
+	}
+
+}
@@ -14,8 +14,10 @@ import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.EventObject;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
@@ -507,6 +509,15 @@ public class BPELEditor extends GraphicalEditorWithPaletteAndTray /*, IGotoMarke
 		getCommandFramework().applyCurrentChange();
 
 		removeUnusedExtensions();
+		Map<EObject,EObject> defaultExtensions = removeDefaultExtensions();
+		try {
+			save(progressMonitor);
+		} finally {
+			restoreExtensions(defaultExtensions);
+		}
+	}
+
+	protected void save(IProgressMonitor progressMonitor) {
 		// Add all imports and namespaces to the artifacts file before saving.
 		if (getEditModelClient().getArtifactsResourceInfo() != null) {
 			Resource artifactsResource = getEditModelClient().getArtifactsResourceInfo().getResource();
@@ -1128,6 +1139,10 @@ public class BPELEditor extends GraphicalEditorWithPaletteAndTray /*, IGotoMarke
 		if (modelObject == null) {
 			adaptingSelectionProvider.setSelection(StructuredSelection.EMPTY);
 		} else {
+			// the edit part of the object may not have been created yet
+			if (getGraphicalViewer() != null && getGraphicalViewer().getRootEditPart() instanceof GraphicalBPELRootEditPart) {
+				((GraphicalBPELRootEditPart)getGraphicalViewer().getRootEditPart()).materialize(modelObject);
+			}
 			adaptingSelectionProvider.setSelection(new StructuredSelection(modelObject));
 		}
 	}
@@ -1425,6 +1440,38 @@ public class BPELEditor extends GraphicalEditorWithPaletteAndTray /*, IGotoMarke
 			map.remove(deleted.get(j));
 	}
 	
+	/**
+	 * Take the extensions which only carry default values out of the ExtensionMap,
+	 * so that they are not saved, and return them.  The extension of the process
+	 * is always saved (it carries the modification stamp of the process).
+	 */
+	protected Map<EObject,EObject> removeDefaultExtensions() {
+		ExtensionMap map = getExtensionMap();
+		Map<EObject,EObject> defaults = new HashMap<EObject,EObject>();
+		for (EObject model : map.keySet()) {
+			EObject extension = map.get(model);
+			if (model != getProcess() && extension != null && !ModelHelper.isExtensionSet(extension)) {
+				defaults.put(model, extension);
+			}
+		}
+		for (EObject model : defaults.keySet()) {
+			map.remove(model);
+		}
+		return defaults;
+	}
+	
+	/**
+	 * Put back the extensions taken out by removeDefaultExtensions().
+	 */
+	protected void restoreExtensions(Map<EObject,EObject> extensions) {
+		ExtensionMap map = getExtensionMap();
+		for (Map.Entry<EObject,EObject> entry : extensions.entrySet()) {
+			if (!map.containsKey(entry.getKey())) {
+				map.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+	
 	/**
 	 * @return the artifacts definition model.
 	 */
@@ -13,6 +13,15 @@
 
 package org.eclipse.bpel.ui;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.adapters.INamespaceMap;
 import org.eclipse.bpel.model.impl.BPELExtensibilityElementImpl;
@@ -20,8 +29,10 @@ import org.eclipse.bpel.model.BPELExtensibleElement;
 import org.eclipse.bpel.model.util.BPELConstants;
 import org.eclipse.bpel.model.util.BPELUtils;
 import org.eclipse.bpel.ui.util.BPELEditorUtil;
+import org.eclipse.bpel.ui.util.CommandStackChangeBatcher;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.wst.sse.core.internal.provisional.INodeNotifier;
 import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
 import org.eclipse.wst.wsdl.internal.impl.WSDLElementImpl;
@@ -35,11 +46,43 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+/**
+ * Keeps the model in sync with the source tab.
+ * 
+ * The changes typed in the source tab are not reconciled one keystroke at a
+ * time: the changed nodes are collected until the typing pauses for
+ * {@link #RECONCILE_DELAY} milliseconds, and then each changed element is
+ * reconciled once, in a single batch of model changes. The changes made to the
+ * DOM by the model itself (within a command) are still reconciled at once.
+ */
 class BPELModelReconcileAdapter extends ModelReconcileAdapter {
+
+	/**
+	 * The pause in the typing, in milliseconds, after which the changes are
+	 * reconciled. Zero or less reconciles each change at once.
+	 */
+	static final int RECONCILE_DELAY = Integer.getInteger("org.eclipse.bpel.ui.reconcileDelay", 300).intValue(); //$NON-NLS-1$
+
 	protected Process process;
 	protected Resource bpelResource;
 	private BPELEditor fEditor;
 
+	// The nodes changed since the last reconcile, in the order of the changes
+	private Set<Node> fChangedNodes = new LinkedHashSet<Node>();
+
+	// The model objects whose markers are to be updated, while reconciling
+	private Set<EObject> fChangedObjects;
+
+	private Display fDisplay;
+
+	private CommandStackChangeBatcher fBatcher = new CommandStackChangeBatcher();
+
+	private Runnable fReconcileRunnable = new Runnable() {
+		public void run() {
+			reconcileNow();
+		}
+	};
+
 	public BPELModelReconcileAdapter(Document document, Process process,
 			Resource bpelResource, BPELEditor editor) {
 		super(document);
@@ -123,6 +166,9 @@ class BPELModelReconcileAdapter extends ModelReconcileAdapter {
 
 		// Wrap changes in source tab to the Command
 		if (modelObjectCandidate != null) {
+			if (fChangedObjects != null && modelObjectCandidate instanceof EObject) {
+				fChangedObjects.add((EObject) modelObjectCandidate);
+			}
 			final Object modelObject = modelObjectCandidate;
 			final Element element = elementCandidate;
 //			UpdateModelCommand cmd = new UpdateModelCommand(
@@ -135,7 +181,9 @@ class BPELModelReconcileAdapter extends ModelReconcileAdapter {
 								.elementChanged(element);
 						// https://jira.jboss.org/browse/JBIDE-7497
 						// Bugzilla 330519
-						this.fEditor.getMultipageEditor().updateMarkers((BPELExtensibleElement)modelObject);
+						if (fChangedObjects == null) {
+							this.fEditor.getMultipageEditor().updateMarkers((BPELExtensibleElement)modelObject);
+						}
 					} else if (modelObject instanceof BPELExtensibilityElementImpl) {
 						((BPELExtensibilityElementImpl) modelObject)
 								.elementChanged(element);
@@ -157,6 +205,114 @@ class BPELModelReconcileAdapter extends ModelReconcileAdapter {
 		}
 	}
 
+	/**
+	 * Remember that the given node has changed, and reconcile it when the
+	 * typing pauses; reconcile it at once if the model itself is changing the
+	 * DOM.
+	 */
+	private void nodeChanged(Node node) {
+		Display display = Display.getCurrent();
+		if (RECONCILE_DELAY <= 0 || display == null
+				|| CommandStackChangeBatcher.isBatchingChanges()) {
+			// keep the order of the changes
+			reconcileNow();
+			handleNodeChanged(node);
+			return;
+		}
+		fChangedNodes.add(node);
+		fDisplay = display;
+		display.timerExec(-1, fReconcileRunnable);
+		display.timerExec(RECONCILE_DELAY, fReconcileRunnable);
+	}
+
+	/**
+	 * Reconcile the changes not reconciled yet.
+	 */
+	public void reconcileNow() {
+		if (fChangedNodes.isEmpty()) {
+			return;
+		}
+		if (fDisplay != null && !fDisplay.isDisposed()) {
+			fDisplay.timerExec(-1, fReconcileRunnable);
+		}
+
+		// The elements to reconcile, each once, and only if they are still in
+		// the document. The parents are reconciled first, so that the model
+		// objects of new children exist when the children are reconciled.
+		final Map<Node, Integer> depths = new HashMap<Node, Integer>();
+		for (Node node : fChangedNodes) {
+			Node target = getReconcileTarget(node);
+			if (target != null && !depths.containsKey(target)) {
+				int depth = getDepthInDocument(target);
+				if (depth >= 0) {
+					depths.put(target, depth);
+				}
+			}
+		}
+		fChangedNodes.clear();
+
+		final List<Node> targets = new ArrayList<Node>(depths.keySet());
+		Collections.sort(targets, new Comparator<Node>() {
+			public int compare(Node n1, Node n2) {
+				return depths.get(n1).intValue() - depths.get(n2).intValue();
+			}
+		});
+
+		fChangedObjects = new LinkedHashSet<EObject>();
+		try {
+			fBatcher.runBatched(new Runnable() {
+				public void run() {
+					for (Node target : targets) {
+						handleNodeChanged(target);
+					}
+				}
+			});
+			for (EObject modelObject : fChangedObjects) {
+				if (modelObject instanceof BPELExtensibleElement) {
+					fEditor.getMultipageEditor().updateMarkers(modelObject);
+				}
+			}
+		} finally {
+			fChangedObjects = null;
+		}
+	}
+
+	/**
+	 * Forget the changes not reconciled yet, when the editor is closed.
+	 */
+	public void cancelReconcile() {
+		fChangedNodes.clear();
+		if (fDisplay != null && !fDisplay.isDisposed()) {
+			fDisplay.timerExec(-1, fReconcileRunnable);
+		}
+	}
+
+	// The node which handleNodeChanged() reconciles for the given node
+	private Node getReconcileTarget(Node node) {
+		if (node instanceof Element
+				&& !BPELConstants.ND_LITERAL.equals(node.getLocalName())) {
+			return node;
+		} else if (node instanceof Document) {
+			return node;
+		} else if (node.getNodeType() == Node.CDATA_SECTION_NODE
+				|| BPELConstants.ND_LITERAL.equals(node.getLocalName())) {
+			return node.getParentNode();
+		}
+		return null;
+	}
+
+	// The depth of the node in its document, or -1 if it has been removed
+	private int getDepthInDocument(Node node) {
+		int depth = 0;
+		for (; node != null; node = node.getParentNode()) {
+			if (node instanceof Document) {
+				return depth;
+			}
+			depth++;
+		}
+		return -1;
+	}
+
 	@Override
 	public void modelDirtyStateChanged(IStructuredModel model, boolean isDirty) {
 		if (!isDirty) {
@@ -223,11 +379,11 @@ class BPELModelReconcileAdapter extends ModelReconcileAdapter {
 				if (!BPELConstants.NAMESPACE.equals(attr.getValue()))
 					break;
 			}
-			handleNodeChanged(node);
+			nodeChanged(node);
 			break;
 		}
 		case INodeNotifier.CONTENT_CHANGED: {
-			handleNodeChanged(node);
+			nodeChanged(node);
 			break;
 		}
 		}
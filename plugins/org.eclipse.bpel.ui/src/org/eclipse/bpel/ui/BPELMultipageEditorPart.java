@@ -18,9 +18,9 @@ import java.util.ArrayList;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.eclipse.bpel.common.extension.model.ExtensionMap;
 import org.eclipse.bpel.common.ui.editmodel.IEditModelListener;
@@ -69,7 +69,6 @@ import org.eclipse.draw2d.parts.Thumbnail;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.impl.NotificationImpl;
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -365,7 +364,13 @@ IGotoMarker/*, CommandStackListener*/ {
 	private static int DESIGN_PAGE_INDEX = 0;
 	private static int SOURCE_PAGE_INDEX = 1;
 
+	// The markers of the file, by marker id and by model object
 	private final Map<Long, EObject>fMarkers2EObject = new HashMap<Long, EObject>();
+	private final Map<EObject, Map<Long, IMarker>> fEObject2Markers = new HashMap<EObject, Map<Long, IMarker>>();
+	// The markers of the file which have an "address.model" href, by href
+	private final Map<String, Map<Long, IMarker>> fHref2Markers = new HashMap<String, Map<Long, IMarker>>();
+	// The model objects which the "address.model" hrefs of the markers resolve to
+	private final Map<String, EObject> fHref2EObject = new HashMap<String, EObject>();
 	private final Notification fMarkersStale = new NotificationImpl(
 			AdapterNotification.NOTIFICATION_MARKERS_STALE, null, null);
 
@@ -512,6 +517,10 @@ IGotoMarker/*, CommandStackListener*/ {
 		this.outlinePage = null;
 		this.process = null;
 
+		if (this.bpelModelReconcileAdapter != null) {
+			this.bpelModelReconcileAdapter.cancelReconcile();
+		}
+
 		if (this.fileChangeListener != null) {
 			BPELUIPlugin.INSTANCE.getResourceChangeListener().removeListener(this.fileChangeListener);
 		}
@@ -605,6 +614,9 @@ IGotoMarker/*, CommandStackListener*/ {
 		// We use fTextEditor to save, because fDesignViewer.doSave() removes comments on save
 		// Save bpel only
 		this.fDesignViewer.getCommandFramework().applyCurrentChange();
+		if (this.bpelModelReconcileAdapter != null) {
+			this.bpelModelReconcileAdapter.reconcileNow();
+		}
 		this.fTextEditor.doSave(progressMonitor);
 		// Reset sync stamp and modified flag after save
 		this.fDesignViewer.getEditModelClient().getPrimaryResourceInfo().resetSynchronizeStamp();
@@ -863,6 +875,11 @@ IGotoMarker/*, CommandStackListener*/ {
 		GraphicalViewer graphViewer = this.fDesignViewer.getGraphicalViewer();
 		EObject refObj = null;
 
+		// In virtualized mode the edit parts are only created near the viewport
+		if (graphViewer.getRootEditPart() instanceof GraphicalBPELRootEditPart) {
+			((GraphicalBPELRootEditPart)graphViewer.getRootEditPart()).materialize(modelObject);
+		}
+
 		EditPart editPart = null;
 		if ( modelObject instanceof Variable ||
 				modelObject instanceof PartnerLink ||
@@ -1271,71 +1288,108 @@ IGotoMarker/*, CommandStackListener*/ {
 	 * notifications are delegated to the correct activity displayed
 	 * in the graphical viewer.
 	 * 
+	 * Only the hrefs which pointed into the model object, and those which
+	 * did not resolve, are resolved again, from the marker index;
+	 * the markers of other objects and of the file are left alone.
+	 * 
 	 * @param modelObject
 	 * @see Bugzilla 330519
 	 */
 	public void updateMarkers(EObject modelObject) {
-		List<Long> removed = new ArrayList<Long>();
-		for (Entry<Long, EObject> e : fMarkers2EObject.entrySet()){
-			if (e.getValue() == modelObject)
-				removed.add(e.getKey());
+
+		modelObject.eNotify(fMarkersStale);
+
+		Resource resource = getProcess().eResource();
+
+		// The change may have moved the model object and what it contains around,
+		// and it may be what the hrefs which did not resolve point to now.
+		List<String> hrefs = new ArrayList<String>();
+		for (Iterator<Map.Entry<String, EObject>> i = this.fHref2EObject.entrySet().iterator(); i.hasNext(); ) {
+			Map.Entry<String, EObject> entry = i.next();
+			EObject target = entry.getValue();
+			if (target.eResource() != resource || EcoreUtil.isAncestor(modelObject, target)) {
+				hrefs.add(entry.getKey());
+				i.remove();
+			}
 		}
-		for (Long key : removed) {
-			fMarkers2EObject.remove(key);
+		for (String href : this.fHref2Markers.keySet()) {
+			if (!this.fHref2EObject.containsKey(href)) {
+				hrefs.add(href);
+			}
 		}
 
-		modelObject.eNotify(fMarkersStale);
-		
-		for (TreeIterator<EObject> iter=EcoreUtil.getAllContents((EObject)modelObject, true); iter.hasNext(); ){
-			EObject obj = iter.next();
-			BPELUtil.adapt(obj, IMarkerHolder.class);
+		for (String href : hrefs) {
+			resolveMarkers(resource, href, modelObject);
 		}
+	}
 
-		IMarker[] markers = null;
-		IFile file = getFileInput();
-		Resource resource = getProcess().eResource();
+	/**
+	 * Resolve the href of some markers of the file again, and index the markers
+	 * under the model object which it now points to.
+	 */
+	protected void resolveMarkers(Resource resource, String href, EObject modelObject) {
 
-		try {
-			markers = file.findMarkers(null, true, IResource.DEPTH_ZERO);
-		} catch (Exception ex) {
-			BPELUIPlugin.log(ex);
+		Map<Long, IMarker> markers = this.fHref2Markers.get(href);
+		if (markers == null) {
 			return;
 		}
+		EObject target = resolveMarkerTarget(resource, href);
 
-		for (IMarker m : markers) {
-
-			String href = null;
-			EObject target = null;
-			try {
-				href = (String) m.getAttribute( "address.model" ); //$NON-NLS-1$
-				if (href == null) {
-					continue;
+		for (IMarker m : markers.values().toArray(new IMarker[markers.size()])) {
+			EObject previous = this.fMarkers2EObject.get(m.getId());
+			if (!m.exists() || target == null) {
+				if (!m.exists()) {
+					unindexMarker(href, m.getId());
 				}
-				target = resource.getEObject(href);
-			} catch (Exception ex) {
+				removeMarker(m.getId());
+			} else if (target != previous || target == modelObject) {
+				addMarker(m, target);
+			} else {
 				continue;
 			}
+			// the model object was told already that its markers are stale
+			if (previous != null && previous != target && previous != modelObject) {
+				previous.eNotify( new NotificationImpl(AdapterNotification.NOTIFICATION_MARKER_DELETED, m, null));
+			}
+		}
+	}
 
-			if (target == modelObject) {
-				this.fMarkers2EObject.put(m.getId(), target);
-				EObject obj = target;
-				while (obj!=null) {
-					BPELUtil.adapt(obj, IMarkerHolder.class);
-					obj = obj.eContainer();
-				}
-				target.eNotify( new NotificationImpl (AdapterNotification.NOTIFICATION_MARKER_ADDED , null, m ));
+	/**
+	 * Index the marker under its href.
+	 */
+	protected void indexMarker(String href, IMarker marker) {
+		Map<Long, IMarker> markers = this.fHref2Markers.get(href);
+		if (markers == null) {
+			markers = new LinkedHashMap<Long, IMarker>();
+			this.fHref2Markers.put(href, markers);
+		}
+		markers.put(marker.getId(), marker);
+	}
+
+	/**
+	 * Remove the marker from the index of the hrefs.
+	 */
+	protected void unindexMarker(String href, long id) {
+		Map<Long, IMarker> markers = this.fHref2Markers.get(href);
+		if (markers != null) {
+			markers.remove(id);
+			if (markers.isEmpty()) {
+				this.fHref2Markers.remove(href);
+				this.fHref2EObject.remove(href);
 			}
 		}
-		
 	}
 
 	protected void updateMarkersHard () {
 
-		for(EObject obj : this.fMarkers2EObject.values()) {
+		for(EObject obj : this.fEObject2Markers.keySet()) {
 			obj.eNotify(this.fMarkersStale);
 		}
 
 		this.fMarkers2EObject.clear();
+		this.fEObject2Markers.clear();
+		this.fHref2Markers.clear();
+		this.fHref2EObject.clear();
 
 		IMarker[] markers = null;
 		IFile file = getFileInput();
@@ -1357,7 +1411,8 @@ IGotoMarker/*, CommandStackListener*/ {
 				if (href == null) {
 					continue;
 				}
-				target = resource.getEObject(href);
+				indexMarker(href, m);
+				target = resolveMarkerTarget(resource, href);
 			} catch (Exception ex) {
 				continue;
 			}
@@ -1365,20 +1420,80 @@ IGotoMarker/*, CommandStackListener*/ {
 				continue;
 			}
 
-			this.fMarkers2EObject.put(m.getId(), target);
-			EObject obj = target;
-			while (obj!=null) {
-				BPELUtil.adapt(obj, IMarkerHolder.class);
-				obj = obj.eContainer();
+			addMarker(m, target);
+		}
+
+	}
+
+	/**
+	 * Return the model object which the href of a marker resolves to.
+	 * The hrefs are resolved once, until the model changes.
+	 */
+	protected EObject resolveMarkerTarget(Resource resource, String href) {
+		EObject target = this.fHref2EObject.get(href);
+		if (target == null || target.eResource() != resource) {
+			target = resource.getEObject(href);
+			if (target != null) {
+				this.fHref2EObject.put(href, target);
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * Index the marker under the model object, and tell the model object.
+	 */
+	protected void addMarker(IMarker marker, EObject target) {
+		EObject previous = this.fMarkers2EObject.put(marker.getId(), target);
+		if (previous != null && previous != target) {
+			Map<Long, IMarker> markers = this.fEObject2Markers.get(previous);
+			if (markers != null) {
+				markers.remove(marker.getId());
+				if (markers.isEmpty()) {
+					this.fEObject2Markers.remove(previous);
+				}
 			}
-			target.eNotify( new NotificationImpl (AdapterNotification.NOTIFICATION_MARKER_ADDED , null, m ));
 		}
+		Map<Long, IMarker> markers = this.fEObject2Markers.get(target);
+		if (markers == null) {
+			markers = new LinkedHashMap<Long, IMarker>();
+			this.fEObject2Markers.put(target, markers);
+		}
+		markers.put(marker.getId(), marker);
 
+		EObject obj = target;
+		while (obj!=null) {
+			BPELUtil.adapt(obj, IMarkerHolder.class);
+			obj = obj.eContainer();
+		}
+		target.eNotify( new NotificationImpl (AdapterNotification.NOTIFICATION_MARKER_ADDED , null, marker ));
+	}
+
+	/**
+	 * Remove the marker from the index.
+	 * @return the model object of the marker, or null.
+	 */
+	protected EObject removeMarker(long id) {
+		EObject target = this.fMarkers2EObject.remove(id);
+		if (target != null) {
+			Map<Long, IMarker> markers = this.fEObject2Markers.get(target);
+			if (markers != null) {
+				markers.remove(id);
+				if (markers.isEmpty()) {
+					this.fEObject2Markers.remove(target);
+				}
+			}
+		}
+		return target;
 	}
 
 
 	@Override
 	protected void pageChange(int newPageIndex) {
+		// the design page shows the changes typed in the source page so far
+		if (this.bpelModelReconcileAdapter != null) {
+			this.bpelModelReconcileAdapter.reconcileNow();
+		}
 		this.currentPage = newPageIndex;
 		super.pageChange(newPageIndex);
 	}
@@ -1424,20 +1539,22 @@ IGotoMarker/*, CommandStackListener*/ {
 
 			switch (delta.getKind()) {
 			case IResourceDelta.ADDED :
-				target = resource.getEObject(href);
+				indexMarker(href, delta.getMarker());
+				target = resolveMarkerTarget(resource, href);
 				if (target != null) {
-					this.fMarkers2EObject.put(delta.getId(),target);
-					target.eNotify( new NotificationImpl(AdapterNotification.NOTIFICATION_MARKER_ADDED,null,delta.getMarker() ));
+					addMarker(delta.getMarker(), target);
 				}
 				break;
 			case IResourceDelta.CHANGED :
-				target = this.fMarkers2EObject.remove(delta.getId());
+				// the marker stays indexed, so that its removal is seen
+				target = this.fMarkers2EObject.get(delta.getId());
 				if (target != null) {
 					target.eNotify( new NotificationImpl(AdapterNotification.NOTIFICATION_MARKER_CHANGED,delta.getMarker(),null));
 				}
 				break;
 			case IResourceDelta.REMOVED :
-				target = this.fMarkers2EObject.remove(delta.getId());
+				unindexMarker(href, delta.getId());
+				target = removeMarker(delta.getId());
 				if (target != null) {
 					target.eNotify( new NotificationImpl(AdapterNotification.NOTIFICATION_MARKER_DELETED,delta.getMarker(),null));
 				}
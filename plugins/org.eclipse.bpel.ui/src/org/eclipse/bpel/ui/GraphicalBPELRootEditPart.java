@@ -10,14 +10,252 @@
  *******************************************************************************/
 package org.eclipse.bpel.ui;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.bpel.model.Activity;
+import org.eclipse.bpel.model.Flow;
+import org.eclipse.bpel.ui.editparts.CollapsableEditPart;
+import org.eclipse.draw2d.FigureListener;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gef.EditPart;
 import org.eclipse.gef.editparts.ScalableRootEditPart;
+import org.eclipse.swt.widgets.Control;
 
+/**
+ * The root edit part of the design viewer.
+ *
+ * Processes with many activities are shown in virtualized mode: the container
+ * edit parts (see {@link CollapsableEditPart}) which are away from the viewport
+ * do not create the edit parts and the figures of their children, and are shown
+ * as empty placeholders of the size they had, or are estimated to have. They are
+ * filled in as they are scrolled near the viewport, and emptied again when the
+ * memory runs low.
+ *
+ * Flows, the containers of flows and the activities in flows are always filled in,
+ * since the links and the free form layout of a flow need the edit parts of all
+ * the activities of the flow.
+ */
 public class GraphicalBPELRootEditPart extends ScalableRootEditPart {
 
-	public GraphicalBPELRootEditPart() { 
+	/**
+	 * The number of activities from which a process is shown in virtualized mode.
+	 * A negative number turns the virtualized mode off.
+	 */
+	public static final int VIRTUALIZE_THRESHOLD = Integer.getInteger("org.eclipse.bpel.ui.virtualize", 1000).intValue(); //$NON-NLS-1$
+
+	// Whether the process is shown in virtualized mode, null until asked
+	private Boolean virtualized;
+
+	// The flows and the containers of flows, which are never emptied
+	private Set<Object> flowContainers = new HashSet<Object>();
+
+	// The container edit parts which may be emptied, parents first
+	private Set<CollapsableEditPart> deferrables = new LinkedHashSet<CollapsableEditPart>();
+
+	// The last known size of the emptied containers
+	private Map<Object,Dimension> sizes = new WeakHashMap<Object,Dimension>();
+
+	// Cleared by the garbage collector when the memory runs low
+	private Reference<Object> memory = new SoftReference<Object>(new Object());
+
+	private boolean updatePending;
+
+	private PropertyChangeListener rangeListener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent evt) {
+			scheduleUpdate();
+		}
+	};
+
+	private FigureListener figureListener = new FigureListener() {
+		public void figureMoved(IFigure source) {
+			scheduleUpdate();
+		}
+	};
+
+	public GraphicalBPELRootEditPart() {
 		super();
 		double zoom[] = {.1, .25, .5, .75, 1.0, 1.5, 2.0, 2.5, 3, 4, 6, 9};
 		this.getZoomManager().setZoomLevels(zoom);
 	}
 
+	@Override
+	public void activate() {
+		super.activate();
+		Viewport viewport = (Viewport)getFigure();
+		viewport.getHorizontalRangeModel().addPropertyChangeListener(rangeListener);
+		viewport.getVerticalRangeModel().addPropertyChangeListener(rangeListener);
+		viewport.addFigureListener(figureListener);
+	}
+
+	@Override
+	public void deactivate() {
+		Viewport viewport = (Viewport)getFigure();
+		viewport.getHorizontalRangeModel().removePropertyChangeListener(rangeListener);
+		viewport.getVerticalRangeModel().removePropertyChangeListener(rangeListener);
+		viewport.removeFigureListener(figureListener);
+		super.deactivate();
+	}
+
+	@Override
+	public void setContents(EditPart editpart) {
+		virtualized = null;
+		flowContainers.clear();
+		sizes.clear();
+		super.setContents(editpart);
+	}
+
+	/**
+	 * Return whether the process is shown in virtualized mode.
+	 */
+	public boolean isVirtualized() {
+		if (virtualized == null) {
+			int count = 0;
+			EditPart contents = getContents();
+			if (VIRTUALIZE_THRESHOLD >= 0 && contents != null && contents.getModel() instanceof EObject) {
+				for (Iterator<EObject> it = ((EObject)contents.getModel()).eAllContents(); it.hasNext(); ) {
+					EObject object = it.next();
+					if (object instanceof Activity) count++;
+					if (object instanceof Flow) {
+						for (EObject o = object; o != null && flowContainers.add(o); o = o.eContainer()) {
+							// walk up to the first container already known
+						}
+					}
+				}
+			}
+			virtualized = Boolean.valueOf(VIRTUALIZE_THRESHOLD >= 0 && count >= VIRTUALIZE_THRESHOLD);
+		}
+		return virtualized.booleanValue();
+	}
+
+	/**
+	 * Return whether the given container edit part may be emptied.
+	 */
+	public boolean canDefer(CollapsableEditPart part) {
+		if (!isVirtualized() || flowContainers.contains(part.getModel())) return false;
+		if (!(part.getModel() instanceof EObject)) return false;
+		for (EObject o = ((EObject)part.getModel()).eContainer(); o != null; o = o.eContainer()) {
+			if (o instanceof Flow) return false;
+		}
+		return true;
+	}
+
+	public void addDeferrable(CollapsableEditPart part) {
+		deferrables.add(part);
+		scheduleUpdate();
+	}
+
+	public void removeDeferrable(CollapsableEditPart part) {
+		deferrables.remove(part);
+	}
+
+	/**
+	 * Return the size of the placeholder of an emptied container: the size it had
+	 * when it was last emptied, or its estimated size.
+	 */
+	public Dimension getPlaceholderSize(CollapsableEditPart part) {
+		Dimension size = sizes.get(part.getModel());
+		return size != null ? size : part.estimateSize();
+	}
+
+	public void setPlaceholderSize(CollapsableEditPart part, Dimension size) {
+		sizes.put(part.getModel(), size.getCopy());
+	}
+
+	/**
+	 * Fill in the containers of the given model object, so that its edit part
+	 * exists and may be selected or revealed.
+	 */
+	public void materialize(Object model) {
+		if (deferrables.isEmpty() || !(model instanceof EObject)) return;
+		List<EObject> path = new ArrayList<EObject>();
+		for (EObject o = ((EObject)model).eContainer(); o != null; o = o.eContainer()) {
+			path.add(0, o);
+		}
+		boolean changed = false;
+		Map registry = getViewer().getEditPartRegistry();
+		for (EObject o : path) {
+			Object part = registry.get(o);
+			if (part instanceof CollapsableEditPart && ((CollapsableEditPart)part).isDeferred()) {
+				((CollapsableEditPart)part).setDeferred(false);
+				changed = true;
+			}
+		}
+		if (changed) {
+			getFigure().getUpdateManager().performValidation();
+		}
+	}
+
+	protected void scheduleUpdate() {
+		if (updatePending || !isActive() || getViewer() == null) return;
+		Control control = getViewer().getControl();
+		if (control == null || control.isDisposed()) return;
+		updatePending = true;
+		control.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				updatePending = false;
+				if (isActive()) update();
+			}
+		});
+	}
+
+	/**
+	 * Fill in the emptied containers near the viewport, and empty the containers
+	 * far from it if the memory runs low.
+	 */
+	protected void update() {
+		if (deferrables.isEmpty()) return;
+		Viewport viewport = (Viewport)getFigure();
+		viewport.getUpdateManager().performValidation();
+
+		// The viewport and one more viewport around it
+		Rectangle near = viewport.getBounds().getCopy();
+		near.expand(near.width, near.height);
+
+		boolean changed = false;
+		for (CollapsableEditPart part : deferrables.toArray(new CollapsableEditPart[deferrables.size()])) {
+			if (part.isActive() && part.isDeferred() && intersects(part, near)) {
+				part.setDeferred(false);
+				changed = true;
+			}
+		}
+
+		if (memory.get() == null) {
+			Rectangle far = near.getCopy();
+			far.expand(near.width, near.height);
+			for (CollapsableEditPart part : deferrables.toArray(new CollapsableEditPart[deferrables.size()])) {
+				// an emptied container removes the containers inside it, and a
+				// collapsed container has no children to remove
+				if (part.isActive() && !part.isDeferred() && !part.isCollapsed() && !intersects(part, far)) {
+					part.setDeferred(true);
+				}
+			}
+			memory = new SoftReference<Object>(new Object());
+		}
+
+		// Filled in containers make room for their children, which may be near
+		// the viewport as well
+		if (changed) scheduleUpdate();
+	}
+
+	private boolean intersects(CollapsableEditPart part, Rectangle area) {
+		IFigure figure = part.getFigure();
+		Rectangle bounds = figure.getBounds().getCopy();
+		figure.translateToAbsolute(bounds);
+		return bounds.intersects(area);
+	}
 }
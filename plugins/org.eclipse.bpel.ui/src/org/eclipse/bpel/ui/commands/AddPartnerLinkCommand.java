@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.bpel.ui.commands;
 
+import org.eclipse.bpel.model.BPELFactory;
 import org.eclipse.bpel.model.PartnerLink;
 import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.Scope;
@@ -53,11 +54,23 @@ public class AddPartnerLinkCommand extends AddToListCommand {
 		if (process != null) {
 			return process.getPartnerLinks().getChildren();
 		} else if (scope != null) {
-			return scope.getPartnerLinks().getChildren();
+			if (scope.getPartnerLinks() != null)
+				return scope.getPartnerLinks().getChildren();
+			return null;
 		} 
 		throw new IllegalStateException("Container must either be a scope or a process"); //$NON-NLS-1$
 	}
 
+	/**
+	 * The PartnerLinks of a scope are created when the first partner link is added.
+	 */
+	@Override
+	protected void createList() {
+		if (scope != null && scope.getPartnerLinks() == null) {
+			scope.setPartnerLinks(BPELFactory.eINSTANCE.createPartnerLinks());
+		}
+	}
+
 	
 	@Override
 	public void doExecute() {
@@ -10,9 +10,11 @@
  *******************************************************************************/
 package org.eclipse.bpel.ui.commands;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.bpel.model.BPELFactory;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.model.Scope;
 import org.eclipse.bpel.model.Variable;
 import org.eclipse.bpel.model.Variables;
 import org.eclipse.bpel.ui.IBPELUIConstants;
@@ -36,6 +38,18 @@ public class AddVariableCommand extends AddToListCommand {
 		Variables variables = ModelHelper.getVariables( target );
 		if (variables != null)
 			return variables.getChildren();
-		return new ArrayList<Variable>();
+		return null;
+	}
+
+	/**
+	 * The Variables of a scope are created when the first variable is added.
+	 */
+	@Override
+	protected void createList() {
+		if (target instanceof Scope && ((Scope)target).getVariables() == null) {
+			((Scope)target).setVariables(BPELFactory.eINSTANCE.createVariables());
+		} else if (target instanceof Process && ((Process)target).getVariables() == null) {
+			((Process)target).setVariables(BPELFactory.eINSTANCE.createVariables());
+		}
 	}
 }
@@ -15,6 +15,7 @@ import java.util.List;
 
 import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.messageproperties.PropertyAlias;
+import org.eclipse.bpel.ui.util.BPELUtil;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
@@ -50,7 +51,7 @@ public class PropertyAliasContentProvider extends AbstractContentProvider {
 			// of what properties and propertyAliases are available and where?
 			
 			ResourceSet resourceSet = ((Process)input).eResource().getResourceSet();			
-			for (Iterator it = resourceSet.getResources().iterator(); it.hasNext(); ) {
+			for (Iterator it = BPELUtil.getAllResources(resourceSet).iterator(); it.hasNext(); ) {
 				Resource resource = (Resource)it.next();
 				if (resource instanceof WSDLResourceImpl) {
 					for (TreeIterator treeIt = resource.getAllContents(); treeIt.hasNext(); ) {
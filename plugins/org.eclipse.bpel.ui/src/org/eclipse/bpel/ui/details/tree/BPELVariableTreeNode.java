@@ -33,7 +33,7 @@ public class BPELVariableTreeNode extends TreeNode {
 		if (isCondensed) {
 			if (variable.getMessageType() != null)  {
 				fNode = new MessageTypeTreeNode(variable.getMessageType(),
-					isCondensed, isPropertyTree);
+					isCondensed, isPropertyTree).setContext(variable);
 			} else if (variable.getType() != null) {
 				fNode = new XSDTypeDefinitionTreeNode(variable.getType(), isCondensed);
 			} else if (variable.getXSDElement() != null) {
@@ -61,7 +61,7 @@ public class BPELVariableTreeNode extends TreeNode {
 		if (variable.getMessageType() != null) {
 			return new Object[] {
 					new MessageTypeTreeNode(variable.getMessageType(),
-							isCondensed, isPropertyTree, displayParticles) 
+							isCondensed, isPropertyTree, displayParticles).setContext(variable)
 				};			
 		}
 		if (variable.getType() != null) {
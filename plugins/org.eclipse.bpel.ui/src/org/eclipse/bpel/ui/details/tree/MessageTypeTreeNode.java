@@ -32,6 +32,7 @@ public class MessageTypeTreeNode extends TreeNode {
 
 	boolean isPropertyTree;
 	boolean displayParticles;
+	EObject context;
 	
 	public MessageTypeTreeNode(Input msg, boolean isCondensed, boolean isProperty) {
 		this(msg, isCondensed, isProperty,true);		
@@ -61,6 +62,15 @@ public class MessageTypeTreeNode extends TreeNode {
 		this.displayParticles = displayParticles;
 	}
 
+	/**
+	 * Set the object (in the process) on whose behalf the message is shown; the
+	 * property aliases are looked up in its resource set.
+	 */
+	public MessageTypeTreeNode setContext(EObject context) {
+		this.context = context;
+		return this;
+	}
+
 	/* ITreeNode */
 
 	@Override
@@ -74,7 +84,7 @@ public class MessageTypeTreeNode extends TreeNode {
 		
 		if (isPropertyTree) {
 			// Find propertyAliases that refer to this message.
-			List<PropertyAlias> aliases = BPELUtil.getPropertyAliasesForMessageType(msg);
+			List<PropertyAlias> aliases = BPELUtil.getPropertyAliasesForMessageType(msg, context != null ? context : msg);
 			List<Property> properties = getPropertiesFromPropertyAliases(aliases);
 			List<PropertyTreeNode> list = new ArrayList<PropertyTreeNode>();
 			for (Iterator<Property> it = properties.iterator(); it.hasNext(); ) {
@@ -11,11 +11,14 @@
 package org.eclipse.bpel.ui.editparts;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.bpel.common.ui.markers.IModelMarkerConstants;
+import org.eclipse.bpel.model.Activity;
 import org.eclipse.bpel.model.Link;
 import org.eclipse.bpel.ui.BPELUIPlugin;
+import org.eclipse.bpel.ui.GraphicalBPELRootEditPart;
 import org.eclipse.bpel.ui.IBPELUIConstants;
 import org.eclipse.bpel.ui.adapters.ILabeledElement;
 import org.eclipse.bpel.ui.adapters.IMarkerHolder;
@@ -28,6 +31,7 @@ import org.eclipse.bpel.ui.figures.CenteredConnectionAnchor;
 import org.eclipse.bpel.ui.figures.ILayoutAware;
 import org.eclipse.bpel.ui.util.BPELDragEditPartsTracker;
 import org.eclipse.bpel.ui.util.BPELUtil;
+import org.eclipse.bpel.ui.util.ModelHelper;
 import org.eclipse.bpel.ui.util.marker.BPELEditPartMarkerDecorator;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.draw2d.Border;
@@ -59,6 +63,10 @@ public abstract class CollapsableEditPart extends CompositeActivityEditPart impl
 	// Whether or not the edit part is collapsed
 	protected boolean collapsed;
 	
+	// Whether or not the children are left out until the edit part
+	// comes near the viewport (see GraphicalBPELRootEditPart)
+	protected boolean deferred;
+	
 	// The primary image for the edit part
 	protected Image image;
 	
@@ -305,6 +313,83 @@ public abstract class CollapsableEditPart extends CompositeActivityEditPart impl
 	protected boolean isCollapsable() {
 		return true;
 	}
+	
+	public boolean isDeferred() {
+		return deferred;
+	}
+	
+	/**
+	 * Leave out or fill in the children of this edit part. While they are
+	 * left out, the figure keeps the size of its children as a placeholder.
+	 */
+	public void setDeferred(boolean deferred) {
+		if (this.deferred == deferred) return;
+		GraphicalBPELRootEditPart root = getBPELRoot();
+		if (deferred) {
+			if (root != null && !isCollapsed()) {
+				root.setPlaceholderSize(this, getFigure().getSize());
+			}
+			this.deferred = true;
+			refreshChildren();
+			if (root != null && !isCollapsed()) {
+				getFigure().setPreferredSize(root.getPlaceholderSize(this));
+			}
+		} else {
+			this.deferred = false;
+			getFigure().setPreferredSize(null);
+			refreshChildren();
+			getFigure().revalidate();
+		}
+	}
+	
+	/**
+	 * Return the estimated size of this edit part with all of its children,
+	 * used until the real size is known.
+	 */
+	public Dimension estimateSize() {
+		int count = 0;
+		for (Iterator it = getActivity().eAllContents(); it.hasNext(); ) {
+			if (it.next() instanceof Activity) count++;
+		}
+		int length = 40 + 60 * count;
+		if (ModelHelper.isHorizontalLayout(getModel())) {
+			return new Dimension(length + 40, 100);
+		}
+		return new Dimension(160, length);
+	}
+	
+	protected GraphicalBPELRootEditPart getBPELRoot() {
+		if (getRoot() instanceof GraphicalBPELRootEditPart) {
+			return (GraphicalBPELRootEditPart)getRoot();
+		}
+		return null;
+	}
+	
+	/**
+	 * In virtualized mode the children are left out from the start, before
+	 * refresh() creates them.
+	 */
+	@Override
+	protected void register() {
+		super.register();
+		GraphicalBPELRootEditPart root = getBPELRoot();
+		if (root != null && root.canDefer(this)) {
+			if (!isCollapsed()) {
+				this.deferred = true;
+				getFigure().setPreferredSize(root.getPlaceholderSize(this));
+			}
+			root.addDeferrable(this);
+		}
+	}
+	
+	@Override
+	protected void unregister() {
+		GraphicalBPELRootEditPart root = getBPELRoot();
+		if (root != null) {
+			root.removeDeferrable(this);
+		}
+		super.unregister();
+	}
 
 	@Override
 	protected void unregisterVisuals() {
@@ -329,7 +414,7 @@ public abstract class CollapsableEditPart extends CompositeActivityEditPart impl
 	}
 	@Override
 	protected List getModelChildren() {
-		if (isCollapsed()) return Collections.EMPTY_LIST;
+		if (isCollapsed() || isDeferred()) return Collections.EMPTY_LIST;
 
 		return getExpandedChildren();
 	}
@@ -11,15 +11,22 @@
 package org.eclipse.bpel.ui.editparts;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EventObject;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.bpel.model.Activity;
 import org.eclipse.bpel.model.Flow;
+import org.eclipse.bpel.model.Link;
 import org.eclipse.bpel.model.Links;
+import org.eclipse.bpel.model.Source;
+import org.eclipse.bpel.model.Target;
 import org.eclipse.bpel.ui.BPELEditor;
 import org.eclipse.bpel.ui.BPELUIPlugin;
 import org.eclipse.bpel.ui.IBPELUIConstants;
@@ -39,6 +46,10 @@ import org.eclipse.bpel.ui.util.ModelHelper;
 import org.eclipse.bpel.ui.util.NonclippingXYLayout;
 import org.eclipse.bpel.ui.util.RowColumnLayout;
 import org.eclipse.bpel.ui.util.marker.BPELEditPartMarkerDecorator;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.Label;
 import org.eclipse.draw2d.LayoutManager;
@@ -59,6 +70,7 @@ import org.eclipse.gef.EditPart;
 import org.eclipse.gef.EditPolicy;
 import org.eclipse.gef.GraphicalEditPart;
 import org.eclipse.gef.commands.CommandStackListener;
+import org.eclipse.swt.widgets.Control;
 
 public class FlowEditPart extends CollapsableEditPart {
 
@@ -72,6 +84,16 @@ public class FlowEditPart extends CollapsableEditPart {
 
 	protected FlowHighlightEditPolicy flowHighlightEditPolicy;
 
+	// The auto layout waiting to be done: the whole flow, or the connected
+	// components of the given children (model objects)
+	private boolean layoutAll;
+	private Set<Object> layoutChildren = new HashSet<Object>();
+	private boolean layoutPending;
+
+	// The layout being computed, and its number (an older layout is dropped)
+	private Job layoutJob;
+	private int layoutGeneration;
+
 	@Override
 	protected void addAllAdapters() {
 		super.addAllAdapters();
@@ -210,19 +232,41 @@ public class FlowEditPart extends CollapsableEditPart {
 		flowBatchedAdapter = new BatchedMultiObjectAdapter() {
 			protected boolean refreshLayout = false;
 
+			// the children of the flow touched by the notifications
+			protected Set<Object> changed = new HashSet<Object>();
+
+			// a child or link was removed whose neighbours are not known
+			protected boolean changedAll = false;
+
 			@Override
 			public void finish() {
 				if (refreshLayout) {
 					if (getAutoLayout())
-						doAutoLayout(false);
+						scheduleAutoLayout(changedAll ? null : changed);
 				}
 				refreshLayout = false;
+				changedAll = false;
+				changed = new HashSet<Object>();
 			}
 
 			@Override
 			public void notify(Notification n) {
 				if (isActive()) {
 					refreshLayout = true;
+					addChangedChild(changed, n.getNotifier());
+					addChangedChild(changed, n.getOldValue());
+					addChangedChild(changed, n.getNewValue());
+					switch (n.getEventType()) {
+						case Notification.REMOVE:
+							changedAll |= !addRemovedNeighbours(changed, n.getNotifier(), n.getOldValue());
+							break;
+						case Notification.REMOVE_MANY:
+							if (n.getOldValue() instanceof Collection) {
+								for (Object removed : (Collection<?>) n.getOldValue())
+									changedAll |= !addRemovedNeighbours(changed, n.getNotifier(), removed);
+							}
+							break;
+					}
 				}
 			}
 		};
@@ -365,6 +409,7 @@ public class FlowEditPart extends CollapsableEditPart {
 			return;
 		super.deactivate();
 		((Notifier) getModel()).eAdapters().remove(flowContentAdapter);
+		cancelAutoLayout();
 
 		getViewer().getEditDomain().getCommandStack()
 				.removeCommandStackListener(stackListener);
@@ -391,6 +436,10 @@ public class FlowEditPart extends CollapsableEditPart {
 
 	@Override
 	public void regenerateVisuals() {
+		regenerateVisuals(true);
+	}
+
+	protected void regenerateVisuals(boolean autoLayout) {
 		if (collapsed) {
 			addCollapsedContents(this.contentFigure);
 		} else {
@@ -400,11 +449,22 @@ public class FlowEditPart extends CollapsableEditPart {
 		// This is necessary because..we may have replaced the border!
 		refreshDrawerImages();
 
-		if (getShowFreeformFlow() && getAutoLayout())
+		if (autoLayout && getShowFreeformFlow() && getAutoLayout())
 			doAutoLayout(false);
 	}
 
 	public DirectedGraph computeAutoLayoutGraph(Map partsToNodes) {
+		DirectedGraph graph = createAutoLayoutGraph(getChildren(), partsToNodes);
+		new DirectedGraphLayout().visit(graph);
+		return graph;
+	}
+
+	/**
+	 * Build the graph of the given children and of the links between them,
+	 * ready to be laid out.
+	 */
+	protected DirectedGraph createAutoLayoutGraph(Collection parts,
+			Map partsToNodes) {
 		DirectedGraph graph = new DirectedGraph();
 		graph.setDefaultPadding(new Insets(8, 8, 10, 8));
 		Node top = new Node(null);
@@ -412,9 +472,9 @@ public class FlowEditPart extends CollapsableEditPart {
 		top.width = top.height = 0;
 		top.setPadding(new Insets(-8, 0, 0, 0));
 
-		List nodesWithoutPreds = new ArrayList();
+		Set nodesWithoutPreds = new LinkedHashSet();
 
-		for (Iterator it = getChildren().iterator(); it.hasNext();) {
+		for (Iterator it = parts.iterator(); it.hasNext();) {
 			Object object = it.next();
 			if (object instanceof BPELEditPart) {
 				BPELEditPart editPart = (BPELEditPart) object;
@@ -431,7 +491,7 @@ public class FlowEditPart extends CollapsableEditPart {
 				// System.out.println(object);
 			}
 		}
-		for (Iterator it = getChildren().iterator(); it.hasNext();) {
+		for (Iterator it = parts.iterator(); it.hasNext();) {
 			Object object = it.next();
 			if (object instanceof BPELEditPart) {
 				Node target = (Node) partsToNodes.get(object);
@@ -456,12 +516,241 @@ public class FlowEditPart extends CollapsableEditPart {
 			graph.edges.add(new Edge(top, (Node) it.next()));
 		}
 
-		new DirectedGraphLayout().visit(graph);
-
 		return graph;
 	}
 
+	/**
+	 * Add the child of the flow which contains the given object (or which the
+	 * given link connects) to the set.
+	 */
+	protected void addChangedChild(Set<Object> changed, Object object) {
+		if (object instanceof Link) {
+			Link link = (Link) object;
+			for (Source source : link.getSources()) {
+				addChangedChild(changed, source.getActivity());
+			}
+			for (Target target : link.getTargets()) {
+				addChangedChild(changed, target.getActivity());
+			}
+			return;
+		}
+		if (!(object instanceof EObject))
+			return;
+		EObject child = (EObject) object;
+		while (child != null && child.eContainer() != getModel()) {
+			child = child.eContainer();
+		}
+		if (child instanceof Activity) {
+			changed.add(child);
+		}
+	}
+
+	/**
+	 * A child or link removed from the flow is no longer contained in it, so
+	 * the children it was connected to are found from its edit part, which
+	 * has not been removed yet.
+	 * 
+	 * @return false if the removed object was a child or link of the flow
+	 *         whose neighbours could not be found, or a child which had none.
+	 */
+	protected boolean addRemovedNeighbours(Set<Object> changed, Object notifier, Object removed) {
+		if (removed instanceof Link) {
+			Object part = getViewer().getEditPartRegistry().get(removed);
+			if (!(part instanceof LinkEditPart))
+				return false;
+			LinkEditPart link = (LinkEditPart) part;
+			for (EditPart end : new EditPart[] { link.getSource(), link.getTarget() }) {
+				if (end != null)
+					addChangedChild(changed, end.getModel());
+			}
+			return true;
+		}
+		if (notifier != getModel() || !(removed instanceof Activity))
+			return true;
+		Object part = getViewer().getEditPartRegistry().get(removed);
+		if (!(part instanceof GraphicalEditPart))
+			return false;
+		List connections = new ArrayList(((GraphicalEditPart) part).getSourceConnections());
+		connections.addAll(((GraphicalEditPart) part).getTargetConnections());
+		for (Object connection : connections) {
+			if (connection instanceof LinkEditPart) {
+				LinkEditPart link = (LinkEditPart) connection;
+				for (EditPart end : new EditPart[] { link.getSource(), link.getTarget() }) {
+					if (end != null && end != part)
+						addChangedChild(changed, end.getModel());
+				}
+			}
+		}
+		// nothing else moves; lay out the whole flow to close the gap it leaves
+		return !connections.isEmpty();
+	}
+
+	/**
+	 * Lay out the connected components of the given children (or the whole
+	 * flow if null) in the background. The requests made until the layout
+	 * starts are merged, and a layout started earlier is cancelled.
+	 */
+	protected void scheduleAutoLayout(Set<Object> children) {
+		if (children == null) {
+			layoutAll = true;
+		} else {
+			layoutChildren.addAll(children);
+		}
+		if (layoutPending || !isActive())
+			return;
+		final Control control = getViewer().getControl();
+		if (control == null || control.isDisposed())
+			return;
+		layoutPending = true;
+		// wait for the edit parts of new children to be created
+		control.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				layoutPending = false;
+				if (isActive() && !control.isDisposed())
+					startAutoLayout(control);
+			}
+		});
+	}
+
+	protected void startAutoLayout(final Control control) {
+		Map<Object, BPELEditPart> modelsToParts = new HashMap<Object, BPELEditPart>();
+		for (Iterator it = getChildren().iterator(); it.hasNext();) {
+			Object object = it.next();
+			if (object instanceof BPELEditPart) {
+				modelsToParts.put(((BPELEditPart) object).getModel(), (BPELEditPart) object);
+			}
+		}
+
+		// The connected components of the changed children
+		Set<BPELEditPart> parts = new LinkedHashSet<BPELEditPart>();
+		if (layoutAll) {
+			parts.addAll(modelsToParts.values());
+		} else {
+			List<BPELEditPart> pending = new ArrayList<BPELEditPart>();
+			for (Object model : layoutChildren) {
+				BPELEditPart part = modelsToParts.get(model);
+				if (part != null && parts.add(part))
+					pending.add(part);
+			}
+			while (!pending.isEmpty()) {
+				BPELEditPart part = pending.remove(pending.size() - 1);
+				List connections = new ArrayList(part.getSourceConnections());
+				connections.addAll(part.getTargetConnections());
+				for (Object connection : connections) {
+					if (connection instanceof LinkEditPart) {
+						LinkEditPart link = (LinkEditPart) connection;
+						for (EditPart end : new EditPart[] { link.getSource(), link.getTarget() }) {
+							if (end instanceof BPELEditPart && end.getParent() == this
+									&& parts.add((BPELEditPart) end))
+								pending.add((BPELEditPart) end);
+						}
+					}
+				}
+			}
+		}
+		final boolean whole = parts.size() == modelsToParts.size();
+		layoutAll = false;
+		layoutChildren.clear();
+		if (parts.isEmpty())
+			return;
+
+		// A part of the flow keeps its place: its top left corner
+		Point origin = null;
+		if (!whole) {
+			for (BPELEditPart part : parts) {
+				Point loc = ModelHelper.getLocation((Activity) part.getModel());
+				origin = (origin == null) ? loc : new Point(Math.min(origin.x, loc.x), Math.min(origin.y, loc.y));
+			}
+		}
+		final Point anchor = origin;
+
+		final Map<BPELEditPart, Node> partsToNodes = new HashMap<BPELEditPart, Node>();
+		final DirectedGraph graph = createAutoLayoutGraph(parts, partsToNodes);
+		final int generation = ++layoutGeneration;
+		if (layoutJob != null)
+			layoutJob.cancel();
+
+		layoutJob = new Job("Flow auto layout") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				if (monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				new DirectedGraphLayout().visit(graph);
+				if (monitor.isCanceled() || control.isDisposed())
+					return Status.CANCEL_STATUS;
+				control.getDisplay().asyncExec(new Runnable() {
+					public void run() {
+						if (generation == layoutGeneration && isActive())
+							applyAutoLayout(partsToNodes, anchor);
+					}
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		layoutJob.setSystem(true);
+		layoutJob.schedule();
+	}
+
+	/**
+	 * Move the children to the places computed by the layout, in one animated
+	 * step. A part of the flow which now overlaps the rest of the flow is laid
+	 * out again with the whole flow.
+	 */
+	protected void applyAutoLayout(Map<BPELEditPart, Node> partsToNodes, Point anchor) {
+		int dx = 0, dy = 0;
+		if (anchor != null) {
+			Rectangle bounds = null;
+			for (Node n : partsToNodes.values()) {
+				Rectangle r = new Rectangle(n.x, n.y, n.width, n.height);
+				bounds = (bounds == null) ? r : bounds.union(r);
+			}
+			dx = anchor.x - bounds.x;
+			dy = anchor.y - bounds.y;
+			bounds.translate(dx, dy);
+			for (Iterator it = getChildren().iterator(); it.hasNext();) {
+				Object object = it.next();
+				if (object instanceof BPELEditPart && !partsToNodes.containsKey(object)) {
+					BPELEditPart other = (BPELEditPart) object;
+					Rectangle r = new Rectangle(ModelHelper.getLocation((Activity) other.getModel()),
+							other.getFigure().getPreferredSize());
+					if (r.intersects(bounds)) {
+						scheduleAutoLayout(null);
+						return;
+					}
+				}
+			}
+		}
+
+		for (Map.Entry<BPELEditPart, Node> entry : partsToNodes.entrySet()) {
+			BPELEditPart editPart = entry.getKey();
+			if (editPart.getParent() != this)
+				continue;
+			Node n = entry.getValue();
+			new SetConstraintCommand((Activity) editPart.getModel(),
+					new Point(n.x + dx, n.y + dy), null).execute();
+		}
+
+		if (BPELUIPlugin.INSTANCE.getPreferenceStore().getBoolean(
+				IBPELUIConstants.PREF_USE_ANIMATION)
+				&& GraphAnimation.captureLayout(getFigure())) {
+			while (GraphAnimation.step())
+				getFigure().getUpdateManager().performUpdate();
+			GraphAnimation.end();
+		}
+	}
+
+	protected void cancelAutoLayout() {
+		layoutGeneration++;
+		layoutAll = false;
+		layoutChildren.clear();
+		if (layoutJob != null) {
+			layoutJob.cancel();
+			layoutJob = null;
+		}
+	}
+
 	public void doImmediateAutoLayout() {
+		cancelAutoLayout();
 		Map<BPELEditPart, Node> partsToNodes = new HashMap<BPELEditPart, Node>();
 		if (BPELUIPlugin.INSTANCE.getPreferenceStore().getBoolean(
 				IBPELUIConstants.PREF_USE_ANIMATION)) {
@@ -489,6 +778,7 @@ public class FlowEditPart extends CollapsableEditPart {
 	}
 
 	public void doAutoLayout(boolean withCommand) {
+		cancelAutoLayout();
 		Map<BPELEditPart, Node> partsToNodes = new HashMap<BPELEditPart, Node>();
 		this.getFigure().invalidateTree();
 		if (BPELUIPlugin.INSTANCE.getPreferenceStore().getBoolean(
@@ -537,7 +827,9 @@ public class FlowEditPart extends CollapsableEditPart {
 		refreshChildren();
 
 		super.handleModelChanged();
-		regenerateVisuals();
+		// the auto layout follows from the flow content adapter, which
+		// knows which children have changed
+		regenerateVisuals(false);
 	}
 
 	@Override
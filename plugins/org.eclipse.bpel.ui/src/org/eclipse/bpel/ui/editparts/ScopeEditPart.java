@@ -11,6 +11,7 @@
 package org.eclipse.bpel.ui.editparts;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -297,6 +298,7 @@ public class ScopeEditPart extends CollapsableEditPart {
 
 	@Override
 	protected List getModelChildren() {
+		if (isDeferred()) return Collections.EMPTY_LIST;
 		return getModelChildren(!isCollapsed());
 	}
 	
@@ -22,6 +22,7 @@ import org.eclipse.bpel.common.ui.editmodel.EditModelCommandStack;
 import org.eclipse.bpel.common.ui.editmodel.IEditModelListener;
 import org.eclipse.bpel.common.ui.editmodel.ResourceInfo;
 import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.model.resource.BPELResourceSetImpl;
 import org.eclipse.bpel.ui.IBPELUIConstants;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.emf.common.util.EList;
@@ -58,6 +59,9 @@ public class BPELEditModelClient extends EditModelClient {
 
 		super.loadPrimaryResource(file,loadOptions);
 		bpelEditModel = (BPELEditModel)getEditModel();
+		// the editor changes the artifacts WSDL, so it must not be borrowed from the shared cache
+		((BPELResourceSetImpl)bpelEditModel.getResourceSet()).setPrivate(
+			URI.createPlatformResourceURI(bpelEditModel.getArtifactsFile().getFullPath().toString()));
 		getPrimaryResourceInfo().getResource();
 	}
 	
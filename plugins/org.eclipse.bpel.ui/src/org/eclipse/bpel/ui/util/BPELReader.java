@@ -11,20 +11,17 @@
 package org.eclipse.bpel.ui.util;
 
 import java.util.Collections;
-import java.util.Iterator;
 
 import org.eclipse.bpel.common.extension.model.ExtensionMap;
 import org.eclipse.bpel.common.extension.model.ExtensionmodelFactory;
 import org.eclipse.bpel.model.BPELFactory;
 import org.eclipse.bpel.model.Process;
-import org.eclipse.bpel.model.Scope;
 import org.eclipse.bpel.ui.BPELUIPlugin;
 import org.eclipse.bpel.ui.IBPELUIConstants;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EcorePackage;
@@ -110,34 +107,10 @@ public class BPELReader {
 			this.process.setMessageExchanges(BPELFactory.eINSTANCE.createMessageExchanges());
 		}
 
-		// Make sure scopes have Variables.
-		// They aren't strictly necessary according to the spec but make we need those in
-		// order for the editor tray to work.
-		for (Iterator<EObject> iter = this.process.eAllContents(); iter.hasNext();) {
-			EObject object = iter.next();
-			if (object instanceof Scope) {
-				Scope scope = (Scope)object;
-				if (scope.getVariables() == null) {
-					scope.setVariables(BPELFactory.eINSTANCE.createVariables());
-				}
-				if (scope.getPartnerLinks() == null) {
-					scope.setPartnerLinks(BPELFactory.eINSTANCE.createPartnerLinks());
-				}
-				if (scope.getCorrelationSets() == null) {
-					scope.setCorrelationSets(BPELFactory.eINSTANCE.createCorrelationSets());
-				}
-				if (scope.getMessageExchanges() == null) {
-					scope.setMessageExchanges(BPELFactory.eINSTANCE.createMessageExchanges());
-				}
-			}
-		}
-
-		// Make sure each model object has the necessary extensions!
-		TreeIterator<EObject> it = this.process.eAllContents();
-		while (it.hasNext()) {
-			ModelHelper.createExtensionIfNecessary(this.extensionMap, it.next());
-		}
-
+		// The Variables, PartnerLinks, CorrelationSets and MessageExchanges of scopes are
+		// created by the tray the first time a scope is selected, and the extensions of the
+		// other model objects the first time they are asked for (see ModelHelper.getExtension()),
+		// so that a large process which is only looked at does not get a copy of its tree.
 		if (this.extensionMap.get(this.process) == null) {
 			ModelHelper.createExtensionIfNecessary(this.extensionMap, this.process);
 		}
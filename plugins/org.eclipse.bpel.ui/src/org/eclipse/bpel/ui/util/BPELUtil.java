@@ -52,6 +52,7 @@ import org.eclipse.bpel.model.adapters.AdapterRegistry;
 import org.eclipse.bpel.model.messageproperties.MessagepropertiesPackage;
 import org.eclipse.bpel.model.messageproperties.PropertyAlias;
 import org.eclipse.bpel.model.partnerlinktype.PartnerlinktypePackage;
+import org.eclipse.bpel.model.resource.BPELResourceSetImpl;
 import org.eclipse.bpel.model.util.BPELUtils;
 import org.eclipse.bpel.names.NCNameWordDetector;
 import org.eclipse.bpel.runtimes.IBPELModuleFacetConstants;
@@ -717,18 +718,39 @@ public class BPELUtil {
 		return buf.toString();
 	}
 
+	/**
+	 * Returns the resources of the resource set, and the WSDL and XSD documents it
+	 * has borrowed from the shared cache (see {@link BPELResourceSetImpl#setSharedCache}).
+	 */
+	public static List<Resource> getAllResources(ResourceSet resourceSet) {
+		if (resourceSet instanceof BPELResourceSetImpl) {
+			return ((BPELResourceSetImpl)resourceSet).getAllResources();
+		}
+		return resourceSet.getResources();
+	}
+
 	/**
 	 * Returns all of the PropertyAlias objects from WSDL files in the same ResourceSet as
 	 * the resource containing messageType, which are aliases for messageType.
 	 */
 	public static List<PropertyAlias> getPropertyAliasesForMessageType(Message messageType) {
+		return getPropertyAliasesForMessageType(messageType, messageType);
+	}
+
+	/**
+	 * Returns all of the PropertyAlias objects from WSDL files in the same ResourceSet as
+	 * the resource containing context, which are aliases for messageType. The message
+	 * may be borrowed from the shared cache, so the context (a variable of the process,
+	 * for example) tells which resource set to look in.
+	 */
+	public static List<PropertyAlias> getPropertyAliasesForMessageType(Message messageType, EObject context) {
 		List<PropertyAlias> aliases = new ArrayList<PropertyAlias>();
-		Resource resource = messageType.eResource();
+		Resource resource = context.eResource();
 		if (resource == null) {
 			return aliases;
 		}
 		ResourceSet resourceSet = resource.getResourceSet();
-		for (Iterator<Resource> it = resourceSet.getResources().iterator(); it.hasNext(); ) {
+		for (Iterator<Resource> it = getAllResources(resourceSet).iterator(); it.hasNext(); ) {
 			resource = it.next();
 			// TODO: this is a hack.  Why is there no WSDLResource interface??
 			if (resource instanceof WSDLResourceImpl) {
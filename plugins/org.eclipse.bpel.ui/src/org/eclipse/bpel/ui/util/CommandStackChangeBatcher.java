@@ -68,6 +68,26 @@ public class CommandStackChangeBatcher extends AbstractSharedCommandStackListene
 		liveBatchedAdapters.add(adapter); 
 	}
 
+	/**
+	 * Batch the changes made by the given runnable outside of the command
+	 * stack, as if they were made by a command. The changes made within a
+	 * batch already started join that batch.
+	 * 
+	 * @param runnable
+	 */
+	public void runBatched(Runnable runnable) {
+		if (batchingChanges) {
+			runnable.run();
+			return;
+		}
+		startBatch();
+		try {
+			runnable.run();
+		} finally {
+			finishBatch();
+		}
+	}
+
 	@Override
 	protected void startExecute() { 
 		startBatch(); 
@@ -70,6 +70,7 @@ import org.eclipse.bpel.model.partnerlinktype.PartnerlinktypeFactory;
 import org.eclipse.bpel.model.partnerlinktype.PartnerlinktypePackage;
 import org.eclipse.bpel.model.partnerlinktype.Role;
 import org.eclipse.bpel.model.util.BPELUtils;
+import org.eclipse.bpel.model.util.ImportIndex;
 import org.eclipse.bpel.model.util.ImportResolver;
 import org.eclipse.bpel.model.util.ImportResolverRegistry;
 import org.eclipse.bpel.ui.BPELEditor;
@@ -98,6 +99,7 @@ import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.gef.commands.Command;
@@ -1158,14 +1160,46 @@ public class ModelHelper {
 	 * Helper to return the UIExtensionModel object (i.e. from our ExtensionMap) for a
 	 * given object, without requiring the ExtensionMap as a parameter.  If the object
 	 * does not have a UIExtension, null is returned.
+	 * 
+	 * The extensions are not created when a process is read, but the first time they
+	 * are asked for: if the object belongs to a BPELEditor and may have an extension,
+	 * the extension is created now.
 	 */
 	public static EObject getExtension(EObject input) {
+		EObject extension = getExistingExtension(input);
+		if (extension == null && input != null && !input.eIsProxy() && input.eResource() != null
+				&& BPELUtil.adapt(input, IExtensionFactory.class) != null) {
+			BPELEditor bpelEditor = getBPELEditor(input);
+			if (bpelEditor != null && bpelEditor.getExtensionMap() != null) {
+				createExtensionIfNecessary(bpelEditor.getExtensionMap(), input);
+				extension = getExistingExtension(input);
+			}
+		}
+		return extension;
+	}
+	
+	/**
+	 * Return the extension of the given object if it has been created already, or null.
+	 */
+	public static EObject getExistingExtension(EObject input) {
 		ExtendedObjectUserAdapter adapter = (ExtendedObjectUserAdapter)
 			ExtensionmodelFactory.eINSTANCE.getExtensionAdapter(input,
 			IBPELUIConstants.MODEL_EXTENSIONS_NAMESPACE);
 		return (adapter==null)? null : (EObject)adapter.get(input);
 	}
 	
+	/**
+	 * Return whether the given extension carries a value other than the default
+	 * value of one of its features. Extensions which do not are not saved, since
+	 * they are created again with the same values when they are asked for.
+	 */
+	public static boolean isExtensionSet(EObject extension) {
+		for (EStructuralFeature feature : extension.eClass().getEAllStructuralFeatures()) {
+			if (!feature.isTransient() && extension.eIsSet(feature)) return true;
+		}
+		return false;
+	}
+	
 	// TODO: is this unused?
 	public static FaultHandler getContainingFaultHandler(Object object) {
 		if (object instanceof Process) return null;
@@ -1535,20 +1569,7 @@ public class ModelHelper {
         	return al;
         }
                 
-        Iterator<Import> it = process.getImports().iterator();
-        while ( it.hasNext() )
-        {
-            Import imp = it.next();                                    
-            if (imp.getLocation() == null ) {
-            	continue;
-            }            
-    	    ImportResolver[] resolvers = ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType());
-            for (int i = 0; i < resolvers.length; i++)
-            {            	
-                al.addAll( resolvers[i].resolve (imp, ImportResolver.RESOLVE_SCHEMA ) );
-            }
-            // next import
-        }
+        al.addAll( ImportIndex.getIndex(process).getSchemas() );
         
         if (bIncludeXSD) {
         	al.add ( XSDSchemaImpl.getSchemaForSchema( XSDConstants.SCHEMA_FOR_SCHEMA_URI_2001 ) );
@@ -1573,20 +1594,7 @@ public class ModelHelper {
         	return al;
         }
                 
-        Iterator<Import> it = process.getImports().iterator();
-        while ( it.hasNext() )
-        {
-            Import imp = it.next();                                    
-            if (imp.getLocation() == null ) {
-            	continue;
-            }            
-    	    ImportResolver[] resolvers = ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType());
-            for (int i = 0; i < resolvers.length; i++)
-            {            	
-                al.addAll( (Collection<? extends Definition>) resolvers[i].resolve (imp, ImportResolver.RESOLVE_DEFINITION ) );
-            }
-            // next import
-        }        
+        al.addAll( ImportIndex.getIndex(process).getDefinitions() );
         
         // If the artifacts are not imported yet, then add them to the list here as well.
         Definition artifacts = ModelHelper.getBPELEditor(process).getArtifactsDefinition();
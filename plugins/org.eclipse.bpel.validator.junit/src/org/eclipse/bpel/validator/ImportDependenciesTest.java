@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.common.util.URI;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests which processes the import graph says are affected by a change.
+ * <p>
+ * a.bpel imports common.wsdl, which imports types.xsd; b.bpel imports
+ * common.wsdl too, and c.bpel imports only other.xsd.
+ */
+
+@SuppressWarnings("nls")
+public class ImportDependenciesTest {
+
+	ImportDependencies fDependencies;
+
+	IFile a, b, c, common, types, other;
+
+
+	static IFile file ( String name ) {
+		return ResourcesPlugin.getWorkspace().getRoot().getFile( new Path("/project/" + name) );
+	}
+
+
+	static Set<IFile> set ( IFile ... files ) {
+		return new HashSet<IFile>( Arrays.asList(files) );
+	}
+
+
+	/** */
+	@Before
+	public void setUp () {
+		a = file("a.bpel");
+		b = file("b.bpel");
+		c = file("c.bpel");
+		common = file("common.wsdl");
+		types = file("types.xsd");
+		other = file("other.xsd");
+
+		fDependencies = new ImportDependencies();
+		fDependencies.recordProcess(a, set(common));
+		fDependencies.recordProcess(b, set(common));
+		fDependencies.recordProcess(c, set(other));
+		fDependencies.setImports(common, set(types));
+	}
+
+
+	/** */
+	@Test
+	public void testAffectedProcesses () {
+		Assert.assertEquals( set(a, b), fDependencies.getAffectedProcesses(set(types)) );
+		Assert.assertEquals( set(a, b), fDependencies.getAffectedProcesses(set(common)) );
+		Assert.assertEquals( set(c), fDependencies.getAffectedProcesses(set(other)) );
+		Assert.assertEquals( set(a), fDependencies.getAffectedProcesses(set(a)) );
+		Assert.assertTrue( fDependencies.getAffectedProcesses(set(file("unknown.xsd"))).isEmpty() );
+	}
+
+
+	/** */
+	@Test
+	public void testDependents () {
+		Assert.assertEquals( set(types, common, a, b), fDependencies.getDependents(set(types)) );
+		Assert.assertEquals( set(a), fDependencies.getDependents(set(a)) );
+	}
+
+
+	/** */
+	@Test
+	public void testImportsReplaced () {
+		// a no longer imports common.wsdl, but other.xsd
+		fDependencies.recordProcess(a, set(other));
+		Assert.assertEquals( set(other), fDependencies.getImports(a) );
+		Assert.assertEquals( set(b), fDependencies.getAffectedProcesses(set(types)) );
+		Assert.assertEquals( set(a, c), fDependencies.getAffectedProcesses(set(other)) );
+
+		fDependencies.recordProcess(a, Collections.<IFile>emptySet());
+		Assert.assertTrue( fDependencies.getImports(a).isEmpty() );
+		Assert.assertEquals( set(c), fDependencies.getAffectedProcesses(set(other)) );
+	}
+
+
+	/** */
+	@Test
+	public void testRemove () {
+		fDependencies.remove(b);
+		Assert.assertFalse( fDependencies.isProcess(b) );
+		Assert.assertEquals( set(a), fDependencies.getAffectedProcesses(set(types)) );
+
+		// the importers of a removed file are still affected when it comes back
+		fDependencies.remove(common);
+		Assert.assertEquals( set(a), fDependencies.getAffectedProcesses(set(common)) );
+		Assert.assertTrue( fDependencies.getAffectedProcesses(set(types)).isEmpty() );
+
+		fDependencies.clear();
+		Assert.assertTrue( fDependencies.isEmpty() );
+	}
+
+
+	/** */
+	@Test
+	public void testToFiles () {
+		Set<IFile> files = fDependencies.toFiles( Arrays.asList(
+				URI.createPlatformResourceURI("/project/common.wsdl", true),
+				URI.createURI("http://example.org/remote.xsd")) );
+		Assert.assertEquals( set(common), files );
+	}
+}
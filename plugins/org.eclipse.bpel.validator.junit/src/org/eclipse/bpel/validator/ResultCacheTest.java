@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.eclipse.bpel.model.BPELFactory;
+import org.eclipse.bpel.model.Import;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.validator.model.IProblem;
+import org.eclipse.bpel.validator.model.Problem;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the results of a process are restored from the cache only as long
+ * as neither the process nor what it imports has changed.
+ */
+
+@SuppressWarnings("nls")
+public class ResultCacheTest {
+
+	File fDirectory;
+
+	File fProcessFile;
+
+	File fSchemaFile;
+
+	URI fProcessURI;
+
+	Process fProcess;
+
+	ResultCache fCache;
+
+	/** How many times the files were read */
+	int fReads;
+
+
+	/**
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp () throws Exception {
+		fDirectory = File.createTempFile("results", "");
+		fDirectory.delete();
+		fDirectory.mkdirs();
+
+		fProcessFile = write( new File(fDirectory, "process.bpel"), "<process/>" );
+		fSchemaFile = write( new File(fDirectory, "types.xsd"), "<schema/>" );
+		fProcessURI = URI.createFileURI( fProcessFile.getAbsolutePath() );
+
+		fProcess = BPELFactory.eINSTANCE.createProcess();
+		Import imp = BPELFactory.eINSTANCE.createImport();
+		imp.setLocation("types.xsd");
+		fProcess.getImports().add(imp);
+		Resource resource = new ResourceImpl(fProcessURI);
+		resource.getContents().add(fProcess);
+
+		fCache = newCache();
+	}
+
+
+	ResultCache newCache () {
+		ResultCache cache = new ResultCache( new File(fDirectory, "cache") );
+		cache.fConverter = new ExtensibleURIConverterImpl() {
+			@Override
+			public InputStream createInputStream (URI uri, Map<?, ?> options) throws IOException {
+				fReads += 1;
+				return super.createInputStream(uri, options);
+			}
+		};
+		return cache;
+	}
+
+
+	/** */
+	@After
+	public void tearDown () {
+		delete(fDirectory);
+	}
+
+
+	static void delete ( File file ) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for(File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+
+
+	static File write ( File file, String contents ) throws IOException {
+		long previous = file.lastModified();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write( contents.getBytes("UTF-8") );
+		} finally {
+			out.close();
+		}
+		// not the same time stamp, however coarse the clock of the file system
+		if (previous != 0) {
+			file.setLastModified( previous + 10000 );
+		}
+		return file;
+	}
+
+
+	static IProblem[] problems () {
+		IProblem problem = new Problem();
+		problem.setAttribute(IProblem.MESSAGE, "Variable not found");
+		problem.setAttribute(IProblem.LINE_NUMBER, 12);
+		return new IProblem[] { problem };
+	}
+
+
+	/** */
+	@Test
+	public void testHit () {
+		fCache.put(fProcessURI, fProcess, problems());
+
+		ResultCache.Entry entry = fCache.get(fProcessURI);
+		Assert.assertNotNull(entry);
+		Assert.assertEquals( 1, entry.getImports().size() );
+		Assert.assertEquals( URI.createFileURI(fSchemaFile.getAbsolutePath()), entry.getImports().get(0) );
+		Assert.assertEquals( 1, entry.getProblems().length );
+
+		IProblem problem = entry.getProblems()[0];
+		Assert.assertEquals( "Variable not found", problem.getAttribute(IProblem.MESSAGE) );
+		Assert.assertEquals( 12, problem.getAttribute(IProblem.LINE_NUMBER, 0) );
+		Resource resource = problem.getAttribute(IProblem.ERESOURCE);
+		Assert.assertEquals( fProcessURI, resource.getURI() );
+
+		// a new cache on the same directory finds it too
+		Assert.assertNotNull( newCache().get(fProcessURI) );
+	}
+
+
+	/** */
+	@Test
+	public void testFilesReadOnce () {
+		fCache.put(fProcessURI, fProcess, problems());
+		int reads = fReads;
+		Assert.assertEquals( 2, reads );
+
+		for(int i = 0; i < 3; i++) {
+			Assert.assertNotNull( fCache.get(fProcessURI) );
+		}
+		Assert.assertEquals( reads, fReads );
+	}
+
+
+	/**
+	 * @throws Exception
+	 */
+	@Test
+	public void testMissAfterImportChanges () throws Exception {
+		fCache.put(fProcessURI, fProcess, problems());
+		Assert.assertNotNull( fCache.get(fProcessURI) );
+
+		write( fSchemaFile, "<schema><element/></schema>" );
+		Assert.assertNull( fCache.get(fProcessURI) );
+
+		fCache.put(fProcessURI, fProcess, problems());
+		Assert.assertNotNull( fCache.get(fProcessURI) );
+
+		fSchemaFile.delete();
+		Assert.assertNull( fCache.get(fProcessURI) );
+	}
+
+
+	/**
+	 * @throws Exception
+	 */
+	@Test
+	public void testMissAfterProcessChanges () throws Exception {
+		fCache.put(fProcessURI, fProcess, problems());
+
+		write( fProcessFile, "<process name=\"p\"/>" );
+		Assert.assertNull( fCache.get(fProcessURI) );
+	}
+
+
+	/**
+	 * @throws Exception
+	 */
+	@Test
+	public void testCorruptEntry () throws Exception {
+		fCache.put(fProcessURI, fProcess, problems());
+		File file = fCache.fileFor(fProcessURI);
+		Assert.assertTrue( file.isFile() );
+
+		write( file, "not what was written" );
+		Assert.assertNull( fCache.get(fProcessURI) );
+
+		// replaced by the next put
+		fCache.put(fProcessURI, fProcess, problems());
+		Assert.assertNotNull( fCache.get(fProcessURI) );
+
+		fCache.clear();
+		Assert.assertFalse( file.exists() );
+		Assert.assertNull( fCache.get(fProcessURI) );
+	}
+}
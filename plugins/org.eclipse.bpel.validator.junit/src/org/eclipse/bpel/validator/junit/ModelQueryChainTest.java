@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator.junit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.eclipse.bpel.validator.helpers.ModelQueryChain;
+import org.eclipse.bpel.validator.helpers.ModelQueryImpl;
+import org.eclipse.bpel.validator.model.IModelQuery;
+import org.eclipse.bpel.validator.model.IModelQueryLookups;
+import org.eclipse.bpel.validator.model.INode;
+import org.eclipse.bpel.validator.model.UndefinedNode;
+import org.eclipse.bpel.validator.model.XNotImplemented;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Looks up nodes through two model queries, each of which implements some
+ * of the lookups only: through the chain, and directly, by asking each model
+ * query in turn through reflection as the model queries used to be chained.
+ * Both must give the same answers.
+ */
+
+@SuppressWarnings("nls")
+public class ModelQueryChainTest {
+
+	static final int ITEM_SECOND_ONLY = 1000;
+
+	static final INode VARIABLE = new UndefinedNode( new QName("variable") );
+
+	static final INode PARTNER_LINK = new UndefinedNode( new QName("partnerLink") );
+
+	static final INode LINK = new UndefinedNode( new QName("link") );
+
+	static final int[] LOOKUPS = {
+		IModelQueryLookups.LOOKUP_NODE_VARIABLE,
+		IModelQueryLookups.LOOKUP_NODE_PARTNER_LINK,
+		IModelQueryLookups.LOOKUP_NODE_LINK,
+		IModelQueryLookups.LOOKUP_NODE_CORRELLETION_SET
+	};
+
+	IModelQuery[] fQueries;
+
+	int fNotImplemented;
+
+
+	/** */
+	@Before
+	public void setUp () {
+		fNotImplemented = 0;
+		fQueries = new IModelQuery[] {
+			new ModelQueryImpl() {
+				@Override
+				public INode lookup (INode context, int what, String name) {
+					switch (what) {
+					case LOOKUP_NODE_VARIABLE :
+					case LOOKUP_NODE_PARTNER_LINK :
+						fNotImplemented += 1;
+						throw new XNotImplemented("Not implemented: lookupNode(item=" + what + ")");
+					case LOOKUP_NODE_LINK :
+						return LINK;
+					default :
+						return null;
+					}
+				}
+
+				@Override
+				public boolean hasSupport (int item, String value) {
+					if (item == ITEM_SECOND_ONLY) {
+						fNotImplemented += 1;
+						throw new XNotImplemented("Not implemented: hasSupport(item=" + item + ")");
+					}
+					return false;
+				}
+			},
+			new ModelQueryImpl() {
+				@Override
+				public INode lookup (INode context, int what, String name) {
+					switch (what) {
+					case LOOKUP_NODE_VARIABLE :
+						return VARIABLE;
+					case LOOKUP_NODE_PARTNER_LINK :
+						return PARTNER_LINK;
+					case LOOKUP_NODE_LINK :
+						return new UndefinedNode( new QName("other") );
+					default :
+						return null;
+					}
+				}
+
+				@Override
+				public boolean hasSupport (int item, String value) {
+					return item == ITEM_SECOND_ONLY;
+				}
+			}
+		};
+	}
+
+
+	IModelQuery direct () {
+		return (IModelQuery) Proxy.newProxyInstance( getClass().getClassLoader(),
+				new Class<?>[] { IModelQuery.class },
+				new InvocationHandler () {
+					public Object invoke (Object proxy, Method method, Object[] args) throws Throwable {
+						Object result = null;
+						for(IModelQuery mq : fQueries) {
+							try {
+								result = method.invoke(mq, args);
+								if (result != null) {
+									return result;
+								}
+							} catch (InvocationTargetException ex) {
+								if (ex.getCause() instanceof XNotImplemented == false) {
+									throw ex.getCause();
+								}
+							}
+						}
+						return result;
+					}
+				});
+	}
+
+
+	/** */
+	@Test
+	public void testSameLookups () {
+		IModelQuery chain = new ModelQueryChain( fQueries );
+		IModelQuery direct = direct();
+
+		// more than once, so that the chain has left out what is not implemented
+		for(int round = 0; round < 3; round++) {
+			for(int what : LOOKUPS) {
+				Assert.assertSame( "lookup " + what, direct.lookup(null, what, "name"), chain.lookup(null, what, "name") );
+			}
+		}
+		Assert.assertSame( VARIABLE, chain.lookup(null, IModelQueryLookups.LOOKUP_NODE_VARIABLE, "v") );
+		Assert.assertSame( PARTNER_LINK, chain.lookup(null, IModelQueryLookups.LOOKUP_NODE_PARTNER_LINK, "p") );
+		Assert.assertSame( LINK, chain.lookup(null, IModelQueryLookups.LOOKUP_NODE_LINK, "l") );
+		Assert.assertNull( chain.lookup(null, IModelQueryLookups.LOOKUP_NODE_CORRELLETION_SET, "c") );
+	}
+
+
+	/** */
+	@Test
+	public void testSameSupport () {
+		IModelQuery chain = new ModelQueryChain( fQueries );
+		IModelQuery direct = direct();
+
+		for(int round = 0; round < 3; round++) {
+			Assert.assertEquals( direct.hasSupport(ITEM_SECOND_ONLY, "x"), chain.hasSupport(ITEM_SECOND_ONLY, "x") );
+			Assert.assertEquals( direct.hasSupport(ITEM_SECOND_ONLY + 1, "x"), chain.hasSupport(ITEM_SECOND_ONLY + 1, "x") );
+		}
+		Assert.assertTrue( chain.hasSupport(ITEM_SECOND_ONLY, "x") );
+		Assert.assertFalse( chain.hasSupport(ITEM_SECOND_ONLY + 1, "x") );
+	}
+
+
+	/** */
+	@Test
+	public void testNotImplementedAskedOnce () {
+		IModelQuery chain = new ModelQueryChain( fQueries );
+		for(int round = 0; round < 3; round++) {
+			chain.lookup(null, IModelQueryLookups.LOOKUP_NODE_VARIABLE, "v");
+			chain.lookup(null, IModelQueryLookups.LOOKUP_NODE_PARTNER_LINK, "p");
+			chain.hasSupport(ITEM_SECOND_ONLY, "x");
+		}
+		// once for each kind of lookup, not once for each call
+		Assert.assertEquals( 3, fNotImplemented );
+	}
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator.model;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.eclipse.bpel.validator.model.Rules.Rule;
+import org.junit.Test;
+
+/**
+ * Tests how the rules of a validator are found, ordered, filtered and called.
+ */
+
+@SuppressWarnings("nls")
+public class RulesTest {
+
+	/** The rules are public, so they are called through method handles */
+	public static class Checks extends Validator {
+
+		List<String> fRun = new ArrayList<String>();
+
+		List<Throwable> fFailures = new ArrayList<Throwable>();
+
+		/** */
+		public void rule_second_2 () {
+			fRun.add("second");
+		}
+
+		/** */
+		public void rule_first_1 () {
+			fRun.add("first");
+		}
+
+		/** */
+		public void rule_fails_3 () {
+			fRun.add("fails");
+			throw new IllegalStateException("fails");
+		}
+
+		/**
+		 * @param name
+		 * @param count
+		 * @return the name, count times
+		 */
+		@ARule(tag = "args", order = 4)
+		public String rule_repeat ( String name, Integer count ) {
+			fRun.add("repeat");
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i < count.intValue(); i++) {
+				sb.append(name);
+			}
+			return sb.toString();
+		}
+
+		@Override
+		protected void internalProblem (Rule rule, Throwable t) {
+			fFailures.add(t);
+		}
+	}
+
+	/** Not public, so its rules are called through reflection */
+	static class Hidden extends Checks {
+
+		@Override
+		public void rule_first_1 () {
+			super.rule_first_1();
+		}
+
+		@Override
+		public void rule_second_2 () {
+			super.rule_second_2();
+		}
+
+		@Override
+		public void rule_fails_3 () {
+			super.rule_fails_3();
+		}
+
+		@Override
+		@ARule(tag = "args", order = 4)
+		public String rule_repeat ( String name, Integer count ) {
+			return super.rule_repeat(name, count);
+		}
+	}
+
+
+	static Rule rule ( Class<? extends Validator> clazz, String tag, String name ) {
+		for(Rule rule : Rules.getRules(clazz).getRules(tag)) {
+			if (rule.getName().equals(name)) {
+				return rule;
+			}
+		}
+		Assert.fail("No rule " + name);
+		return null;
+	}
+
+
+	/** */
+	@Test
+	public void testOrderAndTags () {
+		Rules rules = Rules.getRules(Checks.class);
+		Assert.assertEquals( 4, rules.size() );
+		Assert.assertEquals( 3, rules.getRules(Validator.PASS1).length );
+		Assert.assertEquals( 1, rules.getRules("args").length );
+		Assert.assertEquals( 0, rules.getRules("none").length );
+
+		Checks checks = new Checks();
+		checks.runRules(Validator.PASS1);
+		Assert.assertEquals( Arrays.asList("first", "second", "fails"), checks.fRun );
+		Assert.assertEquals( 1, checks.fFailures.size() );
+		// what the rule threw, not wrapped
+		Assert.assertTrue( checks.fFailures.get(0) instanceof IllegalStateException );
+
+		checks.fRun.clear();
+		checks.runRules("args", "ab", Integer.valueOf(2));
+		Assert.assertEquals( Arrays.asList("repeat"), checks.fRun );
+	}
+
+
+	/** */
+	@Test
+	public void testFilters () {
+		Checks checks = new Checks();
+		checks.disableRules(2, 3);
+		checks.runRules(Validator.PASS1);
+		Assert.assertEquals( Arrays.asList("first"), checks.fRun );
+
+		// the filters are dropped when the runner starts again
+		checks.fRun.clear();
+		checks.fRuleRunner.start();
+		checks.fRuleRunner.addFilter( new Rules.IndexFilter(0, 65536, "args") );
+		checks.runRules(Validator.PASS1);
+		checks.runRules("args", "a", Integer.valueOf(1));
+		Assert.assertEquals( Arrays.asList("first", "second", "fails"), checks.fRun );
+
+		checks.fRun.clear();
+		checks.disableRules();
+		checks.runRules(Validator.PASS1);
+		Assert.assertTrue( checks.fRun.isEmpty() );
+	}
+
+
+	/**
+	 * @throws Throwable
+	 */
+	@Test
+	public void testInvokeAndCall () throws Throwable {
+		Assert.assertNotNull( rule(Checks.class, Validator.PASS1, "fails").fInvoker );
+		assertInvokeAndCall( new Checks() );
+	}
+
+
+	/**
+	 * @throws Throwable
+	 */
+	@Test
+	public void testReflection () throws Throwable {
+		Assert.assertNull( rule(Hidden.class, Validator.PASS1, "fails").fInvoker );
+		assertInvokeAndCall( new Hidden() );
+	}
+
+
+	void assertInvokeAndCall ( Checks checks ) throws Throwable {
+		Rule fails = rule(checks.getClass(), Validator.PASS1, "fails");
+		try {
+			fails.invoke(checks, null);
+			Assert.fail();
+		} catch (InvocationTargetException ex) {
+			Assert.assertTrue( ex.getCause() instanceof IllegalStateException );
+		}
+		try {
+			fails.call(checks, null);
+			Assert.fail();
+		} catch (IllegalStateException ex) {
+			// not wrapped
+		}
+
+		Rule repeat = rule(checks.getClass(), "args", "repeat");
+		Assert.assertEquals( "abab", repeat.invoke(checks, new Object[] { "ab", Integer.valueOf(2) }) );
+		Assert.assertEquals( "", repeat.call(checks, new Object[] { "ab", Integer.valueOf(0) }) );
+
+		// arguments which do not fit are not the rule's failure
+		for(Object[] args : new Object[][] { null, { "ab" }, { "ab", "2" } }) {
+			try {
+				repeat.invoke(checks, args);
+				Assert.fail();
+			} catch (IllegalArgumentException ex) {
+				// expected
+			}
+		}
+		try {
+			repeat.invoke(new Object(), new Object[] { "ab", Integer.valueOf(2) });
+			Assert.fail();
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+}
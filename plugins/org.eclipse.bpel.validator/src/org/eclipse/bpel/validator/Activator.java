@@ -14,6 +14,7 @@ import org.eclipse.bpel.validator.factory.FunctionMetaValidatorAdapterFactory;
 import org.eclipse.bpel.validator.helpers.ModelQueryImpl;
 import org.eclipse.bpel.validator.model.IFactory;
 import org.eclipse.bpel.validator.model.IModelQuery;
+import org.eclipse.bpel.validator.model.Metrics;
 import org.eclipse.bpel.validator.model.RuleFactory;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -64,6 +65,12 @@ public class Activator extends Plugin {
 		Handler handler = new LogHandler();
 		logger.addHandler( handler );
 		
+		// where the validation time goes, see Metrics; registered with JMX
+		// only when profiling is enabled
+		if (Metrics.INSTANCE.isEnabled()) {
+			Metrics.INSTANCE.register();
+		}
+		
 		initializeAndTime();
 	}
 
@@ -160,6 +167,8 @@ public class Activator extends Plugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {		
 		plugin = null;
+		
+		Metrics.INSTANCE.unregister();
 				
 		AdapterRegistry.INSTANCE.unregisterAdapterFactory(
 			    FMPackage.eINSTANCE,  FunctionMetaValidatorAdapterFactory.INSTANCE );
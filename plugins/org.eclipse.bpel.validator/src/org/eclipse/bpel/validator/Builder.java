@@ -4,13 +4,16 @@ package org.eclipse.bpel.validator;
  * Java JDK dependencies
  */
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.eclipse.bpel.model.Import;
 import org.eclipse.bpel.model.Process;
 import org.eclipse.bpel.model.resource.BPELResourceSetImpl;
 import org.eclipse.bpel.model.resource.SAXParseDiagnostic;
@@ -19,25 +22,26 @@ import org.eclipse.bpel.validator.helpers.ModelQueryImpl;
 import org.eclipse.bpel.validator.model.INode;
 import org.eclipse.bpel.validator.model.IProblem;
 import org.eclipse.bpel.validator.model.Messages;
+import org.eclipse.bpel.validator.model.Metrics;
 import org.eclipse.bpel.validator.model.Problem;
 import org.eclipse.bpel.validator.model.Runner;
-import org.eclipse.core.resources.IContainer;
+import org.eclipse.bpel.validator.model.RunnerPool;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
-import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdapterManager;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.content.IContentDescription;
 import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
@@ -71,10 +75,22 @@ public class Builder extends IncrementalProjectBuilder {
 	/** The adapter manager for the platform */
 	IAdapterManager fAdapterManager = Platform.getAdapterManager();
 
+	/** Computes the resources and the attributes of the markers */
+	AdapterFactory fAdapterFactory = new AdapterFactory();
+
 	BPELResourceSetImpl fResourceSet = new BPELResourceSetImpl();
 
 	BPELReader fReader = new BPELReader();
 
+	/** Number of threads used to validate the processes; 1 is sequential, 0 is one per processor */
+	int fThreads = 1;
+
+	/** Who imports what, used to validate only the affected processes */
+	ImportDependencies fDependencies = new ImportDependencies();
+
+	/** The results of previous validations, kept across sessions; null when disabled */
+	ResultCache fCache;
+
 
 	/**
 	 * Create brand new shiny BPEL Builder.
@@ -99,8 +115,12 @@ public class Builder extends IncrementalProjectBuilder {
 
 
 		long started = System.currentTimeMillis();
+		boolean useCache = true;
 		if (args != null) {
 			this.bDebug = toBoolean(args.get("debug"),false);
+			this.fThreads = RunnerPool.toThreads(args.get("threads"),1);
+			useCache = toBoolean(args.get("cache"),true);
+			Metrics.INSTANCE.setEnabled( toBoolean(args.get("profile"), Metrics.INSTANCE.isEnabled()) );
 		}
 
 
@@ -110,58 +130,131 @@ public class Builder extends IncrementalProjectBuilder {
 			Messages.clear();
 		}
 
-		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=330813
-		// https://jira.jboss.org/browse/JBIDE-7116
-		clearCach();
-
 		IProject myProject = this.getProject();
 		IResourceDelta resourceDelta = this.getDelta(myProject);
 
-		if (resourceDelta == null) {
+		// kept from one build to the next, so that it remembers the digests of the files
+		if (useCache == false) {
+			this.fCache = null;
+		} else if (this.fCache == null) {
+			this.fCache = createCache(myProject);
+		}
+
+		if (kind == FULL_BUILD || resourceDelta == null || this.fDependencies.isEmpty()) {
+
+			// https://bugs.eclipse.org/bugs/show_bug.cgi?id=330813
+			// https://jira.jboss.org/browse/JBIDE-7116
+			// Full build, or we don't know the imports yet; start from scratch.
+			clearCach();
 
 			// Now find all the BPEL files in the project and validate them
 			validate ( myProject, monitor );
 
 		} else {
 
-			processDeltas(resourceDelta.getAffectedChildren( IResourceDelta.CHANGED ), monitor );
+			validate ( getChangedFiles(resourceDelta), monitor );
 
 		}
 
 		long ended = System.currentTimeMillis();
 		p(" Validation Ended " + (ended-started) + "ms");
+		if (this.bDebug && Metrics.INSTANCE.isEnabled()) {
+			for(String line : Metrics.INSTANCE.getPhases()) {
+				p("  " + line);
+			}
+		}
 		return new IProject[] { myProject };
 	}
 
 
 
-	void processDeltas ( IResourceDelta [] deltas , IProgressMonitor monitor ) throws CoreException {
+	/**
+	 * Collect the BPEL, WSDL and XSD files that have been added, removed or whose
+	 * content has changed.
+	 *
+	 * @param resourceDelta the project delta
+	 * @return the list of changed files
+	 * @throws CoreException
+	 */
 
-		for(IResourceDelta delta : deltas) {
-			processDeltas( delta.getAffectedChildren(IResourceDelta.CHANGED, IResource.FILE), monitor );
-			IResource resource = delta.getResource();
-			if (resource.getType () != IResource.FILE) {
-				continue;
+	List<IFile> getChangedFiles ( IResourceDelta resourceDelta ) throws CoreException {
+
+		final List<IFile> changed = new ArrayList<IFile>();
+
+		resourceDelta.accept(new IResourceDeltaVisitor() {
+
+			public boolean visit(IResourceDelta delta) throws CoreException {
+				IResource resource = delta.getResource();
+				if (resource.getType () != IResource.FILE) {
+					return true;
+				}
+
+//				 * @see IResourceDelta#CONTENT
+//				 * @see IResourceDelta#DESCRIPTION
+//				 * @see IResourceDelta#ENCODING
+//				 * @see IResourceDelta#OPEN
+//				 * @see IResourceDelta#MOVED_TO
+//				 * @see IResourceDelta#MOVED_FROM
+//				 * @see IResourceDelta#TYPE
+//				 * @see IResourceDelta#SYNC
+//				 * @see IResourceDelta#MARKERS
+//				 * @see IResourceDelta#REPLACED
+
+				if (delta.getKind() == IResourceDelta.CHANGED &&
+						(delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) == 0 ) {
+					return false;
+				}
+
+				if (isImportable(resource) || isBPELFile(resource) || Builder.this.fDependencies.isProcess((IFile) resource)) {
+					changed.add((IFile) resource);
+				}
+				return false;
 			}
+		});
 
-//			 * @see IResourceDelta#CONTENT
-//			 * @see IResourceDelta#DESCRIPTION
-//			 * @see IResourceDelta#ENCODING
-//			 * @see IResourceDelta#OPEN
-//			 * @see IResourceDelta#MOVED_TO
-//			 * @see IResourceDelta#MOVED_FROM
-//			 * @see IResourceDelta#TYPE
-//			 * @see IResourceDelta#SYNC
-//			 * @see IResourceDelta#MARKERS
-//			 * @see IResourceDelta#REPLACED
-
-			if ((delta.getFlags() & IResourceDelta.CONTENT) != IResourceDelta.CONTENT ) {
-				continue;
+		return changed;
+	}
+
+
+	/**
+	 * Validate only the processes which are affected by the changed files.
+	 * The changed files, and any loaded resources that refer to them, are evicted from
+	 * the resource set; all other resources stay loaded.
+	 *
+	 * @param changed the changed files
+	 * @param monitor the monitor to use.
+	 * @throws CoreException
+	 */
+
+	public void validate ( Collection<IFile> changed, IProgressMonitor monitor ) throws CoreException {
+
+		if (changed.isEmpty()) {
+			return ;
+		}
+
+		for(IFile file : this.fDependencies.getDependents( changed )) {
+			this.fResourceSet.resourceChanged( file );
+		}
+
+		Set<IFile> processes = this.fDependencies.getAffectedProcesses( changed );
+		for(IFile file : changed) {
+			if (file.exists() == false) {
+				this.fDependencies.remove( file );
+				processes.remove( file );
+			} else if (isBPELFile(file)) {
+				processes.add( file );
 			}
+		}
 
-			this.fResourceSet.resourceChanged((IFile)resource);
-			validate ( resource, monitor );
+		p("Changed: " + changed.size() + " file(s), affected processes: " + processes.size() );
+
+		List<IFile> existing = new ArrayList<IFile>(processes.size());
+		for(IFile bpelFile : processes) {
+			if (bpelFile.exists()) {
+				existing.add( bpelFile );
+			}
 		}
+		validateAndMark( existing, monitor );
 	}
 
 
@@ -171,6 +264,29 @@ public class Builder extends IncrementalProjectBuilder {
 	@Override
 	protected void clean (IProgressMonitor monitor) throws CoreException {
 		removeProblemsAndTasksFor(getProject());
+		// a clean build re-validates everything
+		ResultCache cache = createCache(getProject());
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+
+	/**
+	 * The results of the project are kept in the state location of the plug-in,
+	 * one folder per project.
+	 *
+	 * @param project
+	 * @return the cache, or null if the plug-in is not running.
+	 */
+
+	ResultCache createCache ( IProject project ) {
+		Activator plugin = Activator.getDefault();
+		if (plugin == null) {
+			return null;
+		}
+		File directory = plugin.getStateLocation().append("results").append(project.getName()).toFile();
+		return new ResultCache( directory );
 	}
 
 	public static void removeProblemsAndTasksFor(IResource resource) {
@@ -195,9 +311,7 @@ public class Builder extends IncrementalProjectBuilder {
 		// https://jira.jboss.org/browse/JBIDE-7116
 		// enable element location tracking for error reporting
 		// TODO: move this to somewhere more appropriate when fixing JBIDE-6839
-		Map<Object, Object> loadOptions = this.fResourceSet.getLoadOptions();
-		loadOptions.put("TRACK_LOCATION", Boolean.TRUE);
-		this.fResourceSet.setLoadOptions(loadOptions);
+		trackLocation ( this.fResourceSet );
 
 
 		switch (resource.getType()) {
@@ -215,26 +329,171 @@ public class Builder extends IncrementalProjectBuilder {
 			p("File Resource : " + file.getName() );
 			// https://jira.jboss.org/jira/browse/JBIDE-6006
 			// use content type to check for BPEL files
-			if ( isBPELFile(file) ||  "wsdl".equalsIgnoreCase(file.getFileExtension()) ) {
-				IProject project = file.getProject();
-				validate(project, monitor);
-//				file.deleteMarkers(IBPELMarker.ID, true,  IResource.DEPTH_INFINITE);
-//				deleteMarkersInReferencialResources(file);
-//				makeMarkers ( validate (  file, monitor  ) );
+			if ( isBPELFile(file) ||  isImportable(file) ) {
+				if (this.fDependencies.isEmpty()) {
+					// We don't know who imports what yet.
+					validate(file.getProject(), monitor);
+				} else {
+					validate(Collections.singletonList(file), monitor);
+				}
 			}
 			break;
 
 		case IResource.PROJECT:
-			for(IFile bpelFile : getBPELFilesByProject((IProject)resource)){
+			this.fDependencies.clear();
+			validateAndMark ( getBPELFilesByProject((IProject)resource), monitor );
+		}
+
+
+	}
+
+
+	void trackLocation ( BPELResourceSetImpl resourceSet ) {
+		Map<Object, Object> loadOptions = resourceSet.getLoadOptions();
+		loadOptions.put("TRACK_LOCATION", Boolean.TRUE);
+		resourceSet.setLoadOptions(loadOptions);
+	}
+
+
+	/**
+	 * Validate the BPEL files and replace their markers with the problems found.
+	 * <p>
+	 * When more than one thread is configured, the files are spread over a pool of
+	 * workers, each with its own resource set and reader.
+	 * <p>
+	 * The markers of all the files are published at the end, in one workspace
+	 * operation (see {@link MarkerBatch}).
+	 *
+	 * @param bpelFiles the BPEL files to validate
+	 * @param monitor the monitor to use.
+	 * @throws CoreException
+	 */
+
+	void validateAndMark ( Collection<IFile> cachedAndNot, final IProgressMonitor monitor ) throws CoreException {
+
+		MarkerBatch batch = new MarkerBatch( this.fAdapterFactory );
+		try {
+			validateAndMark( cachedAndNot, batch, monitor );
+		} finally {
+			long start = Metrics.INSTANCE.start();
+			batch.publish( null );
+			Metrics.INSTANCE.phase(Metrics.MARKERS, start);
+		}
+	}
+
+
+	void validateAndMark ( Collection<IFile> cachedAndNot, MarkerBatch batch, final IProgressMonitor monitor ) throws CoreException {
+
+		// A process may no longer import what it imported when it was last validated,
+		// so its markers there are replaced too.
+		for(IFile bpelFile : cachedAndNot) {
+			for(IFile importedFile : this.fDependencies.getImports(bpelFile)) {
+				batch.reset( importedFile, bpelFile );
+			}
+		}
+
+		Collection<IFile> bpelFiles = restore( cachedAndNot, batch, monitor );
+
+		if (this.fThreads == 1 || bpelFiles.size() < 2) {
+			for(IFile bpelFile : bpelFiles) {
+				if (monitor != null && monitor.isCanceled()) {
+					return ;
+				}
 				p("File Resource : " + bpelFile.getName() );
+				mark ( bpelFile, validate ( bpelFile, monitor ), batch );
+			}
+			return ;
+		}
+
+		RunnerPool<IFile,IProblem[]> pool = new RunnerPool<IFile,IProblem[]>( this.fThreads,
+				new RunnerPool.WorkerFactory<IFile,IProblem[]>() {
+
+			public RunnerPool.Worker<IFile,IProblem[]> create() {
+
+				final BPELResourceSetImpl resourceSet = new BPELResourceSetImpl();
+				final BPELReader reader = new BPELReader();
+				trackLocation ( resourceSet );
 
-				bpelFile.deleteMarkers(IBPELMarker.ID, true,  IResource.DEPTH_INFINITE);
-				deleteMarkersInReferencialResources(bpelFile);
-				makeMarkers ( validate (  bpelFile, monitor  ) );
+				return new RunnerPool.Worker<IFile,IProblem[]>() {
+					public IProblem[] run(IFile bpelFile) {
+						if (monitor != null && monitor.isCanceled()) {
+							return null;
+						}
+						return validate ( bpelFile, resourceSet, reader );
+					}
+				};
 			}
+		});
+
+		p("Validating " + bpelFiles.size() + " BPEL Resources on " + pool.getThreads() + " threads" );
+
+		Map<IFile,IProblem[]> results = pool.run( bpelFiles );
+
+		if (monitor != null && monitor.isCanceled()) {
+			return ;
+		}
+
+		for(Map.Entry<IFile,IProblem[]> entry : results.entrySet()) {
+			mark ( entry.getKey(), entry.getValue(), batch );
+		}
+	}
+
+
+	/**
+	 * Mark the BPEL files whose results are still in the cache with the problems
+	 * restored from it.
+	 *
+	 * @param bpelFiles the BPEL files to validate
+	 * @param batch the markers of the build
+	 * @param monitor the monitor to use.
+	 * @return the BPEL files which still need to be validated.
+	 * @throws CoreException
+	 */
+
+	List<IFile> restore ( Collection<IFile> bpelFiles, MarkerBatch batch, IProgressMonitor monitor ) throws CoreException {
+
+		List<IFile> result = new ArrayList<IFile>( bpelFiles.size() );
+		for(IFile bpelFile : bpelFiles) {
+			if (monitor != null && monitor.isCanceled()) {
+				break;
+			}
+			ResultCache.Entry entry = this.fCache != null ? this.fCache.get( uriOf(bpelFile) ) : null;
+			if (entry == null) {
+				result.add( bpelFile );
+				continue;
+			}
+			p("Restored from cache : " + bpelFile.getName() );
+			this.fDependencies.recordProcess( bpelFile, this.fDependencies.toFiles( entry.getImports() ));
+			mark ( bpelFile, entry.getProblems(), batch );
+		}
+		return result;
+	}
+
+
+	URI uriOf ( IFile file ) {
+		return URI.createPlatformResourceURI( file.getFullPath().toString() );
+	}
+
+
+	IProblem[] remember ( IFile file, Process process, IProblem[] problems ) {
+		if (this.fCache != null) {
+			this.fCache.put( uriOf(file), process, problems );
 		}
+		return problems;
+	}
+
 
+	void mark ( IFile bpelFile, IProblem[] problems, MarkerBatch batch ) {
 
+		long start = Metrics.INSTANCE.start();
+		batch.reset( bpelFile, true );
+		// The imports were recorded when the process was last validated, so there
+		// is no need to read the process again.
+		for(IFile importedFile : this.fDependencies.getImports(bpelFile)) {
+			batch.reset( importedFile, bpelFile );
+		}
+		batch.add( bpelFile, problems );
+		Metrics.INSTANCE.phase(Metrics.MARKERS, start);
 	}
 
 	private List<IFile> getBPELFilesByProject(IProject project){
@@ -263,32 +522,6 @@ public class Builder extends IncrementalProjectBuilder {
 		return bpelFolders;
 	}
 
-	private void deleteMarkersInReferencialResources(IFile bpelFile) throws CoreException{
-
-		this.fResourceSet.resourceChanged(bpelFile);
-		this.fReader.read( bpelFile, this.fResourceSet );
-		Process process = this.fReader.getProcess();
-
-		p("Delete markers");
-		// https://jira.jboss.org/browse/JBIDE-6825
-		// in case of XML parse errors, the Process will be null!
-		if (process == null) {
-			p ("Cannot read BPEL Process !!!");
-			return;
-		}
-
-		IContainer container = bpelFile.getParent();
-		for(Import impt : process.getImports()){
-			String fileLocation = impt.getLocation();
-			IFile importedFile = container.getFile(new Path(fileLocation));
-			if(importedFile != null && importedFile.exists()){
-				importedFile.deleteMarkers(IBPELMarker.ID, false,  IResource.DEPTH_ZERO);
-			}
-		}
-
-	}
-
-
 	public void clearCach(){
 		this.fResourceSet.getResources().clear();
 	}
@@ -298,22 +531,40 @@ public class Builder extends IncrementalProjectBuilder {
 	 * @return return the list of problems found
 	 */
 	public IProblem[] validate (IFile file, IProgressMonitor monitor  ) {
+		return validate ( file, this.fResourceSet, this.fReader );
+	}
+
+
+	/**
+	 * Validate the file using the resource set and reader given. Only the
+	 * thread which owns them may call this.
+	 *
+	 * @param file
+	 * @param resourceSet
+	 * @param reader
+	 * @return return the list of problems found
+	 */
+
+	IProblem[] validate (IFile file, BPELResourceSetImpl resourceSet, BPELReader reader ) {
 
 
 		p("Validating BPEL Resource : " + file.getName() );
 
 		// Step 1. Read the BPEL process using the Model API.
 
-		this.fResourceSet.resourceChanged(file);
-		this.fReader.read( file, this.fResourceSet );
-		Process process = this.fReader.getProcess();
+		Metrics metrics = Metrics.INSTANCE;
+		long start = metrics.start();
+		resourceSet.resourceChanged(file);
+		reader.read( file, resourceSet );
+		Process process = reader.getProcess();
+		start = metrics.phase(Metrics.PARSE, start);
 
 		if (process == null) {
 			// https://jira.jboss.org/browse/JBIDE-6825
 			// if the resource failed to parse because of malformed XML, the Process
 			// will be null. Fetch the SAXParseDiagnostics from the resource and build
 			// problem markers for this resource.
-			Resource resource = this.fReader.getProcessResource();
+			Resource resource = reader.getProcessResource();
 			if ( resource!=null && !resource.getErrors().isEmpty() )
 			{
 				ArrayList<IProblem> problems = new ArrayList<IProblem>(resource.getErrors().size());
@@ -334,17 +585,20 @@ public class Builder extends IncrementalProjectBuilder {
 
 					problems.add(problem);
 				}
-				return problems.toArray( new Problem[problems.size()] );
+				this.fDependencies.recordProcess(file, (Process) null);
+				return remember( file, null, problems.toArray( new Problem[problems.size()] ));
 			}
 
 			p ("Cannot read BPEL Process !!!");
-			return this.EMPTY_PROBLEMS ;
+			this.fDependencies.recordProcess(file, (Process) null);
+			return remember( file, null, this.EMPTY_PROBLEMS );
 		}
 
 		p("Read in BPEL Model OK" );
 
 		// Step 2. Preparation for the validator.
 		linkModels ( process );
+		metrics.phase(Metrics.LINK_MODELS, start);
 		p("Models Linked" );
 
 		// Process as INode
@@ -357,7 +611,10 @@ public class Builder extends IncrementalProjectBuilder {
 
 		IProblem[] problemList = new Runner (ModelQueryImpl.getModelQuery(), node ).run();
 		p("Validator Executed" );
-		return problemList;
+
+		// The imports have been resolved (and loaded) by the validator by now.
+		this.fDependencies.recordProcess(file, process);
+		return remember( file, process, problemList );
 	}
 
 
@@ -372,9 +629,15 @@ public class Builder extends IncrementalProjectBuilder {
 		}
 
 		// Step 5. Adapt problems to markers.
-		for(IProblem problem : problemList) {
-			this.fAdapterManager.getAdapter(problem, IMarker.class);
+		long start = Metrics.INSTANCE.start();
+		MarkerBatch batch = new MarkerBatch( this.fAdapterFactory );
+		batch.add( problemList );
+		try {
+			batch.publish( null );
+		} catch (CoreException ex) {
+			Activator.log(ex);
 		}
+		Metrics.INSTANCE.phase(Metrics.MARKERS, start);
 
 		p( "Markers Created " );
 		p( " ------ Done" );
@@ -426,6 +689,16 @@ public class Builder extends IncrementalProjectBuilder {
 		}
 	}
 
+	/**
+	 * @param res
+	 * @return true if the resource is a WSDL or XSD file which may be imported by a process.
+	 */
+	public static boolean isImportable(IResource res)
+	{
+		String ext = res.getFileExtension();
+		return "wsdl".equalsIgnoreCase(ext) || "xsd".equalsIgnoreCase(ext);
+	}
+
 	// https://jira.jboss.org/jira/browse/JBIDE-6006
 	public static boolean isBPELFile(IResource res)
 	{
@@ -31,12 +31,14 @@ import org.eclipse.bpel.model.proxy.PropertyProxy;
 import org.eclipse.bpel.model.proxy.RoleProxy;
 import org.eclipse.bpel.model.proxy.XSDElementDeclarationProxy;
 import org.eclipse.bpel.model.proxy.XSDTypeDefinitionProxy;
+import org.eclipse.bpel.model.util.ImportIndex;
 import org.eclipse.bpel.model.util.ImportResolver;
 import org.eclipse.bpel.model.util.ImportResolverRegistry;
 import org.eclipse.bpel.model.util.WSDLUtil;
 import org.eclipse.bpel.model.util.XSDComparer;
 import org.eclipse.bpel.model.util.XSDUtil;
 import org.eclipse.bpel.validator.factory.AdapterFactory;
+import org.eclipse.bpel.validator.model.Metrics;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
@@ -73,18 +75,28 @@ public class EmfModelQuery {
 
 	// https://bugs.eclipse.org/bugs/show_bug.cgi?id=330813
 	// https://jira.jboss.org/browse/JBIDE-7351
-	// we need an instance of this so we can get diagnostics for error reporting
-	XSDComparer xsdComparer;
+	// we need an instance of this so we can get diagnostics for error reporting.
+	// The comparer keeps the state of the last comparison (its diagnostics and
+	// the terms compared), so each validation thread gets its own.
+	final ThreadLocal<XSDComparer> xsdComparer = new ThreadLocal<XSDComparer>() {
+		@Override
+		protected XSDComparer initialValue() {
+			XSDComparer comparer = new XSDComparer();
+			// if debug mode is set in the builder, force XSD comparison
+			comparer.setDebug(AdapterFactory.DEBUG);
+			return comparer;
+		}
+	};
 	
 	
 	public EmfModelQuery() {
-		xsdComparer = new XSDComparer();
-		// if debug mode is set in the builder, force XSD comparison
-		xsdComparer.setDebug(AdapterFactory.DEBUG);
 	}
 	
+	/**
+	 * @return the XSD comparer of the calling thread.
+	 */
 	public XSDComparer getXSDComparer() {
-		return xsdComparer;
+		return xsdComparer.get();
 	}
 	
 	/**
@@ -445,9 +457,11 @@ public class EmfModelQuery {
     	    for (ImportResolver r : ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType()) ) {
     	    	EObject result =  r.resolve(imp,null,null,ImportResolver.TOP);
     	    	if (result != null) {
+    	    		Metrics.INSTANCE.count(Metrics.IMPORTS_RESOLVED);
                     return result;
                 }
     	    }
+    	    Metrics.INSTANCE.count(Metrics.IMPORTS_UNRESOLVED);
 		}
 		
 		return null;
@@ -486,25 +500,9 @@ public class EmfModelQuery {
 	
 	static EObject scanImports (  Process process, QName qname , String refType ) {
 		
-		EObject result = null;
-		
-		for(Object n : process.getImports()) {
-            Import imp = (Import) n;                                    
-            if (imp.getLocation() == null ) {
-            	continue;
-            }
-            
-    	    ImportResolver[] resolvers = ImportResolverRegistry.INSTANCE.getResolvers(imp.getImportType());
-    	    for(ImportResolver r : resolvers) {
-                result = r.resolve(imp, qname, null, refType);
-                if (result != null) {
-                	return result;
-                }                
-            }
-    	    
-        } 
-        
-        return null;
+		EObject result = ImportIndex.getIndex(process).scan(qname, refType);
+		Metrics.INSTANCE.count( result != null ? Metrics.IMPORTS_RESOLVED : Metrics.IMPORTS_UNRESOLVED );
+		return result;
 	}
 
 	/**
@@ -761,7 +759,7 @@ public class EmfModelQuery {
 			// https://jira.jboss.org/browse/JBIDE-7116
 			// https://jira.jboss.org/browse/JBIDE-7351
 			// use XSDComparer
-			if (xsdComparer.compare(srcType,dstType)) {
+			if (getXSDComparer().compare(srcType,dstType)) {
 				return true;
 			}
 
@@ -864,7 +862,7 @@ public class EmfModelQuery {
 			if (src==dst)
 				return true;
 
-		return xsdComparer.compare(src,dst);
+		return getXSDComparer().compare(src,dst);
 	}
 	
 	// https://jira.jboss.org/browse/JBIDE-7116
@@ -36,4 +36,11 @@ public interface IBPELMarker extends IMarker {
 	 */
 		
 	String ADDRESS_MODEL = "address.model";
+	
+	/**
+	 * The processes which found the problem of this marker, one path per line.
+	 * Only set on markers which are not on the process itself (on the imports).
+	 */
+	
+	String OWNERS = "bpel.validation.owners";
 }
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.bpel.model.Import;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.wst.wsdl.Definition;
+import org.eclipse.wst.wsdl.Types;
+import org.eclipse.xsd.XSDSchema;
+import org.eclipse.xsd.XSDSchemaContent;
+import org.eclipse.xsd.XSDSchemaDirective;
+
+/**
+ * The import dependencies of the BPEL processes validated by the
+ * {@link Builder}.
+ * <p>
+ * For every BPEL, WSDL or XSD file we remember the files that it imports
+ * directly, and the reverse: the files that import it. When a file changes,
+ * the reverse edges tell us which processes need to be re-validated and
+ * which loaded resources hold references to the stale content.
+ * <p>
+ * The graph is rebuilt for a process each time that process is validated,
+ * so it reflects the imports as they were at the last validation. Processes
+ * may be recorded from several validation threads at once.
+ */
+
+@SuppressWarnings("nls")
+public class ImportDependencies {
+
+	/** file -> the files it imports directly */
+	Map<IFile,Set<IFile>> fImports = new HashMap<IFile,Set<IFile>>();
+
+	/** file -> the files which import it directly */
+	Map<IFile,Set<IFile>> fImportedBy = new HashMap<IFile,Set<IFile>>();
+
+	/** The BPEL processes that we know about */
+	Set<IFile> fProcesses = new HashSet<IFile>();
+
+	IWorkspaceRoot fRoot = ResourcesPlugin.getWorkspace().getRoot();
+
+
+	/**
+	 * Forget everything.
+	 */
+
+	public synchronized void clear () {
+		fImports.clear();
+		fImportedBy.clear();
+		fProcesses.clear();
+	}
+
+	/**
+	 * @return true if no process has been recorded yet.
+	 */
+
+	public synchronized boolean isEmpty () {
+		return fProcesses.isEmpty();
+	}
+
+	/**
+	 * @param file
+	 * @return true if the file is a process that has been recorded.
+	 */
+
+	public synchronized boolean isProcess ( IFile file ) {
+		return fProcesses.contains(file);
+	}
+
+	/**
+	 * Record the imports of the process just read from the BPEL file.
+	 * The imported resources are expected to be loaded in the resource set
+	 * of the process already (which is the case after validation), nested WSDL
+	 * and XSD imports are only followed for resources which are loaded.
+	 *
+	 * @param bpelFile the BPEL file
+	 * @param process the process read from that file, may be null
+	 */
+
+	public synchronized void recordProcess ( IFile bpelFile, Process process ) {
+
+		fProcesses.add(bpelFile);
+
+		Map<URI,Set<URI>> imports = collectImports(process);
+		if (imports.isEmpty()) {
+			setImports(bpelFile, Collections.<IFile>emptySet());
+			return ;
+		}
+
+		// the process resource comes first
+		boolean first = true;
+		for(Map.Entry<URI,Set<URI>> entry : imports.entrySet()) {
+			IFile from = first ? bpelFile : toFile(entry.getKey());
+			first = false;
+			if (from == null) {
+				continue;
+			}
+			setImports(from, toFiles(entry.getValue()));
+		}
+	}
+
+
+	/**
+	 * Record the imports of a process whose validation results have been
+	 * restored from the {@link ResultCache}. The process has not been read,
+	 * so all we know are the files it depends on, directly or not; they are
+	 * recorded as if they were imported directly by the process.
+	 *
+	 * @param bpelFile the BPEL file
+	 * @param imports all the files the process depends on
+	 */
+
+	public synchronized void recordProcess ( IFile bpelFile, Collection<IFile> imports ) {
+		fProcesses.add(bpelFile);
+		setImports(bpelFile, new LinkedHashSet<IFile>(imports));
+	}
+
+
+	/**
+	 * Walk the imports of the process just read. The imported resources are
+	 * expected to be loaded in the resource set of the process already, nested
+	 * WSDL and XSD imports are only followed for resources which are loaded.
+	 * <p>
+	 * This does not need a workspace, so that it can be used headless as well.
+	 *
+	 * @param process the process, may be null
+	 * @return resource URI -> URIs it imports directly; the process resource comes first.
+	 */
+
+	static Map<URI,Set<URI>> collectImports ( Process process ) {
+
+		Map<URI,Set<URI>> result = new LinkedHashMap<URI,Set<URI>>();
+		if (process == null || process.eResource() == null) {
+			return result;
+		}
+
+		Resource processResource = process.eResource();
+		ResourceSet resourceSet = processResource.getResourceSet();
+
+		Set<URI> direct = new LinkedHashSet<URI>();
+		List<Resource> toVisit = new ArrayList<Resource>();
+
+		for(Import imp : process.getImports()) {
+			URI uri = resolve(imp.getLocation(), processResource.getURI());
+			addImport(direct, toVisit, uri, resourceSet);
+		}
+		result.put(processResource.getURI(), direct);
+
+		// Walk the WSDL and XSD imports of the loaded resources
+		while (toVisit.isEmpty() == false) {
+			Resource resource = toVisit.remove(toVisit.size() - 1);
+			if (result.containsKey(resource.getURI())) {
+				continue;
+			}
+			Set<URI> imports = new LinkedHashSet<URI>();
+			for(Object obj : resource.getContents()) {
+				if (obj instanceof Definition) {
+					collectImports( (Definition) obj, resource, imports, toVisit, resourceSet);
+				} else if (obj instanceof XSDSchema) {
+					collectImports( (XSDSchema) obj, resource, imports, toVisit, resourceSet);
+				}
+			}
+			result.put(resource.getURI(), imports);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Forget the file (it has been removed from the workspace).
+	 * Files which import it still keep their edge to it, so that they
+	 * are re-validated when it re-appears.
+	 *
+	 * @param file
+	 */
+
+	public synchronized void remove ( IFile file ) {
+		fProcesses.remove(file);
+		setImports(file, Collections.<IFile>emptySet());
+		fImports.remove(file);
+	}
+
+
+	/**
+	 * Compute all the files which depend on the changed files, directly
+	 * or indirectly. The changed files themselves are included in the answer.
+	 *
+	 * @param changed the changed files
+	 * @return the changed files and all the files that depend on them.
+	 */
+
+	public synchronized Set<IFile> getDependents ( Collection<IFile> changed ) {
+
+		Set<IFile> result = new LinkedHashSet<IFile>();
+		List<IFile> work = new ArrayList<IFile>(changed);
+
+		while (work.isEmpty() == false) {
+			IFile next = work.remove(work.size() - 1);
+			if (result.add(next) == false) {
+				continue;
+			}
+			Set<IFile> importedBy = fImportedBy.get(next);
+			if (importedBy != null) {
+				work.addAll(importedBy);
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Compute the processes that need to be re-validated because some of
+	 * the files passed have changed.
+	 *
+	 * @param changed the changed files
+	 * @return the processes affected by the change.
+	 */
+
+	public synchronized Set<IFile> getAffectedProcesses ( Collection<IFile> changed ) {
+		Set<IFile> result = new LinkedHashSet<IFile>();
+		for(IFile file : getDependents(changed)) {
+			if (fProcesses.contains(file)) {
+				result.add(file);
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * @param file
+	 * @return the files directly imported by this file (never null)
+	 */
+
+	public synchronized Set<IFile> getImports ( IFile file ) {
+		Set<IFile> imports = fImports.get(file);
+		if (imports == null) {
+			return Collections.emptySet();
+		}
+		return new HashSet<IFile>(imports);
+	}
+
+
+	void setImports ( IFile from, Set<IFile> imports ) {
+
+		Set<IFile> previous = fImports.put(from, imports);
+		if (previous != null) {
+			for(IFile to : previous) {
+				Set<IFile> importedBy = fImportedBy.get(to);
+				if (importedBy != null) {
+					importedBy.remove(from);
+					if (importedBy.isEmpty()) {
+						fImportedBy.remove(to);
+					}
+				}
+			}
+		}
+
+		for(IFile to : imports) {
+			Set<IFile> importedBy = fImportedBy.get(to);
+			if (importedBy == null) {
+				importedBy = new HashSet<IFile>();
+				fImportedBy.put(to, importedBy);
+			}
+			importedBy.add(from);
+		}
+	}
+
+
+	static void collectImports ( Definition definition, Resource resource, Set<URI> imports, List<Resource> toVisit, ResourceSet resourceSet ) {
+
+		for(Object obj : definition.getEImports()) {
+			org.eclipse.wst.wsdl.Import wsdlImport = (org.eclipse.wst.wsdl.Import) obj;
+			URI uri = resolve(wsdlImport.getLocationURI(), resource.getURI());
+			addImport(imports, toVisit, uri, resourceSet);
+		}
+
+		Types types = definition.getETypes();
+		if (types == null) {
+			return ;
+		}
+		for(Object obj : types.getSchemas()) {
+			collectImports( (XSDSchema) obj, resource, imports, toVisit, resourceSet);
+		}
+	}
+
+
+	static void collectImports ( XSDSchema schema, Resource resource, Set<URI> imports, List<Resource> toVisit, ResourceSet resourceSet ) {
+
+		for(XSDSchemaContent content : schema.getContents()) {
+			if (content instanceof XSDSchemaDirective == false) {
+				continue;
+			}
+			XSDSchemaDirective directive = (XSDSchemaDirective) content;
+			XSDSchema resolved = directive.getResolvedSchema();
+			URI uri = null;
+			if (resolved != null && resolved.eResource() != null) {
+				uri = resolved.eResource().getURI();
+			} else {
+				uri = resolve(directive.getSchemaLocation(), resource.getURI());
+			}
+			if (uri != null && uri.equals(resource.getURI())) {
+				continue;
+			}
+			addImport(imports, toVisit, uri, resourceSet);
+		}
+	}
+
+
+	static void addImport ( Set<URI> imports, List<Resource> toVisit, URI uri, ResourceSet resourceSet ) {
+		if (uri == null) {
+			return ;
+		}
+		imports.add(uri);
+		if (resourceSet != null) {
+			Resource resource = resourceSet.getResource(uri, false);
+			if (resource != null && resource.isLoaded()) {
+				toVisit.add(resource);
+			}
+		}
+	}
+
+
+	static URI resolve ( String location, URI base ) {
+		if (location == null || location.length() == 0) {
+			return null;
+		}
+		URI uri = URI.createURI(location);
+		if (uri.isRelative() && base != null && base.isRelative() == false) {
+			uri = uri.resolve(base);
+		}
+		return uri;
+	}
+
+
+	Set<IFile> toFiles ( Collection<URI> uris ) {
+		Set<IFile> files = new LinkedHashSet<IFile>();
+		for(URI uri : uris) {
+			IFile file = toFile(uri);
+			if (file != null) {
+				files.add(file);
+			}
+		}
+		return files;
+	}
+
+
+	IFile toFile ( URI uri ) {
+		if (uri == null) {
+			return null;
+		}
+		if (uri.isPlatformResource()) {
+			return fRoot.getFile(new Path(uri.toPlatformString(true)));
+		}
+		if (uri.isFile()) {
+			return fRoot.getFileForLocation(new Path(uri.toFileString()));
+		}
+		return null;
+	}
+
+}
@@ -28,7 +28,9 @@ import org.eclipse.bpel.validator.helpers.GetOpt;
 import org.eclipse.bpel.validator.helpers.ModelQueryImpl;
 import org.eclipse.bpel.validator.model.INode;
 import org.eclipse.bpel.validator.model.IProblem;
+import org.eclipse.bpel.validator.model.Metrics;
 import org.eclipse.bpel.validator.model.Runner;
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.wst.wsdl.WSDLElement;
@@ -47,6 +49,9 @@ import org.w3c.dom.Element;
 public class Main extends CmdValidator {
 	
 	ResourceSet fResourceSet;
+	
+	/** The results of previous runs (-c option), null if not caching */
+	ResultCache fCache;
 		
 	/**
 	 * Create a brand new 
@@ -61,16 +66,55 @@ public class Main extends CmdValidator {
 		AdapterRegistry.INSTANCE.registerAdapterFactory( BPELPackage.eINSTANCE, BasicBPELAdapterFactory.INSTANCE );
 				
 		//	Create a resource set.
-		fResourceSet = new BPELResourceSetImpl();
+		fResourceSet = createResourceSet();
+				
+		// Register the real model query interface, that knows about EMF world as well.		
+		ModelQueryImpl.register( new ModelQuery() );	
+		
+		// The function library is late bound. When eclipse is running, this information
+		// is registered via the plugin's descriptor. On its own, we have to do it another way.
+		
+		FunctionLibrary.INSTANCE.registerLoader( new ClasspathFunctionRegistryLoader (fResourceSet) );
+	}
+	
+	
+	/**
+	 * Create a validator for a worker thread. The environment set up by the 
+	 * main validator is shared, but the worker reads the processes and their
+	 * imports into its own resource set.
+	 * 
+	 * @param main the main validator
+	 */
+	
+	protected Main ( Main main ) {
+		super();
+		fResourceSet = createResourceSet();
+		fCache = main.fCache;
+	}
+	
+	
+	/**
+	 * @see org.eclipse.bpel.validator.helpers.CmdValidator#newWorker()
+	 */
+	
+	@Override
+	protected CmdValidator newWorker () {
+		return new Main ( this );
+	}
+	
+	
+	ResourceSet createResourceSet () {
+		
+		ResourceSet resourceSet = new BPELResourceSetImpl();
 	    
 		// Register the resource factories for .bpel, .wsdl, and .xsd resources.
 		//   - bpel reads BPEL resources (our model)
 		
-		fResourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
 	    		"bpel", new BPELResourceFactoryImpl() 
 	    );
 
-		fResourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
 	    		"wsdl", new WSDLResourceFactoryImpl() 
 	    );
 		//   - wsdl reads WSDL resources (from wst project)
@@ -79,23 +123,17 @@ public class Main extends CmdValidator {
 		// partner links, variable properties, etc.
 		// We need to register them someplace here ...
 		
-		fResourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
 	    		"xsd", new XSDResourceFactoryImpl() 
 	    );
 		//   - xsd reads WSDL resources (from wst project)	
 		
 		
-		fResourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(
 				"fnmeta", new FMResourceFactoryImpl ()
 		);
 		
-		// Register the real model query interface, that knows about EMF world as well.		
-		ModelQueryImpl.register( new ModelQuery() );	
-		
-		// The function library is late bound. When eclipse is running, this information
-		// is registered via the plugin's descriptor. On its own, we have to do it another way.
-		
-		FunctionLibrary.INSTANCE.registerLoader( new ClasspathFunctionRegistryLoader (fResourceSet) );
+		return resourceSet;
 	}
 	
 	
@@ -107,12 +145,25 @@ public class Main extends CmdValidator {
 	
 	@Override
 	public IProblem[] validate (File file) {
+		
+		// Step 0. Unchanged since the last run ?
+		URI uri = URI.createFileURI( file.getAbsolutePath() );
+		if (fCache != null) {
+			ResultCache.Entry entry = fCache.get( uri );
+			if (entry != null) {
+				fRunner = null;
+				return entry.getProblems();
+			}
+		}
+		
 		//
 		//Step 1. Read the BPEL process using the Model API.
 		BPELReader reader = new BPELReader();
+		long start = Metrics.INSTANCE.start();
 			
 		reader.read( file, fResourceSet );
 		Process process = reader.getProcess();
+		start = Metrics.INSTANCE.phase(Metrics.PARSE, start);
 		
 		if (process == null) {
 			// If the file cannot be fetched in the resource set it's not because it does not exist necessarily.
@@ -123,13 +174,19 @@ public class Main extends CmdValidator {
 		
 		// Step 2. Preparation for the validator.
 		linkModels(process);
+		Metrics.INSTANCE.phase(Metrics.LINK_MODELS, start);
 				
 		// Process as INode 
 		INode node = AdapterRegistry.INSTANCE.adapt( process.getElement(), INode.class );
 		
 		// Step 3. Run it
 		fRunner = new Runner ( new ModelQuery() , node);
-		return fRunner.run();		
+		IProblem[] problems = fRunner.run();
+		
+		if (fCache != null) {
+			fCache.put(uri, process, problems);
+		}
+		return problems;
 	}
 		
 	/**
@@ -142,9 +199,11 @@ public class Main extends CmdValidator {
 		//
 		//Step 1. Read the BPEL process using the Model API.
 		BPELReader reader = new BPELReader();
+		long start = Metrics.INSTANCE.start();
 			
 		reader.read( source, fResourceSet );
 		Process process = reader.getProcess();
+		start = Metrics.INSTANCE.phase(Metrics.PARSE, start);
 		
 		if (process == null) {
 			// If the file cannot be fetched in the resource set it's not because it does not exist necessarily.
@@ -154,6 +213,7 @@ public class Main extends CmdValidator {
 		}
 		// Step 2. Preparation for the validator.
 		linkModels(process);
+		Metrics.INSTANCE.phase(Metrics.LINK_MODELS, start);
 				
 		// Process as INode 
 		INode node = AdapterRegistry.INSTANCE.adapt( process.getElement(), INode.class );
@@ -197,7 +257,24 @@ public class Main extends CmdValidator {
 	static public void main (String argv[]) throws Exception {
 		
 		Main builder = new Main();
-		GetOpt opt = new GetOpt("-h",argv);		
+		GetOpt opt = new GetOpt("-hj:c:",LONG_OPTIONS,argv);		
 		builder.run(opt);
 	}
+	
+	
+	/**
+	 * -c directory keeps the results in that directory, processes which
+	 * have not changed since the last run are not validated again. 
+	 * --profile reports where the time went, see {@link CmdValidator#profile(String)}.
+	 * 
+	 * @see org.eclipse.bpel.validator.helpers.CmdValidator#run(org.eclipse.bpel.validator.helpers.GetOpt)
+	 */
+	
+	@Override
+	public void run (GetOpt opt) throws Exception {
+		if (opt.hasOption('c')) {
+			fCache = new ResultCache( new File( opt.getOption('c') ) );
+		}
+		super.run(opt);
+	}
 }
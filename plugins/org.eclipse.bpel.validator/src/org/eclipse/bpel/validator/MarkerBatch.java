@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.bpel.validator.factory.AdapterFactory;
+import org.eclipse.bpel.validator.model.IProblem;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * The validation markers of one build.
+ * <p>
+ * The markers are not created as the files are validated. The resources whose
+ * markers are replaced and the attributes of the markers they should have are
+ * collected first, and then published in one workspace operation, so that
+ * listeners (the problems view, the editors, the decorators) see one resource
+ * change event for the whole build instead of one per marker.
+ * <p>
+ * The new markers are compared with the ones already on the resources: the
+ * markers which are still the same are kept, and only the ones which went away
+ * or are new are deleted or created. Re-validating a process which did not
+ * change does not touch its markers at all.
+ * <p>
+ * A file imported by several processes carries the markers of all of them,
+ * and an incremental build re-validates only some of them. So each marker on
+ * an import records the processes which found its problem ({@link IBPELMarker#OWNERS}),
+ * and only the claims of the processes re-validated in this batch are replaced:
+ * a marker goes away once no process claims it any more.
+ */
+
+@SuppressWarnings("nls")
+class MarkerBatch {
+
+	final AdapterFactory fFactory;
+
+	/** The resources whose markers are replaced -> include the sub types of the marker */
+	final Map<IResource,Boolean> fReset = new LinkedHashMap<IResource,Boolean>();
+
+	/** The resources -> the attributes of the markers they should have -> how many of them */
+	final Map<IResource,Map<Map<String,Object>,int[]>> fMarkers = new LinkedHashMap<IResource,Map<Map<String,Object>,int[]>>();
+
+	/** The imported resources -> the processes whose markers on them are replaced */
+	final Map<IResource,Set<String>> fOwners = new LinkedHashMap<IResource,Set<String>>();
+
+	/** The imported resources -> the attributes of the markers they should have -> the processes which found them */
+	final Map<IResource,Map<Map<String,Object>,Set<String>>> fShared = new LinkedHashMap<IResource,Map<Map<String,Object>,Set<String>>>();
+
+	/** Identical attribute maps are shared */
+	final Map<Map<String,Object>,Map<String,Object>> fPool = new HashMap<Map<String,Object>,Map<String,Object>>();
+
+
+	MarkerBatch ( AdapterFactory factory ) {
+		fFactory = factory;
+	}
+
+
+	/**
+	 * Replace the markers of the resource with the ones added to this batch.
+	 *
+	 * @param resource the resource
+	 * @param includeSubtypes whether the markers which are sub types of {@link IBPELMarker#ID} are replaced too.
+	 */
+
+	void reset ( IResource resource, boolean includeSubtypes ) {
+		Boolean previous = fReset.get(resource);
+		fReset.put(resource, Boolean.valueOf( includeSubtypes || (previous != null && previous.booleanValue()) ));
+	}
+
+
+	/**
+	 * Replace the markers the process put on a resource it imports with the ones
+	 * it adds to this batch. The markers other processes put there are left alone.
+	 *
+	 * @param resource the imported resource
+	 * @param owner the process
+	 */
+
+	void reset ( IResource resource, IFile owner ) {
+		owners(resource).add( owner.getFullPath().toString() );
+	}
+
+
+	Set<String> owners ( IResource resource ) {
+		Set<String> owners = fOwners.get(resource);
+		if (owners == null) {
+			owners = new TreeSet<String>();
+			fOwners.put(resource, owners);
+		}
+		return owners;
+	}
+
+
+	/**
+	 * Add the markers of problems which do not belong to any process to the batch.
+	 *
+	 * @param problems the problems, may be null.
+	 */
+
+	void add ( IProblem[] problems ) {
+		add( null, problems );
+	}
+
+
+	/**
+	 * Add the markers of the problems of one process to the batch.
+	 * <p>
+	 * A file imported by several processes gets the problems each of them
+	 * found in it, but the same problem found by two processes is only marked once.
+	 *
+	 * @param owner the process, may be null.
+	 * @param problems the problems, may be null.
+	 */
+
+	void add ( IFile owner, IProblem[] problems ) {
+		if (problems == null) {
+			return ;
+		}
+		String path = owner != null ? owner.getFullPath().toString() : null;
+		Map<IResource,Map<Map<String,Object>,int[]>> markers = new HashMap<IResource,Map<Map<String,Object>,int[]>>();
+		for(IProblem problem : problems) {
+			IResource resource = fFactory.getMarkerResource( problem );
+			if (resource == null) {
+				continue;
+			}
+			Map<String,Object> attributes = fFactory.getMarkerAttributes( problem );
+			Map<String,Object> shared = fPool.get(attributes);
+			if (shared == null) {
+				fPool.put(attributes, attributes);
+				shared = attributes;
+			}
+			if (owner == null || owner.equals(resource)) {
+				count(markers, resource, shared, 1, true);
+				continue;
+			}
+			owners(resource).add( path );
+			Map<Map<String,Object>,Set<String>> found = fShared.get(resource);
+			if (found == null) {
+				found = new HashMap<Map<String,Object>,Set<String>>();
+				fShared.put(resource, found);
+			}
+			Set<String> owners = found.get(shared);
+			if (owners == null) {
+				owners = new TreeSet<String>();
+				found.put(shared, owners);
+			}
+			owners.add( path );
+		}
+		for(Map.Entry<IResource,Map<Map<String,Object>,int[]>> entry : markers.entrySet()) {
+			for(Map.Entry<Map<String,Object>,int[]> marker : entry.getValue().entrySet()) {
+				count(fMarkers, entry.getKey(), marker.getKey(), marker.getValue()[0], false);
+			}
+		}
+	}
+
+
+	/** Add n to the count of the marker, or raise its count to n */
+
+	static void count ( Map<IResource,Map<Map<String,Object>,int[]>> markers, IResource resource, Map<String,Object> attributes, int n, boolean sum ) {
+		Map<Map<String,Object>,int[]> counts = markers.get(resource);
+		if (counts == null) {
+			counts = new HashMap<Map<String,Object>,int[]>();
+			markers.put(resource, counts);
+		}
+		int[] count = counts.get(attributes);
+		if (count == null) {
+			counts.put(attributes, new int[] { n });
+		} else if (sum) {
+			count[0] += n;
+		} else {
+			count[0] = Math.max(count[0], n);
+		}
+	}
+
+
+	/**
+	 * @return true if there is nothing to publish.
+	 */
+
+	boolean isEmpty () {
+		return fReset.isEmpty() && fMarkers.isEmpty() && fOwners.isEmpty();
+	}
+
+
+	/**
+	 * Publish the markers in one workspace operation. The resource change
+	 * event is sent when the operation is done, not while it runs.
+	 *
+	 * @param monitor the monitor to use, may be null.
+	 * @throws CoreException
+	 */
+
+	void publish ( IProgressMonitor monitor ) throws CoreException {
+		if (isEmpty()) {
+			return ;
+		}
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			public void run (IProgressMonitor m) throws CoreException {
+				apply();
+			}
+		};
+		// The builder already holds the scheduling rule it needs.
+		ResourcesPlugin.getWorkspace().run(runnable, null, IWorkspace.AVOID_UPDATE, monitor);
+	}
+
+
+	void apply () {
+
+		Set<IResource> resources = new LinkedHashSet<IResource>( fReset.keySet() );
+		resources.addAll( fMarkers.keySet() );
+		resources.addAll( fOwners.keySet() );
+
+		for(IResource resource : resources) {
+			if (resource.exists() == false) {
+				continue;
+			}
+
+			// what the resource should have, as a multi-set
+			Map<Map<String,Object>,int[]> wanted = fMarkers.get(resource);
+			if (wanted == null) {
+				wanted = new HashMap<Map<String,Object>,int[]>();
+			}
+
+			// keep the markers which are still wanted, delete the rest
+			Boolean includeSubtypes = fReset.get(resource);
+			if (includeSubtypes != null) {
+				int depth = resource.getType() == IResource.FILE ? IResource.DEPTH_ZERO : IResource.DEPTH_INFINITE;
+				try {
+					for(IMarker marker : resource.findMarkers(IBPELMarker.ID, includeSubtypes.booleanValue(), depth)) {
+						// the markers which processes put on the resource they import are theirs
+						if (marker.getAttribute(IBPELMarker.OWNERS) != null) {
+							continue;
+						}
+						if (keep(marker, wanted)) {
+							continue;
+						}
+						delete(marker);
+					}
+				} catch (CoreException ex) {
+					Activator.log(ex);
+				}
+			}
+
+			// create the ones which are missing
+			for(Map.Entry<Map<String,Object>,int[]> entry : wanted.entrySet()) {
+				for(int i = entry.getValue()[0]; i > 0; i--) {
+					create(resource, entry.getKey());
+				}
+			}
+
+			if (fOwners.containsKey(resource)) {
+				try {
+					applyShared(resource, includeSubtypes == null);
+				} catch (CoreException ex) {
+					Activator.log(ex);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Replace the claims of the re-validated processes on the markers of an imported resource.
+	 *
+	 * @param resource the imported resource
+	 * @param untagged whether the markers which have no owners are replaced too; they were
+	 *   created before the markers had owners, so any process importing the resource may replace them.
+	 * @throws CoreException
+	 */
+
+	void applyShared ( IResource resource, boolean untagged ) throws CoreException {
+
+		Set<String> revalidated = fOwners.get(resource);
+		Map<Map<String,Object>,Set<String>> wanted = fShared.get(resource);
+		if (wanted == null) {
+			wanted = new HashMap<Map<String,Object>,Set<String>>();
+		}
+
+		for(IMarker marker : resource.findMarkers(IBPELMarker.ID, false, IResource.DEPTH_ZERO)) {
+			Object tag = marker.getAttribute(IBPELMarker.OWNERS);
+			if (tag == null && untagged == false) {
+				continue;
+			}
+			Set<String> owners = split(tag);
+
+			// the processes which were not re-validated keep their claim, unless they are gone
+			Set<String> claims = new TreeSet<String>();
+			for(String owner : owners) {
+				if (revalidated.contains(owner) == false && exists(owner)) {
+					claims.add(owner);
+				}
+			}
+
+			Map<String,Object> attributes = new HashMap<String,Object>( marker.getAttributes() );
+			attributes.remove( IBPELMarker.OWNERS );
+			Set<String> found = wanted.remove( attributes );
+			if (found != null) {
+				claims.addAll( found );
+			}
+
+			if (claims.isEmpty()) {
+				delete(marker);
+			} else if (claims.equals(owners) == false) {
+				marker.setAttribute(IBPELMarker.OWNERS, join(claims));
+			}
+		}
+
+		for(Map.Entry<Map<String,Object>,Set<String>> entry : wanted.entrySet()) {
+			Map<String,Object> attributes = new HashMap<String,Object>( entry.getKey() );
+			attributes.put( IBPELMarker.OWNERS, join(entry.getValue()) );
+			create(resource, attributes);
+		}
+	}
+
+
+	static Set<String> split ( Object owners ) {
+		Set<String> result = new TreeSet<String>();
+		if (owners instanceof String) {
+			for(String owner : ((String) owners).split("\n")) {
+				if (owner.length() > 0) {
+					result.add(owner);
+				}
+			}
+		}
+		return result;
+	}
+
+
+	static String join ( Set<String> owners ) {
+		StringBuilder sb = new StringBuilder();
+		for(String owner : owners) {
+			if (sb.length() > 0) {
+				sb.append('\n');
+			}
+			sb.append(owner);
+		}
+		return sb.toString();
+	}
+
+
+	boolean exists ( String owner ) {
+		return ResourcesPlugin.getWorkspace().getRoot().findMember( new Path(owner) ) != null;
+	}
+
+
+	boolean keep ( IMarker marker, Map<Map<String,Object>,int[]> wanted ) throws CoreException {
+		if (IBPELMarker.ID.equals(marker.getType()) == false) {
+			return false;
+		}
+		int[] count = wanted.get( marker.getAttributes() );
+		if (count == null || count[0] == 0) {
+			return false;
+		}
+		count[0] -= 1;
+		return true;
+	}
+
+
+	void delete ( IMarker marker ) {
+		try {
+			marker.delete();
+		} catch (CoreException ex) {
+			Activator.log(ex);
+		}
+	}
+
+
+	void create ( IResource resource, Map<String,Object> attributes ) {
+		try {
+			resource.createMarker( IBPELMarker.ID ).setAttributes( attributes );
+		} catch (Exception ex) {
+			// can't create marker ... ?
+			Activator.log(ex);
+		}
+	}
+}
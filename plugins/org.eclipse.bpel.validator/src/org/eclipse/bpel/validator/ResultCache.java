@@ -0,0 +1,531 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.validator.model.IFactory;
+import org.eclipse.bpel.validator.model.INode;
+import org.eclipse.bpel.validator.model.Metrics;
+import org.eclipse.bpel.validator.model.IProblem;
+import org.eclipse.bpel.validator.model.Problem;
+import org.eclipse.bpel.validator.model.RuleFactory;
+import org.eclipse.bpel.validator.model.Validator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * An on-disk cache of the validation results of BPEL processes.
+ * <p>
+ * The problems found in a process are stored together with the list of WSDL
+ * and XSD files the process depends on (directly or not) and a digest of the
+ * contents of the process, of those files and of the rule factories registered.
+ * When none of these has changed, the problems can be restored without reading
+ * or validating the process again.
+ * <p>
+ * Only the plain attributes of the problems are kept (strings, numbers, QNames).
+ * The model node of a restored problem is gone; the resource in which the problem
+ * was found is given by {@link IProblem#ERESOURCE} instead, which is good enough
+ * for markers and for the command line reports.
+ * <p>
+ * Each process gets its own file in the cache directory, so the cache may be
+ * used from several validation threads at once.
+ * <p>
+ * The digest of each file is remembered together with its time stamp and
+ * length, and the file is only read again once these change, so a cache kept
+ * from one build to the next reads only the files which were changed.
+ */
+
+@SuppressWarnings("nls")
+public class ResultCache {
+
+	/** Bump this when the format of the files changes */
+	static final int VERSION = 2;
+
+	static final String SUFFIX = ".problems";
+
+	/** The problem attributes we never keep, whatever their value */
+	static final Set<String> TRANSIENT = new TreeSet<String>();
+
+	static {
+		TRANSIENT.add(IProblem.NODE);
+		TRANSIENT.add(IProblem.ERESOURCE);
+		TRANSIENT.add(IProblem.EXCEPTION);
+		TRANSIENT.add(IProblem.BUNDLE_CLAZZ);
+	}
+
+	/**
+	 * The validation results of one process, as restored from the cache.
+	 */
+
+	static public class Entry {
+
+		List<URI> fImports = new ArrayList<URI>();
+
+		IProblem[] fProblems;
+
+		/**
+		 * @return all the files the process depends on
+		 */
+		public List<URI> getImports() {
+			return fImports;
+		}
+
+		/**
+		 * @return the problems found the last time the process was validated
+		 */
+		public IProblem[] getProblems() {
+			return fProblems;
+		}
+	}
+
+
+	Logger mLogger = Logger.getLogger( getClass().getName() );
+
+	File fDirectory;
+
+	URIConverter fConverter = URIConverter.INSTANCE;
+
+	/** The digest of the contents of a file, and the time stamp and length it was taken at */
+	static class FileDigest {
+		final long fTimeStamp;
+		final long fLength;
+		final byte[] fDigest;
+
+		FileDigest ( long timeStamp, long length, byte[] digest ) {
+			fTimeStamp = timeStamp;
+			fLength = length;
+			fDigest = digest;
+		}
+	}
+
+	static final Map<String,Object> STAMP_OPTIONS = new TreeMap<String,Object>();
+
+	static {
+		Set<String> requested = new HashSet<String>();
+		requested.add(URIConverter.ATTRIBUTE_TIME_STAMP);
+		requested.add(URIConverter.ATTRIBUTE_LENGTH);
+		STAMP_OPTIONS.put(URIConverter.OPTION_REQUESTED_ATTRIBUTES, Collections.unmodifiableSet(requested));
+	}
+
+	/** file URI -> the digest of its contents when it was last read */
+	final Map<URI,FileDigest> fDigests = new ConcurrentHashMap<URI,FileDigest>();
+
+
+	/**
+	 * Brand new shiny cache.
+	 *
+	 * @param directory the directory in which the results are kept; it is created if needed.
+	 */
+
+	public ResultCache ( File directory ) {
+		fDirectory = directory;
+	}
+
+
+	/**
+	 * @return the directory in which the results are kept.
+	 */
+
+	public File getDirectory () {
+		return fDirectory;
+	}
+
+
+	/**
+	 * Forget all the results.
+	 */
+
+	public void clear () {
+		File[] files = fDirectory.listFiles();
+		if (files == null) {
+			return ;
+		}
+		for(File f : files) {
+			if (f.getName().endsWith(SUFFIX)) {
+				f.delete();
+			}
+		}
+	}
+
+
+	/**
+	 * Restore the results of the process, if neither the process nor the files it
+	 * depends on nor the rules have changed since they were stored.
+	 *
+	 * @param processURI the URI of the BPEL file
+	 * @return the results, or null if they are not in the cache or are out of date.
+	 */
+
+	public Entry get ( URI processURI ) {
+		Entry entry = read( processURI );
+		Metrics.INSTANCE.count( entry != null ? Metrics.CACHE_HITS : Metrics.CACHE_MISSES );
+		return entry;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	Entry read ( URI processURI ) {
+
+		File file = fileFor(processURI);
+		if (file.isFile() == false) {
+			return null;
+		}
+
+		ObjectInputStream in = null;
+		try {
+			in = new ObjectInputStream( new BufferedInputStream( new FileInputStream(file) ) );
+
+			if (in.readInt() != VERSION) {
+				return null;
+			}
+			Entry entry = new Entry();
+			int count = in.readInt();
+			for(int i = 0; i < count; i++) {
+				entry.fImports.add( URI.createURI( in.readUTF() ) );
+			}
+			String digest = in.readUTF();
+			if (digest.equals( digest(processURI, entry.fImports) ) == false) {
+				return null;
+			}
+
+			count = in.readInt();
+			entry.fProblems = new IProblem[count];
+			for(int i = 0; i < count; i++) {
+				Resource resource = new ResourceImpl( URI.createURI( in.readUTF() ) );
+				Map<String,Object> attributes = (Map<String,Object>) in.readObject();
+				IProblem problem = new Problem();
+				problem.setAttributes(attributes);
+				problem.setAttribute(IProblem.ERESOURCE, resource);
+				entry.fProblems[i] = problem;
+			}
+			return entry;
+
+		} catch (Exception ex) {
+			// unreadable, it will be replaced by the next put
+			return null;
+		} finally {
+			close(in);
+		}
+	}
+
+
+	/**
+	 * Store the results of the validation of the process. Processes which depend
+	 * on files that are not local (http:, etc.) are not cached, as there is no
+	 * telling when those change.
+	 *
+	 * @param processURI the URI of the BPEL file
+	 * @param process the process read from that file, may be null if it could not be read.
+	 * @param problems the problems found
+	 */
+
+	public void put ( URI processURI, Process process, IProblem[] problems ) {
+
+		Set<String> imports = new TreeSet<String>();
+		for(Set<URI> uris : ImportDependencies.collectImports(process).values()) {
+			for(URI uri : uris) {
+				if (uri.isFile() == false && uri.isPlatformResource() == false) {
+					return ;
+				}
+				imports.add( uri.toString() );
+			}
+		}
+		imports.remove( processURI.toString() );
+
+		List<URI> importURIs = new ArrayList<URI>(imports.size());
+		for(String uri : imports) {
+			importURIs.add( URI.createURI(uri) );
+		}
+
+		fDirectory.mkdirs();
+		File file = fileFor(processURI);
+		File tmp = null;
+		ObjectOutputStream out = null;
+		try {
+			tmp = File.createTempFile("bpel", ".tmp", fDirectory);
+			out = new ObjectOutputStream( new BufferedOutputStream( new FileOutputStream(tmp) ) );
+			out.writeInt(VERSION);
+			out.writeInt(importURIs.size());
+			for(URI uri : importURIs) {
+				out.writeUTF( uri.toString() );
+			}
+			out.writeUTF( digest(processURI, importURIs) );
+
+			out.writeInt(problems.length);
+			for(IProblem problem : problems) {
+				out.writeUTF( resourceOf(problem, processURI).toString() );
+				out.writeObject( attributesOf(problem) );
+			}
+			out.close();
+			out = null;
+
+			// last one wins, if several threads validated the same process
+			file.delete();
+			if (tmp.renameTo(file)) {
+				tmp = null;
+			}
+
+		} catch (Exception ex) {
+			mLogger.log(Level.WARNING, "Cannot cache the results for " + processURI, ex);
+		} finally {
+			close(out);
+			if (tmp != null) {
+				tmp.delete();
+			}
+		}
+	}
+
+
+	/**
+	 * The digest of everything the results depend on: the process, the files
+	 * it imports and the rules.
+	 */
+
+	String digest ( URI processURI, List<URI> imports ) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+
+		MessageDigest md = MessageDigest.getInstance("SHA-1");
+		md.update( getRulesKey().getBytes("UTF-8") );
+		update(md, processURI);
+		for(URI uri : imports) {
+			update(md, uri);
+		}
+		return toHex( md.digest() );
+	}
+
+
+	void update ( MessageDigest md, URI uri ) throws UnsupportedEncodingException {
+
+		md.update( uri.toString().getBytes("UTF-8") );
+		md.update( (byte) 0 );
+
+		byte[] digest = digestOf(uri);
+		if (digest == null) {
+			// missing; if it appears later on the digest will change
+			md.update( (byte) 2 );
+		} else {
+			md.update( digest );
+			md.update( (byte) 1 );
+		}
+	}
+
+
+	/**
+	 * The digest of the contents of the file. The file is read only if its
+	 * time stamp or length has changed since it was last read.
+	 *
+	 * @param uri the file
+	 * @return the digest, or null if the file cannot be read.
+	 */
+
+	byte[] digestOf ( URI uri ) {
+
+		// taken before the file is read, so that a change made while it is read is seen next time
+		long timeStamp = URIConverter.NULL_TIME_STAMP;
+		long length = -1;
+		try {
+			Map<String,?> attributes = fConverter.getAttributes(uri, STAMP_OPTIONS);
+			Object value = attributes.get(URIConverter.ATTRIBUTE_TIME_STAMP);
+			if (value instanceof Long) {
+				timeStamp = ((Long) value).longValue();
+			}
+			value = attributes.get(URIConverter.ATTRIBUTE_LENGTH);
+			if (value instanceof Long) {
+				length = ((Long) value).longValue();
+			}
+		} catch (RuntimeException ex) {
+			// no time stamp, read it
+		}
+
+		FileDigest known = fDigests.get(uri);
+		if (known != null && timeStamp != URIConverter.NULL_TIME_STAMP &&
+				known.fTimeStamp == timeStamp && known.fLength == length) {
+			return known.fDigest;
+		}
+
+		InputStream in = null;
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			in = fConverter.createInputStream(uri);
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				md.update(buffer, 0, n);
+			}
+			byte[] digest = md.digest();
+			if (timeStamp != URIConverter.NULL_TIME_STAMP) {
+				fDigests.put(uri, new FileDigest(timeStamp, length, digest));
+			}
+			return digest;
+		} catch (IOException ex) {
+			fDigests.remove(uri);
+			return null;
+		} catch (NoSuchAlgorithmException ex) {
+			// SHA-1 is always there
+			throw new IllegalStateException(ex);
+		} finally {
+			close(in);
+		}
+	}
+
+
+	/**
+	 * The rule factories registered, and where their code comes from.
+	 * A new version of a factory's plug-in (or jar) changes this key.
+	 *
+	 * @return the key
+	 */
+
+	String getRulesKey () {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(VERSION);
+		for(IFactory<Validator> factory : RuleFactory.INSTANCE.getFactories()) {
+			Class<?> clazz = factory.getClass();
+			sb.append(';').append(clazz.getName());
+			CodeSource cs = clazz.getProtectionDomain().getCodeSource();
+			URL location = cs != null ? cs.getLocation() : null;
+			if (location != null) {
+				sb.append('@').append(location);
+				if ("file".equals(location.getProtocol())) {
+					sb.append('@').append( new File(location.getPath()).lastModified() );
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Only the attributes which can be written and read back as they are.
+	 */
+
+	Map<String,Object> attributesOf ( IProblem problem ) {
+
+		Map<String,Object> attributes = new TreeMap<String,Object>();
+		for(Map.Entry<String,Object> entry : problem.getAttributes().entrySet()) {
+			Object value = entry.getValue();
+			if (value == null || TRANSIENT.contains(entry.getKey())) {
+				continue;
+			}
+			if (value instanceof String || value instanceof Number ||
+					value instanceof Boolean || value instanceof QName) {
+				attributes.put(entry.getKey(), value);
+			} else if (value instanceof Object[]) {
+				Object[] array = (Object[]) value;
+				String[] strings = new String[array.length];
+				for(int i = 0; i < array.length; i++) {
+					strings[i] = array[i] == null ? null : array[i].toString();
+				}
+				attributes.put(entry.getKey(), strings);
+			}
+		}
+		return attributes;
+	}
+
+
+	/**
+	 * The URI of the resource in which the problem has been found; this is where
+	 * its marker goes. It is the process, unless the problem is in an imported file.
+	 */
+
+	URI resourceOf ( IProblem problem, URI processURI ) {
+
+		Resource resource = problem.getAttribute(IProblem.ERESOURCE);
+		if (resource != null && resource.getURI() != null) {
+			return resource.getURI();
+		}
+
+		INode node = problem.getAttribute(IProblem.NODE);
+		Object value = node != null ? node.nodeValue() : null;
+
+		if (value instanceof Element) {
+			Element elm = (Element) value;
+			Document doc = elm.getOwnerDocument();
+			Object obj = doc.getDocumentElement() != null ? doc.getDocumentElement().getUserData("emf.model") : null;
+			if (obj == null) {
+				obj = elm.getUserData("emf.model");
+			}
+			value = obj;
+		}
+
+		if (value instanceof EObject) {
+			resource = ((EObject) value).eResource();
+			if (resource != null && resource.getURI() != null) {
+				return resource.getURI();
+			}
+		}
+		return processURI;
+	}
+
+
+	File fileFor ( URI processURI ) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			return new File(fDirectory, toHex( md.digest( processURI.toString().getBytes("UTF-8") ) ) + SUFFIX);
+		} catch (Exception ex) {
+			// SHA-1 and UTF-8 are always there
+			throw new IllegalStateException(ex);
+		}
+	}
+
+
+	static String toHex ( byte[] bytes ) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for(byte b : bytes) {
+			sb.append( Character.forDigit((b >> 4) & 0xf, 16) );
+			sb.append( Character.forDigit(b & 0xf, 16) );
+		}
+		return sb.toString();
+	}
+
+
+	static void close ( Closeable c ) {
+		if (c != null) {
+			try {
+				c.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+}
@@ -160,6 +160,38 @@ public class AdapterFactory implements IAdapterFactory {
 
 	IMarker adapt_IProblem2IMarker (IProblem problem ) {
 				
+		IResource resource = getMarkerResource ( problem );
+		Map<String,Object> props = getMarkerAttributes ( problem );
+		
+		// do not save this marker
+		// props.put( IMarker.TRANSIENT, true);
+			
+		
+		IMarker marker = null;
+		try {
+			marker = resource.createMarker( IBPELMarker.ID );
+			marker.setAttributes( props );
+		} catch (Exception ex) {
+			// can't create marker ... ?
+			Activator.log(ex);
+			return null;
+		}
+			
+		
+		// return the marker.
+		return marker;				
+	}
+
+	
+	/**
+	 * Return the resource on which the marker for the problem is created.
+	 * 
+	 * @param problem the problem 
+	 * @return the resource, or null if the problem cannot be placed in the workspace.
+	 */
+	
+	public IResource getMarkerResource ( IProblem problem ) {
+		
 		IResource resource = null;
 		INode node = (INode) problem.getAttribute( IProblem.NODE );
 		if (node!=null)
@@ -171,8 +203,22 @@ public class AdapterFactory implements IAdapterFactory {
 			Resource modelResource = (Resource) problem.getAttribute( IProblem.ERESOURCE );
 			resource = getFileFromURI(modelResource.getURI());
 		}		
+		return resource;
+	}
+	
+	
+	/**
+	 * Return the attributes of the marker for the problem. Attributes
+	 * which the problem does not have are left out, so the map can be
+	 * compared with {@link IMarker#getAttributes()} of an existing marker.
+	 * 
+	 * @param problem the problem
+	 * @return the marker attributes
+	 */
+	
+	public Map<String,Object> getMarkerAttributes ( IProblem problem ) {
 		
-		Map<String,Object> props = new HashMap<String,Object>();
+		Map<String,Object> props = new HashMap<String,Object>(16);
 		
 		//message && fix  		
 		String msg  = problem.getAttribute(IProblem.MESSAGE);
@@ -216,7 +262,7 @@ public class AdapterFactory implements IAdapterFactory {
 			props.put(IMarker.MESSAGE, emsg.toString());
 			
 		} else {
-			props.put(IMarker.MESSAGE, msg );
+			putAttribute(props, IMarker.MESSAGE, msg );
 		}
 		
 		// Path to object in the BPEL model.
@@ -229,7 +275,7 @@ public class AdapterFactory implements IAdapterFactory {
 		
 		// Location
 		if (lineNo < 0) {
-			props.put(IMarker.LOCATION, problem.getAttribute(IProblem.LOCATION));
+			putAttribute(props, IMarker.LOCATION, problem.getAttribute(IProblem.LOCATION));
 		}
 		
 		// type of marker
@@ -246,9 +292,9 @@ public class AdapterFactory implements IAdapterFactory {
 		}			
 		
 		// the pointer in the model object space to the object on which this marker is produced. 
-		props.put( IBPELMarker.ADDRESS_MODEL , problem.getAttribute( IProblem.ADDRESS_MODEL ));
+		putAttribute(props, IBPELMarker.ADDRESS_MODEL , problem.getAttribute( IProblem.ADDRESS_MODEL ));
 		// the pointer in the DOM object space to the object on which this marker is produced.			
-		props.put( IBPELMarker.ADDRESS_XPATH, problem.getAttribute( IProblem.ADDRESS_XPATH ));
+		putAttribute(props, IBPELMarker.ADDRESS_XPATH, problem.getAttribute( IProblem.ADDRESS_XPATH ));
 		
 		// href.context refers to the problem context, expressed  
 		// in the model object space context. 
@@ -258,27 +304,21 @@ public class AdapterFactory implements IAdapterFactory {
 			props.put( "href.context", qname.getLocalPart());	
 		}
 		else{
-			props.put( "href.context", problem.getAttribute(IProblem.CONTEXT ));
+			putAttribute(props, "href.context", context);
 		}
 		
-		
-		// do not save this marker
-		// props.put( IMarker.TRANSIENT, true);
-			
-		
-		IMarker marker = null;
-		try {
-			marker = resource.createMarker( IBPELMarker.ID );
-			marker.setAttributes( props );
-		} catch (Exception ex) {
-			// can't create marker ... ?
-			Activator.log(ex);
-			return null;
+		return props;
+	}
+	
+	
+	/**
+	 * A null value removes the attribute from a marker, so it is left out.
+	 */
+	
+	static void putAttribute ( Map<String,Object> props, String name, Object value ) {
+		if (value != null) {
+			props.put(name, value);
 		}
-			
-		
-		// return the marker.
-		return marker;				
 	}
 
 	
@@ -322,7 +362,7 @@ public class AdapterFactory implements IAdapterFactory {
 		 * @see org.eclipse.wst.validation.internal.provisional.core.IMessage#getAttributes()
 		 */
 		public HashMap getAttributes() {
-			return (HashMap) fProblem.getAttributes();
+			return new HashMap<String,Object>( fProblem.getAttributes() );
 		}
 
 		/*** (non-Javadoc)
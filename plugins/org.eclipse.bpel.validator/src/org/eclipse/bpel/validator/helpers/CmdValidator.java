@@ -17,9 +17,11 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -32,10 +34,12 @@ import java.util.TreeSet;
 import org.eclipse.bpel.validator.model.ARule;
 import org.eclipse.bpel.validator.model.IModelQueryLookups;
 import org.eclipse.bpel.validator.model.INode;
+import org.eclipse.bpel.validator.model.Metrics;
 import org.eclipse.bpel.validator.model.IProblem;
 import org.eclipse.bpel.validator.model.Problem;
 import org.eclipse.bpel.validator.model.RuleFactory;
 import org.eclipse.bpel.validator.model.Runner;
+import org.eclipse.bpel.validator.model.RunnerPool;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -65,6 +69,9 @@ public class CmdValidator {
 	
 	protected Runner fRunner = null;
 	
+	/** Number of threads to validate with (-j option); 1 is sequential, 0 is one per processor */
+	protected int fThreads = 1;
+	
 	/**
 	 * Create a brand new 
 	 */
@@ -97,12 +104,14 @@ public class CmdValidator {
 		//
 		//Step 1. Read the BPEL process using the Model API.
 		Element elm = null;
+		long start = Metrics.INSTANCE.start();
 		
 		try {
 			
 			LocationCapturingDOMParser parser = new LocationCapturingDOMParser();
 			parser.parse( file.toString() );
 			elm = parser.getDocument().getDocumentElement();
+			Metrics.INSTANCE.phase(Metrics.PARSE, start);
 			
 		} catch (Exception ex) {
 			
@@ -136,6 +145,7 @@ public class CmdValidator {
 		//
 		//Step 1. Read the BPEL process using the Model API.
 		Element elm = null;
+		long start = Metrics.INSTANCE.start();
 		
 		try {
 			
@@ -146,6 +156,7 @@ public class CmdValidator {
 			is.setByteStream( source.openStream() );
 			parser.parse( is );
 			elm = parser.getDocument().getDocumentElement();
+			Metrics.INSTANCE.phase(Metrics.PARSE, start);
 			
 		} catch (Exception ex) {
 			
@@ -273,71 +284,198 @@ public class CmdValidator {
 	
 	public void run (String ... list ) throws Exception {
 		
-		// process validation as before
-		for(String a : list ) {			
-			
-			File aFile = new File(a);
-			
-			OUT.printf("Validating %1$s ...\n",aFile);			
-			IProblem problems[] = validate (aFile);
-						
-			logStats(problems,OUT);
-			
-			if (problems.length == 0) {
-				continue;
+		if (fThreads == 1 || list.length < 2) {
+			// process validation as before
+			for(String a : list ) {			
+				
+				File aFile = new File(a);
+				
+				OUT.printf("Validating %1$s ...\n",aFile);			
+				report (aFile, validate (aFile) );
 			}
-			
-			// Write the file which contains the current run errors 
-			File log = new File(aFile + ".out.xml");			
-			OUT.printf(" - error list as XML to %1$s\n", log );
-			PrintStream ps = null;
-			try {
-				ps = new PrintStream( log );
-				log(problems, ps);
-			} catch (FileNotFoundException e) {
-				// 
-			} finally {
-				if (ps != null) {
-					ps.close();
-				}
+			return ;
+		}
+		
+		List<File> files = new ArrayList<File>(list.length);
+		for(String a : list) {
+			files.add( new File(a) );
+		}
+		
+		RunnerPool<File,Result> pool = new RunnerPool<File,Result>(fThreads, new RunnerPool.WorkerFactory<File,Result>() {
+			public RunnerPool.Worker<File,Result> create() {
+				final CmdValidator worker = newWorker();
+				return new RunnerPool.Worker<File,Result>() {
+					public Result run(File aFile) {
+						Result result = new Result();
+						result.fProblems = worker.validate(aFile);
+						result.fRunner = worker.fRunner;
+						return result;
+					}					
+				};
 			}
-			
-			// write the log file which contains the source and superimposed on it 
-			// we have the errors
-			log = new File(aFile + ".log");			
-			OUT.printf(" - log (xml source + errors) to %1$s\n", log );			
-			ps = null;
-			try {
-				ps = new PrintStream( log );
-				errorListing(new FileInputStream(aFile) , problems, ps);				
-			} catch (FileNotFoundException e) {
-				// 
-			} finally {
-				if (ps != null) {
-					ps.close();
-				}
+		});
+		
+		OUT.printf("Validating %1$d files on %2$d threads ...\n",files.size(), pool.getThreads());
+		
+		// the results come back in the order of the files, report them in that order.
+		for(Map.Entry<File,Result> entry : pool.run(files).entrySet()) {
+			OUT.printf("Validating %1$s ...\n",entry.getKey());
+			fRunner = entry.getValue().fRunner;
+			report ( entry.getKey(), entry.getValue().fProblems );
+		}
+	}
+	
+	
+	/**
+	 * The outcome of the validation of one file by a worker thread. 
+	 */
+	
+	static protected class Result {
+		IProblem[] fProblems;
+		Runner fRunner;		
+	}
+	
+	
+	/**
+	 * Create a validator to be used by one of the worker threads. The validator
+	 * returned must not share any per-run state (runner, resource set, reader) with 
+	 * this one.
+	 * 
+	 * @return the validator for the worker.
+	 */
+	
+	protected CmdValidator newWorker () {
+		return new CmdValidator();
+	}
+	
+	
+	/**
+	 * Report the problems found in the given file.
+	 * 
+	 * @param aFile the file validated
+	 * @param problems the problems found
+	 * @throws Exception
+	 */
+	
+	protected void report ( File aFile, IProblem[] problems ) throws Exception {
+		
+		logStats(problems,OUT);
+		
+		if (problems.length == 0) {
+			return;
+		}
+		
+		// Write the file which contains the current run errors 
+		File log = new File(aFile + ".out.xml");			
+		OUT.printf(" - error list as XML to %1$s\n", log );
+		PrintStream ps = null;
+		try {
+			ps = new PrintStream( log );
+			log(problems, ps);
+		} catch (FileNotFoundException e) {
+			// 
+		} finally {
+			if (ps != null) {
+				ps.close();
 			}
-			
+		}
+		
+		// write the log file which contains the source and superimposed on it 
+		// we have the errors
+		log = new File(aFile + ".log");			
+		OUT.printf(" - log (xml source + errors) to %1$s\n", log );			
+		ps = null;
+		try {
+			ps = new PrintStream( log );
+			errorListing(new FileInputStream(aFile) , problems, ps);				
+		} catch (FileNotFoundException e) {
 			// 
-			OUT.println();			
+		} finally {
+			if (ps != null) {
+				ps.close();
+			}
 		}
-			
+		
+		// 
+		OUT.println();
 	}
 	
 	/** 
-	 * Do the actual run
+	 * Do the actual run. 
+	 * <p>
+	 * --profile measures where the time goes and writes it out at the end,
+	 * see {@link #profile(String)}. 
 	 *  
 	 * @param opt
 	 * @throws Exception 
 	 */
 	
 	public void run (GetOpt opt) throws Exception {
+		if (opt.hasOption('j')) {
+			fThreads = RunnerPool.toThreads( opt.getOption('j'), 1);
+		}
+		String profile = opt.getOption(PROFILE);
+		if (profile != null) {
+			Metrics.INSTANCE.reset();
+			Metrics.INSTANCE.setEnabled(true);
+		}
 		run (opt.parameters().toArray(EMPTY));
+		if (profile != null) {
+			Metrics.INSTANCE.setEnabled(false);
+			profile(profile);
+		}
+	}
+	
+	
+	/**
+	 * Write where the time of the run went, per phase, per validator and
+	 * per rule, as CSV or JSON. 
+	 * <p>
+	 * --profile and --profile=csv write CSV to the console, --profile=json
+	 * writes JSON to the console; --profile=file writes to the file, JSON
+	 * if its name ends in .json and CSV otherwise.
+	 * 
+	 * @param where the value of the --profile option
+	 * @throws Exception
+	 */
+	
+	protected void profile ( String where ) throws Exception {
+		
+		boolean console = "1".equals(where) || "csv".equals(where) || "json".equals(where);
+		boolean json = "json".equals(where) || where.endsWith(".json");
+		
+		PrintWriter out;
+		if (console) {
+			out = new PrintWriter( OUT );
+		} else {
+			File file = new File(where);
+			OUT.printf(" - profile to %1$s\n", file );
+			out = new PrintWriter( file, "UTF-8" );
+		}
+		try {
+			if (json) {
+				Metrics.INSTANCE.writeJSON(out);
+			} else {
+				Metrics.INSTANCE.writeCSV(out);
+			}
+		} finally {
+			if (console) {
+				out.flush();
+			} else {
+				out.close();
+			}
+		}
 	}
 	
 	
 	static String [] EMPTY = {};
 	
+	/** The long options of the command line */
+	static protected final String [] LONG_OPTIONS = { "profile" };
+	
+	/** Profile the run */
+	static protected final String PROFILE = "profile";
+	
 	/**
 	 * Main entry point for the command line validator.
 	 * @param argv
@@ -348,7 +486,7 @@ public class CmdValidator {
 	static public void main (String argv[]) throws Exception {
 				
 		CmdValidator builder = new CmdValidator();
-		GetOpt opt = new GetOpt("-h",argv);		
+		GetOpt opt = new GetOpt("-hj:",LONG_OPTIONS,argv);		
 		builder.run( opt  );
 	}	
 
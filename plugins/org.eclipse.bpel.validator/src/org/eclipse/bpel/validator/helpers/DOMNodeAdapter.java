@@ -11,8 +11,8 @@
 package org.eclipse.bpel.validator.helpers;
 
 /** JDK stuff */
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -52,6 +52,12 @@ public class DOMNodeAdapter implements INode {
 
 	QName fNodeName;
 	
+	/** 
+	 * The children, computed on first use. Like the validator above, they are kept 
+	 * for as long as this facade lives, that is as long as the DOM is not re-read. 
+	 */
+	List<INode> fChildren;
+	
 	/**
 	 * Create hew DOMNodeAdapter wrapper for this dom node.
 	 * @param node
@@ -78,15 +84,20 @@ public class DOMNodeAdapter implements INode {
 		if (targetElement == null) {
 			return Collections.emptyList();
 		}
+		if (fChildren != null) {
+			return fChildren;
+		}
 		Node node = targetElement.getFirstChild();
-		LinkedList<INode> list = new LinkedList<INode>();
+		ArrayList<INode> list = new ArrayList<INode>();
 		while (node != null) {
 			if (node.getNodeType() == Node.ELEMENT_NODE) {
-				list.addLast( adapt ( node, INode.class ));
+				list.add( adapt ( node, INode.class ));
 			}
 			node = node.getNextSibling();
 		}
-		return list;
+		list.trimToSize();
+		fChildren = Collections.unmodifiableList(list);
+		return fChildren;
 	}
 
 	/** (non-Javadoc)
@@ -147,7 +158,7 @@ public class DOMNodeAdapter implements INode {
 			return Collections.emptyList();
 		}
 		
-		LinkedList<INode> list = new LinkedList<INode>();
+		ArrayList<INode> list = new ArrayList<INode>();
 		
 		Node node = targetElement.getFirstChild();
 		while (node != null) {
@@ -157,7 +168,7 @@ public class DOMNodeAdapter implements INode {
 				if (name.getNamespaceURI().equals( e.getNamespaceURI() ) && 
 					name.getLocalPart().equals( e.getLocalName() )) {
 					
-					list.addLast( adapt ( node, INode.class ) );
+					list.add( adapt ( node, INode.class ) );
 				}
 			}
 			node = node.getNextSibling();
@@ -11,6 +11,7 @@
 package org.eclipse.bpel.validator.helpers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +29,9 @@ public class GetOpt {
 	
 	/** this way arguments come in order of appearance */
 	Map<Character,String> mOpt = new LinkedHashMap<Character,String>(11);
+	
+	/** the long options, --name or --name=value */
+	Map<String,String> mLongOpt = new LinkedHashMap<String,String>(5);
 
 	/**
 	 * Create a brand new shiny GetOpt object.
@@ -39,6 +43,21 @@ public class GetOpt {
 
 
 	public GetOpt(String strControl, String args[]) throws Exception {
+		this(strControl, new String[0], args);
+	}
+	
+	
+	/**
+	 * Create a brand new shiny GetOpt object which also knows some long options,
+	 * given as --name or --name=value.
+	 * 
+	 * @param strControl
+	 * @param longOptions the names of the long options
+	 * @param args
+	 * @throws Exception
+	 */
+	
+	public GetOpt(String strControl, String longOptions[], String args[]) throws Exception {
 
 		for (int i=0; i < args.length; i++) {
 			String sOpt = args[i];
@@ -62,6 +81,16 @@ public class GetOpt {
 				continue;
 			}
 
+			if (sOpt.startsWith("--")) {
+				int eq = sOpt.indexOf('=');
+				String name = eq < 0 ? sOpt.substring(2) : sOpt.substring(2, eq);
+				if (Arrays.asList(longOptions).contains(name) == false) {
+					throw new Exception("Unknown command option " + name );
+				}
+				mLongOpt.put(name, eq < 0 ? "1" : sOpt.substring(eq + 1));
+				continue;
+			}
+
 			char ch2 = sOpt.charAt(1);
 			int nIndex = strControl.indexOf(ch2);
 			if (nIndex < 0) {
@@ -114,6 +143,24 @@ public class GetOpt {
 		return mOpt.containsKey(c);
 	}
 
+	/** 
+	 * @param name
+	 * @return Answer if the long option is present
+	 */
+
+	public boolean hasOption(String name) {
+		return mLongOpt.containsKey(name);
+	}
+	
+	/**
+	 * Get the long option of the name passed.
+	 * @param name
+	 * @return the option, "1" if given without a value, null if not given.
+	 */
+	public String getOption(String name) {
+		return mLongOpt.get(name);
+	}
+
 	/**
 	 * Get option identified by the character passed.
 	 * @param c
@@ -137,7 +184,7 @@ public class GetOpt {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder(32);		
-		sb.append("[GetOpt=").append(mOpt).append(",").append(mParams)
+		sb.append("[GetOpt=").append(mOpt).append(",").append(mLongOpt).append(",").append(mParams)
 				.append("]");
 		return sb.toString();
 	}
@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator.helpers;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.bpel.model.Import;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.validator.model.IFunctionMeta;
+import org.eclipse.bpel.validator.model.IModelQuery;
+import org.eclipse.bpel.validator.model.INode;
+import org.eclipse.bpel.validator.model.XNotImplemented;
+
+/**
+ * The model query used when several model queries are registered.
+ * <p>
+ * Each call is passed to the model queries in turn, in the order of their
+ * priority, and the first answer which is not null is returned, as before.
+ * A model query which throws {@link XNotImplemented} for a method and a kind of
+ * lookup (the lookup, the check, the item or the adapt hint asked for) is
+ * not asked again for that method and that kind, so that the exception is
+ * thrown once at most; after the first few calls, each call goes straight to
+ * the model queries which implement it.
+ * <p>
+ * The chain may be used from several threads.
+ *
+ */
+
+public class ModelQueryChain implements IModelQuery {
+
+	/**
+	 * The model queries to ask for one method, by kind of lookup.
+	 */
+
+	static final class Dispatch {
+
+		final IModelQuery[] fAll;
+
+		final ConcurrentHashMap<Integer,IModelQuery[]> fByKind = new ConcurrentHashMap<Integer,IModelQuery[]>();
+
+		Dispatch ( IModelQuery[] all ) {
+			fAll = all;
+		}
+
+		IModelQuery[] get ( int kind ) {
+			IModelQuery[] result = fByKind.get(kind);
+			return result != null ? result : fAll;
+		}
+
+		/** The model query does not implement this kind of lookup */
+
+		synchronized void exclude ( int kind, IModelQuery mq ) {
+			IModelQuery[] current = get(kind);
+			IModelQuery[] next = new IModelQuery[current.length];
+			int n = 0;
+			for(IModelQuery q : current) {
+				if (q != mq) {
+					next[n++] = q;
+				}
+			}
+			if (n == current.length) {
+				return ;
+			}
+			IModelQuery[] result = new IModelQuery[n];
+			System.arraycopy(next, 0, result, 0, n);
+			fByKind.put(kind, result);
+		}
+	}
+
+
+	final IModelQuery[] fQueries;
+
+	final Dispatch fDiagnostic;
+	final Dispatch fHasSupport;
+	final Dispatch fCheck;
+	final Dispatch fFunction;
+	final Dispatch fLookupName;
+	final Dispatch fLookupQName;
+	final Dispatch fLookupText;
+	final Dispatch fLookupNumber;
+	final Dispatch fAdapt;
+	final Dispatch fCreateQName;
+	final Dispatch fConflictingXSD;
+	final Dispatch fProcess;
+
+
+	/**
+	 * @param queries the model queries, in the order of their priority.
+	 */
+
+	public ModelQueryChain ( IModelQuery ... queries ) {
+		fQueries = queries.clone();
+		fDiagnostic = new Dispatch(fQueries);
+		fHasSupport = new Dispatch(fQueries);
+		fCheck = new Dispatch(fQueries);
+		fFunction = new Dispatch(fQueries);
+		fLookupName = new Dispatch(fQueries);
+		fLookupQName = new Dispatch(fQueries);
+		fLookupText = new Dispatch(fQueries);
+		fLookupNumber = new Dispatch(fQueries);
+		fAdapt = new Dispatch(fQueries);
+		fCreateQName = new Dispatch(fQueries);
+		fConflictingXSD = new Dispatch(fQueries);
+		fProcess = new Dispatch(fQueries);
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#getDiagnostic(int)
+	 */
+
+	public String getDiagnostic (int index) {
+		for(IModelQuery mq : fDiagnostic.get(0)) {
+			try {
+				String result = mq.getDiagnostic(index);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fDiagnostic.exclude(0, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @return the priority of the first model query.
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#priority()
+	 */
+
+	public int priority () {
+		return fQueries.length > 0 ? fQueries[0].priority() : 0;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#hasSupport(int, java.lang.String)
+	 */
+
+	public boolean hasSupport (int item, String value) {
+		for(IModelQuery mq : fHasSupport.get(item)) {
+			try {
+				return mq.hasSupport(item, value);
+			} catch (XNotImplemented xnotImpl) {
+				fHasSupport.exclude(item, mq);
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#check(int, org.eclipse.bpel.validator.model.INode, org.eclipse.bpel.validator.model.INode)
+	 */
+
+	public boolean check (int test, INode n1, INode n2) {
+		for(IModelQuery mq : fCheck.get(test)) {
+			try {
+				return mq.check(test, n1, n2);
+			} catch (XNotImplemented xnotImpl) {
+				fCheck.exclude(test, mq);
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#lookupFunction(java.lang.String, java.lang.String, java.lang.String)
+	 */
+
+	public IFunctionMeta lookupFunction (String language, String ns, String name) {
+		for(IModelQuery mq : fFunction.get(0)) {
+			try {
+				IFunctionMeta result = mq.lookupFunction(language, ns, name);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fFunction.exclude(0, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#lookup(org.eclipse.bpel.validator.model.INode, int, java.lang.String)
+	 */
+
+	public INode lookup (INode context, int what, String name) {
+		for(IModelQuery mq : fLookupName.get(what)) {
+			try {
+				INode result = mq.lookup(context, what, name);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fLookupName.exclude(what, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#lookup(org.eclipse.bpel.validator.model.INode, int, javax.xml.namespace.QName)
+	 */
+
+	public INode lookup (INode context, int what, QName qname) {
+		for(IModelQuery mq : fLookupQName.get(what)) {
+			try {
+				INode result = mq.lookup(context, what, qname);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fLookupQName.exclude(what, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#lookup(org.eclipse.bpel.validator.model.INode, int, java.lang.String, java.lang.String)
+	 */
+
+	public String lookup (INode context, int what, String key, String def) {
+		for(IModelQuery mq : fLookupText.get(what)) {
+			try {
+				String result = mq.lookup(context, what, key, def);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fLookupText.exclude(what, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#lookup(org.eclipse.bpel.validator.model.INode, int, int)
+	 */
+
+	public int lookup (INode context, int what, int def) {
+		for(IModelQuery mq : fLookupNumber.get(what)) {
+			try {
+				return mq.lookup(context, what, def);
+			} catch (XNotImplemented xnotImpl) {
+				fLookupNumber.exclude(what, mq);
+			}
+		}
+		return def;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#adapt(java.lang.Object, java.lang.Class, int)
+	 */
+
+	public <T extends Object> T adapt (Object target, Class<T> clazz, int hint) {
+		for(IModelQuery mq : fAdapt.get(hint)) {
+			try {
+				T result = mq.adapt(target, clazz, hint);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fAdapt.exclude(hint, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#createQName(org.eclipse.bpel.validator.model.INode, java.lang.String)
+	 */
+
+	public QName createQName (INode context, String name) {
+		for(IModelQuery mq : fCreateQName.get(0)) {
+			try {
+				QName result = mq.createQName(context, name);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fCreateQName.exclude(0, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#findConflictingXSD(org.eclipse.bpel.model.Process, org.eclipse.bpel.validator.model.INode)
+	 */
+
+	public List<Import> findConflictingXSD (Process process, INode node) {
+		for(IModelQuery mq : fConflictingXSD.get(0)) {
+			try {
+				List<Import> result = mq.findConflictingXSD(process, node);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fConflictingXSD.exclude(0, mq);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.IModelQuery#lookupProcess(org.eclipse.bpel.validator.model.INode)
+	 */
+
+	public Process lookupProcess (INode node) {
+		for(IModelQuery mq : fProcess.get(0)) {
+			try {
+				Process result = mq.lookupProcess(node);
+				if (result != null) {
+					return result;
+				}
+			} catch (XNotImplemented xnotImpl) {
+				fProcess.exclude(0, mq);
+			}
+		}
+		return null;
+	}
+
+}
@@ -10,12 +10,12 @@
  *******************************************************************************/
 package org.eclipse.bpel.validator.helpers;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import javax.xml.namespace.QName;
@@ -222,27 +222,24 @@ public class ModelQueryImpl  implements IModelQuery {
 		
 	protected INode lookupVariable (INode context, final String name) {
 		
-		IFilter<INode> aFilterByName = new NodeAttributeValueFilter(IConstants.AT_NAME, name );
-		IFilter<INode> aFilterByFaultVariable = new NodeAttributeValueFilter(IConstants.AT_FAULT_VARIABLE, name );
-		IFilter<INode> aFilterByVariable = new NodeAttributeValueFilter(IConstants.AT_VARIABLE, name );
 		IFilter<INode> aFilterByCounterName = new NodeAttributeValueFilter(IConstants.AT_COUNTER_NAME, name );
 		IFilter<INode> nFilterForEach = new NodeNameFilter(IConstants.ND_FOR_EACH);
 
 		while (context != null) {				
 			if (Filters.SCOPE_OR_PROCESS.select (context) ) {
 				// select variables defined in a scope or process
-				INode var = mSelector.selectNode(context,IConstants.ND_VARIABLES,IConstants.ND_VARIABLE,aFilterByName);								
+				INode var = selectDeclaration(context,IConstants.ND_VARIABLES,IConstants.ND_VARIABLE,IConstants.AT_NAME,name);								
 				if (var != null) {
 					return var;
 				}
 				// select catch name defined in faultHandlers
-				var = mSelector.selectNode(context,IConstants.ND_FAULT_HANDLERS,IConstants.ND_CATCH,aFilterByFaultVariable);								
+				var = selectDeclaration(context,IConstants.ND_FAULT_HANDLERS,IConstants.ND_CATCH,IConstants.AT_FAULT_VARIABLE,name);								
 				if (var != null) {
 					return var;
 				}
 				// https://issues.jboss.org/browse/JBIDE-8044
 				// select variable defined in onEvent of eventHandlers
-				var = mSelector.selectNode(context,IConstants.ND_EVENT_HANDLERS,IConstants.ND_ON_EVENT,aFilterByVariable);								
+				var = selectDeclaration(context,IConstants.ND_EVENT_HANDLERS,IConstants.ND_ON_EVENT,IConstants.AT_VARIABLE,name);								
 				if (var != null) {
 					return var;
 				}
@@ -271,10 +268,9 @@ public class ModelQueryImpl  implements IModelQuery {
 	 */
 	
 	protected INode lookupPartnerLink (INode context, String name) {
-		IFilter<INode> aFilter = new NodeAttributeValueFilter(IConstants.AT_NAME,name );
 		while (context != null) {								
 			if (Filters.SCOPE_OR_PROCESS.select(context) ) {
-				INode obj = mSelector.selectNode(context, IConstants.ND_PARTNER_LINKS, IConstants.ND_PARTNER_LINK, aFilter);
+				INode obj = selectDeclaration(context, IConstants.ND_PARTNER_LINKS, IConstants.ND_PARTNER_LINK, IConstants.AT_NAME, name);
 				if (obj != null) {
 					return obj; 					
 				}
@@ -295,10 +291,9 @@ public class ModelQueryImpl  implements IModelQuery {
 	 */
 	
 	protected INode lookupCorrelationSet (INode context, String name) {
-		IFilter<INode> aFilter = new NodeAttributeValueFilter(IConstants.AT_NAME,name );
 		while (context != null) {								
 			if (Filters.SCOPE_OR_PROCESS.select(context) ) {
-				INode obj = mSelector.selectNode(context, IConstants.ND_CORRELATION_SETS, IConstants.ND_CORRELATION_SET, aFilter);
+				INode obj = selectDeclaration(context, IConstants.ND_CORRELATION_SETS, IConstants.ND_CORRELATION_SET, IConstants.AT_NAME, name);
 				if (obj != null) {
 					return obj; 					
 				}
@@ -318,11 +313,10 @@ public class ModelQueryImpl  implements IModelQuery {
 	 */
 	
 	public INode lookupLink ( INode context, String name ) {
-		IFilter<INode> aFilter = new NodeAttributeValueFilter(IConstants.AT_NAME, name );
 		while (context != null) {
 			QName contextNodeName = context.nodeName();
 			if (contextNodeName.equals(IConstants.ND_FLOW)) {
-				INode link = mSelector.selectNode(context,IConstants.ND_LINKS,IConstants.ND_LINK, aFilter);
+				INode link = selectDeclaration(context,IConstants.ND_LINKS,IConstants.ND_LINK,IConstants.AT_NAME,name);
 				if (link != null) {
 					return link;
 				}
@@ -334,6 +328,58 @@ public class ModelQueryImpl  implements IModelQuery {
 	}
 		
 	
+	/** The user data key of the name indices kept on DOM elements */
+	static final String INDEX_KEY = "bpel.validator.index:";
+	
+	/**
+	 * Select the declaration whose attribute has the given value, in the first 
+	 * list of declarations of the context node. This is the same as 
+	 * <pre>
+	 *   mSelector.selectNode(context, listName, itemName, 
+	 *                        new NodeAttributeValueFilter(attrName,value))
+	 * </pre>
+	 * but the declarations of a list are indexed the first time they are 
+	 * looked up. The index is kept on the DOM element of the list, which does
+	 * not change for as long as it is validated (see DOMNodeAdapter#children()).
+	 * 
+	 * @param context the scope, process or flow
+	 * @param listName the name of the list (variables, partnerLinks, links, etc.)
+	 * @param itemName the name of the declarations in the list
+	 * @param attrName the attribute that holds the name
+	 * @param value the name looked up
+	 * @return the declaration or null 
+	 */
+	
+	@SuppressWarnings("unchecked")
+	protected INode selectDeclaration ( INode context, QName listName, QName itemName, QName attrName, String value ) {
+		
+		INode list = mSelector.selectNode(context, listName);
+		if (list == null) {
+			return null;
+		}
+		
+		Object obj = list.nodeValue();
+		if (obj instanceof Node == false) {
+			return mSelector.selectNode(list, itemName, new NodeAttributeValueFilter(attrName, value));
+		}
+		
+		Node node = (Node) obj;
+		String key = INDEX_KEY + itemName + "@" + attrName;		
+		Map<String,INode> index = (Map<String,INode>) node.getUserData(key);
+		if (index == null) {
+			index = new HashMap<String,INode>();
+			for(INode item : mSelector.selectNodes(list, itemName)) {
+				String v = item.getAttribute(attrName);
+				if (v != null && index.containsKey(v) == false) {
+					index.put(v, item);
+				}
+			}
+			node.setUserData(key, index, null);
+		}
+		return index.get(value);
+	}
+	
+	
 	/**
 	 * General node lookup.
 	 * 
@@ -882,7 +928,7 @@ public class ModelQueryImpl  implements IModelQuery {
      */
     
     
-    static IModelQuery   gModelQuery = null;
+    static volatile IModelQuery gModelQuery = null;
     static IModelQuery[] gaModelQuery = {};
     
     static ArrayList<IModelQuery> gModelQueryList = new ArrayList<IModelQuery> (8) ;
@@ -893,13 +939,12 @@ public class ModelQueryImpl  implements IModelQuery {
      * @param mq
      */
     
-    static public final void register ( IModelQuery mq ) {
+    static public final synchronized void register ( IModelQuery mq ) {
     	
-    	gModelQuery = mq;
     	gModelQueryList.add(mq);
     	
     	// Force re computation of the query model chain.
-    	gaModelQuery = null;
+    	gModelQuery = null;
     }
     
     
@@ -909,11 +954,21 @@ public class ModelQueryImpl  implements IModelQuery {
     
     static public final IModelQuery getModelQuery () {
     	
+    	IModelQuery mq = gModelQuery;
+    	if (mq != null) {    		
+    		return mq;
+    	}
+    	return computeModelQuery();
+    }
+    
+    
+    static synchronized IModelQuery computeModelQuery () {
+    	
     	if (gModelQuery != null) {    		
     		return gModelQuery;
     	}
     	
-    	gaModelQuery = gModelQueryList.toArray(gaModelQuery);
+    	gaModelQuery = gModelQueryList.toArray(new IModelQuery[gModelQueryList.size()]);
     	
     	if (gaModelQuery.length == 0) {
     		
@@ -931,31 +986,7 @@ public class ModelQueryImpl  implements IModelQuery {
 				}    			
     		});
     		
-    		gModelQuery = (IModelQuery) java.lang.reflect.Proxy.newProxyInstance( 
-    				ModelQueryImpl.class.getClassLoader(), 
-    				
-    				new Class<?>[]{ IModelQuery.class },
-    				
-    				new InvocationHandler () {
-
-						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-							
-							Object result = null;
-							for(IModelQuery mq : gaModelQuery) {
-								try {
-									result =  method.invoke(mq, args);
-									
-									if (result != null) {
-										return result;
-									}
-									
-								} catch (XNotImplemented xnotImpl) {
-									// not implemented by this model query instance
-								}
-							}
-							return result;
-						}    					
-    				});
+    		gModelQuery = new ModelQueryChain( gaModelQuery );
     		
     	}
     	
@@ -254,6 +254,19 @@ public interface IProblem  {
 
 	public <T extends Object> T getAttribute ( String attributeName, T defaultValue) ;
 	
+	
+	/**
+	 * Returns the integer attribute with the given name, without boxing it.
+	 * Returns the given default value if the attribute is undefined or is 
+	 * not an integer value.
+	 * 
+	 * @param attributeName the name of the attribute
+	 * @param defaultValue the value to use if no value is found
+	 * @return the value or the default value if no value was found.
+	 */
+
+	public int getAttribute ( String attributeName, int defaultValue) ;
+	
 	/**
 	 * Returns a map with all the attributes for the marker.
 	 * If the marker has no attributes then <code>null</code> is returned.
@@ -300,6 +313,16 @@ public interface IProblem  {
 	 */
 
 	public <T extends Object> void setAttribute(String attributeName, T value);
+	
+	
+	/**
+	 * Sets the integer attribute with the given name, without boxing it.
+	 * 
+	 * @param attributeName the name of the attribute
+	 * @param value the value
+	 */
+
+	public void setAttribute(String attributeName, int value);
 
 	
 	/**
@@ -15,12 +15,11 @@ package org.eclipse.bpel.validator.model;
  */
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.ListResourceBundle;
-import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -38,7 +37,7 @@ public class Messages {
 	
 	static private String DOT = "."; //$NON-NLS-1$
 			
-	static final Map<String,Messages> BUNDLES = new HashMap<String,Messages> ();
+	static final ConcurrentHashMap<String,Messages> BUNDLES = new ConcurrentHashMap<String,Messages> ();
 	
 	/** The empty resource bundle */
 	static final ResourceBundle EMPTY_BUNDLE = new ListResourceBundle() {
@@ -61,9 +60,7 @@ public class Messages {
 	
 	static public void clear () {
 		
-		synchronized ( BUNDLES ) {
-			BUNDLES.clear();
-		}		
+		BUNDLES.clear();		
 	}
 		
 
@@ -80,8 +77,10 @@ public class Messages {
 		Messages msg = BUNDLES.get( bundleName );
 		if (msg == null) {
 			msg = new Messages ( bundleName );
-			synchronized ( BUNDLES ) {
-				BUNDLES.put( bundleName, msg ) ;
+			// the validator may run on several threads at once
+			Messages prev = BUNDLES.putIfAbsent( bundleName, msg ) ;
+			if (prev != null) {
+				msg = prev;
 			}
 		}
 		return msg;
@@ -0,0 +1,558 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator.model;
+
+/**
+ * Java JDK dependencies only please ...
+ */
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.bpel.validator.model.Rules.Rule;
+
+/**
+ * Where the time of the validation runs goes: how long each phase of a run
+ * (parsing, linking the models, finding the validators, pass 1, pass 2,
+ * creating the markers) and each rule took, and how often imports were
+ * resolved and results were found in the cache.
+ * <p>
+ * Nothing is measured until the metrics are enabled, either by the
+ * <code>org.eclipse.bpel.validator.metrics</code> system property,
+ * through JMX, by the <code>profile</code> argument of the builder
+ * or by the <code>--profile</code> option of the command line validator.
+ * When disabled, measuring costs a field read per rule run.
+ * <p>
+ * The metrics may be updated from several threads.
+ *
+ */
+
+@SuppressWarnings({"nls","boxing"})
+
+public class Metrics implements MetricsMBean {
+
+	/** Reading the process and its imports */
+	public static final String PARSE = "parse";
+
+	/** Pointing the DOM elements at the model objects */
+	public static final String LINK_MODELS = "linkModels";
+
+	/** Finding the validators of the nodes (Runner.init) */
+	public static final String INIT = "init";
+
+	/** Running the validators, pass 1 */
+	public static final String PASS1 = "pass1";
+
+	/** Running the validators, pass 2 */
+	public static final String PASS2 = "pass2";
+
+	/** Turning the problems into markers */
+	public static final String MARKERS = "markers";
+
+	/** The phases, in the order they are reported */
+	static final String[] PHASES = { PARSE, LINK_MODELS, INIT, PASS1, PASS2, MARKERS };
+
+	/** Imports scanned or looked up which gave an answer */
+	public static final String IMPORTS_RESOLVED = "imports.resolved";
+
+	/** Imports scanned or looked up which gave no answer */
+	public static final String IMPORTS_UNRESOLVED = "imports.unresolved";
+
+	/** Results of processes found in the result cache */
+	public static final String CACHE_HITS = "cache.hits";
+
+	/** Results of processes not in the result cache, or out of date */
+	public static final String CACHE_MISSES = "cache.misses";
+
+	/** The name we are registered under with JMX */
+	public static final String OBJECT_NAME = "org.eclipse.bpel.validator:type=Metrics";
+
+	/** How many rules getSlowestRules() reports */
+	static final int SLOWEST = 20;
+
+	/** The metrics of the validator */
+	public static final Metrics INSTANCE = new Metrics();
+
+
+	/**
+	 * The number of times something was done, and how long it took.
+	 */
+
+	static final class Timer {
+
+		final String fName;
+
+		final LongAdder fCalls = new LongAdder();
+
+		final LongAdder fNanos = new LongAdder();
+
+		final LongAdder fFailures = new LongAdder();
+
+		final AtomicLong fMax = new AtomicLong();
+
+		Timer ( String name ) {
+			fName = name;
+		}
+
+		void add ( long nanos, boolean failed ) {
+			fCalls.increment();
+			fNanos.add(nanos);
+			if (failed) {
+				fFailures.increment();
+			}
+			long max = fMax.get();
+			while (nanos > max && fMax.compareAndSet(max, nanos) == false) {
+				max = fMax.get();
+			}
+		}
+
+		void add ( Timer timer ) {
+			fCalls.add( timer.fCalls.sum() );
+			fNanos.add( timer.fNanos.sum() );
+			fFailures.add( timer.fFailures.sum() );
+			if (timer.fMax.get() > fMax.get()) {
+				fMax.set( timer.fMax.get() );
+			}
+		}
+	}
+
+
+	static final Comparator<Timer> SLOWEST_FIRST = new Comparator<Timer>() {
+		public int compare (Timer t1, Timer t2) {
+			long n1 = t1.fNanos.sum(), n2 = t2.fNanos.sum();
+			if (n1 != n2) {
+				return n1 > n2 ? -1 : 1;
+			}
+			return t1.fName.compareTo(t2.fName);
+		}
+	};
+
+
+	volatile boolean fEnabled = Boolean.getBoolean("org.eclipse.bpel.validator.metrics");
+
+	/** Whether we are registered with the platform MBean server */
+	volatile boolean fRegistered;
+
+	/** phase -> timer */
+	final ConcurrentHashMap<String,Timer> fPhases = new ConcurrentHashMap<String,Timer>();
+
+	/** rule method -> timer */
+	final ConcurrentHashMap<Method,Timer> fRules = new ConcurrentHashMap<Method,Timer>();
+
+	/** counter -> count */
+	final ConcurrentHashMap<String,LongAdder> fCounters = new ConcurrentHashMap<String,LongAdder>();
+
+
+	/**
+	 * Register the metrics with the platform MBean server, unless they are
+	 * registered already. This is done when the metrics are first enabled,
+	 * since the platform MBean server is started on first use.
+	 *
+	 * @return true if the metrics are registered
+	 */
+
+	public synchronized boolean register () {
+		if (fRegistered) {
+			return true;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(this, new ObjectName(OBJECT_NAME));
+			fRegistered = true;
+			return true;
+		} catch (InstanceAlreadyExistsException ex) {
+			fRegistered = true;
+			return true;
+		} catch (JMException ex) {
+			return false;
+		} catch (SecurityException ex) {
+			return false;
+		}
+	}
+
+
+	/**
+	 * Unregister the metrics from the platform MBean server, if they were registered.
+	 */
+
+	public synchronized void unregister () {
+		if (fRegistered == false) {
+			return ;
+		}
+		fRegistered = false;
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException ex) {
+			// not registered
+		} catch (SecurityException ex) {
+			// not registered
+		}
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#isEnabled()
+	 */
+
+	public boolean isEnabled () {
+		return fEnabled;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#setEnabled(boolean)
+	 */
+
+	public void setEnabled (boolean enabled) {
+		if (enabled) {
+			register();
+		}
+		fEnabled = enabled;
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#reset()
+	 */
+
+	public void reset () {
+		fPhases.clear();
+		fRules.clear();
+		fCounters.clear();
+	}
+
+
+	/**
+	 * Start measuring something.
+	 *
+	 * @return the time now, or 0 if the metrics are disabled.
+	 */
+
+	public long start () {
+		return fEnabled ? System.nanoTime() : 0L;
+	}
+
+
+	/**
+	 * A phase of a validation run, which started at the time given, is over.
+	 *
+	 * @param phase the phase
+	 * @param start what {@link #start()} returned when the phase started
+	 * @return the time now, when the next phase starts, or 0 if not measuring.
+	 */
+
+	public long phase ( String phase, long start ) {
+		if (start == 0L) {
+			return 0L;
+		}
+		long now = System.nanoTime();
+		timer(fPhases, phase, phase).add(now - start, false);
+		return now;
+	}
+
+
+	/**
+	 * A rule, which started at the time given, has run. The time includes that
+	 * of any rule it has run itself.
+	 *
+	 * @param rule the rule
+	 * @param start what {@link #start()} returned when the rule started
+	 * @param failed the rule has thrown an exception
+	 */
+
+	void rule ( Rule rule, long start, boolean failed ) {
+		if (start == 0L) {
+			return ;
+		}
+		long nanos = System.nanoTime() - start;
+		Method method = rule.method;
+		timer(fRules, method, method.getDeclaringClass().getName() + "." + method.getName()).add(nanos, failed);
+	}
+
+
+	/**
+	 * Count one more of something, if measuring.
+	 *
+	 * @param counter the counter
+	 */
+
+	public void count ( String counter ) {
+		if (fEnabled == false) {
+			return ;
+		}
+		LongAdder count = fCounters.get(counter);
+		if (count == null) {
+			LongAdder other = fCounters.putIfAbsent(counter, count = new LongAdder());
+			if (other != null) {
+				count = other;
+			}
+		}
+		count.increment();
+	}
+
+
+	/**
+	 * @param counter the counter
+	 * @return the count so far
+	 */
+
+	public long getCount ( String counter ) {
+		LongAdder count = fCounters.get(counter);
+		return count != null ? count.sum() : 0L;
+	}
+
+
+	static <K> Timer timer ( ConcurrentHashMap<K,Timer> timers, K key, String name ) {
+		Timer timer = timers.get(key);
+		if (timer == null) {
+			Timer other = timers.putIfAbsent(key, timer = new Timer(name));
+			if (other != null) {
+				timer = other;
+			}
+		}
+		return timer;
+	}
+
+
+	List<Timer> phases () {
+		List<Timer> result = new ArrayList<Timer>();
+		for(String phase : PHASES) {
+			Timer timer = fPhases.get(phase);
+			if (timer != null) {
+				result.add(timer);
+			}
+		}
+		return result;
+	}
+
+
+	/** The rules, slowest first */
+
+	List<Timer> rules () {
+		List<Timer> result = new ArrayList<Timer>( fRules.values() );
+		Collections.sort(result, SLOWEST_FIRST);
+		return result;
+	}
+
+
+	/** The rules added up by the validator class which declares them, slowest first */
+
+	List<Timer> validators () {
+		Map<Class<?>,Timer> byClass = new LinkedHashMap<Class<?>,Timer>();
+		for(Map.Entry<Method,Timer> entry : fRules.entrySet()) {
+			Class<?> clazz = entry.getKey().getDeclaringClass();
+			Timer timer = byClass.get(clazz);
+			if (timer == null) {
+				byClass.put(clazz, timer = new Timer(clazz.getName()));
+			}
+			timer.add(entry.getValue());
+		}
+		List<Timer> result = new ArrayList<Timer>( byClass.values() );
+		Collections.sort(result, SLOWEST_FIRST);
+		return result;
+	}
+
+
+	Map<String,Long> counters () {
+		Map<String,Long> result = new TreeMap<String,Long>();
+		for(Map.Entry<String,LongAdder> entry : fCounters.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().sum());
+		}
+		return result;
+	}
+
+
+	static String toLine ( Timer timer ) {
+		long calls = timer.fCalls.sum();
+		long nanos = timer.fNanos.sum();
+		return String.format(Locale.ROOT, "%s: %d calls, %.3f ms total, %.3f ms max, %d failed",
+				timer.fName, calls, nanos / 1e6, timer.fMax.get() / 1e6, timer.fFailures.sum());
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#getPhases()
+	 */
+
+	public String[] getPhases () {
+		List<String> lines = new ArrayList<String>();
+		for(Timer timer : phases()) {
+			lines.add( toLine(timer) );
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#getCounters()
+	 */
+
+	public String[] getCounters () {
+		List<String> lines = new ArrayList<String>();
+		for(Map.Entry<String,Long> entry : counters().entrySet()) {
+			lines.add( entry.getKey() + ": " + entry.getValue() );
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#getSlowestRules()
+	 */
+
+	public String[] getSlowestRules () {
+		List<String> lines = new ArrayList<String>();
+		for(Timer timer : rules()) {
+			if (lines.size() == SLOWEST) {
+				break;
+			}
+			lines.add( toLine(timer) );
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#toCSV()
+	 */
+
+	public String toCSV () {
+		StringWriter sw = new StringWriter();
+		PrintWriter out = new PrintWriter(sw);
+		writeCSV(out);
+		out.flush();
+		return sw.toString();
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.validator.model.MetricsMBean#toJSON()
+	 */
+
+	public String toJSON () {
+		StringWriter sw = new StringWriter();
+		PrintWriter out = new PrintWriter(sw);
+		writeJSON(out);
+		out.flush();
+		return sw.toString();
+	}
+
+
+	/**
+	 * Write what has been measured as CSV, one line per phase, validator class,
+	 * rule and counter. Times are in milliseconds.
+	 *
+	 * @param out where to write to
+	 */
+
+	public void writeCSV ( PrintWriter out ) {
+		out.println("kind,name,calls,totalMs,meanMs,maxMs,failures");
+		for(Timer timer : phases()) {
+			writeCSV(out, "phase", timer);
+		}
+		for(Timer timer : validators()) {
+			writeCSV(out, "validator", timer);
+		}
+		for(Timer timer : rules()) {
+			writeCSV(out, "rule", timer);
+		}
+		for(Map.Entry<String,Long> entry : counters().entrySet()) {
+			out.println("counter," + entry.getKey() + "," + entry.getValue() + ",,,,");
+		}
+	}
+
+
+	void writeCSV ( PrintWriter out, String kind, Timer timer ) {
+		long calls = timer.fCalls.sum();
+		long nanos = timer.fNanos.sum();
+		out.println(String.format(Locale.ROOT, "%s,%s,%d,%.3f,%.3f,%.3f,%d", kind, timer.fName, calls,
+				nanos / 1e6, calls > 0 ? nanos / 1e6 / calls : 0d, timer.fMax.get() / 1e6, timer.fFailures.sum()));
+	}
+
+
+	/**
+	 * Write what has been measured as JSON: the phases, the validator classes
+	 * and the rules (slowest first) and the counters. Times are in milliseconds.
+	 *
+	 * @param out where to write to
+	 */
+
+	public void writeJSON ( PrintWriter out ) {
+		out.println("{");
+		writeJSON(out, "phases", phases());
+		out.println(",");
+		writeJSON(out, "validators", validators());
+		out.println(",");
+		writeJSON(out, "rules", rules());
+		out.println(",");
+		out.print("  \"counters\": {");
+		String sep = "";
+		for(Map.Entry<String,Long> entry : counters().entrySet()) {
+			out.print(sep + "\n    " + quote(entry.getKey()) + ": " + entry.getValue());
+			sep = ",";
+		}
+		out.println(sep.length() > 0 ? "\n  }" : "}");
+		out.println("}");
+	}
+
+
+	void writeJSON ( PrintWriter out, String name, List<Timer> timers ) {
+		out.print("  " + quote(name) + ": [");
+		String sep = "";
+		for(Timer timer : timers) {
+			long calls = timer.fCalls.sum();
+			long nanos = timer.fNanos.sum();
+			out.print(sep + "\n    ");
+			out.print(String.format(Locale.ROOT,
+					"{ \"name\": %s, \"calls\": %d, \"totalMs\": %.3f, \"meanMs\": %.3f, \"maxMs\": %.3f, \"failures\": %d }",
+					quote(timer.fName), calls, nanos / 1e6, calls > 0 ? nanos / 1e6 / calls : 0d,
+					timer.fMax.get() / 1e6, timer.fFailures.sum()));
+			sep = ",";
+		}
+		out.print(sep.length() > 0 ? "\n  ]" : "]");
+	}
+
+
+	static String quote ( String s ) {
+		StringBuilder sb = new StringBuilder(s.length() + 2);
+		sb.append('"');
+		for(int i = 0; i < s.length(); i++) {
+			char ch = s.charAt(i);
+			if (ch == '"' || ch == '\\') {
+				sb.append('\\').append(ch);
+			} else if (ch < 0x20) {
+				sb.append(String.format("\\u%04x", (int) ch));
+			} else {
+				sb.append(ch);
+			}
+		}
+		return sb.append('"').toString();
+	}
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator.model;
+
+/**
+ * The management interface of {@link Metrics}, as seen through JMX.
+ */
+
+public interface MetricsMBean {
+
+	/**
+	 * @return true if the validation runs are being measured.
+	 */
+	public boolean isEnabled ();
+
+	/**
+	 * @param enabled start or stop measuring the validation runs.
+	 */
+	public void setEnabled ( boolean enabled );
+
+	/**
+	 * Forget what has been measured so far.
+	 */
+	public void reset ();
+
+	/**
+	 * @return one line per phase of the validation runs, in the order of the phases.
+	 */
+	public String[] getPhases ();
+
+	/**
+	 * @return one line per counter (imports resolved, cache hits, ...).
+	 */
+	public String[] getCounters ();
+
+	/**
+	 * @return one line per rule, for the rules which took the most time.
+	 */
+	public String[] getSlowestRules ();
+
+	/**
+	 * @return everything measured, as CSV.
+	 */
+	public String toCSV ();
+
+	/**
+	 * @return everything measured, as JSON.
+	 */
+	public String toJSON ();
+}
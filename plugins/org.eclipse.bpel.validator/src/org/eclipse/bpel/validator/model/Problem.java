@@ -15,11 +15,23 @@ package org.eclipse.bpel.validator.model;
  */
 
 import java.text.MessageFormat;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.TreeMap;
 
 /**
  * An implementation of IProblem. 
+ * <p>
+ * The attributes described in IProblem are kept in fixed slots, the
+ * numeric ones (severity, line and column numbers, offsets, static analysis code)
+ * as plain ints; only other attributes go into a map. 
+ * {@link #getAttributes()} is a view of the attributes, in the order of their names.
  * 
  * @author Michal Chmielewski (michal.chmielewski@oracle.com)
  * @date Sep 18, 2006
@@ -31,8 +43,48 @@ public class Problem implements IProblem {
 	/** A counter to indicate the sequence no of the problem */
 	static int ID = 1;
 	
-	/** The attributes of the problem, described in IProblem */	
-	Map<String,Object> mMap = new TreeMap<String,Object>();
+	/** The names of the attributes described in IProblem, sorted */
+	static final String[] KEYS = {
+		SEVERITY, MESSAGE, MESSAGE_ID, MESSAGE_ARGS, LOCATION, 
+		CHAR_START, CHAR_END, LINE_NUMBER, COLUMN_NUMBER, ADDRESS_XPATH, ADDRESS_MODEL,
+		NODE, FIX, RULE, RULE_DESC, CONTEXT, ERESOURCE, 
+		BUNDLE_NAME, SA_CODE, BUNDLE_CLAZZ, EXCEPTION
+	};
+	
+	/** The attributes which are numbers */
+	static final String[] NUMBER_KEYS = {
+		SEVERITY, CHAR_START, CHAR_END, LINE_NUMBER, COLUMN_NUMBER, SA_CODE
+	};
+	
+	/** name -> slot */
+	static final Map<String,Integer> SLOTS = new HashMap<String,Integer>();
+	
+	/** slot -> index in the numbers, or -1 */
+	static final int[] NUMBERS;
+	
+	static {
+		Arrays.sort(KEYS);
+		NUMBERS = new int[KEYS.length];
+		for(int i = 0; i < KEYS.length; i++) {
+			SLOTS.put(KEYS[i], i);
+			NUMBERS[i] = Arrays.asList(NUMBER_KEYS).indexOf(KEYS[i]);
+		}
+	}
+	
+	/** The attributes of the problem described in IProblem, by slot */	
+	final Object[] mSlots = new Object[KEYS.length];
+	
+	/** The numeric attributes of the problem set as numbers */
+	final int[] mNumbers = new int[NUMBER_KEYS.length];
+	
+	/** Which of the numbers are set, one bit each */
+	int mNumbersSet = 0;
+	
+	/** Any other attributes, created when needed */
+	TreeMap<String,Object> mMore = null;
+	
+	/** The attributes as a map */
+	Map<String,Object> mMap = null;
 	
 	/** When we were created */
 	final long  mCreated = System.currentTimeMillis();
@@ -63,34 +115,128 @@ public class Problem implements IProblem {
 		fContext = context;		
 	}
 	
+	
+	static int slotOf ( Object name ) {
+		Integer slot = SLOTS.get(name);
+		return slot != null ? slot.intValue() : -1;
+	}
+	
+	
+	Object get ( int slot ) {
+		int n = NUMBERS[slot];
+		if (n >= 0 && (mNumbersSet & (1 << n)) != 0) {
+			return Integer.valueOf( mNumbers[n] );
+		}
+		return mSlots[slot];
+	}
+	
+	
+	void set ( int slot, Object value ) {
+		int n = NUMBERS[slot];
+		if (n >= 0 && value instanceof Integer) {
+			mNumbers[n] = ((Integer) value).intValue();
+			mNumbersSet |= (1 << n);
+			mSlots[slot] = null;
+			return ;
+		}
+		if (n >= 0) {
+			mNumbersSet &= ~(1 << n);
+		}
+		mSlots[slot] = value;
+	}
+	
+	
+	boolean isSet ( int slot ) {
+		int n = NUMBERS[slot];
+		return mSlots[slot] != null || (n >= 0 && (mNumbersSet & (1 << n)) != 0);
+	}
+	
+	
 	/** 
 	 * @see org.eclipse.bpel.validator.model.IProblem#getAttribute(java.lang.String)
 	 */
 	
 	@SuppressWarnings("unchecked")
 	public <T extends Object> T getAttribute (String attributeName) {
-		Object value = mMap.get(attributeName);
-		return (T) value;	
+		int slot = slotOf(attributeName);
+		if (slot >= 0) {
+			return (T) get(slot);
+		}
+		return mMore != null ? (T) mMore.get(attributeName) : null;	
 	}
 	
 	
 	/**
 	 * @see org.eclipse.bpel.validator.model.IProblem#getAttribute(java.lang.String, java.lang.Object)
 	 */
-	@SuppressWarnings("unchecked")
 	public <T extends Object> T getAttribute(String attributeName, T defaultValue) {
-		Object value = mMap.get(attributeName);
+		T value = getAttribute(attributeName);
 		if (value == null) {
 			return defaultValue;
 		}
-		return (T) value;
+		return value;
 	} 
+	
+	
+	/**
+	 * @see org.eclipse.bpel.validator.model.IProblem#getAttribute(java.lang.String, int)
+	 */
+	public int getAttribute(String attributeName, int defaultValue) {
+		int slot = slotOf(attributeName);
+		if (slot >= 0) {
+			int n = NUMBERS[slot];
+			if (n >= 0 && (mNumbersSet & (1 << n)) != 0) {
+				return mNumbers[n];
+			}
+		}
+		Object value = getAttribute(attributeName);
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		}
+		if (value instanceof String) {
+			try {
+				return Integer.parseInt( ((String) value).trim() );
+			} catch (NumberFormatException nfe) {
+				// not a number
+			}
+		}
+		return defaultValue;
+	}
+	
 
 	/** (non-Javadoc)
 	 * @see org.eclipse.bpel.validator.model.IProblem#setAttribute(java.lang.String, java.lang.Object)
 	 */
 	public <T> void setAttribute(String attributeName, T value) {
-		mMap.put(attributeName,value);		
+		int slot = slotOf(attributeName);
+		if (slot >= 0) {
+			set(slot, value);
+		} else if (value == null) {
+			if (mMore != null) {
+				mMore.remove(attributeName);
+			}
+		} else {
+			if (mMore == null) {
+				mMore = new TreeMap<String,Object>();
+			}
+			mMore.put(attributeName, value);
+		}
+	}
+	
+	
+	/**
+	 * @see org.eclipse.bpel.validator.model.IProblem#setAttribute(java.lang.String, int)
+	 */
+	public void setAttribute(String attributeName, int value) {
+		int slot = slotOf(attributeName);
+		int n = slot >= 0 ? NUMBERS[slot] : -1;
+		if (n >= 0) {
+			mNumbers[n] = value;
+			mNumbersSet |= (1 << n);
+			mSlots[slot] = null;
+		} else {
+			setAttribute(attributeName, Integer.valueOf(value));
+		}
 	}
 	
 	
@@ -98,19 +244,205 @@ public class Problem implements IProblem {
 	 * @see org.eclipse.bpel.validator.model.IProblem#setAttributes(java.util.Map)
 	 */
 	public void setAttributes(Map<String, Object> attributes) {
-		mMap.clear();
-		mMap.putAll( attributes );		
+		Arrays.fill(mSlots, null);
+		mNumbersSet = 0;
+		mMore = null;
+		for(Map.Entry<String,Object> entry : attributes.entrySet()) {
+			setAttribute(entry.getKey(), entry.getValue());
+		}
 	}
 	
 
 	/**
+	 * Attributes with a null value are left out of the view; putting a null value
+	 * removes the attribute.
 	 * 
 	 * @see org.eclipse.bpel.validator.model.IProblem#getAttributes()
 	 */	
 	public Map<String,Object> getAttributes() {
+		if (mMap == null) {
+			mMap = new Attributes();
+		}
 		return mMap;
 	}
 
+	
+	/**
+	 * The attributes of the problem, as a map. The slots and the other attributes
+	 * are walked side by side, in the order of the names, without copying them.
+	 */
+	
+	class Attributes extends AbstractMap<String,Object> {
+		
+		final Set<Map.Entry<String,Object>> fEntries = new AbstractSet<Map.Entry<String,Object>>() {
+			
+			@Override
+			public Iterator<Map.Entry<String,Object>> iterator() {
+				return new AttributeIterator();
+			}
+			
+			@Override
+			public int size() {
+				int size = mMore != null ? mMore.size() : 0;
+				for(int i = 0; i < KEYS.length; i++) {
+					if (isSet(i)) {
+						size += 1;
+					}
+				}
+				return size;
+			}			
+		};
+		
+		@Override
+		public Set<Map.Entry<String,Object>> entrySet() {
+			return fEntries;
+		}
+		
+		@Override
+		public Object get(Object key) {
+			return key instanceof String ? getAttribute((String) key) : null;
+		}
+		
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+		
+		@Override
+		public Object put(String key, Object value) {
+			Object old = getAttribute(key);
+			setAttribute(key, value);
+			return old;
+		}
+		
+		@Override
+		public Object remove(Object key) {
+			if (key instanceof String == false) {
+				return null;
+			}
+			return put((String) key, null);
+		}
+		
+		@Override
+		public void clear() {
+			setAttributes( new HashMap<String,Object>(0) );
+		}
+	}
+	
+	
+	class AttributeIterator implements Iterator<Map.Entry<String,Object>> {
+		
+		Iterator<Map.Entry<String,Object>> fMore = mMore != null ? mMore.entrySet().iterator() : null;
+		
+		Map.Entry<String,Object> fNextMore = null;
+		
+		int fNextSlot = -1;
+		
+		/** where the last entry came from: a slot, or -1 for the other attributes */
+		int fLast = -2;
+		
+		String fLastKey = null;
+		
+		AttributeIterator () {
+			fNextMore = fMore != null && fMore.hasNext() ? fMore.next() : null;
+			fNextSlot = nextSlot(0);
+		}
+		
+		int nextSlot ( int from ) {
+			for(int i = from; i < KEYS.length; i++) {
+				if (isSet(i)) {
+					return i;
+				}
+			}
+			return KEYS.length;
+		}
+		
+		public boolean hasNext() {
+			return fNextSlot < KEYS.length || fNextMore != null;
+		}
+		
+		public Map.Entry<String,Object> next() {
+			if (hasNext() == false) {
+				throw new NoSuchElementException();
+			}
+			if (fNextMore == null || 
+					(fNextSlot < KEYS.length && KEYS[fNextSlot].compareTo(fNextMore.getKey()) < 0)) {
+				fLast = fNextSlot;
+				Map.Entry<String,Object> entry = new SlotEntry(fNextSlot);
+				fNextSlot = nextSlot(fNextSlot + 1);
+				return entry;
+			}
+			Map.Entry<String,Object> entry = fNextMore;
+			fLast = -1;
+			fLastKey = entry.getKey();
+			fNextMore = fMore.hasNext() ? fMore.next() : null;
+			return entry;
+		}
+		
+		public void remove() {
+			if (fLast == -2) {
+				throw new IllegalStateException();
+			}
+			if (fLast == -1) {
+				// we have looked ahead, so start again past the removed attribute
+				mMore.remove(fLastKey);
+				if (fNextMore != null) {
+					fMore = mMore.tailMap(fNextMore.getKey(), true).entrySet().iterator();
+					fNextMore = fMore.next();
+				}
+			} else {
+				set(fLast, null);
+			}
+			fLast = -2;
+		}
+	}
+	
+	
+	class SlotEntry implements Map.Entry<String,Object> {
+		
+		final int fSlot;
+		
+		SlotEntry ( int slot ) {
+			fSlot = slot;
+		}
+		
+		public String getKey() {
+			return KEYS[fSlot];
+		}
+		
+		public Object getValue() {
+			return get(fSlot);
+		}
+		
+		public Object setValue(Object value) {
+			Object old = get(fSlot);
+			set(fSlot, value);
+			return old;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (o instanceof Map.Entry == false) {
+				return false;
+			}
+			Map.Entry<?,?> e = (Map.Entry<?,?>) o;
+			Object value = getValue();
+			return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+		
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+		
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue(); //$NON-NLS-1$
+		}
+	}
+	
+	
 	/**
 	 * @see org.eclipse.bpel.validator.model.IProblem#getCreationTime()
 	 */
@@ -222,9 +554,9 @@ public class Problem implements IProblem {
 			Messages msg = Messages.getMessages( bundleName );
 			if (msg.containsKey(key)) {
 				// Remember where the message came from, if not already set
-				if (mMap.containsKey(IProblem.BUNDLE_CLAZZ) == false) {
-					mMap.put(IProblem.BUNDLE_CLAZZ, clazz);
-					mMap.put(IProblem.BUNDLE_NAME, bundleName );					
+				if (getAttribute(IProblem.BUNDLE_CLAZZ) == null) {
+					setAttribute(IProblem.BUNDLE_CLAZZ, clazz);
+					setAttribute(IProblem.BUNDLE_NAME, bundleName );					
 				}								
 				// return the message
 				return msg.get(key);
@@ -10,8 +10,7 @@
  *******************************************************************************/
 package org.eclipse.bpel.validator.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 import java.util.Stack;
 
 import org.eclipse.bpel.validator.model.Rules.IndexFilter;
@@ -33,8 +32,8 @@ public class RuleRunner {
 	/** The currently executing rule */
 	Rule fCurrentRule = null;
 	
-	/** Tells us which rules to skip */
-	List<IFilter<Rule>> fRuleFilter = new ArrayList<IFilter<Rule>>(4) ;
+	/** Tells us which rules to skip, indexed by rule ordinal */
+	BitSet fDisabled = new BitSet() ;
 	
 	/** the validator on which this runner runs the rules */
 	Validator fValidator = null;
@@ -55,6 +54,8 @@ public class RuleRunner {
 	 * Each of the validator classes can dynamically disabled a rule from being
 	 * run. 
 	 * <p>
+	 * How long each rule takes is recorded in {@link Metrics}, when enabled.
+	 * <p>
      *
 	 * @param tag the tag used on the rules.
 	 * @param args to pass to the rules (if any).
@@ -62,23 +63,26 @@ public class RuleRunner {
 		
 	public void runRules ( String tag, Object ... args ) {	
 		
-		for (Rule rule: fRules.mRules) {
+		Metrics metrics = Metrics.INSTANCE;
+		
+		// Only the rules with this tag, in the order intended.
+		for (Rule rule: fRules.getRules(tag)) {
 			
-			// Filter away rules that make no sense in this context.					
-			if (tag.equals(rule.getTag()) == false) {
-				continue ;
-			}
-			if (isDisabled(rule)) {
+			if (fDisabled.get(rule.ordinal)) {
 				continue;
 			}
-						
+			
+			long start = metrics.start();
+			boolean failed = false;
 			try {
 				fCurrentRule = fRuleStack.push(rule);
-				rule.invoke (fValidator, args);
+				rule.call (fValidator, args);
 			} catch (Throwable t) {				
+				failed = true;
 				log (fValidator, rule, t);
 			} finally {	
 				fCurrentRule = fRuleStack.empty() ? null : fRuleStack.pop();				
+				metrics.rule(rule, start, failed);
 			}
 		}
 	}
@@ -105,14 +109,19 @@ public class RuleRunner {
 	 * @param indexFilter
 	 */
 	public void addFilter(IndexFilter indexFilter) {
-		fRuleFilter.add( indexFilter );		
+		// The filter is applied once, here, rather than every time a rule is about to run.
+		for(Rule rule : fRules.mRules) {
+			if (indexFilter.select(rule)) {
+				fDisabled.set(rule.ordinal);
+			}
+		}
 	}
 
 	/**
 	 * 
 	 */
 	public void start() {
-		fRuleFilter.clear();		
+		fDisabled.clear();		
 	}
 	
 	/**
@@ -123,15 +132,7 @@ public class RuleRunner {
 	 */
 		
 	boolean isDisabled ( Rule nextRule ) {
-						
-		if (fRuleFilter.size() > 0) {
-			for(IFilter<Rule> f: fRuleFilter) {
-				if (f.select(nextRule)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return fDisabled.get(nextRule.ordinal);
 	}
 	
 	/**
@@ -19,7 +19,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -31,6 +35,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 
@@ -69,12 +74,21 @@ public class Rules  {
 	
 	List<Rule> mRules = new ArrayList<Rule>();
 	
+	/**
+	 * The rules, in the order in which they run, split by tag. 
+	 */
+	
+	Map<String,Rule[]> mRulesByTag = new HashMap<String,Rule[]>();
+	
+	/** No rules for this tag */
+	static final Rule[] NO_RULES = {};
+	
 	
 	/**
 	 * The registry of such rules ...
 	 */
 		
-	static final Map<Class<? extends Validator>,Rules> RULES_BY_CLASS = new HashMap<Class<? extends Validator>,Rules> ();	
+	static final ConcurrentHashMap<Class<? extends Validator>,Rules> RULES_BY_CLASS = new ConcurrentHashMap<Class<? extends Validator>,Rules> ();	
 	
 	
 	/**
@@ -97,11 +111,9 @@ public class Rules  {
 		// compute them
 		rules = new Rules ( clazz );
 		
-		// store for later use
-		synchronized ( RULES_BY_CLASS ) {
-			RULES_BY_CLASS.put(clazz, rules);
-		}
-		return rules;
+		// store for later use, another thread may have beaten us to it
+		Rules prev = RULES_BY_CLASS.putIfAbsent(clazz, rules);
+		return prev != null ? prev : rules;
 	}
 	
 	
@@ -123,7 +135,46 @@ public class Rules  {
 		if (mRules.size() > 1) {
 			// sort according to suffix digit
 			Collections.sort( mRules );
-		}		
+		}
+		
+		// Now each rule knows its place, and each tag its rules (in the same order)
+		Map<String,List<Rule>> byTag = new HashMap<String,List<Rule>>();
+		int ordinal = 0;
+		for(Rule rule : mRules) {
+			rule.ordinal = ordinal++;
+			List<Rule> list = byTag.get(rule.getTag());
+			if (list == null) {
+				list = new ArrayList<Rule>();
+				byTag.put(rule.getTag(), list);
+			}
+			list.add(rule);
+		}
+		for(Map.Entry<String,List<Rule>> entry : byTag.entrySet()) {
+			mRulesByTag.put(entry.getKey(), entry.getValue().toArray(NO_RULES));
+		}
+	}
+	
+	
+	/**
+	 * Return the rules to run for the given tag, in the order in which they 
+	 * should be run.
+	 * 
+	 * @param tag the tag
+	 * @return the rules (never null)
+	 */
+	
+	public Rule[] getRules ( String tag ) {
+		Rule[] rules = mRulesByTag.get(tag);
+		return rules != null ? rules : NO_RULES;
+	}
+	
+	
+	/**
+	 * @return the number of rules
+	 */
+	
+	public int size () {
+		return mRules.size();
 	}
 	
 
@@ -216,16 +267,47 @@ public class Rules  {
 		int index;
 		String fullName;
 		ARule aRule;
+		String tag;
+		
+		/** The position of this rule in the rules of the class */
+		int ordinal;
+		
+		/** (Object) -> Object, for rules which take no arguments */
+		MethodHandle fInvoker0;
+		
+		/** (Object,Object[]) -> Object */
+		MethodHandle fInvoker;
+		
+		Class<?>[] fArgTypes;
+		
+		int fArgCount;
 	
 		
 		Rule ( Method m ) {
 			
 			method = m;
 			aRule = method.getAnnotation(ARule.class);
+			tag = (aRule == null) ? Validator.PASS1 : aRule.tag();
 			
 			name = parseName( m.getName() );
 			index = parseIndex ( m.getName() );
-			fullName = m.getDeclaringClass().getSimpleName() + "." + name + "." + index;			
+			fullName = m.getDeclaringClass().getSimpleName() + "." + name + "." + index;
+			
+			fArgTypes = m.getParameterTypes();
+			fArgCount = fArgTypes.length;
+			
+			try {
+				MethodHandle mh = MethodHandles.publicLookup().unreflect( m );				
+				if (fArgCount == 0) {
+					fInvoker0 = mh.asType( MethodType.methodType(Object.class, Object.class) );
+				}
+				fInvoker = mh.asSpreader(Object[].class, fArgCount)
+						     .asType( MethodType.methodType(Object.class, Object.class, Object[].class) );
+			} catch (IllegalAccessException e) {
+				// not accessible from here, we will use reflection.
+				fInvoker0 = null;
+				fInvoker = null;
+			}
 		}
 				
 		String parseName ( String n ) {
@@ -285,10 +367,7 @@ public class Rules  {
 		 */
 		
 		public String getTag () {
-			if (aRule == null) {
-				return Validator.PASS1;
-			}
-			return aRule.tag();
+			return tag;
 		}
 		
 	
@@ -303,14 +382,81 @@ public class Rules  {
 		}
 		
 		/**
+		 * Invoke the rule, as {@link Method#invoke(Object, Object...)} would.
+		 * 
 		 * @param context
 		 * @param args
 		 * @return whatever the rule returns
+		 * @throws InvocationTargetException wrapping whatever the rule throws
+		 * @throws IllegalArgumentException if the context or the arguments do not fit the rule
 		 * @throws Exception
 		 */
 		
 		public Object invoke (Object context, Object args[]) throws Exception	{
-			return method.invoke(context, args);
+			if (fInvoker == null) {
+				return method.invoke(context, args);
+			}
+			check(context, args);
+			try {
+				return dispatch(context, args);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+		
+		/**
+		 * Call the rule. Unlike {@link #invoke(Object, Object[])} the exceptions 
+		 * thrown by the rule are not wrapped.
+		 * 
+		 * @param context the validator
+		 * @param args the arguments to the rule
+		 * @return whatever the rule returns
+		 * @throws IllegalArgumentException if the context or the arguments do not fit the rule
+		 * @throws Throwable whatever the rule throws 
+		 */
+		
+		public Object call (Object context, Object args[]) throws Throwable {
+			
+			if (fInvoker == null) {
+				try {
+					return method.invoke(context, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+			check(context, args);
+			return dispatch(context, args);
+		}
+		
+		void check (Object context, Object args[]) {
+			if (method.getDeclaringClass().isInstance(context) == false) {
+				throw new IllegalArgumentException("Rule " + fullName + " cannot be run on " + context);
+			}
+			int argCount = (args == null) ? 0 : args.length;
+			if (argCount != fArgCount) {
+				throw new IllegalArgumentException("Rule " + fullName + " expects " + fArgCount + " argument(s), got " + argCount);
+			}
+			for(int i = 0; i < argCount; i++) {
+				Class<?> type = fArgTypes[i];
+				if (type.isPrimitive() ? args[i] == null : (args[i] != null && type.isInstance(args[i]) == false)) {
+					throw new IllegalArgumentException("Rule " + fullName + " argument " + i + " is not a " + type.getName());
+				}
+			}
+		}
+		
+		Object dispatch (Object context, Object args[]) throws Throwable {
+			if (fArgCount == 0) {
+				return fInvoker0.invokeExact(context);
+			}
+			return fInvoker.invokeExact(context, args);
+		}
+		
+		/**
+		 * @return the position of this rule in the list of rules of the class.
+		 */
+		
+		public int getOrdinal () {
+			return ordinal;
 		}
 
 		/**
@@ -10,9 +10,12 @@
  *******************************************************************************/
 package org.eclipse.bpel.validator.model;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Set;
 
 
@@ -37,8 +40,11 @@ public class Runner {
 	/** empty list of problems */
 	IProblem[] fProblems = {};
 	
-	/** The list of validators to run */
-	List<Validator> fValidators = new ArrayList<Validator>(256);
+	/** The validators to run, in document order; only the first fValidatorCount are used */
+	Validator[] fValidators = new Validator[256];
+	
+	/** The number of validators to run */
+	int fValidatorCount = 0;
 
 	/** A set which collects the SA checks that the validators makes */
 	Set<ARule> fSAChecks = new HashSet<ARule>();
@@ -64,18 +70,20 @@ public class Runner {
 	
 	void init () {
 		
-		fValidators.clear();
+		Arrays.fill(fValidators, 0, fValidatorCount, null);
+		fValidatorCount = 0;
 		
-		// Create a depth first iteration from the root node
-		ArrayList<INode> iteratorList = new ArrayList<INode>(32);		
+		// Create a depth first iteration from the root node; the top of the
+		// stack is the next node in document order.
+		ArrayDeque<INode> stack = new ArrayDeque<INode>(64);
 		
 		// start at the root node
-		iteratorList.add(fRoot);
+		stack.push(fRoot);
 		
 		// 1. Generate the list of validators to call, in order
-		while (iteratorList.size() > 0) {
+		while (stack.isEmpty() == false) {
 			
-			INode nextNode = iteratorList.remove(0);
+			INode nextNode = stack.pop();
 			
 			Validator validator = nextNode.nodeValidator();
 			
@@ -84,18 +92,28 @@ public class Runner {
 				validator.setModelQuery(fModelQuery);
 				validator.setSAChecks(fSAChecks);				
 				
-				fValidators.add(validator);
+				add(validator);
 			}
 			
-			// the facaded object will tell us what children to include in the walk
+			// the facaded object will tell us what children to include in the walk,
+			// the first child has to end up on top.
 			List<INode> children = nextNode.children();			
-			if (children.size() > 0) {
-				iteratorList.addAll(0, children);
-			}			
+			ListIterator<INode> it = children.listIterator( children.size() );
+			while (it.hasPrevious()) {
+				stack.push( it.previous() );
+			}
 		}
 	}
 	
 	
+	void add ( Validator validator ) {
+		if (fValidatorCount == fValidators.length) {
+			fValidators = Arrays.copyOf(fValidators, fValidatorCount * 2);
+		}
+		fValidators[fValidatorCount++] = validator;
+	}
+	
+	
 	/**
 	 * Perform the validation run.
 	 * 
@@ -107,25 +125,32 @@ public class Runner {
 
 		fSAChecks.clear();
 		
-		if (fValidators.size() < 1) {
+		Metrics metrics = Metrics.INSTANCE;
+		long start = metrics.start();
+		
+		if (fValidatorCount < 1) {
 			init();
+			start = metrics.phase(Metrics.INIT, start);
 		}
 				
 		// Pass 1
-		for(Validator validator : fValidators) {			
-			validator.validate(Validator.PASS1);
+		for(int i = 0; i < fValidatorCount; i++) {			
+			fValidators[i].validate(Validator.PASS1);
 		}
+		start = metrics.phase(Metrics.PASS1, start);
 		
 		ArrayList<IProblem> problems = new ArrayList<IProblem>( 64 );
 		
 		// Pass 2		
-		for(Validator validator : fValidators) {
+		for(int i = 0; i < fValidatorCount; i++) {
+			Validator validator = fValidators[i];
 			validator.validate(Validator.PASS2);
 			
 			for(IProblem problem : validator.getProblems() ) {
 				problems.add (problem);
 			}
 		}
+		metrics.phase(Metrics.PASS2, start);
 
 		return problems.toArray( fProblems );
 	}
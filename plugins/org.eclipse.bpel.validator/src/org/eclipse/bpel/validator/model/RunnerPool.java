@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.validator.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Validates a number of items (processes) on a pool of worker threads.
+ * <p>
+ * Each worker thread gets its own {@link Worker}, created by the
+ * {@link WorkerFactory} on first use. The worker owns everything that is
+ * not safe to share between threads (the resource set, the reader,
+ * the {@link Runner} and its {@link Validator}s), so a worker never
+ * sees another thread's state.
+ * <p>
+ * The results are returned once all the items are done, in the order
+ * in which the items were given, so that the caller can publish them
+ * in one batch.
+ *
+ * @param <T> the kind of items validated (IFile, File, etc.)
+ * @param <R> the result of validating one item
+ */
+
+@SuppressWarnings("nls")
+
+public class RunnerPool<T,R> {
+
+	/**
+	 * Validates items, one at a time, always on the same thread.
+	 *
+	 * @param <T> the kind of items validated
+	 * @param <R> the result of validating one item
+	 */
+
+	public interface Worker<T,R> {
+
+		/**
+		 * @param item the item to validate
+		 * @return the result of the validation
+		 */
+		R run ( T item );
+	}
+
+	/**
+	 * Creates the workers, one per thread.
+	 *
+	 * @param <T> the kind of items validated
+	 * @param <R> the result of validating one item
+	 */
+
+	public interface WorkerFactory<T,R> {
+
+		/**
+		 * @return a brand new worker.
+		 */
+		Worker<T,R> create ();
+	}
+
+
+	/** The number of threads to use */
+	int fThreads;
+
+	/** The factory which makes the workers */
+	WorkerFactory<T,R> fFactory;
+
+
+	/**
+	 * Brand new shiny pool.
+	 *
+	 * @param threads the number of worker threads, 0 or less means one per processor.
+	 * @param factory the factory of workers.
+	 */
+
+	public RunnerPool ( int threads, WorkerFactory<T,R> factory ) {
+		fThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		fFactory = factory;
+	}
+
+
+	/**
+	 * Parse the number of threads from a configuration value.
+	 *
+	 * @param value the value (a String or a Number), may be null.
+	 * @param def the default to use if the value is missing or cannot be parsed.
+	 * @return the number of threads, 0 meaning one per processor.
+	 */
+
+	static public int toThreads ( Object value, int def ) {
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		}
+		if (value instanceof String) {
+			String s = ((String) value).trim();
+			if ("auto".equalsIgnoreCase(s)) {
+				return 0;
+			}
+			try {
+				return Integer.parseInt(s);
+			} catch (NumberFormatException nfe) {
+				return def;
+			}
+		}
+		return def;
+	}
+
+
+	/**
+	 * @return the number of worker threads used.
+	 */
+
+	public int getThreads () {
+		return fThreads;
+	}
+
+
+	/**
+	 * Validate all the items. If there is just one thread or just one item,
+	 * validation happens on the calling thread.
+	 *
+	 * @param items the items to validate
+	 * @return the results, keyed by item, in the order of the items.
+	 */
+
+	public Map<T,R> run ( Collection<T> items ) {
+
+		Map<T,R> results = new LinkedHashMap<T,R>( items.size() * 2 );
+
+		if (fThreads == 1 || items.size() < 2) {
+			Worker<T,R> worker = fFactory.create();
+			for(T item : items) {
+				results.put(item, worker.run(item));
+			}
+			return results;
+		}
+
+		final ThreadLocal<Worker<T,R>> workers = new ThreadLocal<Worker<T,R>>() {
+			@Override
+			protected Worker<T,R> initialValue() {
+				return fFactory.create();
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool( Math.min(fThreads, items.size()), new ThreadFactory() {
+			AtomicInteger fCount = new AtomicInteger();
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "BPEL Validator #" + fCount.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		try {
+			List<Future<R>> futures = new ArrayList<Future<R>>( items.size() );
+			for(final T item : items) {
+				futures.add( executor.submit( new Callable<R>() {
+					public R call() {
+						return workers.get().run(item);
+					}
+				}));
+			}
+
+			int i = 0;
+			for(T item : items) {
+				results.put(item, get( futures.get(i++) ));
+			}
+
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return results;
+	}
+
+
+	R get ( Future<R> future ) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable t = e.getCause();
+			if (t instanceof RuntimeException) {
+				throw (RuntimeException) t;
+			}
+			if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new RuntimeException(t);
+		}
+	}
+}
@@ -448,7 +448,7 @@ public class Validator implements IConstants {
 			return ;
 		}
 		if (arule == null) {
-			arule = fRuleRunner.getExecutingRule().method.getAnnotation( ARule.class );
+			arule = fRuleRunner.getExecutingRule().getARule();
 		}
 		if (arule != null) {
 			mSAChecks.add(arule);	
@@ -514,7 +514,7 @@ public class Validator implements IConstants {
 			
 			problem.setAttribute(IProblem.RULE, r.getFullName() );
 			
-			ARule a = r.method.getAnnotation( ARule.class );
+			ARule a = r.getARule();
 			
 			if (a != null) {
 				
@@ -41,8 +41,8 @@ import org.eclipse.bpel.xpath10.NumberExpr;
 import org.eclipse.bpel.xpath10.RelationalExpr;
 import org.eclipse.bpel.xpath10.UnaryExpr;
 import org.eclipse.bpel.xpath10.VariableReferenceExpr;
+import org.eclipse.bpel.xpath10.parser.XPath10Cache;
 import org.eclipse.bpel.xpath10.parser.XPath10Exception;
-import org.eclipse.bpel.xpath10.parser.XPath10Factory;
 
 /**
  * This validator validates the XPath expressions used in the BPEL source.
@@ -164,7 +164,7 @@ public class XPathValidator extends Validator {
 		IProblem problem;
 
 		try {
-			xpathExpr = XPath10Factory.create(exprString);
+			xpathExpr = XPath10Cache.getDefault().get(exprString);
 		} catch (XPath10Exception e) {
 			problem = createError();
 			problem.fill("XPATH_EXPRESSION_SYNTAX", toString(mNode.nodeName()),
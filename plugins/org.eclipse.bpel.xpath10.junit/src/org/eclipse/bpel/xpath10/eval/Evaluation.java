@@ -0,0 +1,185 @@
+package org.eclipse.bpel.xpath10.eval;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import java.io.StringReader;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.bpel.xpath10.parser.XPath10Exception;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+/**
+ * Evaluation of compiled XPath plans against a sample message.
+ */
+
+@SuppressWarnings("nls")
+public class Evaluation {
+
+	static final String ORDER =
+		"<message>" +
+		"<payload><o:order xmlns:o='urn:orders' id='42'>" +
+		"<o:item qty='2' price='10.5'>apple</o:item>" +
+		"<o:item qty='1' price='3'>pear</o:item>" +
+		"<o:item qty='4' price='0.25'>plum</o:item>" +
+		"<o:note xml:lang='en-GB'>  ripe   fruit </o:note>" +
+		"</o:order></payload>" +
+		"</message>";
+
+	SimpleResolver resolver;
+
+	Document document;
+
+
+	/**
+	 * @throws Exception
+	 */
+	@Before
+	public void setUp () throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(ORDER)));
+
+		resolver = new SimpleResolver();
+		resolver.declareNamespace("o", "urn:orders");
+		resolver.setVariable("request", document.getDocumentElement());
+		resolver.setVariable("limit", Integer.valueOf(20));
+	}
+
+
+	Object eval ( String expr ) {
+		return XPathPlan.compile(expr, resolver).evaluate(document, resolver);
+	}
+
+	String string ( String expr ) {
+		return XPathPlan.compile(expr, resolver).evaluateString(document, resolver);
+	}
+
+	double number ( String expr ) {
+		return XPathPlan.compile(expr, resolver).evaluateNumber(document, resolver);
+	}
+
+	boolean bool ( String expr ) {
+		return XPathPlan.compile(expr, resolver).evaluateBoolean(document, resolver);
+	}
+
+
+	/** */
+	@Test
+	public void VariableParts() {
+		assertEquals("applepearplum  ripe   fruit ", string("$request.payload"));
+		assertEquals(3.0, number("count($request.payload/o:order/o:item)"));
+		assertEquals("42", string("$request.payload/o:order/@id"));
+	}
+
+	/** */
+	@Test
+	public void Predicates() {
+		assertEquals("pear", string("$request.payload/o:order/o:item[2]"));
+		assertEquals("plum", string("$request.payload/o:order/o:item[last()]"));
+		assertEquals("apple", string("$request.payload/o:order/o:item[@qty > 1][1]"));
+		assertEquals("plum", string("$request.payload/o:order/o:item[@qty > 1][2]"));
+		assertEquals("pear", string("$request.payload/o:order/o:item[. = 'pear']"));
+		assertEquals(2.0, number("count($request.payload/o:order/o:item[@price < 5])"));
+	}
+
+	/** */
+	@Test
+	public void Axes() {
+		assertEquals(4.0, number("count(/message/payload/o:order/*)"));
+		assertEquals(3.0, number("count(//o:item)"));
+		assertEquals("order", string("local-name(//o:item[1]/..)"));
+		assertEquals("pear", string("//o:item[1]/following-sibling::o:item[1]"));
+		assertEquals("apple", string("//o:item[3]/preceding-sibling::o:item[last()]"));
+		assertEquals("pear", string("//o:item[3]/preceding::o:item[1]"));
+		assertEquals(3.0, number("count(//o:note/ancestor::*)"));
+		assertEquals(6.0, number("count(//o:item/@*)"));
+		assertEquals(0.0, number("count(//item)"));
+	}
+
+	/** */
+	@Test
+	public void Arithmetic() {
+		assertEquals(10.0, number("sum(//o:item/@qty) * 2 + -(-4) - $limit div 5 * 2 + 10 mod 4 - 2"));
+		assertEquals(true, bool("sum(//o:item/@qty) < $limit"));
+		assertEquals("NaN", string("number('abc')"));
+		assertEquals("1.5", string("3 div 2"));
+		assertEquals("-0.5", string("- 1 div 2"));
+		assertEquals("Infinity", string("1 div 0"));
+		assertEquals(3.0, number("round(2.5)"));
+		assertEquals(-2.0, number("round(-2.5)"));
+	}
+
+	/** */
+	@Test
+	public void Strings() {
+		assertEquals("ripe fruit", string("normalize-space(//o:note)"));
+		assertEquals("app", string("substring(//o:item[1], 1, 3)"));
+		assertEquals("234", string("substring('12345', 1.5, 2.6)"));
+		assertEquals("BAr", string("translate('bar', 'abc', 'AB')"));
+		assertEquals("apple,pear", string("concat(//o:item[1], ',', //o:item[2])"));
+		assertEquals("1999", string("substring-before('1999/04/01', '/')"));
+		assertEquals("04/01", string("substring-after('1999/04/01', '/')"));
+		assertEquals(true, bool("starts-with(//o:item[3], 'pl') and contains(//o:item[3], 'lu')"));
+		assertEquals(true, bool("lang('en')") == false);
+		assertEquals(true, bool("//o:note[lang('en')]"));
+	}
+
+	/** */
+	@Test
+	public void Comparisons() {
+		assertEquals(true, bool("//o:item = 'pear'"));
+		assertEquals(true, bool("//o:item != 'pear'"));
+		assertEquals(false, bool("//o:missing = //o:item"));
+		assertEquals(true, bool("//o:item/@qty = 4"));
+		assertEquals(true, bool("//o:item/@qty = true()"));
+		assertEquals(true, bool("'1' = 1.0"));
+	}
+
+	/** */
+	@Test
+	public void Union() {
+		List<Node> nodes = XPathPlan.compile("//o:item[3] | //o:item[1] | //o:item[3]", resolver).evaluateNodes(document, resolver);
+		assertEquals(2, nodes.size());
+		assertEquals("apple", nodes.get(0).getTextContent());
+		assertEquals("plum", nodes.get(1).getTextContent());
+	}
+
+	/** */
+	@Test
+	public void ResolverFunctions() {
+		resolver.declareNamespace("bpel", "http://docs.oasis-open.org/wsbpel/2.0/process/executable");
+		resolver.defineFunction("http://docs.oasis-open.org/wsbpel/2.0/process/executable", "getVariableProperty", new XPathFunction() {
+			public Object call(Node contextNode, List<Object> args) {
+				return args.get(0) + "#" + args.get(1);
+			}
+		});
+		assertEquals("request#o:orderId", string("bpel:getVariableProperty('request', 'o:orderId')"));
+	}
+
+	/** */
+	@Test
+	public void Errors() {
+		expectError("foo:bar()");
+		expectError("unknown()");
+		expectError("substring('a')");
+		expectError("$nothing");
+		expectError("'a'/b");
+	}
+
+	void expectError ( String expr ) {
+		try {
+			eval(expr);
+			fail("Expected an error: " + expr);
+		} catch (XPath10Exception ex) {
+			assertTrue(ex.getMessage() != null);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.xpath10.parser;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.fail;
+
+import org.eclipse.bpel.xpath10.Expr;
+import org.junit.Test;
+
+/**
+ * Tests the cache of parsed expressions.
+ * <p>
+ * The cache is keyed by the source of the expression: when an expression
+ * of the process changes, the new source is parsed, and the tree of the
+ * old one is no longer returned for it.
+ */
+
+@SuppressWarnings("nls")
+public class CachedExpressions {
+
+	/**
+	 * @throws XPath10Exception
+	 */
+	@Test
+	public void Hit() throws XPath10Exception {
+		XPath10Cache cache = new XPath10Cache(16);
+
+		Expr expr = cache.get("12345");
+		assertEquals("12345", expr.getText());
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		assertSame(expr, cache.get("12345"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.size());
+	}
+
+	/**
+	 * @throws XPath10Exception
+	 */
+	@Test
+	public void ExpressionChanged() throws XPath10Exception {
+		XPath10Cache cache = new XPath10Cache(16);
+
+		Expr before = cache.get("12345");
+		// the expression is edited in the process
+		Expr after = cache.get("-12345");
+
+		assertNotSame(before, after);
+		assertEquals("-12345", after.getText());
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+
+		assertSame(after, cache.get("-12345"));
+		assertEquals("12345", cache.get("12345").getText());
+	}
+
+	/**
+	 * @throws XPath10Exception
+	 */
+	@Test
+	public void LeastRecentlyUsedEvicted() throws XPath10Exception {
+		XPath10Cache cache = new XPath10Cache(2);
+
+		Expr first = cache.get("1");
+		Expr second = cache.get("2");
+		assertSame(first, cache.get("1"));
+		cache.get("3");
+		assertEquals(2, cache.size());
+
+		// "2" was the least recently used
+		assertNotSame(second, cache.get("2"));
+		assertEquals(4, cache.getMisses());
+
+		cache.setMaxSize(1);
+		assertEquals(1, cache.size());
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	/** */
+	@Test
+	public void SyntaxErrorCached() {
+		XPath10Cache cache = new XPath10Cache(16);
+
+		XPath10Exception first = expectError(cache, "(1 + 2");
+		XPath10Exception second = expectError(cache, "(1 + 2");
+
+		// thrown again, but not parsed again
+		assertNotSame(first, second);
+		assertEquals(first.getMessage(), second.getMessage());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	/**
+	 * @throws XPath10Exception
+	 */
+	@Test
+	public void Disabled() throws XPath10Exception {
+		XPath10Cache cache = new XPath10Cache(0);
+
+		Expr expr = cache.get("12345");
+		assertNotSame(expr, cache.get("12345"));
+		assertEquals(0, cache.size());
+	}
+
+	XPath10Exception expectError(XPath10Cache cache, String source) {
+		try {
+			cache.get(source);
+		} catch (XPath10Exception ex) {
+			return ex;
+		}
+		fail("Expected an error: " + source);
+		return null;
+	}
+}
@@ -55,6 +55,15 @@ public class UnaryExpr extends Expr {
 		fOparand = operand;
 	}
 	
+	/**
+	 * @return the operand of the unary expression ("-"), or null if there is none.
+	 */
+	
+	public String getOperand ()
+	{
+		return fOparand;
+	}
+	
     @Override
 	protected String asText()
     {
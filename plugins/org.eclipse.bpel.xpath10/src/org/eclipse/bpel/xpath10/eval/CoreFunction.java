@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import org.eclipse.bpel.xpath10.Expr;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * A call to a function of the XPath 1.0 core function library.
+ * The function is chosen and the number of arguments checked when the
+ * expression is compiled.
+ */
+
+@SuppressWarnings("nls")
+
+final class CoreFunction extends Op {
+
+	static final int LAST = 1;
+	static final int POSITION = 2;
+	static final int COUNT = 3;
+	static final int ID = 4;
+	static final int LOCAL_NAME = 5;
+	static final int NAMESPACE_URI = 6;
+	static final int NAME = 7;
+	static final int STRING = 8;
+	static final int CONCAT = 9;
+	static final int STARTS_WITH = 10;
+	static final int CONTAINS = 11;
+	static final int SUBSTRING_BEFORE = 12;
+	static final int SUBSTRING_AFTER = 13;
+	static final int SUBSTRING = 14;
+	static final int STRING_LENGTH = 15;
+	static final int NORMALIZE_SPACE = 16;
+	static final int TRANSLATE = 17;
+	static final int BOOLEAN = 18;
+	static final int NOT = 19;
+	static final int TRUE = 20;
+	static final int FALSE = 21;
+	static final int LANG = 22;
+	static final int NUMBER = 23;
+	static final int SUM = 24;
+	static final int FLOOR = 25;
+	static final int CEILING = 26;
+	static final int ROUND = 27;
+
+	static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+	/** name -> { id, min args, max args } */
+	static final Map<String,int[]> FUNCTIONS = new HashMap<String,int[]>();
+
+	static {
+		define("last", LAST, 0, 0);
+		define("position", POSITION, 0, 0);
+		define("count", COUNT, 1, 1);
+		define("id", ID, 1, 1);
+		define("local-name", LOCAL_NAME, 0, 1);
+		define("namespace-uri", NAMESPACE_URI, 0, 1);
+		define("name", NAME, 0, 1);
+		define("string", STRING, 0, 1);
+		define("concat", CONCAT, 2, Integer.MAX_VALUE);
+		define("starts-with", STARTS_WITH, 2, 2);
+		define("contains", CONTAINS, 2, 2);
+		define("substring-before", SUBSTRING_BEFORE, 2, 2);
+		define("substring-after", SUBSTRING_AFTER, 2, 2);
+		define("substring", SUBSTRING, 2, 3);
+		define("string-length", STRING_LENGTH, 0, 1);
+		define("normalize-space", NORMALIZE_SPACE, 0, 1);
+		define("translate", TRANSLATE, 3, 3);
+		define("boolean", BOOLEAN, 1, 1);
+		define("not", NOT, 1, 1);
+		define("true", TRUE, 0, 0);
+		define("false", FALSE, 0, 0);
+		define("lang", LANG, 1, 1);
+		define("number", NUMBER, 0, 1);
+		define("sum", SUM, 1, 1);
+		define("floor", FLOOR, 1, 1);
+		define("ceiling", CEILING, 1, 1);
+		define("round", ROUND, 1, 1);
+	}
+
+	static void define ( String name, int id, int min, int max ) {
+		FUNCTIONS.put(name, new int[] { id, min, max });
+	}
+
+
+	/**
+	 * @param name the local name of the function
+	 * @return true if it is the name of a core function.
+	 */
+
+	static boolean isCoreFunction ( String name ) {
+		return FUNCTIONS.containsKey(name);
+	}
+
+
+	final int fFunction;
+	final Op[] fArgs;
+
+
+	CoreFunction ( Expr expr, String name, Op[] args ) {
+		super(expr);
+		int[] def = FUNCTIONS.get(name);
+		if (def == null) {
+			throw error("Unknown function: " + name);
+		}
+		if (args.length < def[1] || args.length > def[2]) {
+			throw error("Wrong number of arguments to function " + name + "(): " + args.length);
+		}
+		fFunction = def[0];
+		fArgs = args;
+	}
+
+
+	@Override
+	Object eval ( EvalContext ctx ) {
+
+		switch (fFunction) {
+
+		case LAST :
+			return Double.valueOf(ctx.fSize);
+
+		case POSITION :
+			return Double.valueOf(ctx.fPosition);
+
+		case COUNT :
+			return Double.valueOf( fArgs[0].evalNodes(ctx).size() );
+
+		case ID :
+			return id(ctx);
+
+		case LOCAL_NAME : {
+			Node n = nodeArg(ctx);
+			if (n == null) {
+				return "";
+			}
+			if (n.getNodeType() == Node.PROCESSING_INSTRUCTION_NODE) {
+				return n.getNodeName();
+			}
+			if (n.getNodeType() != Node.ELEMENT_NODE && n.getNodeType() != Node.ATTRIBUTE_NODE) {
+				return "";
+			}
+			return n.getLocalName() != null ? n.getLocalName() : n.getNodeName();
+		}
+
+		case NAMESPACE_URI : {
+			Node n = nodeArg(ctx);
+			String ns = n != null ? n.getNamespaceURI() : null;
+			return ns != null ? ns : "";
+		}
+
+		case NAME : {
+			Node n = nodeArg(ctx);
+			if (n == null) {
+				return "";
+			}
+			switch (n.getNodeType()) {
+			case Node.ELEMENT_NODE :
+			case Node.ATTRIBUTE_NODE :
+			case Node.PROCESSING_INSTRUCTION_NODE :
+				return n.getNodeName();
+			default :
+				return "";
+			}
+		}
+
+		case STRING :
+			return stringArg(ctx, 0);
+
+		case CONCAT : {
+			StringBuilder sb = new StringBuilder();
+			for(Op arg : fArgs) {
+				sb.append( Values.toString(arg.eval(ctx)) );
+			}
+			return sb.toString();
+		}
+
+		case STARTS_WITH :
+			return Boolean.valueOf( stringArg(ctx, 0).startsWith(stringArg(ctx, 1)) );
+
+		case CONTAINS :
+			return Boolean.valueOf( stringArg(ctx, 0).indexOf(stringArg(ctx, 1)) >= 0 );
+
+		case SUBSTRING_BEFORE : {
+			String s = stringArg(ctx, 0);
+			int idx = s.indexOf(stringArg(ctx, 1));
+			return idx < 0 ? "" : s.substring(0, idx);
+		}
+
+		case SUBSTRING_AFTER : {
+			String s = stringArg(ctx, 0);
+			String t = stringArg(ctx, 1);
+			int idx = s.indexOf(t);
+			return idx < 0 ? "" : s.substring(idx + t.length());
+		}
+
+		case SUBSTRING :
+			return substring(ctx);
+
+		case STRING_LENGTH : {
+			String s = stringArg(ctx, 0);
+			return Double.valueOf( s.codePointCount(0, s.length()) );
+		}
+
+		case NORMALIZE_SPACE :
+			return normalizeSpace( stringArg(ctx, 0) );
+
+		case TRANSLATE :
+			return translate(stringArg(ctx, 0), stringArg(ctx, 1), stringArg(ctx, 2));
+
+		case BOOLEAN :
+			return Boolean.valueOf( Values.toBoolean(fArgs[0].eval(ctx)) );
+
+		case NOT :
+			return Boolean.valueOf( !Values.toBoolean(fArgs[0].eval(ctx)) );
+
+		case TRUE :
+			return Boolean.TRUE;
+
+		case FALSE :
+			return Boolean.FALSE;
+
+		case LANG :
+			return Boolean.valueOf( lang(contextNode(ctx), stringArg(ctx, 0)) );
+
+		case NUMBER :
+			if (fArgs.length == 0) {
+				return Double.valueOf( Values.parseNumber(Values.stringValue(contextNode(ctx))) );
+			}
+			return Double.valueOf( Values.toNumber(fArgs[0].eval(ctx)) );
+
+		case SUM : {
+			double sum = 0;
+			for(Node n : fArgs[0].evalNodes(ctx)) {
+				sum += Values.parseNumber( Values.stringValue(n) );
+			}
+			return Double.valueOf(sum);
+		}
+
+		case FLOOR :
+			return Double.valueOf( Math.floor(Values.toNumber(fArgs[0].eval(ctx))) );
+
+		case CEILING :
+			return Double.valueOf( Math.ceil(Values.toNumber(fArgs[0].eval(ctx))) );
+
+		case ROUND :
+			return Double.valueOf( round(Values.toNumber(fArgs[0].eval(ctx))) );
+
+		default :
+			throw error("Unknown function: " + fExpr.getText());
+		}
+	}
+
+
+	/** The node argument of local-name(), name(), namespace-uri(): the first one, or the context node */
+
+	Node nodeArg ( EvalContext ctx ) {
+		if (fArgs.length == 0) {
+			return contextNode(ctx);
+		}
+		List<Node> nodes = fArgs[0].evalNodes(ctx);
+		return nodes.isEmpty() ? null : nodes.get(0);
+	}
+
+
+	/** A string argument; a missing one is the string-value of the context node */
+
+	String stringArg ( EvalContext ctx, int i ) {
+		if (i >= fArgs.length) {
+			return Values.stringValue(contextNode(ctx));
+		}
+		return Values.toString( fArgs[i].eval(ctx) );
+	}
+
+
+	Object id ( EvalContext ctx ) {
+		Object value = fArgs[0].eval(ctx);
+		List<String> ids = new ArrayList<String>();
+		if (Values.isNodeSet(value)) {
+			for(Node n : Values.nodes(value)) {
+				tokenize(Values.stringValue(n), ids);
+			}
+		} else {
+			tokenize(Values.toString(value), ids);
+		}
+
+		Node root = Step.root(contextNode(ctx));
+		List<Node> result = new ArrayList<Node>();
+		if (root instanceof Document) {
+			for(String id : ids) {
+				Element elm = ((Document) root).getElementById(id);
+				if (elm != null) {
+					result.add(elm);
+				}
+			}
+		}
+		return Values.inDocumentOrder(result);
+	}
+
+
+	static void tokenize ( String s, List<String> out ) {
+		StringTokenizer st = new StringTokenizer(s, " \t\r\n");
+		while (st.hasMoreTokens()) {
+			out.add(st.nextToken());
+		}
+	}
+
+
+	String substring ( EvalContext ctx ) {
+		String s = stringArg(ctx, 0);
+		double start = round( Values.toNumber(fArgs[1].eval(ctx)) );
+		double end = fArgs.length > 2 ? start + round( Values.toNumber(fArgs[2].eval(ctx)) ) : Double.POSITIVE_INFINITY;
+
+		StringBuilder sb = new StringBuilder();
+		int position = 1;
+		for(int i = 0; i < s.length(); position++) {
+			int cp = s.codePointAt(i);
+			if (position >= start && position < end) {
+				sb.appendCodePoint(cp);
+			}
+			i += Character.charCount(cp);
+		}
+		return sb.toString();
+	}
+
+
+	static String normalizeSpace ( String s ) {
+		StringBuilder sb = new StringBuilder(s.length());
+		boolean space = false;
+		for(int i = 0; i < s.length(); i++) {
+			char ch = s.charAt(i);
+			if (Values.isSpace(ch)) {
+				space = sb.length() > 0;
+				continue;
+			}
+			if (space) {
+				sb.append(' ');
+				space = false;
+			}
+			sb.append(ch);
+		}
+		return sb.toString();
+	}
+
+
+	static String translate ( String s, String from, String to ) {
+		StringBuilder sb = new StringBuilder(s.length());
+		for(int i = 0; i < s.length(); i++) {
+			char ch = s.charAt(i);
+			int idx = from.indexOf(ch);
+			if (idx < 0) {
+				sb.append(ch);
+			} else if (idx < to.length()) {
+				sb.append(to.charAt(idx));
+			}
+		}
+		return sb.toString();
+	}
+
+
+	static boolean lang ( Node node, String lang ) {
+		for(Node n = node; n != null; n = Step.parent(n)) {
+			if (n.getNodeType() != Node.ELEMENT_NODE) {
+				continue;
+			}
+			Attr attr = ((Element) n).getAttributeNodeNS(XML_NAMESPACE, "lang");
+			if (attr == null) {
+				continue;
+			}
+			String value = attr.getValue();
+			if (value.equalsIgnoreCase(lang)) {
+				return true;
+			}
+			return value.length() > lang.length() &&
+				value.charAt(lang.length()) == '-' &&
+				value.substring(0, lang.length()).equalsIgnoreCase(lang);
+		}
+		return false;
+	}
+
+
+	static double round ( double d ) {
+		if (Double.isNaN(d) || Double.isInfinite(d) || d == 0) {
+			return d;
+		}
+		if (d < 0 && d >= -0.5) {
+			return -0.0;
+		}
+		return Math.floor(d + 0.5);
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import org.w3c.dom.Node;
+
+/**
+ * The dynamic context of one evaluation. There is just one per evaluation;
+ * steps and predicates move it from node to node and put it back when
+ * they are done, rather than creating a context per node.
+ */
+
+final class EvalContext {
+
+	/** The context node */
+	Node fNode;
+
+	/** The context position, 1 based */
+	int fPosition;
+
+	/** The context size */
+	int fSize;
+
+	/** Supplies the variables */
+	final XPathResolver fResolver;
+
+
+	EvalContext ( Node node, XPathResolver resolver ) {
+		fNode = node;
+		fPosition = 1;
+		fSize = 1;
+		fResolver = resolver;
+	}
+
+}
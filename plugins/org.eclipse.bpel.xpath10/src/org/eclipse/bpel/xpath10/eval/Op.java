@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.bpel.xpath10.Expr;
+import org.eclipse.bpel.xpath10.parser.XPath10Exception;
+import org.w3c.dom.Node;
+
+/**
+ * One operation of a compiled XPath plan. The {@link XPathCompiler} turns
+ * each node of the expression tree into an operation; operations are
+ * immutable once compiled and may be evaluated from several threads.
+ */
+
+@SuppressWarnings("nls")
+
+abstract class Op {
+
+	static final int OR  = 1;
+	static final int AND = 2;
+	static final int EQ  = 3;
+	static final int NE  = 4;
+	static final int LT  = 5;
+	static final int LE  = 6;
+	static final int GT  = 7;
+	static final int GE  = 8;
+	static final int ADD = 9;
+	static final int SUB = 10;
+	static final int MUL = 11;
+	static final int DIV = 12;
+	static final int MOD = 13;
+
+	/** The expression this was compiled from, for error reporting */
+	final Expr fExpr;
+
+
+	Op ( Expr expr ) {
+		fExpr = expr;
+	}
+
+
+	/**
+	 * @param ctx the dynamic context
+	 * @return the value: a Boolean, Double, String or a List of Nodes.
+	 */
+	abstract Object eval ( EvalContext ctx );
+
+
+	List<Node> evalNodes ( EvalContext ctx ) {
+		Object value = eval(ctx);
+		if (Values.isNodeSet(value) == false) {
+			throw error("Expression does not evaluate to a node-set: " + fExpr.getText());
+		}
+		return Values.nodes(value);
+	}
+
+
+	Node contextNode ( EvalContext ctx ) {
+		if (ctx.fNode == null) {
+			throw error("There is no context node for: " + fExpr.getText());
+		}
+		return ctx.fNode;
+	}
+
+
+	XPath10Exception error ( String message ) {
+		return new XPath10Exception(message, null, fExpr != null ? fExpr.getPosition() : -1);
+	}
+
+
+	/**
+	 * A literal or a number.
+	 */
+
+	static class Constant extends Op {
+		final Object fValue;
+
+		Constant ( Expr expr, Object value ) {
+			super(expr);
+			fValue = value;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			return fValue;
+		}
+	}
+
+
+	/**
+	 * $name or, in BPEL, $name.part
+	 */
+
+	static class Variable extends Op {
+		final String fName;
+		final String fPart;
+
+		Variable ( Expr expr, String name, String part ) {
+			super(expr);
+			fName = name;
+			fPart = part;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			Object value = ctx.fResolver != null ? ctx.fResolver.getVariable(fName, fPart) : null;
+			if (value == null) {
+				throw error("Variable is not bound: " + fExpr.getText());
+			}
+			value = Values.normalize(value);
+			if (Values.isNodeSet(value)) {
+				// callers of the plan may change the list they get
+				value = new ArrayList<Node>( Values.nodes(value) );
+			}
+			return value;
+		}
+	}
+
+
+	/**
+	 * Unary minus.
+	 */
+
+	static class Negate extends Op {
+		final Op fOperand;
+
+		Negate ( Expr expr, Op operand ) {
+			super(expr);
+			fOperand = operand;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			return Double.valueOf( - Values.toNumber(fOperand.eval(ctx)) );
+		}
+	}
+
+
+	/**
+	 * and, or, comparisons and arithmetic.
+	 */
+
+	static class Binary extends Op {
+		final int fOp;
+		final Op fLHS;
+		final Op fRHS;
+
+		Binary ( Expr expr, int op, Op lhs, Op rhs ) {
+			super(expr);
+			fOp = op;
+			fLHS = lhs;
+			fRHS = rhs;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			switch (fOp) {
+			case OR :
+				return Boolean.valueOf( Values.toBoolean(fLHS.eval(ctx)) || Values.toBoolean(fRHS.eval(ctx)) );
+			case AND :
+				return Boolean.valueOf( Values.toBoolean(fLHS.eval(ctx)) && Values.toBoolean(fRHS.eval(ctx)) );
+			case EQ :
+			case NE :
+			case LT :
+			case LE :
+			case GT :
+			case GE :
+				return Boolean.valueOf( Values.compare(fOp, fLHS.eval(ctx), fRHS.eval(ctx)) );
+			default :
+			}
+
+			double l = Values.toNumber(fLHS.eval(ctx));
+			double r = Values.toNumber(fRHS.eval(ctx));
+			switch (fOp) {
+			case ADD : return Double.valueOf(l + r);
+			case SUB : return Double.valueOf(l - r);
+			case MUL : return Double.valueOf(l * r);
+			case DIV : return Double.valueOf(l / r);
+			case MOD : return Double.valueOf(l % r);
+			default :
+				throw error("Unknown operator: " + fExpr.getText());
+			}
+		}
+	}
+
+
+	/**
+	 * a | b
+	 */
+
+	static class Union extends Op {
+		final Op fLHS;
+		final Op fRHS;
+
+		Union ( Expr expr, Op lhs, Op rhs ) {
+			super(expr);
+			fLHS = lhs;
+			fRHS = rhs;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			List<Node> lhs = fLHS.evalNodes(ctx);
+			List<Node> rhs = fRHS.evalNodes(ctx);
+			List<Node> result = new ArrayList<Node>(lhs.size() + rhs.size());
+			result.addAll(lhs);
+			result.addAll(rhs);
+			return Values.inDocumentOrder(result);
+		}
+	}
+
+
+	/**
+	 * A primary expression followed by predicates, as in $var[1]
+	 */
+
+	static class Filter extends Op {
+		final Op fPrimary;
+		final Op[] fPredicates;
+
+		Filter ( Expr expr, Op primary, Op[] predicates ) {
+			super(expr);
+			fPrimary = primary;
+			fPredicates = predicates;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			List<Node> nodes = fPrimary.evalNodes(ctx);
+			applyPredicates(fPredicates, nodes, ctx);
+			return nodes;
+		}
+	}
+
+
+	/**
+	 * A filter expression followed by a relative location path, as in $var.part/ns:field
+	 */
+
+	static class Path extends Op {
+		final Op fFilter;
+		final Step[] fSteps;
+
+		Path ( Expr expr, Op filter, Step[] steps ) {
+			super(expr);
+			fFilter = filter;
+			fSteps = steps;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			return Step.apply(fSteps, fFilter.evalNodes(ctx), ctx);
+		}
+	}
+
+
+	/**
+	 * A location path, absolute or relative to the context node.
+	 */
+
+	static class LocationPath extends Op {
+		final boolean fAbsolute;
+		final Step[] fSteps;
+
+		LocationPath ( Expr expr, boolean absolute, Step[] steps ) {
+			super(expr);
+			fAbsolute = absolute;
+			fSteps = steps;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			List<Node> start = new ArrayList<Node>(1);
+			start.add( fAbsolute ? Step.root(contextNode(ctx)) : contextNode(ctx) );
+			return Step.apply(fSteps, start, ctx);
+		}
+	}
+
+
+	/**
+	 * A call to a function supplied by the resolver.
+	 */
+
+	static class Call extends Op {
+		final XPathFunction fFunction;
+		final Op[] fArgs;
+
+		Call ( Expr expr, XPathFunction function, Op[] args ) {
+			super(expr);
+			fFunction = function;
+			fArgs = args;
+		}
+
+		@Override
+		Object eval ( EvalContext ctx ) {
+			List<Object> args = new ArrayList<Object>(fArgs.length);
+			for(Op arg : fArgs) {
+				args.add(arg.eval(ctx));
+			}
+			Object value = Values.normalize( fFunction.call(ctx.fNode, args) );
+			if (value == null) {
+				throw error("Function returned no value: " + fExpr.getText());
+			}
+			return value;
+		}
+	}
+
+
+	/**
+	 * Keep the nodes which satisfy all the predicates. Each predicate is
+	 * evaluated with the positions given by the previous one.
+	 *
+	 * @param predicates the predicates
+	 * @param nodes the nodes, in the order of the axis; changed in place.
+	 * @param ctx the context, restored on return.
+	 */
+
+	static void applyPredicates ( Op[] predicates, List<Node> nodes, EvalContext ctx ) {
+
+		if (predicates.length == 0 || nodes.isEmpty()) {
+			return ;
+		}
+
+		Node node = ctx.fNode;
+		int position = ctx.fPosition;
+		int size = ctx.fSize;
+
+		try {
+			for(Op predicate : predicates) {
+				int count = nodes.size();
+				int w = 0;
+				for(int i = 0; i < count; i++) {
+					Node n = nodes.get(i);
+					ctx.fNode = n;
+					ctx.fPosition = i + 1;
+					ctx.fSize = count;
+					Object value = predicate.eval(ctx);
+					boolean keep = value instanceof Double ?
+							((Double) value).doubleValue() == i + 1 :
+							Values.toBoolean(value);
+					if (keep) {
+						nodes.set(w++, n);
+					}
+				}
+				if (w < count) {
+					nodes.subList(w, count).clear();
+				}
+				if (w == 0) {
+					break;
+				}
+			}
+		} finally {
+			ctx.fNode = node;
+			ctx.fPosition = position;
+			ctx.fSize = size;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * An {@link XPathResolver} backed by maps, for trying out expressions
+ * against sample data.
+ * <p>
+ * A message variable can be given part by part, or as one element whose
+ * child elements are the parts (the way most BPEL runtimes hold messages);
+ * in the latter case <code>$var.part</code> selects the child element
+ * named <code>part</code>.
+ */
+
+@SuppressWarnings("nls")
+
+public class SimpleResolver implements XPathResolver {
+
+	Map<String,String> fNamespaces = new HashMap<String,String>();
+
+	Map<String,XPathFunction> fFunctions = new HashMap<String,XPathFunction>();
+
+	Map<String,Object> fVariables = new HashMap<String,Object>();
+
+
+	/**
+	 * @param prefix the prefix
+	 * @param namespaceURI the namespace it is bound to
+	 */
+
+	public void declareNamespace ( String prefix, String namespaceURI ) {
+		fNamespaces.put(prefix, namespaceURI);
+	}
+
+	/**
+	 * @param namespaceURI the namespace of the function, "" for none.
+	 * @param localName the local name of the function
+	 * @param function the function
+	 */
+
+	public void defineFunction ( String namespaceURI, String localName, XPathFunction function ) {
+		fFunctions.put( key(namespaceURI, localName), function);
+	}
+
+	/**
+	 * @param name the variable
+	 * @param value its value (a DOM Node or NodeList, a String, a Number or a Boolean)
+	 */
+
+	public void setVariable ( String name, Object value ) {
+		fVariables.put(name, value);
+	}
+
+	/**
+	 * @param name the message variable
+	 * @param part the part
+	 * @param value the value of the part
+	 */
+
+	public void setVariable ( String name, String part, Object value ) {
+		fVariables.put(name + "." + part, value);
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.xpath10.eval.XPathResolver#getNamespaceURI(java.lang.String)
+	 */
+
+	public String getNamespaceURI ( String prefix ) {
+		return fNamespaces.get(prefix);
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.xpath10.eval.XPathResolver#getFunction(java.lang.String, java.lang.String, int)
+	 */
+
+	public XPathFunction getFunction ( String namespaceURI, String localName, int arity ) {
+		return fFunctions.get( key(namespaceURI, localName) );
+	}
+
+
+	/**
+	 * @see org.eclipse.bpel.xpath10.eval.XPathResolver#getVariable(java.lang.String, java.lang.String)
+	 */
+
+	public Object getVariable ( String name, String part ) {
+		if (part == null) {
+			return fVariables.get(name);
+		}
+		Object value = fVariables.get(name + "." + part);
+		if (value != null) {
+			return value;
+		}
+		value = fVariables.get(name);
+		if (value instanceof Element) {
+			for(Node n = ((Element) value).getFirstChild(); n != null; n = n.getNextSibling()) {
+				if (n.getNodeType() == Node.ELEMENT_NODE && part.equals(n.getLocalName() != null ? n.getLocalName() : n.getNodeName())) {
+					return n;
+				}
+			}
+		}
+		return null;
+	}
+
+
+	static String key ( String namespaceURI, String localName ) {
+		return "{" + (namespaceURI != null ? namespaceURI : "") + "}" + localName;
+	}
+}
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.bpel.xpath10.Axis;
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * A compiled location step: an axis, a node test and predicates.
+ * <p>
+ * Name tests are resolved when the step is compiled: the namespace and the
+ * local name are interned strings, and a node is tested by comparing its
+ * own namespace and local name against them, with nothing allocated per node.
+ */
+
+final class Step {
+
+	static final int TEST_NAME = 1;
+	static final int TEST_NODE = 2;
+	static final int TEST_TEXT = 3;
+	static final int TEST_COMMENT = 4;
+	static final int TEST_PI = 5;
+
+	final int fAxis;
+	final int fTest;
+
+	/** The namespace of a name test, null for no namespace */
+	final String fNamespace;
+
+	/** The local name of a name test (or the target of a PI test), null for any */
+	final String fLocalName;
+
+	/** A name test which matches any name in any namespace (*) */
+	final boolean fAnyName;
+
+	final Op[] fPredicates;
+
+
+	Step ( int axis, int test, String namespace, String localName, boolean anyName, Op[] predicates ) {
+		fAxis = axis;
+		fTest = test;
+		fNamespace = namespace != null ? namespace.intern() : null;
+		fLocalName = localName != null ? localName.intern() : null;
+		fAnyName = anyName;
+		fPredicates = predicates;
+	}
+
+
+	/**
+	 * Apply the steps, one after the other.
+	 *
+	 * @param steps the steps
+	 * @param input the starting nodes, in document order
+	 * @param ctx the context
+	 * @return the resulting nodes, in document order.
+	 */
+
+	static List<Node> apply ( Step[] steps, List<Node> input, EvalContext ctx ) {
+		List<Node> current = input;
+		List<Node> buffer = new ArrayList<Node>();
+		for(Step step : steps) {
+			List<Node> next = new ArrayList<Node>();
+			for(Node node : current) {
+				buffer.clear();
+				step.collect(node, buffer);
+				Op.applyPredicates(step.fPredicates, buffer, ctx);
+				if (step.isReverse() && buffer.size() > 1) {
+					Collections.reverse(buffer);
+				}
+				next.addAll(buffer);
+			}
+			if (current.size() > 1) {
+				Values.inDocumentOrder(next);
+			}
+			current = next;
+			if (current.isEmpty()) {
+				break;
+			}
+		}
+		return current;
+	}
+
+
+	/**
+	 * @param node any node
+	 * @return the root of the tree the node is in.
+	 */
+
+	static Node root ( Node node ) {
+		Node root = node;
+		for(Node p = parent(node); p != null; p = parent(p)) {
+			root = p;
+		}
+		return root;
+	}
+
+
+	static Node parent ( Node node ) {
+		if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+			return ((Attr) node).getOwnerElement();
+		}
+		return node.getParentNode();
+	}
+
+
+	boolean isReverse () {
+		switch (fAxis) {
+		case Axis.PARENT :
+		case Axis.ANCESTOR :
+		case Axis.ANCESTOR_OR_SELF :
+		case Axis.PRECEDING :
+		case Axis.PRECEDING_SIBLING :
+			return true;
+		default :
+			return false;
+		}
+	}
+
+
+	/**
+	 * Collect the nodes on the axis from the node passed which pass the
+	 * node test, in the order of the axis (reverse document order for the
+	 * reverse axes).
+	 */
+
+	void collect ( Node node, List<Node> out ) {
+
+		switch (fAxis) {
+
+		case Axis.SELF :
+			test(node, out);
+			break;
+
+		case Axis.CHILD :
+			for(Node c = node.getFirstChild(); c != null; c = c.getNextSibling()) {
+				test(c, out);
+			}
+			break;
+
+		case Axis.DESCENDANT_OR_SELF :
+			test(node, out);
+			descendants(node, out);
+			break;
+
+		case Axis.DESCENDANT :
+			descendants(node, out);
+			break;
+
+		case Axis.PARENT : {
+			Node p = parent(node);
+			if (p != null) {
+				test(p, out);
+			}
+			break;
+		}
+
+		case Axis.ANCESTOR_OR_SELF :
+			test(node, out);
+			// fall through
+		case Axis.ANCESTOR :
+			for(Node p = parent(node); p != null; p = parent(p)) {
+				test(p, out);
+			}
+			break;
+
+		case Axis.FOLLOWING_SIBLING :
+			if (node.getNodeType() != Node.ATTRIBUTE_NODE) {
+				for(Node s = node.getNextSibling(); s != null; s = s.getNextSibling()) {
+					test(s, out);
+				}
+			}
+			break;
+
+		case Axis.PRECEDING_SIBLING :
+			if (node.getNodeType() != Node.ATTRIBUTE_NODE) {
+				for(Node s = node.getPreviousSibling(); s != null; s = s.getPreviousSibling()) {
+					test(s, out);
+				}
+			}
+			break;
+
+		case Axis.FOLLOWING : {
+			Node start = node;
+			if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+				// the children of the owner element follow its attributes
+				start = parent(node);
+				if (start == null) {
+					break;
+				}
+				descendants(start, out);
+			}
+			for(Node a = start; a != null; a = a.getParentNode()) {
+				for(Node s = a.getNextSibling(); s != null; s = s.getNextSibling()) {
+					test(s, out);
+					descendants(s, out);
+				}
+			}
+			break;
+		}
+
+		case Axis.PRECEDING : {
+			Node start = node.getNodeType() == Node.ATTRIBUTE_NODE ? parent(node) : node;
+			for(Node a = start; a != null; a = a.getParentNode()) {
+				for(Node s = a.getPreviousSibling(); s != null; s = s.getPreviousSibling()) {
+					// the subtree of s, in reverse document order
+					int mark = out.size();
+					test(s, out);
+					descendants(s, out);
+					Collections.reverse( out.subList(mark, out.size()) );
+				}
+			}
+			break;
+		}
+
+		case Axis.ATTRIBUTE : {
+			NamedNodeMap attributes = node.getNodeType() == Node.ELEMENT_NODE ? node.getAttributes() : null;
+			if (attributes == null) {
+				break;
+			}
+			for(int i = 0, j = attributes.getLength(); i < j; i++) {
+				Node attr = attributes.item(i);
+				if (Values.XMLNS_NAMESPACE.equals(attr.getNamespaceURI())) {
+					continue;
+				}
+				test(attr, out);
+			}
+			break;
+		}
+
+		default :
+			// namespace axis: DOM has no namespace nodes
+			break;
+		}
+	}
+
+
+	/** The descendants of the node, in document order */
+
+	void descendants ( Node node, List<Node> out ) {
+		Node n = node.getFirstChild();
+		while (n != null) {
+			test(n, out);
+			Node next = n.getFirstChild();
+			if (next == null) {
+				while (n != node && n.getNextSibling() == null) {
+					n = n.getParentNode();
+				}
+				next = n != node ? n.getNextSibling() : null;
+			}
+			n = next;
+		}
+	}
+
+
+	void test ( Node node, List<Node> out ) {
+		if (matches(node)) {
+			out.add(node);
+		}
+	}
+
+
+	boolean matches ( Node node ) {
+
+		short type = node.getNodeType();
+
+		switch (fTest) {
+		case TEST_NODE :
+			return true;
+		case TEST_TEXT :
+			return type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE;
+		case TEST_COMMENT :
+			return type == Node.COMMENT_NODE;
+		case TEST_PI :
+			return type == Node.PROCESSING_INSTRUCTION_NODE &&
+				(fLocalName == null || fLocalName.equals(node.getNodeName()));
+		default :
+		}
+
+		// a name test: the principal node type of the axis
+		if (fAxis == Axis.ATTRIBUTE) {
+			if (type != Node.ATTRIBUTE_NODE) {
+				return false;
+			}
+		} else if (type != Node.ELEMENT_NODE) {
+			return false;
+		}
+
+		if (fAnyName) {
+			return true;
+		}
+
+		String namespace = node.getNamespaceURI();
+		if (fNamespace == null) {
+			if (namespace != null && namespace.length() > 0) {
+				return false;
+			}
+		} else if (fNamespace != namespace && fNamespace.equals(namespace) == false) {
+			return false;
+		}
+
+		if (fLocalName == null) {
+			// prefix:*
+			return true;
+		}
+
+		String localName = node.getLocalName();
+		if (localName == null) {
+			// DOM level 1 node
+			localName = node.getNodeName();
+		}
+		return fLocalName == localName || fLocalName.equals(localName);
+	}
+}
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * The XPath 1.0 data model on top of DOM: the four value types and the
+ * conversions and comparisons between them.
+ * <p>
+ * Values are represented by Boolean, Double, String and node sets by
+ * a List of Nodes, in document order and without duplicates.
+ */
+
+@SuppressWarnings("nls")
+
+final class Values {
+
+	static final String XMLNS_NAMESPACE = "http://www.w3.org/2000/xmlns/";
+
+	static final Comparator<Node> DOCUMENT_ORDER = new Comparator<Node>() {
+		public int compare (Node n1, Node n2) {
+			if (n1 == n2) {
+				return 0;
+			}
+			short position = n1.compareDocumentPosition(n2);
+			if ((position & Node.DOCUMENT_POSITION_CONTAINED_BY) != 0) {
+				return -1;
+			}
+			if ((position & Node.DOCUMENT_POSITION_CONTAINS) != 0) {
+				return 1;
+			}
+			return (position & Node.DOCUMENT_POSITION_FOLLOWING) != 0 ? -1 : 1;
+		}
+	};
+
+
+	private Values () {
+	}
+
+
+	/**
+	 * Turn whatever a resolver or a function answered into an XPath value.
+	 *
+	 * @param value the value
+	 * @return a Boolean, Double, String or List of Nodes; null if the value is null.
+	 */
+
+	static Object normalize ( Object value ) {
+		if (value == null || value instanceof Boolean || value instanceof Double || value instanceof String) {
+			return value;
+		}
+		if (value instanceof Number) {
+			return Double.valueOf( ((Number) value).doubleValue() );
+		}
+		if (value instanceof Node) {
+			List<Node> nodes = new ArrayList<Node>(1);
+			nodes.add((Node) value);
+			return nodes;
+		}
+		if (value instanceof NodeList) {
+			NodeList list = (NodeList) value;
+			List<Node> nodes = new ArrayList<Node>(list.getLength());
+			for(int i = 0; i < list.getLength(); i++) {
+				nodes.add(list.item(i));
+			}
+			return inDocumentOrder(nodes);
+		}
+		if (value instanceof List) {
+			List<Node> nodes = new ArrayList<Node>();
+			for(Object obj : (List<?>) value) {
+				if (obj instanceof Node == false) {
+					return value.toString();
+				}
+				nodes.add((Node) obj);
+			}
+			return inDocumentOrder(nodes);
+		}
+		return value.toString();
+	}
+
+
+	static boolean isNodeSet ( Object value ) {
+		return value instanceof List;
+	}
+
+	@SuppressWarnings("unchecked")
+	static List<Node> nodes ( Object value ) {
+		return (List<Node>) value;
+	}
+
+
+	/**
+	 * Put the nodes in document order and drop the duplicates.
+	 *
+	 * @param nodes the nodes, the list is changed in place.
+	 * @return the nodes passed.
+	 */
+
+	static List<Node> inDocumentOrder ( List<Node> nodes ) {
+		if (nodes.size() < 2) {
+			return nodes;
+		}
+		Map<Node,Node> seen = new IdentityHashMap<Node,Node>(nodes.size() * 2);
+		int w = 0;
+		for(int i = 0, j = nodes.size(); i < j; i++) {
+			Node n = nodes.get(i);
+			if (seen.put(n, n) == null) {
+				nodes.set(w++, n);
+			}
+		}
+		if (w < nodes.size()) {
+			nodes.subList(w, nodes.size()).clear();
+		}
+		Collections.sort(nodes, DOCUMENT_ORDER);
+		return nodes;
+	}
+
+
+	/**
+	 * @param node
+	 * @return the string-value of the node.
+	 */
+
+	static String stringValue ( Node node ) {
+		String value = null;
+		switch (node.getNodeType()) {
+		case Node.DOCUMENT_NODE :
+			Element root = ((Document) node).getDocumentElement();
+			value = root != null ? root.getTextContent() : null;
+			break;
+		case Node.ATTRIBUTE_NODE :
+			value = ((Attr) node).getValue();
+			break;
+		case Node.ELEMENT_NODE :
+		case Node.DOCUMENT_FRAGMENT_NODE :
+			value = node.getTextContent();
+			break;
+		default :
+			value = node.getNodeValue();
+		}
+		return value != null ? value : "";
+	}
+
+
+	static boolean toBoolean ( Object value ) {
+		if (value instanceof Boolean) {
+			return ((Boolean) value).booleanValue();
+		}
+		if (value instanceof Double) {
+			double d = ((Double) value).doubleValue();
+			return d != 0 && Double.isNaN(d) == false;
+		}
+		if (value instanceof String) {
+			return ((String) value).length() > 0;
+		}
+		return nodes(value).isEmpty() == false;
+	}
+
+
+	static double toNumber ( Object value ) {
+		if (value instanceof Double) {
+			return ((Double) value).doubleValue();
+		}
+		if (value instanceof Boolean) {
+			return ((Boolean) value).booleanValue() ? 1 : 0;
+		}
+		return parseNumber( toString(value) );
+	}
+
+
+	static String toString ( Object value ) {
+		if (value instanceof String) {
+			return (String) value;
+		}
+		if (value instanceof Boolean) {
+			return ((Boolean) value).booleanValue() ? "true" : "false";
+		}
+		if (value instanceof Double) {
+			return numberToString( ((Double) value).doubleValue() );
+		}
+		List<Node> nodes = nodes(value);
+		return nodes.isEmpty() ? "" : stringValue(nodes.get(0));
+	}
+
+
+	/**
+	 * Parse a number the way XPath does: optional whitespace, an optional
+	 * minus sign, digits with an optional decimal point, optional whitespace.
+	 * Anything else is NaN.
+	 *
+	 * @param s
+	 * @return the number
+	 */
+
+	static double parseNumber ( String s ) {
+		int start = 0;
+		int end = s.length();
+		while (start < end && isSpace(s.charAt(start))) {
+			start++;
+		}
+		while (end > start && isSpace(s.charAt(end - 1))) {
+			end--;
+		}
+		int i = start;
+		if (i < end && s.charAt(i) == '-') {
+			i++;
+		}
+		int digits = 0;
+		boolean dot = false;
+		for( ; i < end; i++) {
+			char ch = s.charAt(i);
+			if (ch >= '0' && ch <= '9') {
+				digits++;
+			} else if (ch == '.' && dot == false) {
+				dot = true;
+			} else {
+				return Double.NaN;
+			}
+		}
+		if (digits == 0) {
+			return Double.NaN;
+		}
+		return Double.parseDouble( s.substring(start, end) );
+	}
+
+
+	static String numberToString ( double d ) {
+		if (Double.isNaN(d)) {
+			return "NaN";
+		}
+		if (Double.isInfinite(d)) {
+			return d > 0 ? "Infinity" : "-Infinity";
+		}
+		if (d == 0) {
+			return "0";
+		}
+		if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+			return Long.toString((long) d);
+		}
+		return BigDecimal.valueOf(d).stripTrailingZeros().toPlainString();
+	}
+
+
+	static boolean isSpace ( char ch ) {
+		return ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n';
+	}
+
+
+	/**
+	 * Compare two values with one of =, !=, &lt;, &lt;=, &gt;, &gt;=,
+	 * following the rules of XPath 1.0, section 3.4.
+	 *
+	 * @param op the operator
+	 * @param lhs the value on the left
+	 * @param rhs the value on the right
+	 * @return the result of the comparison
+	 */
+
+	static boolean compare ( int op, Object lhs, Object rhs ) {
+
+		boolean lhsNodes = isNodeSet(lhs);
+		boolean rhsNodes = isNodeSet(rhs);
+
+		if (lhsNodes && rhsNodes) {
+			List<Node> right = nodes(rhs);
+			if (right.isEmpty()) {
+				return false;
+			}
+			// string values of the right hand side, computed once
+			String[] rightValues = new String[right.size()];
+			for(int i = 0; i < rightValues.length; i++) {
+				rightValues[i] = stringValue(right.get(i));
+			}
+			for(Node n : nodes(lhs)) {
+				String left = stringValue(n);
+				for(String r : rightValues) {
+					if (compareAtoms(op, left, r)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		if (lhsNodes || rhsNodes) {
+			List<Node> nodes = nodes(lhsNodes ? lhs : rhs);
+			Object other = lhsNodes ? rhs : lhs;
+			if (other instanceof Boolean) {
+				Boolean b = Boolean.valueOf(nodes.isEmpty() == false);
+				return lhsNodes ? compareAtoms(op, b, other) : compareAtoms(op, other, b);
+			}
+			for(Node n : nodes) {
+				Object value = stringValue(n);
+				if (other instanceof Double) {
+					value = Double.valueOf(parseNumber((String) value));
+				}
+				if (lhsNodes ? compareAtoms(op, value, other) : compareAtoms(op, other, value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		return compareAtoms(op, lhs, rhs);
+	}
+
+
+	static boolean compareAtoms ( int op, Object lhs, Object rhs ) {
+
+		if (op == Op.EQ || op == Op.NE) {
+			boolean equal;
+			if (lhs instanceof Boolean || rhs instanceof Boolean) {
+				equal = toBoolean(lhs) == toBoolean(rhs);
+			} else if (lhs instanceof Double || rhs instanceof Double) {
+				equal = toNumber(lhs) == toNumber(rhs);
+			} else {
+				equal = toString(lhs).equals(toString(rhs));
+			}
+			return op == Op.EQ ? equal : !equal;
+		}
+
+		double l = toNumber(lhs);
+		double r = toNumber(rhs);
+		switch (op) {
+		case Op.LT : return l < r;
+		case Op.LE : return l <= r;
+		case Op.GT : return l > r;
+		case Op.GE : return l >= r;
+		default : return false;
+		}
+	}
+}
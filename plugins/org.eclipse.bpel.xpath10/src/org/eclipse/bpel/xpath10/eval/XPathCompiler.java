@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.bpel.xpath10.AllNodeStep;
+import org.eclipse.bpel.xpath10.Axis;
+import org.eclipse.bpel.xpath10.BinaryExpr;
+import org.eclipse.bpel.xpath10.CommentNodeStep;
+import org.eclipse.bpel.xpath10.Expr;
+import org.eclipse.bpel.xpath10.FilterExpr;
+import org.eclipse.bpel.xpath10.FunctionCallExpr;
+import org.eclipse.bpel.xpath10.LiteralExpr;
+import org.eclipse.bpel.xpath10.LocationPath;
+import org.eclipse.bpel.xpath10.NameStep;
+import org.eclipse.bpel.xpath10.NumberExpr;
+import org.eclipse.bpel.xpath10.PathExpr;
+import org.eclipse.bpel.xpath10.Predicate;
+import org.eclipse.bpel.xpath10.ProcessingInstructionNodeStep;
+import org.eclipse.bpel.xpath10.TextNodeStep;
+import org.eclipse.bpel.xpath10.UnaryExpr;
+import org.eclipse.bpel.xpath10.UnionExpr;
+import org.eclipse.bpel.xpath10.VariableReferenceExpr;
+import org.eclipse.bpel.xpath10.parser.XPath10Exception;
+
+/**
+ * Compiles an XPath expression tree into a tree of {@link Op}s.
+ * <p>
+ * Everything that does not depend on the context node or the variables is
+ * done here, once: prefixes are resolved to namespaces, name tests are
+ * interned, functions are looked up and their arguments counted, and
+ * literals and numbers are converted to their values.
+ */
+
+@SuppressWarnings("nls")
+
+final class XPathCompiler {
+
+	static final Map<String,Integer> OPERATORS = new HashMap<String,Integer>();
+
+	static {
+		OPERATORS.put("or", Integer.valueOf(Op.OR));
+		OPERATORS.put("and", Integer.valueOf(Op.AND));
+		OPERATORS.put("=", Integer.valueOf(Op.EQ));
+		OPERATORS.put("!=", Integer.valueOf(Op.NE));
+		OPERATORS.put("<", Integer.valueOf(Op.LT));
+		OPERATORS.put("<=", Integer.valueOf(Op.LE));
+		OPERATORS.put(">", Integer.valueOf(Op.GT));
+		OPERATORS.put(">=", Integer.valueOf(Op.GE));
+		OPERATORS.put("+", Integer.valueOf(Op.ADD));
+		OPERATORS.put("-", Integer.valueOf(Op.SUB));
+		OPERATORS.put("*", Integer.valueOf(Op.MUL));
+		OPERATORS.put("div", Integer.valueOf(Op.DIV));
+		OPERATORS.put("mod", Integer.valueOf(Op.MOD));
+	}
+
+	/** Namespaces and functions, may be null */
+	final XPathResolver fResolver;
+
+
+	XPathCompiler ( XPathResolver resolver ) {
+		fResolver = resolver;
+	}
+
+
+	Op compile ( Expr expr ) {
+
+		if (expr instanceof UnaryExpr) {
+			UnaryExpr unary = (UnaryExpr) expr;
+			Op operand = compile(unary.getExpr());
+			return "-".equals(unary.getOperand()) ? new Op.Negate(expr, operand) : operand;
+		}
+
+		if (expr instanceof NumberExpr) {
+			return new Op.Constant(expr, Double.valueOf( ((NumberExpr) expr).getNumber().doubleValue() ));
+		}
+
+		if (expr instanceof LiteralExpr) {
+			return new Op.Constant(expr, ((LiteralExpr) expr).getLiteral());
+		}
+
+		if (expr instanceof VariableReferenceExpr) {
+			return compile( (VariableReferenceExpr) expr );
+		}
+
+		if (expr instanceof FunctionCallExpr) {
+			return compile( (FunctionCallExpr) expr );
+		}
+
+		if (expr instanceof FilterExpr) {
+			FilterExpr filter = (FilterExpr) expr;
+			return new Op.Filter(expr, compile(filter.getExpr()), compile(filter.getPredicates()));
+		}
+
+		if (expr instanceof PathExpr) {
+			PathExpr path = (PathExpr) expr;
+			return new Op.Path(expr, compile(path.getFilterExpr()), compileSteps(path.getLocationPath()));
+		}
+
+		if (expr instanceof LocationPath) {
+			LocationPath path = (LocationPath) expr;
+			return new Op.LocationPath(expr, path.isAbsolute(), compileSteps(path));
+		}
+
+		if (expr instanceof UnionExpr) {
+			UnionExpr union = (UnionExpr) expr;
+			return new Op.Union(expr, compile(union.getLHS()), compile(union.getRHS()));
+		}
+
+		if (expr instanceof BinaryExpr) {
+			BinaryExpr binary = (BinaryExpr) expr;
+			Integer op = OPERATORS.get(binary.getOperator());
+			if (op == null) {
+				throw error("Unknown operator: " + binary.getOperator(), expr.getPosition());
+			}
+			return new Op.Binary(expr, op.intValue(), compile(binary.getLHS()), compile(binary.getRHS()));
+		}
+
+		throw error("Cannot evaluate expression: " + (expr != null ? expr.getText() : null),
+				expr != null ? expr.getPosition() : -1);
+	}
+
+
+	Op compile ( VariableReferenceExpr expr ) {
+		String name = expr.getQName();
+		String part = null;
+		// BPEL: $variable.part
+		int dot = name.indexOf('.');
+		if (dot > 0) {
+			part = name.substring(dot + 1);
+			name = name.substring(0, dot);
+		}
+		return new Op.Variable(expr, name, part);
+	}
+
+
+	Op compile ( FunctionCallExpr expr ) {
+
+		String prefix = expr.getPrefix();
+		String name = expr.getFunctionName();
+		Op[] args = new Op[ expr.getParameters().size() ];
+		for(int i = 0; i < args.length; i++) {
+			args[i] = compile( expr.getParameters().get(i) );
+		}
+
+		boolean noPrefix = prefix == null || prefix.length() == 0;
+		if (noPrefix && CoreFunction.isCoreFunction(name)) {
+			return new CoreFunction(expr, name, args);
+		}
+
+		String namespace = noPrefix ? "" : namespaceOf(prefix, expr.getPosition());
+		XPathFunction function = fResolver != null ? fResolver.getFunction(namespace, name, args.length) : null;
+		if (function == null) {
+			throw error("Unknown function: " + (noPrefix ? name : prefix + ":" + name) + "()", expr.getPosition());
+		}
+		return new Op.Call(expr, function, args);
+	}
+
+
+	Op[] compile ( List<Predicate> predicates ) {
+		Op[] ops = new Op[predicates.size()];
+		for(int i = 0; i < ops.length; i++) {
+			ops[i] = compile( predicates.get(i).getExpr() );
+		}
+		return ops;
+	}
+
+
+	Step[] compileSteps ( LocationPath path ) {
+		if (path == null) {
+			return new Step[0];
+		}
+		List<org.eclipse.bpel.xpath10.Step> steps = path.getSteps();
+		Step[] result = new Step[steps.size()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = compile( steps.get(i) );
+		}
+		return result;
+	}
+
+
+	Step compile ( org.eclipse.bpel.xpath10.Step step ) {
+
+		int axis = step.getAxis();
+		if (axis < Axis.CHILD || axis > Axis.ANCESTOR_OR_SELF) {
+			throw error("Unknown axis in step: " + step.getText(), step.getPosition());
+		}
+		Op[] predicates = compile(step.getPredicates());
+
+		if (step instanceof NameStep) {
+			NameStep nameStep = (NameStep) step;
+			String prefix = nameStep.getPrefix();
+			boolean noPrefix = prefix == null || prefix.length() == 0;
+			String namespace = noPrefix ? null : namespaceOf(prefix, step.getPosition());
+			if (nameStep.isMatchesAnyName()) {
+				return new Step(axis, Step.TEST_NAME, namespace, null, noPrefix, predicates);
+			}
+			return new Step(axis, Step.TEST_NAME, namespace, nameStep.getLocalName(), false, predicates);
+		}
+		if (step instanceof TextNodeStep) {
+			return new Step(axis, Step.TEST_TEXT, null, null, false, predicates);
+		}
+		if (step instanceof CommentNodeStep) {
+			return new Step(axis, Step.TEST_COMMENT, null, null, false, predicates);
+		}
+		if (step instanceof ProcessingInstructionNodeStep) {
+			return new Step(axis, Step.TEST_PI, null, ((ProcessingInstructionNodeStep) step).getName(), false, predicates);
+		}
+		if (step instanceof AllNodeStep) {
+			return new Step(axis, Step.TEST_NODE, null, null, false, predicates);
+		}
+		throw error("Cannot evaluate step: " + step.getText(), step.getPosition());
+	}
+
+
+	String namespaceOf ( String prefix, int position ) {
+		String namespace = fResolver != null ? fResolver.getNamespaceURI(prefix) : null;
+		if (namespace == null) {
+			throw error("Prefix is not bound to a namespace: " + prefix, position);
+		}
+		return namespace;
+	}
+
+
+	static XPath10Exception error ( String message, int position ) {
+		return new XPath10Exception(message, null, position);
+	}
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.List;
+
+import org.w3c.dom.Node;
+
+/**
+ * A function which can be called from an XPath expression, supplied by
+ * an {@link XPathResolver}.
+ * <p>
+ * The arguments are evaluated before the call; each one is a Boolean,
+ * a Double, a String, or a node set (a List of DOM Nodes in document order).
+ */
+
+public interface XPathFunction {
+
+	/**
+	 * @param contextNode the context node of the call
+	 * @param args the evaluated arguments
+	 * @return the result: a Boolean, a Number, a String, a DOM Node,
+	 *  a NodeList or a List of Nodes.
+	 */
+	Object call ( Node contextNode, List<Object> args );
+
+}
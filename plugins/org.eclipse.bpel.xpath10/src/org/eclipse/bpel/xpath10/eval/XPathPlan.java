@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+import java.util.List;
+
+import org.eclipse.bpel.xpath10.Expr;
+import org.eclipse.bpel.xpath10.parser.XPath10Cache;
+import org.eclipse.bpel.xpath10.parser.XPath10Exception;
+import org.w3c.dom.Node;
+
+/**
+ * An XPath 1.0 expression compiled for evaluation against DOM nodes.
+ * <p>
+ * This makes it possible to try out the expressions of a process (the
+ * conditions, the from and to of a copy) against sample messages, without
+ * deploying the process to a runtime.
+ * <p>
+ * <pre>
+ *   SimpleResolver resolver = new SimpleResolver();
+ *   resolver.declareNamespace("ns", "urn:orders");
+ *   XPathPlan plan = XPathPlan.compile("$order.payload/ns:total &gt; 100", resolver);
+ *
+ *   resolver.setVariable("order", "payload", sampleElement);
+ *   boolean big = plan.evaluateBoolean(null, resolver);
+ * </pre>
+ * <p>
+ * The result of an evaluation is a Boolean, a Double, a String or a node set,
+ * which is a List of DOM Nodes in document order. The namespace axis is not
+ * supported, DOM has no namespace nodes; it is always empty. Adjacent text
+ * nodes are not merged, the DOM is expected to be normalized.
+ * <p>
+ * A plan is immutable and may be evaluated on several threads at once.
+ * Errors, at compile time and at evaluation time, are reported as
+ * {@link XPath10Exception}s.
+ */
+
+@SuppressWarnings("nls")
+
+public class XPathPlan {
+
+	final Expr fExpr;
+	final Op fRoot;
+
+
+	XPathPlan ( Expr expr, Op root ) {
+		fExpr = expr;
+		fRoot = root;
+	}
+
+
+	/**
+	 * Compile a parsed expression.
+	 *
+	 * @param expr the expression
+	 * @param resolver resolves the prefixes and the non core functions of the expression, may be null.
+	 * @return the compiled plan
+	 * @throws XPath10Exception if the expression cannot be compiled.
+	 */
+
+	public static XPathPlan compile ( Expr expr, XPathResolver resolver ) throws XPath10Exception {
+		return new XPathPlan(expr, new XPathCompiler(resolver).compile(expr));
+	}
+
+
+	/**
+	 * Parse and compile an expression. The expression is parsed through
+	 * the shared {@link XPath10Cache}.
+	 *
+	 * @param source the expression
+	 * @param resolver resolves the prefixes and the non core functions of the expression, may be null.
+	 * @return the compiled plan
+	 * @throws XPath10Exception if the expression cannot be parsed or compiled.
+	 */
+
+	public static XPathPlan compile ( String source, XPathResolver resolver ) throws XPath10Exception {
+		return compile( XPath10Cache.getDefault().get(source), resolver);
+	}
+
+
+	/**
+	 * @return the expression this plan was compiled from.
+	 */
+
+	public Expr getExpr () {
+		return fExpr;
+	}
+
+
+	/**
+	 * Evaluate the expression.
+	 *
+	 * @param contextNode the context node, may be null if the expression does not use it.
+	 * @param resolver supplies the values of the variables, may be null if there are none.
+	 * @return the value, a Boolean, a Double, a String or a List of Nodes.
+	 * @throws XPath10Exception if the expression cannot be evaluated.
+	 */
+
+	public Object evaluate ( Node contextNode, XPathResolver resolver ) throws XPath10Exception {
+		return fRoot.eval( new EvalContext(contextNode, resolver) );
+	}
+
+
+	/**
+	 * Evaluate the expression and convert the result as the boolean() function does.
+	 *
+	 * @param contextNode the context node
+	 * @param resolver supplies the values of the variables
+	 * @return the value as a boolean
+	 */
+
+	public boolean evaluateBoolean ( Node contextNode, XPathResolver resolver ) throws XPath10Exception {
+		return Values.toBoolean( evaluate(contextNode, resolver) );
+	}
+
+
+	/**
+	 * Evaluate the expression and convert the result as the number() function does.
+	 *
+	 * @param contextNode the context node
+	 * @param resolver supplies the values of the variables
+	 * @return the value as a number
+	 */
+
+	public double evaluateNumber ( Node contextNode, XPathResolver resolver ) throws XPath10Exception {
+		return Values.toNumber( evaluate(contextNode, resolver) );
+	}
+
+
+	/**
+	 * Evaluate the expression and convert the result as the string() function does.
+	 *
+	 * @param contextNode the context node
+	 * @param resolver supplies the values of the variables
+	 * @return the value as a string
+	 */
+
+	public String evaluateString ( Node contextNode, XPathResolver resolver ) throws XPath10Exception {
+		return Values.toString( evaluate(contextNode, resolver) );
+	}
+
+
+	/**
+	 * Evaluate an expression which selects nodes, such as the from or to of a copy.
+	 *
+	 * @param contextNode the context node
+	 * @param resolver supplies the values of the variables
+	 * @return the selected nodes, in document order.
+	 * @throws XPath10Exception if the expression does not evaluate to a node set.
+	 */
+
+	public List<Node> evaluateNodes ( Node contextNode, XPathResolver resolver ) throws XPath10Exception {
+		return fRoot.evalNodes( new EvalContext(contextNode, resolver) );
+	}
+
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString () {
+		return "XPathPlan{" + fExpr.getText() + "}";
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.eval;
+
+/**
+ * Supplies what an XPath expression refers to but does not define: the
+ * namespaces of its prefixes, the functions beyond the XPath 1.0 core library,
+ * and the values of its variables.
+ * <p>
+ * Prefixes and functions are resolved once, when the expression is compiled
+ * ({@link XPathPlan#compile(org.eclipse.bpel.xpath10.Expr, XPathResolver)}).
+ * Variables are resolved each time the plan is evaluated, so the same plan can
+ * be run against different sample messages.
+ * <p>
+ * The BPEL functions (<code>bpel:getVariableProperty</code>,
+ * <code>bpel:doXslTransform</code>) are not built in; they are plugged in
+ * through {@link #getFunction(String, String, int)}.
+ *
+ * @see SimpleResolver
+ */
+
+public interface XPathResolver {
+
+	/**
+	 * @param prefix the prefix used in the expression
+	 * @return the namespace bound to the prefix, or null if it is not bound.
+	 */
+	String getNamespaceURI ( String prefix );
+
+	/**
+	 * Return a function which is not in the XPath core function library.
+	 *
+	 * @param namespaceURI the namespace of the function, "" if the name has no prefix.
+	 * @param localName the local name of the function
+	 * @param arity the number of arguments it is called with
+	 * @return the function, or null if there is no such function.
+	 */
+	XPathFunction getFunction ( String namespaceURI, String localName, int arity );
+
+	/**
+	 * Return the value of a variable. In BPEL, <code>$var.part</code> refers
+	 * to a part of a message variable; the name and the part are passed separately.
+	 *
+	 * @param name the name of the variable
+	 * @param part the name of the part, or null.
+	 * @return the value (a DOM Node or NodeList, a String, a Number or a Boolean),
+	 *  or null if the variable is not known.
+	 */
+	Object getVariable ( String name, String part );
+
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+package org.eclipse.bpel.xpath10.parser;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.bpel.xpath10.Expr;
+
+/**
+ * A bounded cache of parsed XPath expressions, keyed by their source.
+ * <p>
+ * The same expressions come up over and over in BPEL processes, and they
+ * are parsed again each time a process is validated. The cache keeps the
+ * most recently used trees (and the syntax errors, so that bad expressions
+ * are not parsed over and over either) and evicts the least recently used
+ * ones once it is full.
+ * <p>
+ * The trees returned are shared by all the callers, on all threads;
+ * they must be treated as read only.
+ * <p>
+ * The cache is safe to use from several threads. Parsing happens outside
+ * of the lock, so two threads may parse the same expression at the same
+ * time; the first one to finish wins.
+ *
+ * @see XPath10Factory#create(String)
+ */
+
+@SuppressWarnings("nls")
+
+public class XPath10Cache {
+
+	/** The system property which sets the size of the default cache */
+	public static final String SIZE_PROPERTY = "org.eclipse.bpel.xpath10.cacheSize";
+
+	static final int DEFAULT_SIZE = 2048;
+
+	static final XPath10Cache DEFAULT = new XPath10Cache( Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE) );
+
+	/** source -> Expr, or the XPath10Exception raised parsing it */
+	final Map<String,Object> fEntries;
+
+	int fMaxSize;
+
+	long fHits;
+	long fMisses;
+
+
+	/**
+	 * Brand new shiny cache.
+	 *
+	 * @param maxSize the maximum number of expressions kept, 0 or less disables the cache.
+	 */
+
+	public XPath10Cache ( int maxSize ) {
+		fMaxSize = maxSize;
+		fEntries = new LinkedHashMap<String,Object>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<String,Object> eldest) {
+				return size() > fMaxSize;
+			}
+		};
+	}
+
+
+	/**
+	 * @return the cache shared by the validator and everybody else.
+	 */
+
+	public static XPath10Cache getDefault () {
+		return DEFAULT;
+	}
+
+
+	/**
+	 * Return the parsed expression for the source passed, parsing it if it
+	 * is not in the cache.
+	 *
+	 * @param source the XPath expression
+	 * @return the parsed expression, shared, not to be modified.
+	 * @throws XPath10Exception if the expression cannot be parsed
+	 */
+
+	public Expr get ( String source ) throws XPath10Exception {
+
+		Object entry;
+		synchronized (this) {
+			entry = fEntries.get(source);
+			if (entry != null) {
+				fHits += 1;
+			} else {
+				fMisses += 1;
+			}
+		}
+
+		if (entry == null) {
+			try {
+				entry = XPath10Factory.create(source);
+			} catch (XPath10Exception ex) {
+				entry = ex;
+			}
+			synchronized (this) {
+				Object other = fEntries.get(source);
+				if (other != null) {
+					entry = other;
+				} else if (fMaxSize > 0) {
+					fEntries.put(source, entry);
+				}
+			}
+		}
+
+		if (entry instanceof XPath10Exception) {
+			XPath10Exception ex = (XPath10Exception) entry;
+			throw new XPath10Exception(ex.getMessage(), ex.getCause(), ex.getPosition());
+		}
+		return (Expr) entry;
+	}
+
+
+	/**
+	 * @return the number of times an expression was found in the cache.
+	 */
+
+	public synchronized long getHits () {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of times an expression had to be parsed.
+	 */
+
+	public synchronized long getMisses () {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of expressions in the cache.
+	 */
+
+	public synchronized int size () {
+		return fEntries.size();
+	}
+
+	/**
+	 * @return the maximum number of expressions kept.
+	 */
+
+	public synchronized int getMaxSize () {
+		return fMaxSize;
+	}
+
+	/**
+	 * Change the maximum number of expressions kept; the least recently
+	 * used ones are dropped if there are too many.
+	 *
+	 * @param maxSize the new maximum, 0 or less disables the cache.
+	 */
+
+	public synchronized void setMaxSize ( int maxSize ) {
+		fMaxSize = maxSize;
+		if (fMaxSize <= 0) {
+			fEntries.clear();
+			return ;
+		}
+		Iterator<String> i = fEntries.keySet().iterator();
+		while (fEntries.size() > fMaxSize && i.hasNext()) {
+			i.next();
+			i.remove();
+		}
+	}
+
+	/**
+	 * Empty the cache and reset the counters.
+	 */
+
+	public synchronized void clear () {
+		fEntries.clear();
+		fHits = 0;
+		fMisses = 0;
+	}
+
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString () {
+		return "XPath10Cache{size=" + fEntries.size() + ",max=" + fMaxSize + ",hits=" + fHits + ",misses=" + fMisses + "}";
+	}
+}
@@ -28,6 +28,7 @@ public class XPath10Factory {
 	 * @param source
 	 * @return a brand new shiny xpath expr [ whatever it may be ]
 	 * @throws XPath10Exception
+	 * @see XPath10Cache for expressions which are parsed over and over
 	 */
 	static public Expr create (String source) throws XPath10Exception
 	{
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.common.extension.model;
+
+import junit.framework.Assert;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the extension map finds the extensions of extended objects
+ * however the extensions are added, changed and removed.
+ */
+
+@SuppressWarnings("nls")
+public class ExtensionMapTest {
+
+	static final int OBJECTS = 100;
+
+	ExtensionMap fMap;
+
+	EObject[] fExtended;
+
+	EObject[] fExtensions;
+
+
+	/** */
+	@Before
+	public void setUp () {
+		fMap = ExtensionmodelFactory.eINSTANCE.createExtensionMap("http://www.example.org/extensions");
+		fExtended = new EObject[OBJECTS];
+		fExtensions = new EObject[OBJECTS];
+		for(int i = 0; i < OBJECTS; i++) {
+			fExtended[i] = EcoreFactory.eINSTANCE.createEObject();
+			fExtensions[i] = EcoreFactory.eINSTANCE.createEObject();
+			fMap.put(fExtended[i], fExtensions[i]);
+		}
+	}
+
+
+	Extension extension ( int i ) {
+		return (Extension) fMap.getExtensions().get(i);
+	}
+
+
+	/** */
+	@Test
+	public void testLookup () {
+		for(int i = 0; i < OBJECTS; i++) {
+			Assert.assertTrue( fMap.containsKey(fExtended[i]) );
+			Assert.assertTrue( fMap.containsValue(fExtensions[i]) );
+			Assert.assertSame( fExtensions[i], fMap.get(fExtended[i]) );
+		}
+
+		EObject other = EcoreFactory.eINSTANCE.createEObject();
+		Assert.assertFalse( fMap.containsKey(other) );
+		Assert.assertFalse( fMap.containsValue(other) );
+		Assert.assertNull( fMap.get(other) );
+		Assert.assertFalse( fMap.containsKey("not an EObject") );
+
+		Assert.assertEquals( OBJECTS, fMap.size() );
+		Assert.assertEquals( OBJECTS, fMap.keySet().size() );
+		Assert.assertEquals( OBJECTS, fMap.values().size() );
+		Assert.assertEquals( OBJECTS, fMap.entrySet().size() );
+	}
+
+
+	/** */
+	@Test
+	public void testPutReplaces () {
+		EObject replacement = EcoreFactory.eINSTANCE.createEObject();
+		fMap.put(fExtended[5], replacement);
+
+		Assert.assertSame( replacement, fMap.get(fExtended[5]) );
+		Assert.assertTrue( fMap.containsValue(replacement) );
+		Assert.assertFalse( fMap.containsValue(fExtensions[5]) );
+		Assert.assertEquals( OBJECTS, fMap.size() );
+	}
+
+
+	/** */
+	@Test
+	public void testExtensionChanged () {
+		EObject extended = EcoreFactory.eINSTANCE.createEObject();
+		EObject extensionObject = EcoreFactory.eINSTANCE.createEObject();
+
+		// changed on the extension, not through the map
+		extension(3).setExtendedObject(extended);
+		Assert.assertFalse( fMap.containsKey(fExtended[3]) );
+		Assert.assertSame( fExtensions[3], fMap.get(extended) );
+
+		extension(3).setExtensionObject(extensionObject);
+		Assert.assertFalse( fMap.containsValue(fExtensions[3]) );
+		Assert.assertTrue( fMap.containsValue(extensionObject) );
+		Assert.assertSame( extensionObject, fMap.get(extended) );
+	}
+
+
+	/** */
+	@Test
+	public void testRemoveAndClear () {
+		Assert.assertSame( fExtensions[10], fMap.remove(fExtended[10]) );
+		Assert.assertFalse( fMap.containsKey(fExtended[10]) );
+		Assert.assertFalse( fMap.containsValue(fExtensions[10]) );
+		Assert.assertEquals( OBJECTS - 1, fMap.size() );
+
+		// removed through the list, not the map
+		fMap.getExtensions().remove(0);
+		Assert.assertFalse( fMap.containsKey(fExtended[0]) );
+		Assert.assertFalse( fMap.containsValue(fExtensions[0]) );
+		Assert.assertTrue( fMap.containsKey(fExtended[1]) );
+
+		// and replaced through the list
+		Extension extension = ExtensionmodelFactory.eINSTANCE.createExtension();
+		EObject extended = EcoreFactory.eINSTANCE.createEObject();
+		extension.setExtendedObject(extended);
+		extension.setExtensionObject(fExtensions[1]);
+		fMap.getExtensions().set(0, extension);
+		Assert.assertFalse( fMap.containsKey(fExtended[1]) );
+		Assert.assertSame( fExtensions[1], fMap.get(extended) );
+		Assert.assertTrue( fMap.containsValue(fExtensions[1]) );
+
+		fMap.clear();
+		Assert.assertFalse( fMap.containsKey(fExtended[11]) );
+		Assert.assertFalse( fMap.containsValue(fExtensions[11]) );
+		Assert.assertFalse( fMap.containsKey(extended) );
+		Assert.assertTrue( fMap.isEmpty() );
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.adapters;
+
+import junit.framework.Assert;
+
+import org.eclipse.bpel.model.Activity;
+import org.eclipse.bpel.model.BPELFactory;
+import org.eclipse.bpel.model.BPELPackage;
+import org.eclipse.emf.common.notify.impl.AdapterFactoryImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that factories which adapt only some objects of an EClass are asked
+ * for every object, whatever the objects adapted before.
+ */
+
+@SuppressWarnings("nls")
+public class AdapterRegistryTest {
+
+	/** The adapter interface */
+	interface Named {
+		String getName ();
+	}
+
+	static class NamedFactory extends AdapterFactoryImpl {
+
+		final String fName;
+
+		NamedFactory ( String name ) {
+			fName = name;
+		}
+
+		@Override
+		public Object adapt (Object target, Object type) {
+			if (type != Named.class) {
+				return null;
+			}
+			// adapts the activities of its name only, or all of them
+			if (fName != null && fName.equals(((Activity) target).getName()) == false) {
+				return null;
+			}
+			return new Named() {
+				public String getName () {
+					return fName;
+				}
+			};
+		}
+	}
+
+	AdapterRegistry fRegistry;
+
+
+	/** */
+	@Before
+	public void setUp () {
+		fRegistry = new AdapterRegistry();
+	}
+
+
+	static EObject empty ( String name ) {
+		Activity activity = BPELFactory.eINSTANCE.createEmpty();
+		activity.setName(name);
+		return activity;
+	}
+
+
+	/** */
+	@Test
+	public void testFactoriesAskedForEveryObject () {
+		fRegistry.registerAdapterFactory( BPELPackage.eINSTANCE.getEmpty(), new NamedFactory("a") );
+		fRegistry.registerAdapterFactory( BPELPackage.eINSTANCE, new NamedFactory(null) );
+
+		// the factory of the EClass does not adapt the first object, but does the second
+		Assert.assertNull( fRegistry.adapt(empty("b"), Named.class, false).getName() );
+		Assert.assertEquals( "a", fRegistry.adapt(empty("a"), Named.class, false).getName() );
+		Assert.assertNull( fRegistry.adapt(empty("b"), Named.class, false).getName() );
+	}
+
+
+	/** */
+	@Test
+	public void testMissNotRemembered () {
+		fRegistry.registerAdapterFactory( BPELPackage.eINSTANCE.getEmpty(), new NamedFactory("c") );
+
+		Assert.assertNull( fRegistry.adapt(empty("x"), Named.class, false) );
+		Assert.assertEquals( "c", fRegistry.adapt(empty("c"), Named.class, false).getName() );
+		Assert.assertNull( fRegistry.adapt(BPELFactory.eINSTANCE.createSequence(), Named.class, false) );
+	}
+
+
+	/** */
+	@Test
+	public void testRegisteringDropsTheCache () {
+		Assert.assertNull( fRegistry.adapt(empty("d"), Named.class, false) );
+
+		NamedFactory factory = new NamedFactory("d");
+		fRegistry.registerAdapterFactory( BPELPackage.eINSTANCE, factory );
+		Assert.assertEquals( "d", fRegistry.adapt(empty("d"), Named.class, false).getName() );
+
+		fRegistry.unregisterAdapterFactory( BPELPackage.eINSTANCE, factory );
+		Assert.assertNull( fRegistry.adapt(empty("d"), Named.class, false) );
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.resource;
+
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceFactoryImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests how the resource set finds its resources by normalized URI, and
+ * the factories of the resources it loads.
+ */
+
+@SuppressWarnings("nls")
+public class BPELResourceSetImplTest {
+
+	static final int RESOURCES = 10;
+
+	BPELResourceSetImpl fResourceSet;
+
+	Resource[] fResources;
+
+
+	/** */
+	@Before
+	public void setUp () {
+		fResourceSet = new BPELResourceSetImpl();
+		fResourceSet.getURIConverter().getURIMap().put(
+				URI.createURI("platform:/resource/alias/"), URI.createURI("platform:/resource/project/") );
+
+		fResources = new Resource[RESOURCES];
+		for(int i = 0; i < RESOURCES; i++) {
+			fResources[i] = new ResourceImpl( uri("project", i) );
+			fResourceSet.getResources().add( fResources[i] );
+		}
+	}
+
+
+	static URI uri ( String project, int i ) {
+		return URI.createURI("platform:/resource/" + project + "/imports/r" + i + (i % 2 == 0 ? ".wsdl" : ".xsd"));
+	}
+
+
+	/**
+	 * Every resource of the set is in the index under its normalized URI, and nothing else is.
+	 */
+	void assertIndexConsistent () {
+		List<Resource> resources = fResourceSet.getResources();
+		int indexed = 0;
+		for(Map.Entry<URI, List<Resource>> entry : fResourceSet.fNormalizedIndex.entrySet()) {
+			Assert.assertFalse( entry.getValue().isEmpty() );
+			for(Resource resource : entry.getValue()) {
+				Assert.assertTrue( resources.contains(resource) );
+				Assert.assertEquals( fResourceSet.getURIConverter().normalize(resource.getURI()), entry.getKey() );
+				Assert.assertEquals( entry.getKey(), fResourceSet.fNormalizedURI.get(resource) );
+			}
+			indexed += entry.getValue().size();
+		}
+		Assert.assertEquals( resources.size(), indexed );
+		Assert.assertEquals( resources.size(), fResourceSet.fNormalizedURI.size() );
+	}
+
+
+	/** */
+	@Test
+	public void testLookup () {
+		for(int i = 0; i < RESOURCES; i++) {
+			Assert.assertSame( fResources[i], fResourceSet.getResource(uri("project", i), false, "wsdl") );
+			Assert.assertSame( fResources[i], fResourceSet.getResource(uri("project", i), false) );
+			// a URI which is only the same once normalized
+			Assert.assertSame( fResources[i], fResourceSet.findResource(uri("alias", i)) );
+			Assert.assertSame( fResources[i], fResourceSet.getResource(uri("alias", i), false) );
+		}
+		Assert.assertNull( fResourceSet.getResource(URI.createURI("platform:/resource/project/imports/missing.xsd"), false, "xsd") );
+		Assert.assertNull( fResourceSet.findResource(URI.createURI("platform:/resource/project/imports/missing.xsd")) );
+		assertIndexConsistent();
+	}
+
+
+	/** */
+	@Test
+	public void testFirstAddedWins () {
+		Resource alias = new ResourceImpl( uri("alias", 1) );
+		fResourceSet.getResources().add( alias );
+		assertIndexConsistent();
+		Assert.assertSame( fResources[1], fResourceSet.findResource(uri("project", 1)) );
+
+		fResourceSet.getResources().remove( fResources[1] );
+		assertIndexConsistent();
+		Assert.assertSame( alias, fResourceSet.findResource(uri("project", 1)) );
+	}
+
+
+	/** */
+	@Test
+	public void testRemoveAndRename () {
+		fResourceSet.getResources().remove( fResources[2] );
+		assertIndexConsistent();
+		Assert.assertNull( fResourceSet.getResource(uri("project", 2), false) );
+		Assert.assertFalse( fResources[2].eAdapters().contains(fResourceSet.fURITracker) );
+
+		// a resource no longer in the set is not put back by a change of its URI
+		fResources[2].setURI( URI.createURI("platform:/resource/project/imports/removed.xsd") );
+		Assert.assertNull( fResourceSet.findResource(fResources[2].getURI()) );
+
+		fResources[3].setURI( URI.createURI("platform:/resource/project/imports/renamed.xsd") );
+		assertIndexConsistent();
+		Assert.assertNull( fResourceSet.findResource(uri("project", 3)) );
+		Assert.assertSame( fResources[3], fResourceSet.getResource(URI.createURI("platform:/resource/alias/imports/renamed.xsd"), false) );
+
+		Resource other = new ResourceImpl( URI.createURI("platform:/resource/project/imports/other.wsdl") );
+		fResourceSet.getResources().set( 0, other );
+		assertIndexConsistent();
+		Assert.assertNull( fResourceSet.findResource(uri("project", 0)) );
+		Assert.assertSame( other, fResourceSet.findResource(other.getURI()) );
+
+		fResourceSet.getResources().clear();
+		assertIndexConsistent();
+		Assert.assertTrue( fResourceSet.fNormalizedIndex.isEmpty() );
+		Assert.assertNull( fResourceSet.getResource(uri("project", 4), false) );
+	}
+
+
+	/**
+	 * A remote WSIL or WSDL file without an extension is read by the factory
+	 * of its extension, and the global registry is not changed for it.
+	 */
+	@Test
+	public void testFactoryByContentType () {
+		Resource.Factory factory = new ResourceFactoryImpl();
+		Map<String, Object> extensions = Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap();
+		Map<String, Object> contentTypes = Resource.Factory.Registry.INSTANCE.getContentTypeToFactoryMap();
+		boolean registered = contentTypes.containsKey("wsil");
+
+		Object previous = extensions.put("wsil", factory);
+		try {
+			URI uri = URI.createURI("http://example.org/services");
+			Assert.assertSame( factory, fResourceSet.getResourceFactoryRegistry().getFactory(uri, "wsil") );
+			Assert.assertEquals( registered, contentTypes.containsKey("wsil") );
+		} finally {
+			if (previous != null) {
+				extensions.put("wsil", previous);
+			} else {
+				extensions.remove("wsil");
+			}
+		}
+	}
+}
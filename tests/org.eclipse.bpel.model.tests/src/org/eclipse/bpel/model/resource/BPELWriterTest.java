@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.eclipse.bpel.model.Activity;
+import org.eclipse.bpel.model.BPELFactory;
+import org.eclipse.bpel.model.Process;
+import org.eclipse.bpel.model.Sequence;
+import org.eclipse.emf.common.util.URI;
+import org.junit.Test;
+
+/**
+ * Tests the two ways a process is written: from the DOM it is reconciled
+ * with, and from the model.
+ */
+
+@SuppressWarnings("nls")
+public class BPELWriterTest {
+
+	static final String COMMENT = "only kept when the process is written from the DOM";
+
+
+	BPELResource load () throws Exception {
+		URL url = getClass().getResource( "/processes/roundTrip.bpel" );
+		BPELResourceSetImpl resourceSet = new BPELResourceSetImpl();
+		BPELResource resource = (BPELResource) resourceSet.getResource( URI.createURI(url.toString()), true );
+
+		// The editor adds these to every process it opens (see the BPELReader of the UI)
+		Process process = resource.getProcess();
+		process.setVariables( BPELFactory.eINSTANCE.createVariables() );
+		process.setPartnerLinks( BPELFactory.eINSTANCE.createPartnerLinks() );
+		process.setCorrelationSets( BPELFactory.eINSTANCE.createCorrelationSets() );
+		process.setMessageExchanges( BPELFactory.eINSTANCE.createMessageExchanges() );
+		return resource;
+	}
+
+
+	static String save ( BPELResource resource, Map<Object, Object> options ) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		resource.save(out, options);
+		return out.toString(DOMStreamSerializer.ENCODING);
+	}
+
+
+	static Process reload ( String text ) throws Exception {
+		BPELResourceSetImpl resourceSet = new BPELResourceSetImpl();
+		BPELResource resource = (BPELResource) resourceSet.createResource( URI.createURI("copy/roundTrip.bpel") );
+		resource.load( new ByteArrayInputStream(text.getBytes(DOMStreamSerializer.ENCODING)), new HashMap<Object, Object>() );
+		return resource.getProcess();
+	}
+
+
+	static void assertSameProcess ( Process expected, Process actual ) {
+		Assert.assertEquals( expected.getName(), actual.getName() );
+		Assert.assertEquals( expected.getTargetNamespace(), actual.getTargetNamespace() );
+
+		List<Activity> expectedActivities = ((Sequence) expected.getActivity()).getActivities();
+		List<Activity> actualActivities = ((Sequence) actual.getActivity()).getActivities();
+		Assert.assertEquals( expectedActivities.size(), actualActivities.size() );
+		for(int i = 0; i < expectedActivities.size(); i++) {
+			Assert.assertEquals( expectedActivities.get(i).getName(), actualActivities.get(i).getName() );
+		}
+	}
+
+
+	/**
+	 * The empty containers the editor adds have no element; the DOM is still written.
+	 * @throws Exception
+	 */
+	@Test
+	public void testLiveDocumentWithEmptyContainers () throws Exception {
+		BPELResource resource = load();
+		Assert.assertNotNull( new BPELWriter().getLiveDocument(resource.getProcess()) );
+
+		String text = save( resource, new HashMap<Object, Object>() );
+		Assert.assertTrue( text, text.contains(COMMENT) );
+		Assert.assertFalse( text, text.contains("variables") );
+		assertSameProcess( resource.getProcess(), reload(text) );
+	}
+
+
+	/**
+	 * A model object without an element means the DOM is out of date; the model is written.
+	 * @throws Exception
+	 */
+	@Test
+	public void testLiveDocumentOutOfDate () throws Exception {
+		BPELResource resource = load();
+		Process process = resource.getProcess();
+		Activity first = ((Sequence) process.getActivity()).getActivities().get(0);
+		first.setElement(null);
+
+		Assert.assertNull( new BPELWriter().getLiveDocument(process) );
+
+		String text = save( resource, new HashMap<Object, Object>() );
+		Assert.assertFalse( text, text.contains(COMMENT) );
+		assertSameProcess( process, reload(text) );
+	}
+
+
+	/**
+	 * With the live DOM turned off, the process is rebuilt from the model.
+	 * @throws Exception
+	 */
+	@Test
+	public void testRebuiltFromModel () throws Exception {
+		BPELResource resource = load();
+
+		Map<Object, Object> options = new HashMap<Object, Object>();
+		options.put(BPELResource.OPTION_WRITE_LIVE_DOM, Boolean.FALSE);
+		String text = save( resource, options );
+		Assert.assertFalse( text, text.contains(COMMENT) );
+		Assert.assertFalse( text, text.contains("variables") );
+
+		Process copy = reload(text);
+		assertSameProcess( resource.getProcess(), copy );
+
+		// and once more, from the DOM of the copy
+		assertSameProcess( copy, reload(save((BPELResource) copy.eResource(), new HashMap<Object, Object>())) );
+	}
+}
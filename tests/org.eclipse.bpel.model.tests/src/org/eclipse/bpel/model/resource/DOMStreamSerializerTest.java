@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Eclipse BPEL project and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.bpel.model.resource;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests that what the serializer writes is read back as it was.
+ */
+
+@SuppressWarnings("nls")
+public class DOMStreamSerializerTest {
+
+	static DocumentBuilder newBuilder () throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory.newDocumentBuilder();
+	}
+
+
+	static Document roundTrip ( Document document, boolean indent ) throws Exception {
+		StringWriter out = new StringWriter();
+		DOMStreamSerializer.serialize(document, out, indent);
+		return newBuilder().parse( new InputSource(new StringReader(out.toString())) );
+	}
+
+
+	/**
+	 * Whitespace other than the space, quotes and markup in attribute values.
+	 * @throws Exception
+	 */
+	@Test
+	public void testAttributeValues () throws Exception {
+		String[] values = { "l1\nl2", "a\r\nb", "c\td", "\"q\" 'a' <&>" };
+
+		Document document = newBuilder().newDocument();
+		Element root = document.createElement("root");
+		document.appendChild(root);
+		for(int i = 0; i < values.length; i++) {
+			root.setAttribute("a" + i, values[i]);
+		}
+
+		Element copy = roundTrip(document, true).getDocumentElement();
+		for(int i = 0; i < values.length; i++) {
+			Assert.assertEquals( values[i], copy.getAttribute("a" + i) );
+		}
+	}
+
+
+	/**
+	 * Text, CDATA and comments are written as they are.
+	 * @throws Exception
+	 */
+	@Test
+	public void testContent () throws Exception {
+		String xml = "<root xmlns:p=\"urn:p\"><p:literal>  a &lt; b &amp;&amp; c &gt; d\n\te</p:literal>"
+				+ "<!-- note --><p:query><![CDATA[x]]]]><![CDATA[>y]]></p:query></root>";
+		Document document = newBuilder().parse( new InputSource(new StringReader(xml)) );
+
+		Element copy = roundTrip(document, false).getDocumentElement();
+		Element literal = (Element) copy.getElementsByTagNameNS("urn:p", "literal").item(0);
+		Assert.assertEquals( "  a < b && c > d\n\te", literal.getTextContent() );
+		Element query = (Element) copy.getElementsByTagNameNS("urn:p", "query").item(0);
+		Assert.assertEquals( "x]]>y", query.getTextContent() );
+		Assert.assertEquals( " note ", copy.getChildNodes().item(1).getNodeValue() );
+	}
+}